@@ -0,0 +1,209 @@
+package com.example.yolov8_detect;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.os.Handler;
+import android.os.Looper;
+import android.speech.tts.TextToSpeech;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// SpeechSink untuk AnnouncementEngine. Frasa yang sudah ada di PhraseAudioCache langsung
+// diputar lewat AudioTrack, tanpa menunggu engine TTS mensintesis; pesan beberapa frasa
+// disambung dari klip-klipnya. Yang belum ada di cache diucapkan live lewat TextToSpeech.
+// Cache diisi sekali di background (synthesizeToFile) setelah TTS siap dan tabel frasa dimuat;
+// klip dari peluncuran sebelumnya dipakai lagi selama voice key sama.
+public class AnnouncementSpeech implements SpeechSink {
+    static final String UTTERANCE_ID = "announcement";
+    private static final String CLIP_UTTERANCE_PREFIX = "clip-";
+    // Satu frasa pendek; lebih dari ini dianggap gagal dan dicoba lagi di peluncuran berikutnya
+    private static final long SYNTHESIS_TIMEOUT_MS = 10000;
+
+    private final PhraseAudioCache cache;
+    // AnnouncementEngine.onSpeechDone(), dari thread mana saja
+    private final Runnable onDone;
+    private final ExecutorService cacheExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Synthesis> synthesis = new ConcurrentHashMap<>();
+    private final AtomicInteger nextClipId = new AtomicInteger();
+    private volatile TextToSpeech textToSpeech;
+    private volatile String voiceKey;
+    private volatile List<String> phrases;
+    // Klip yang sedang diputar, dijaga oleh this
+    private AudioTrack track;
+
+    public AnnouncementSpeech(File cacheDirectory, Runnable onDone) {
+        this.onDone = onDone;
+        cache = new PhraseAudioCache(cacheDirectory, this::synthesize);
+    }
+
+    // Dari callback init TTS; voiceKey berubah bila locale, voice, engine atau kecepatan berubah
+    public void onReady(TextToSpeech textToSpeech, String voiceKey) {
+        this.voiceKey = voiceKey;
+        this.textToSpeech = textToSpeech;
+        prepareWhenReady();
+    }
+
+    // Semua frasa dari PhraseTable, yang disintesis ke cache
+    public void setPhrases(List<String> phrases) {
+        this.phrases = phrases;
+        prepareWhenReady();
+    }
+
+    @Override
+    public boolean speak(String text, boolean interrupt) {
+        TextToSpeech tts = textToSpeech;
+        PcmClip clip = cache.compose(text);
+        if (clip != null) {
+            if (interrupt && tts != null && tts.isSpeaking()) {
+                tts.stop();
+            }
+            // AudioTrack gagal dibuat: tetap diucapkan, lewat TTS
+            if (play(clip)) return true;
+        }
+        if (tts == null) return false;
+        if (interrupt) {
+            stopTrack();
+        }
+        tts.speak(text, interrupt ? TextToSpeech.QUEUE_FLUSH : TextToSpeech.QUEUE_ADD, null, UTTERANCE_ID);
+        return true;
+    }
+
+    // Dari UtteranceProgressListener: ok false untuk onError dan onStop
+    public void onUtteranceDone(String utteranceId, boolean ok) {
+        if (utteranceId != null && utteranceId.startsWith(CLIP_UTTERANCE_PREFIX)) {
+            Synthesis request = synthesis.get(utteranceId);
+            if (request != null) {
+                request.ok = ok;
+                request.done.countDown();
+            }
+            return;
+        }
+        onDone.run();
+    }
+
+    // onStop dari TTS: hanya sintesis yang dibatalkan (QUEUE_FLUSH) yang perlu tahu, utterance
+    // yang diinterupsi sudah digantikan pengumuman baru
+    public void onUtteranceStopped(String utteranceId) {
+        if (utteranceId != null && utteranceId.startsWith(CLIP_UTTERANCE_PREFIX)) {
+            onUtteranceDone(utteranceId, false);
+        }
+    }
+
+    public void close() {
+        cacheExecutor.shutdownNow();
+        stopTrack();
+        Log.i("TTS", "Phrase cache: " + cache.size() + " clips, " + cache.getHits() + " hits, "
+                + cache.getMisses() + " misses");
+    }
+
+    private synchronized void prepareWhenReady() {
+        final String key = voiceKey;
+        final List<String> wanted = phrases;
+        if (key == null || wanted == null || cacheExecutor.isShutdown()) return;
+        cacheExecutor.execute(() -> {
+            try {
+                long start = System.nanoTime();
+                int synthesized = cache.prepare(key, wanted);
+                Log.i("TTS", "Phrase cache ready: " + cache.size() + "/" + wanted.size() + " clips, "
+                        + synthesized + " synthesized in " + (System.nanoTime() - start) / 1000000 + " ms");
+            } catch (IOException e) {
+                Log.e("TTS", "Phrase cache failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    // Satu frasa sekali jalan, jadi pengumuman live paling lama menunggu satu sintesis di antrean TTS
+    private boolean synthesize(String text, File file) throws InterruptedException {
+        TextToSpeech tts = textToSpeech;
+        if (tts == null) return false;
+        String id = CLIP_UTTERANCE_PREFIX + nextClipId.incrementAndGet();
+        Synthesis request = new Synthesis();
+        synthesis.put(id, request);
+        try {
+            if (tts.synthesizeToFile(text, null, file, id) != TextToSpeech.SUCCESS) return false;
+            return request.done.await(SYNTHESIS_TIMEOUT_MS, TimeUnit.MILLISECONDS) && request.ok;
+        } finally {
+            synthesis.remove(id);
+        }
+    }
+
+    private synchronized boolean play(PcmClip clip) {
+        stopTrack();
+        short[] samples = clip.getSamples();
+        AudioTrack audioTrack;
+        try {
+            audioTrack = new AudioTrack(
+                    new AudioAttributes.Builder()
+                            .setUsage(AudioAttributes.USAGE_ASSISTANCE_NAVIGATION_GUIDANCE)
+                            .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+                            .build(),
+                    new AudioFormat.Builder()
+                            .setSampleRate(clip.getSampleRate())
+                            .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                            .setChannelMask(clip.getChannels() == 1
+                                    ? AudioFormat.CHANNEL_OUT_MONO : AudioFormat.CHANNEL_OUT_STEREO)
+                            .build(),
+                    samples.length * 2, AudioTrack.MODE_STATIC, AudioManager.AUDIO_SESSION_ID_GENERATE);
+        } catch (IllegalArgumentException e) {
+            Log.w("TTS", "Cannot play clip: " + e.getMessage());
+            return false;
+        }
+        if (audioTrack.getState() == AudioTrack.STATE_UNINITIALIZED) {
+            audioTrack.release();
+            return false;
+        }
+        audioTrack.write(samples, 0, samples.length);
+        // Selesai = marker di frame terakhir; listener di main thread karena thread output tanpa Looper
+        audioTrack.setNotificationMarkerPosition(samples.length / clip.getChannels());
+        audioTrack.setPlaybackPositionUpdateListener(new AudioTrack.OnPlaybackPositionUpdateListener() {
+            @Override
+            public void onMarkerReached(AudioTrack finished) {
+                if (release(finished)) {
+                    onDone.run();
+                }
+            }
+
+            @Override
+            public void onPeriodicNotification(AudioTrack ignored) {
+            }
+        }, mainHandler);
+        audioTrack.play();
+        track = audioTrack;
+        return true;
+    }
+
+    // True bila finished masih klip yang sedang diputar (bukan yang sudah diinterupsi)
+    private synchronized boolean release(AudioTrack finished) {
+        if (finished != track) return false;
+        track.release();
+        track = null;
+        return true;
+    }
+
+    private synchronized void stopTrack() {
+        if (track == null) return;
+        track.stop();
+        track.release();
+        track = null;
+    }
+
+    private static final class Synthesis {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean ok;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.yolov8_detect;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.PowerManager;
+import android.os.SystemClock;
+
+// ThermalSignal dari status thermal Android (API 29+), battery saver dan baterai lemah.
+// Dibaca paling sering sekali per REFRESH_MS karena dipanggil dari thread inference.
+public class DeviceThermalSignal implements ThermalSignal {
+    private static final long REFRESH_MS = 2000;
+    private static final float LOW_BATTERY = 0.15f;
+
+    private final Context context;
+    private final PowerManager powerManager;
+    private volatile float pressure;
+    private volatile long refreshedAt = -REFRESH_MS;
+
+    public DeviceThermalSignal(Context context) {
+        this.context = context.getApplicationContext();
+        this.powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+    }
+
+    @Override
+    public float getPressure() {
+        long now = SystemClock.elapsedRealtime();
+        if (now - refreshedAt >= REFRESH_MS) {
+            pressure = read();
+            refreshedAt = now;
+        }
+        return pressure;
+    }
+
+    private float read() {
+        float thermal = 0f;
+        if (powerManager != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            switch (powerManager.getCurrentThermalStatus()) {
+                case PowerManager.THERMAL_STATUS_LIGHT:
+                    thermal = 0.3f;
+                    break;
+                case PowerManager.THERMAL_STATUS_MODERATE:
+                    thermal = 0.6f;
+                    break;
+                case PowerManager.THERMAL_STATUS_SEVERE:
+                    thermal = 0.8f;
+                    break;
+                case PowerManager.THERMAL_STATUS_CRITICAL:
+                    thermal = 0.95f;
+                    break;
+                case PowerManager.THERMAL_STATUS_EMERGENCY:
+                case PowerManager.THERMAL_STATUS_SHUTDOWN:
+                    thermal = 1f;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // Battery saver: jangan naik ke operating point yang lebih berat
+        float battery = powerManager != null && powerManager.isPowerSaveMode() ? 0.5f : 0f;
+        Intent status = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (status != null) {
+            int level = status.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+            int scale = status.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+            boolean charging = status.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+            if (!charging && level >= 0 && scale > 0 && level / (float) scale < LOW_BATTERY) {
+                // Baterai hampir habis: turun seperti saat perangkat panas
+                battery = 0.75f;
+            }
+        }
+        return Math.max(thermal, battery);
+    }
+}
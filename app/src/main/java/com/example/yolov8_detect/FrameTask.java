@@ -0,0 +1,67 @@
+package com.example.yolov8_detect;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+
+// Satu frame yang berjalan melewati FramePipeline: capture -> inference -> decode -> output.
+// Frame tanpa slot hanya di-track: inference dan decode dilewati.
+public class FrameTask {
+    // Pool asal slot, ukuran input bisa berbeda per frame
+    final InputTensorPool pool;
+    InputTensorPool.Slot slot;
+    FrameTransform inputTransform;
+    FloatBuffer output;
+    int rows;
+    // Dengan model pendamping: graph yang menjalankan frame ini dan output mentah semua model
+    DetectorGraph graph;
+    DetectorGraph.Outputs graphOutputs;
+    // Hasil decode dari pool MainActivity, dikembalikan setelah tahap output
+    DetectionBatch detections;
+    // View tambahan dari frame yang sama (crop di sekitar deteksi kecil), null kalau tidak ada
+    ArrayList<View> views;
+    // Waktu frame masuk analyzer (System.nanoTime), untuk latency end-to-end
+    final long startNanos;
+    private final boolean detection;
+
+    FrameTask(InputTensorPool pool, InputTensorPool.Slot slot, FrameTransform inputTransform, long startNanos) {
+        this.pool = pool;
+        this.slot = slot;
+        this.inputTransform = inputTransform;
+        this.startNanos = startNanos;
+        this.detection = slot != null;
+    }
+
+    boolean isDetection() {
+        return detection;
+    }
+
+    void addView(InputTensorPool pool, InputTensorPool.Slot slot, FrameTransform transform, int[] regions, int index) {
+        if (views == null) {
+            views = new ArrayList<>(2);
+        }
+        views.add(new View(pool, slot, transform, regions, index));
+    }
+
+    // Satu region frame di input model; transform memetakan koordinat frame penuh ke input
+    static final class View {
+        final InputTensorPool pool;
+        InputTensorPool.Slot slot;
+        final FrameTransform transform;
+        final int left;
+        final int top;
+        final int right;
+        final int bottom;
+        FloatBuffer output;
+        int rows;
+
+        View(InputTensorPool pool, InputTensorPool.Slot slot, FrameTransform transform, int[] regions, int index) {
+            this.pool = pool;
+            this.slot = slot;
+            this.transform = transform;
+            left = regions[index * 4];
+            top = regions[index * 4 + 1];
+            right = regions[index * 4 + 2];
+            bottom = regions[index * 4 + 3];
+        }
+    }
+}
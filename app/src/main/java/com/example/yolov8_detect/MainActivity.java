@@ -1,10 +1,13 @@
 package com.example.yolov8_detect;
 
 import android.annotation.SuppressLint;
-import android.graphics.Bitmap;
+import android.app.ActivityManager;
 import android.media.Image;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
+import android.speech.tts.Voice;
 import android.util.Log;
 import android.view.WindowManager;
 
@@ -19,12 +22,23 @@ import androidx.camera.view.PreviewView;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.nio.FloatBuffer;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import ai.onnxruntime.OnnxTensor;
 import ai.onnxruntime.OrtEnvironment;
@@ -37,10 +51,108 @@ public class MainActivity extends AppCompatActivity {
     private RectView rectView;
     private SupportOnnx supportOnnx;
     private OrtEnvironment ortEnvironment;
-    private OrtSession ortSession;
+    private SessionFactory sessionFactory;
+    // Varian model dari manifest: pilihan perangkat, lalu governor boleh pindah ke varian
+    // yang kompatibel (mis. INT8 di operating point rendah)
+    private ModelRegistry modelRegistry;
+    private ModelVariant deviceVariant;
+    private int deviceRamMb;
+    // Diisi oleh thread model-loader, null sampai model siap; diganti saat varian berpindah
+    private volatile LoadedModel model;
+    private volatile ModelVariant wantedVariant;
+    // Session yang sudah pernah dibuka tetap disimpan, pindah balik tidak perlu memuat ulang
+    private final Map<String, LoadedModel> loadedModels = new ConcurrentHashMap<>();
+    private final ExecutorService modelSwitchExecutor = Executors.newSingleThreadExecutor();
+    // Model pendamping dari manifest (mis. pejalan kaki/kendaraan umum) di tensor input yang sama.
+    // Null sampai session-nya siap; graph per varian dibuat di thread inference.
+    private List<CompanionModel> companions = Collections.emptyList();
+    private volatile List<LoadedCompanion> loadedCompanions;
+    private ExecutorService graphExecutor;
+    private volatile boolean destroyed;
+    private final StartupTimer startupTimer = new StartupTimer();
+    private ModelLoader modelLoader;
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    private MetricsReporter metricsReporter;
+    // Deteksi penuh setiap DETECT_EVERY frame, frame di antaranya hanya prediksi tracker
+    private final DetectionScheduler detectionScheduler = new DetectionScheduler(DETECT_EVERY);
+    // Frame deteksi yang sama dengan frame inference terakhir (diam di penyeberangan) ikut di-track saja.
+    // Hanya di thread analyzer.
+    private final MotionGate motionGate = new MotionGate();
+    // Frame deteksi dibuang pipeline: referensi gate tidak pernah sampai ke inference
+    private volatile boolean motionGateStale;
+    // Hanya dipakai di thread tahap output
+    private final ObjectTracker tracker = new ObjectTracker();
+    private final DetectionCandidates trackInput = new DetectionCandidates(SupportOnnx.MAX_DETECTIONS);
+    // Hasil decode berpindah dari thread decode ke thread output tanpa alokasi per frame;
+    // trackedBatch hanya dipakai thread output
+    private final DetectionBatch.Pool detectionBatches = new DetectionBatch.Pool(DETECTION_POOL_SIZE,
+            SupportOnnx.MAX_DETECTIONS);
+    private final DetectionBatch trackedBatch = new DetectionBatch(SupportOnnx.MAX_DETECTIONS);
+    private FrameTransform lastInputTransform;
+    private int trackedInputWidth;
+    private int trackedInputHeight;
+    private boolean confirmationRequested;
+    // Pool per ukuran input; pool default (ukuran input varian) dibuat di load() untuk warm-up
+    private final Map<Long, InputTensorPool> tensorPools = new ConcurrentHashMap<>();
+    private InputTensorPool tensorPool;
+    // Operating point dari governor: FPS target, ukuran input dan cadence deteksi
+    private volatile AdaptiveGovernor governor;
+    private volatile OperatingPoint operatingPoint;
+    private long lastAnalyzedNanos;
+    private FramePipeline<FrameTask> framePipeline;
+    private final ExecutorService analysisExecutor = Executors.newSingleThreadExecutor();
+    // Crop resolusi penuh di sekitar objek kecil (rambu jauh) dari track frame sebelumnya.
+    // Planner dan region hanya di thread analyzer, merger di thread decode.
+    private final TilePlanner roiPlanner = new TilePlanner(SupportOnnx.INPUT_SIZE, 0f, ROI_MAX_VIEWS);
+    private final int[] roiRegions = new int[ROI_MAX_VIEWS * 4];
+    private final Map<Long, InputTensorPool> roiPools = new ConcurrentHashMap<>();
+    private TileMerger roiMerger;
+    // Box track terakhir dalam koordinat frame (4 float per box), ditulis thread output dan
+    // dibaca thread analyzer tanpa alokasi per frame
+    private final BoxSnapshotBuffer roiSeeds = new BoxSnapshotBuffer(SupportOnnx.MAX_DETECTIONS);
+    // Rekaman frame kamera untuk replay di JVM, aktif lewat extra intent RECORD_FRAMES_EXTRA
+    private volatile FrameRecorder frameRecorder;
     private TextToSpeech textToSpeech;
-    private long lastSpeakTime = 0;
-    private static final long SPEAK_DELAY = 3000; // Delay 3 detik antara pengucapan
+    private AnnouncementEngine announcementEngine;
+    // Frasa pengumuman diputar dari klip yang sudah disintesis, TTS live hanya untuk yang belum ada
+    private AnnouncementSpeech announcementSpeech;
+    private static final String PHRASE_AUDIO_DIR = "phrase-audio";
+    private static final float SPEECH_PITCH = 1.0f;
+    private static final float SPEECH_RATE = 1.0f;
+    private static final long PIPELINE_SHUTDOWN_TIMEOUT = 1000;
+    private static final String PREFS_NAME = "onnx";
+    private static final String SESSION_CONFIG_KEY = "session_config_";
+    private static final String OPTIMIZED_MODEL_DIR = "ort-cache";
+    private static final int TUNING_WARMUP_RUNS = 2;
+    private static final int TUNING_MEASURED_RUNS = 5;
+    private static final int WARMUP_MIN_RUNS = 5;
+    private static final int WARMUP_MAX_RUNS = 30;
+    private static final int WARMUP_WINDOW = 5;
+    private static final double WARMUP_TOLERANCE = 0.1;
+    private static final int DETECT_EVERY = 3;
+    // Dari kualitas terbaik ke paling ringan, governor mulai dari yang pertama
+    private static final List<OperatingPoint> OPERATING_POINTS = Arrays.asList(
+            new OperatingPoint("high", 30, 640, 2),
+            new OperatingPoint("medium", 20, 480, DETECT_EVERY),
+            new OperatingPoint("low", 15, 320, DETECT_EVERY),
+            new OperatingPoint("minimum", 10, 320, 5));
+    private static final long METRICS_PERIOD_MS = 5000;
+    private static final String METRICS_FILE = "metrics.json";
+    // adb shell am start -n com.example.yolov8_detect/.MainActivity --ez record_frames true
+    private static final String RECORD_FRAMES_EXTRA = "record_frames";
+    private static final String RECORDINGS_DIR = "recordings";
+    // Sekitar 1 detik frame yang boleh menunggu writer sebelum frame baru dibuang
+    private static final int RECORDER_BUFFERS = 30;
+    // Overlay latency per tahap di atas preview, hanya untuk build debug
+    private static final boolean SHOW_METRICS_OVERLAY = BuildConfig.DEBUG;
+    private static final String MARK_FIRST_DETECTION = "first_detection";
+    // Satu slot di analyzer, satu di antrean inference, satu sedang di-run
+    private static final int TENSOR_POOL_SIZE = 3;
+    // Paling banyak dua crop ROI per frame deteksi, selama budget frame masih cukup
+    private static final int ROI_MAX_VIEWS = 2;
+    private static final int ROI_POOL_SIZE = ROI_MAX_VIEWS * 2;
+    // Satu di tahap decode, satu di antrean output, satu sedang dipublish
+    private static final int DETECTION_POOL_SIZE = 3;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,6 +164,8 @@ public class MainActivity extends AppCompatActivity {
         rectView = findViewById(R.id.rectView);
 
         // Inisialisasi Text-to-Speech
+        announcementSpeech = new AnnouncementSpeech(new File(getCacheDir(), PHRASE_AUDIO_DIR),
+                () -> announcementEngine.onSpeechDone());
         initializeTextToSpeech();
 
         // Mencegah layar mati
@@ -62,9 +176,15 @@ public class MainActivity extends AppCompatActivity {
 
         // Inisialisasi ONNX Support
         supportOnnx = new SupportOnnx(this);
+        supportOnnx.setMetrics(metrics);
+        startMetricsReporter();
+        if (getIntent().getBooleanExtra(RECORD_FRAMES_EXTRA, false)) {
+            startRecording();
+        }
 
-        // Load model dan memulai kamera
+        // Model dimuat di background, kamera sudah jalan selama menunggu
         load();
+        createPipeline();
         setCamera();
         startCamera();
     }
@@ -72,14 +192,40 @@ public class MainActivity extends AppCompatActivity {
     private void initializeTextToSpeech() {
         textToSpeech = new TextToSpeech(this, status -> {
             if (status == TextToSpeech.SUCCESS) {
-                int result = textToSpeech.setLanguage(new Locale("id", "ID")); // Set Bahasa Indonesia
+                Locale locale = new Locale("id", "ID");
+                int result = textToSpeech.setLanguage(locale); // Set Bahasa Indonesia
 
                 if (result == TextToSpeech.LANG_MISSING_DATA || result == TextToSpeech.LANG_NOT_SUPPORTED) {
                     Log.e("TTS", "Bahasa tidak didukung");
                 } else {
                     // Set properti tambahan untuk TTS
-                    textToSpeech.setPitch(1.0f);    // Pitch normal
-                    textToSpeech.setSpeechRate(1.0f); // Kecepatan normal
+                    textToSpeech.setPitch(SPEECH_PITCH);    // Pitch normal
+                    textToSpeech.setSpeechRate(SPEECH_RATE); // Kecepatan normal
+                    textToSpeech.setOnUtteranceProgressListener(new UtteranceProgressListener() {
+                        @Override
+                        public void onStart(String utteranceId) {
+                        }
+
+                        @Override
+                        public void onDone(String utteranceId) {
+                            announcementSpeech.onUtteranceDone(utteranceId, true);
+                        }
+
+                        @Override
+                        public void onError(String utteranceId) {
+                            announcementSpeech.onUtteranceDone(utteranceId, false);
+                        }
+
+                        @Override
+                        public void onStop(String utteranceId, boolean interrupted) {
+                            announcementSpeech.onUtteranceStopped(utteranceId);
+                        }
+                    });
+                    // Klip di cache hanya berlaku untuk suara yang sama persis
+                    Voice voice = textToSpeech.getVoice();
+                    String voiceKey = textToSpeech.getDefaultEngine() + "|" + locale + "|"
+                            + (voice != null ? voice.getName() : "") + "|" + SPEECH_PITCH + "|" + SPEECH_RATE;
+                    announcementSpeech.onReady(textToSpeech, voiceKey);
                 }
             } else {
                 Log.e("TTS", "Inisialisasi Text-to-Speech gagal");
@@ -87,27 +233,362 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    // Snapshot metrik setiap METRICS_PERIOD_MS: ke logcat, ke filesDir/metrics.json, dan ke overlay
+    private void startMetricsReporter() {
+        final File metricsFile = new File(getFilesDir(), METRICS_FILE);
+        metricsReporter = new MetricsReporter(metrics, METRICS_PERIOD_MS, snapshot -> {
+            String json = snapshot.toJson();
+            Log.i("Metrics", json);
+            try (FileOutputStream out = new FileOutputStream(metricsFile)) {
+                out.write(json.getBytes("UTF-8"));
+            } catch (IOException e) {
+                Log.w("Metrics", "Cannot write " + metricsFile + ": " + e.getMessage());
+            }
+            if (SHOW_METRICS_OVERLAY) {
+                final String text = snapshot.toString();
+                runOnUiThread(() -> rectView.setDebugText(text));
+            }
+        }, error -> Log.w("Metrics", "Metrics sink failed: " + error.getMessage(), error));
+        metricsReporter.start();
+    }
+
+    private void startRecording() {
+        File directory = getExternalFilesDir(RECORDINGS_DIR);
+        if (directory == null || (!directory.isDirectory() && !directory.mkdirs())) {
+            Log.e("Recorder", "No storage for recordings");
+            return;
+        }
+        String name = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date()) + ".yfr";
+        try {
+            frameRecorder = new FrameRecorder(new File(directory, name), RECORDER_BUFFERS);
+            Log.i("Recorder", "Recording to " + frameRecorder.getFile());
+        } catch (IOException e) {
+            Log.e("Recorder", "Cannot start recording: " + e.getMessage());
+        }
+    }
+
     public void permissionCheck() {
         PermissionSupport permissionSupport = new PermissionSupport(this, this);
         permissionSupport.checkPermissions();
     }
 
     public void load() {
-        // Load model dan label
-        supportOnnx.loadModel();
+        // Varian model dipilih dari manifest menurut RAM perangkat dan file yang ada di assets
+        modelRegistry = supportOnnx.loadRegistry();
+        deviceRamMb = totalRamMb();
+        deviceVariant = modelRegistry.selectForDevice(deviceRamMb, supportOnnx::isAvailable);
+        wantedVariant = deviceVariant;
+        supportOnnx.setVariant(deviceVariant);
+        Log.i("ONNX", "Model variant " + deviceVariant + " for " + deviceRamMb + " MB RAM");
+
+        // Label kecil, dimuat langsung; model dan session dimuat di background
         supportOnnx.loadLabel();
+        companions = supportOnnx.loadCompanions(modelRegistry);
+        if (!companions.isEmpty()) {
+            // Satu thread per model, session-session berjalan paralel di core berbeda
+            graphExecutor = Executors.newFixedThreadPool(companions.size() + 1);
+        }
+        // Pengumuman hanya untuk perubahan (muncul, mendekat, hilang), bukan diulang setiap 3 detik
+        PhraseTable phrases = supportOnnx.loadPhrases();
+        announcementEngine = new AnnouncementEngine(phrases, announcementSpeech);
+        announcementSpeech.setPhrases(phrases.getPhrases());
+
+        // Buffer input dialokasikan sekali di sini, bukan per frame. Ukuran dari manifest,
+        // untuk tuning dan warm-up sebelum session bisa ditanya
+        int inputWidth = deviceVariant.hasInputSize() ? deviceVariant.getInputWidth() : SupportOnnx.INPUT_WIDTH;
+        int inputHeight = deviceVariant.hasInputSize() ? deviceVariant.getInputHeight() : SupportOnnx.INPUT_HEIGHT;
+        long[] shape = {
+                SupportOnnx.BATCH_SIZE,
+                SupportOnnx.PIXEL_SIZE,
+                inputHeight,
+                inputWidth
+        };
+        tensorPool = new InputTensorPool(TENSOR_POOL_SIZE, shape);
+        tensorPools.put(SupportOnnx.sizeKey(inputWidth, inputHeight), tensorPool);
+        roiPlanner.setMode(TilePlanner.Mode.ROI);
+        roiMerger = new TileMerger(supportOnnx.iouThresh, SupportOnnx.MAX_DETECTIONS);
+
+        // Input sintetis untuk tuning dan warm-up: abu-abu letterbox (114/255), sama seperti
+        // padding preprocessor. Slot dikembalikan ke pool setelah loader selesai.
+        final InputTensorPool.Slot warmupSlot = tensorPool.acquire();
+        FloatBuffer warmup = warmupSlot.getBuffer();
+        for (int i = 0; i < warmup.capacity(); i++) {
+            warmup.put(i, 114f / 255f);
+        }
+
+        // Inisialisasi ONNX Runtime
+        ortEnvironment = OrtEnvironment.getEnvironment();
+        sessionFactory = new SessionFactory(ortEnvironment);
+        sessionFactory.setOptimizedModelCache(new File(getFilesDir(), OPTIMIZED_MODEL_DIR));
+
+        // Copy model dilewati kalau salinan di filesDir masih sama; ONNX Runtime membaca
+        // model langsung dari file, jadi tidak ada salinan model di heap Java
+        modelLoader = new ModelLoader(new ModelStore(getFilesDir()), supportOnnx.createModelSource(deviceVariant), file -> {
+            String modelPath = file.getAbsolutePath();
+            SessionConfig sessionConfig = loadSessionConfig(deviceVariant, modelPath, warmupSlot);
+            return sessionFactory.createSession(modelPath, sessionConfig);
+        }, startupTimer);
+        // Deteksi baru dianggap live setelah latency p95 stabil, bukan saat session selesai dibuat
+        modelLoader.setWarmup(new InferenceWarmup(WARMUP_MIN_RUNS, WARMUP_MAX_RUNS, WARMUP_WINDOW, WARMUP_TOLERANCE),
+                session -> Collections.singletonMap(session.getInputNames().iterator().next(),
+                        warmupSlot.getTensor(ortEnvironment)));
+        modelLoader.start(new ModelLoader.Listener() {
+            @Override
+            public void onReady(OrtSession session, StartupTimer timer) {
+                tensorPool.release(warmupSlot);
+                if (destroyed) {
+                    closeQuietly(session);
+                    return;
+                }
+                // Ukuran input, jumlah class dan anchor dari metadata session
+                ModelSignature signature;
+                try {
+                    signature = ModelSignature.read(session);
+                    supportOnnx.configure(signature);
+                } catch (OrtException | RuntimeException e) {
+                    Log.e("ONNX", "Unusable model " + deviceVariant + ": " + e.getMessage(), e);
+                    closeQuietly(session);
+                    return;
+                }
+                Log.i("ONNX", "Model signature: " + signature);
+                LoadedModel loaded = new LoadedModel(deviceVariant, session, signature);
+                loadedModels.put(deviceVariant.getName(), loaded);
+                startGovernor(signature);
+                // Frame dari analyzer mulai diproses setelah session terisi
+                model = loaded;
+                Log.i("Startup", "Model ready (copied=" + modelLoader.wasCopied() + "): " + timer);
+                Log.i("Startup", "Warm-up: " + modelLoader.getWarmupStats());
+                // Model pendamping dimuat setelah deteksi utama live, tidak menunda startup
+                if (!companions.isEmpty()) {
+                    modelSwitchExecutor.execute(() -> openCompanions(loaded.signature));
+                }
+            }
+
+            @Override
+            public void onFailed(Exception error, StartupTimer timer) {
+                tensorPool.release(warmupSlot);
+                Log.e("ONNX", "Error loading model: " + error.getMessage(), error);
+            }
+        });
+    }
+
+    // Governor memindahkan loop deteksi antar operating point berdasarkan latency inference,
+    // antrean pipeline dan status thermal/baterai
+    private void startGovernor(ModelSignature signature) {
+        List<OperatingPoint> points = OPERATING_POINTS;
+        if (!signature.isDynamicInput()) {
+            // Model dengan input tetap (boleh tidak persegi): hanya FPS dan cadence deteksi yang diatur
+            points = new ArrayList<>(OPERATING_POINTS.size());
+            for (OperatingPoint point : OPERATING_POINTS) {
+                points.add(point.withInputSize(signature.getInputWidth(), signature.getInputHeight()));
+            }
+        }
+        AdaptiveGovernor adaptiveGovernor = new AdaptiveGovernor(points, new DeviceThermalSignal(this));
+        adaptiveGovernor.setListener((from, to, reason) -> {
+            Log.i("Governor", from + " -> " + to + " (" + reason + ")");
+            applyOperatingPoint(to);
+            selectVariant(to);
+        });
+        applyOperatingPoint(adaptiveGovernor.getCurrent());
+        governor = adaptiveGovernor;
+    }
+
+    private void applyOperatingPoint(OperatingPoint point) {
+        detectionScheduler.setDetectEvery(point.getDetectEvery());
+        operatingPoint = point;
+    }
+
+    // Varian untuk operating point baru. Session yang pernah dibuka langsung dipakai lagi,
+    // yang belum dibuka di thread terpisah; sampai siap, varian lama tetap jalan.
+    private void selectVariant(OperatingPoint point) {
+        final ModelVariant target = modelRegistry.selectForOperatingPoint(point.getName(), deviceVariant,
+                deviceRamMb, supportOnnx::isAvailable);
+        wantedVariant = target;
+        LoadedModel active = model;
+        if (active == null || active.variant == target) return;
+        LoadedModel cached = loadedModels.get(target.getName());
+        if (cached != null) {
+            Log.i("ONNX", "Switching to " + target);
+            model = cached;
+            return;
+        }
+        modelSwitchExecutor.execute(() -> {
+            if (destroyed || wantedVariant != target || loadedModels.containsKey(target.getName())) return;
+            LoadedModel loaded = openVariant(target);
+            if (loaded == null) return;
+            loadedModels.put(target.getName(), loaded);
+            if (destroyed) {
+                closeQuietly(loaded.session);
+                return;
+            }
+            // Governor bisa sudah pindah lagi selama session dibuat
+            if (wantedVariant == target) {
+                Log.i("ONNX", "Switching to " + target);
+                model = loaded;
+            }
+        });
+    }
 
+    // Tanpa tuning dan warm-up: konfigurasi tersimpan atau preset perangkat
+    private LoadedModel openVariant(ModelVariant variant) {
+        OrtSession session = null;
         try {
-            // Inisialisasi ONNX Runtime
-            ortEnvironment = OrtEnvironment.getEnvironment();
-            ortSession = ortEnvironment.createSession(
-                    this.getFilesDir().getAbsolutePath() + "/" + SupportOnnx.fileName,
-                    new OrtSession.SessionOptions()
-            );
+            ModelStore.Installed installed = new ModelStore(getFilesDir()).install(supportOnnx.createModelSource(variant));
+            SessionConfig config = storedSessionConfig(variant);
+            if (config == null) config = SessionConfig.forDevice(Runtime.getRuntime().availableProcessors());
+            session = sessionFactory.createSession(installed.getFile().getAbsolutePath(), config);
+            ModelSignature signature = ModelSignature.read(session);
+            signature.checkLabels(supportOnnx.getLabels().length);
+            // Pool tensor dan governor mengikuti model pertama, input harus sama
+            ModelSignature current = loadedModels.get(deviceVariant.getName()).signature;
+            if (!Arrays.equals(signature.getInputShape(), current.getInputShape())) {
+                throw new IllegalStateException("Input " + Arrays.toString(signature.getInputShape())
+                        + " differs from " + Arrays.toString(current.getInputShape()));
+            }
+            return new LoadedModel(variant, session, signature);
+        } catch (Exception e) {
+            Log.e("ONNX", "Cannot open " + variant + ": " + e.getMessage(), e);
+            closeQuietly(session);
+            return null;
+        }
+    }
+
+    // Session model pendamping. Semua membaca tensor yang sama, jadi input tetap harus sama
+    // dengan model utama; yang tidak cocok dilewati.
+    private void openCompanions(ModelSignature mainSignature) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        // Inti dibagi antar model yang berjalan paralel
+        SessionConfig config = SessionConfig.builder()
+                .intraOpThreads(Math.max(1, cores / (companions.size() + 1)))
+                .build();
+        List<LoadedCompanion> loaded = new ArrayList<>();
+        for (CompanionModel companion : companions) {
+            if (destroyed) break;
+            OrtSession session = null;
+            try {
+                ModelStore.Installed installed = new ModelStore(getFilesDir())
+                        .install(supportOnnx.createModelSource(companion.getFile()));
+                session = sessionFactory.createSession(installed.getFile().getAbsolutePath(), config);
+                ModelSignature signature = ModelSignature.read(session);
+                if (!signature.isDynamicInput() && (mainSignature.isDynamicInput()
+                        || signature.getInputWidth() != mainSignature.getInputWidth()
+                        || signature.getInputHeight() != mainSignature.getInputHeight())) {
+                    throw new IllegalStateException("Input " + Arrays.toString(signature.getInputShape())
+                            + " differs from " + Arrays.toString(mainSignature.getInputShape()));
+                }
+                signature.checkLabels(supportOnnx.getLabels(companion).length);
+                loaded.add(new LoadedCompanion(companion, session, signature, supportOnnx.getLabels(companion)));
+                Log.i("ONNX", "Companion " + companion + ": " + signature);
+            } catch (Exception e) {
+                Log.e("ONNX", "Cannot open companion " + companion + ": " + e.getMessage(), e);
+                closeQuietly(session);
+            }
+        }
+        if (destroyed) {
+            for (LoadedCompanion companion : loaded) {
+                closeQuietly(companion.session);
+            }
+            return;
+        }
+        loadedCompanions = loaded;
+    }
+
+    // Null tanpa model pendamping. Hanya di thread inference.
+    private DetectorGraph graphFor(LoadedModel active) {
+        List<LoadedCompanion> loaded = loadedCompanions;
+        if (loaded == null || loaded.isEmpty()) return null;
+        if (active.graph == null) {
+            DetectorGraph graph = new DetectorGraph(supportOnnx.getLabelSpace(), supportOnnx.iouThresh,
+                    SupportOnnx.MAX_DETECTIONS);
+            graph.addBranch(new ModelBranch(active.variant.getName(), active.session, active.signature,
+                    supportOnnx.getLabels(), supportOnnx.objectThresh, supportOnnx.iouThresh, 1,
+                    SupportOnnx.MAX_DETECTIONS));
+            for (LoadedCompanion companion : loaded) {
+                CompanionModel spec = companion.companion;
+                graph.addBranch(new ModelBranch(spec.getName(), companion.session, companion.signature,
+                        companion.labels, spec.getScoreThreshold(), spec.getIouThreshold(), spec.getEvery(),
+                        SupportOnnx.MAX_DETECTIONS));
+            }
+            graph.setExecutor(graphExecutor);
+            graph.setMetrics(metrics);
+            active.graph = graph;
+        }
+        return active.graph;
+    }
+
+    private int totalRamMb() {
+        ActivityManager.MemoryInfo memoryInfo = new ActivityManager.MemoryInfo();
+        ((ActivityManager) getSystemService(ACTIVITY_SERVICE)).getMemoryInfo(memoryInfo);
+        return (int) (memoryInfo.totalMem / (1024 * 1024));
+    }
+
+    private InputTensorPool poolFor(int inputWidth, int inputHeight) {
+        long key = SupportOnnx.sizeKey(inputWidth, inputHeight);
+        InputTensorPool pool = tensorPools.get(key);
+        if (pool == null) {
+            pool = new InputTensorPool(TENSOR_POOL_SIZE,
+                    new long[]{SupportOnnx.BATCH_SIZE, SupportOnnx.PIXEL_SIZE, inputHeight, inputWidth});
+            tensorPools.put(key, pool);
+        }
+        return pool;
+    }
+
+    // Crop ROI punya pool sendiri, slot frame global tidak ikut habis
+    private InputTensorPool roiPoolFor(int inputWidth, int inputHeight) {
+        long key = SupportOnnx.sizeKey(inputWidth, inputHeight);
+        InputTensorPool pool = roiPools.get(key);
+        if (pool == null) {
+            pool = new InputTensorPool(ROI_POOL_SIZE,
+                    new long[]{SupportOnnx.BATCH_SIZE, SupportOnnx.PIXEL_SIZE, inputHeight, inputWidth});
+            roiPools.put(key, pool);
+        }
+        return pool;
+    }
+
+    // Konfigurasi session tersimpan dari tuning sebelumnya; kalau belum ada, auto-tuner
+    // mencoba beberapa kombinasi thread/provider pada frame warm-up dan menyimpan yang tercepat
+    private SessionConfig loadSessionConfig(ModelVariant variant, String modelPath,
+                                            InputTensorPool.Slot warmupSlot) {
+        SessionConfig stored = storedSessionConfig(variant);
+        if (stored != null) {
+            return stored;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        SessionConfig best = null;
+        try {
+            SessionAutoTuner.Result result = new SessionAutoTuner(TUNING_WARMUP_RUNS, TUNING_MEASURED_RUNS).tune(
+                    SessionConfig.tuningCandidates(cores,
+                            SessionConfig.ExecutionProvider.CPU, SessionConfig.ExecutionProvider.XNNPACK),
+                    SessionAutoTuner.sessionTrials(sessionFactory, modelPath, warmupSlot.getTensor(ortEnvironment)));
+            for (SessionAutoTuner.Measurement measurement : result.getMeasurements()) {
+                Log.i("ONNX", "Tuning " + measurement);
+            }
+            best = result.getBest();
         } catch (OrtException e) {
-            Log.e("ONNX", "Error loading model: " + e.getMessage());
-            e.printStackTrace();
+            Log.e("ONNX", "Session tuning failed: " + e.getMessage());
         }
+
+        if (best == null) {
+            return SessionConfig.forDevice(cores);
+        }
+        getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit()
+                .putString(SESSION_CONFIG_KEY + variant.getFile(), best.encode()).apply();
+        return best;
+    }
+
+    // Null kalau varian ini belum pernah di-tuning
+    private SessionConfig storedSessionConfig(ModelVariant variant) {
+        String stored = getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
+                .getString(SESSION_CONFIG_KEY + variant.getFile(), null);
+        if (stored != null) {
+            try {
+                return SessionConfig.decode(stored);
+            } catch (IllegalArgumentException e) {
+                Log.w("ONNX", "Ignoring stored session config: " + e.getMessage());
+            }
+        }
+        return null;
     }
 
     public void setCamera() {
@@ -144,10 +625,10 @@ public class MainActivity extends AppCompatActivity {
                 .build();
 
         // Set labels untuk RectView
-        rectView.setLabels(supportOnnx.getLabels());
+        rectView.setLabels(supportOnnx.getDisplayLabels(), deviceVariant.getClassColors());
 
         // Set image analysis analyzer
-        imageAnalysis.setAnalyzer(Executors.newSingleThreadExecutor(), imageProxy -> {
+        imageAnalysis.setAnalyzer(analysisExecutor, imageProxy -> {
             imageProcessing(imageProxy);
             imageProxy.close();
         });
@@ -161,134 +642,404 @@ public class MainActivity extends AppCompatActivity {
         );
     }
 
+    // Pipeline: analyzer (capture + preprocess) -> inference -> decode + NMS -> output.
+    // Setiap tahap punya thread sendiri, jadi preprocess frame N+1 berjalan saat inference frame N.
+    // Frame track-only tidak pernah menggusur frame deteksi yang antre; kalau antrean penuh,
+    // frame track-only itu sendiri yang dilewati. Frame yang gagal di salah satu tahap juga
+    // lewat onDropped, jadi deteksinya dijadwalkan ulang dan resource-nya kembali sekali.
+    private void createPipeline() {
+        framePipeline = FramePipeline.<FrameTask>builder("detect")
+                .stage("inference", 1, DropPolicy.DROP_OLDEST, this::runInference)
+                .stage("decode", 1, DropPolicy.DROP_OLDEST, this::decodeDetections)
+                .stage("output", 1, DropPolicy.DROP_OLDEST, this::publishDetections)
+                .yieldWhen(item -> !((FrameTask) item).isDetection())
+                .onDropped((stage, item) -> {
+                    metrics.increment(PipelineMetrics.Counter.FRAMES_DROPPED);
+                    FrameTask task = (FrameTask) item;
+                    if (task.isDetection()) {
+                        detectionLost();
+                    }
+                    releaseSlot(task);
+                    releaseOutputs(task);
+                    releaseDetections(task);
+                })
+                .onError((stage, error) -> Log.e("Pipeline", "Error in stage " + stage + ": " + error.getMessage(), error))
+                .build();
+        framePipeline.start();
+    }
+
     @SuppressLint("UnsafeOptInUsageError")
     public void imageProcessing(ImageProxy imageProxy) {
         Image image = imageProxy.getImage();
-        if (image != null) {
-            try {
-                // Konversi image ke bitmap
-                Bitmap bitmap = supportOnnx.imageToBitmap(image);
-                Bitmap bitmap_640 = supportOnnx.rescaleBitmap(bitmap);
+        // Semua frame dari kamera direkam, juga yang nanti dilewati governor atau sebelum model siap
+        FrameRecorder recorder = frameRecorder;
+        if (image != null && recorder != null) {
+            recorder.offer(supportOnnx.imageToFrame(image), imageProxy.getImageInfo().getTimestamp(),
+                    imageProxy.getImageInfo().getRotationDegrees());
+        }
+        // Sebelum model siap frame langsung dilewati, preview tetap jalan
+        if (image != null && model != null && framePipeline != null) {
+            OperatingPoint point = operatingPoint;
+            long start = metrics.start();
+            // FPS target operating point: frame yang datang terlalu cepat dilewati
+            if (point != null && start - lastAnalyzedNanos < point.getFrameIntervalNanos()) {
+                return;
+            }
+            lastAnalyzedNanos = start;
+            metrics.increment(PipelineMetrics.Counter.FRAMES_IN);
 
-                // Konversi bitmap ke float buffer
-                FloatBuffer imgDataFloat = supportOnnx.bitmapToFloatBuffer(bitmap_640);
+            // Frame tanpa deteksi: tanpa preprocess dan inference, tracker yang memindahkan box
+            if (!detectionScheduler.nextFrame() && lastInputTransform != null) {
+                metrics.increment(PipelineMetrics.Counter.FRAMES_TRACKED);
+                framePipeline.submit(new FrameTask(null, null, lastInputTransform, start));
+                return;
+            }
 
-                // Get input name dan create tensor
-                String inputName = ortSession.getInputNames().iterator().next();
-                long[] shape = {
-                        SupportOnnx.BATCH_SIZE,
-                        SupportOnnx.PIXEL_SIZE,
-                        SupportOnnx.INPUT_SIZE,
-                        SupportOnnx.INPUT_SIZE
-                };
+            // Scene tidak berubah: deteksi terakhir dipakai lagi lewat tracker, tanpa preprocess.
+            // Dicek dari plane Y saja (grid kecil), jauh lebih murah dari konversi input.
+            // Frame gated juga track-only, jadi tidak bisa menggusur deteksi yang sedang antre.
+            if (motionGateStale) {
+                motionGateStale = false;
+                motionGate.reset();
+            }
+            if (lastInputTransform != null && !motionGate.shouldInfer(supportOnnx.imageToFrame(image))) {
+                metrics.increment(PipelineMetrics.Counter.FRAMES_GATED);
+                framePipeline.submit(new FrameTask(null, null, lastInputTransform, start));
+                return;
+            }
 
-                // Create tensor dan run inference
-                OnnxTensor inputTensor = OnnxTensor.createTensor(ortEnvironment, imgDataFloat, shape);
-                OrtSession.Result result = ortSession.run(Collections.singletonMap(inputName, inputTensor));
-                float[][][] output = (float[][][]) result.get(0).getValue();
+            // Semua slot sedang dipakai, frame ini dilewati
+            InputTensorPool pool = point != null ? poolFor(point.getInputWidth(), point.getInputHeight()) : tensorPool;
+            InputTensorPool.Slot slot = pool.acquire();
+            if (slot == null) {
+                metrics.increment(PipelineMetrics.Counter.FRAMES_DROPPED);
+                detectionLost();
+                return;
+            }
 
-                // Process results
-                int rows = output[0][0].length;
-                ArrayList<Result> results = supportOnnx.outputsToNMSPredictions(output, rows);
+            // Konversi plane YUV langsung ke buffer slot, ImageProxy bisa ditutup setelah ini.
+            // Ukuran dari shape slot [1, 3, H, W]
+            int inputWidth = (int) pool.getShape()[3];
+            int inputHeight = (int) pool.getShape()[2];
+            FrameTransform inputTransform = supportOnnx.imageToFloatBuffer(image, slot.getBuffer(), inputWidth, inputHeight);
+            lastInputTransform = inputTransform;
+            FrameTask task = new FrameTask(pool, slot, inputTransform, start);
+            addRegionsOfInterest(task, image, point, inputWidth, inputHeight);
+            metrics.record(PipelineMetrics.Stage.PREPROCESS, start);
+            framePipeline.submit(task);
+        }
+    }
 
-                // Generate audio feedback
-                speakDetectionResults(results);
+    // Frame deteksi tidak sampai ke inference: deteksi berikutnya langsung dijadwalkan, tidak
+    // menunggu cadence, dan gate di-reset karena frame referensinya tidak pernah di-inference.
+    // Bisa dari thread mana saja; gate sendiri di-reset di thread analyzer.
+    private void detectionLost() {
+        detectionScheduler.requestDetection();
+        motionGateStale = true;
+    }
 
-                // Update visual feedback
-                results = rectView.transFormRect(results);
-                rectView.clear();
-                rectView.resultToList(results);
-                rectView.invalidate();
+    // Crop di sekitar objek kecil yang sedang di-track, dengan ukuran input yang sama.
+    // Jumlahnya dibatasi budget frame (interval x cadence deteksi) dan biaya inference terukur.
+    // Crop persegi selebar sisi input terpanjang, di-letterbox ke input seperti frame penuh.
+    private void addRegionsOfInterest(FrameTask task, Image image, OperatingPoint point, int inputWidth, int inputHeight) {
+        float[] seeds = roiSeeds.latest();
+        int seedCount = roiSeeds.latestCount();
+        if (seedCount == 0) return;
+        roiPlanner.setTileSize(Math.max(inputWidth, inputHeight));
+        roiPlanner.setTimeBudget(roiBudgetNanos(point));
+        int count = roiPlanner.plan(image.getWidth(), image.getHeight(), seeds, seedCount, roiRegions);
+        InputTensorPool pool = roiPoolFor(inputWidth, inputHeight);
+        for (int i = 0; i < count; i++) {
+            InputTensorPool.Slot slot = pool.acquire();
+            if (slot == null) break;
+            FrameTransform transform = supportOnnx.imageToFloatBuffer(image, slot.getBuffer(), inputWidth, inputHeight,
+                    roiRegions, i);
+            task.addView(pool, slot, transform, roiRegions, i);
+        }
+    }
 
-            } catch (OrtException e) {
-                Log.e("Inference", "Error during inference: " + e.getMessage());
-                e.printStackTrace();
+    private FrameTask runInference(FrameTask task) throws OrtException, InterruptedException {
+        if (!task.isDetection()) return task;
+        long start = metrics.start();
+        // Dibaca sekali: governor bisa mengganti varian di tengah frame
+        LoadedModel active = model;
+        DetectorGraph graph = graphFor(active);
+        try {
+            if (graph != null) {
+                // Semua model membaca tensor slot yang sama, paralel; output mentah dibawa ke tahap decode
+                task.graph = graph;
+                task.graphOutputs = graph.newOutputs();
+                graph.run(task.slot.getTensor(ortEnvironment), task.graphOutputs);
+            } else {
+                try (OrtSession.Result result = active.session.run(
+                        task.slot.getInputs(ortEnvironment, active.signature.getInputName()))) {
+                    // Output disalin sebagai FloatBuffer [1, 4 + C, rows], lalu result ditutup
+                    OnnxTensor output = (OnnxTensor) result.get(0);
+                    long[] outputShape = output.getInfo().getShape();
+                    task.rows = (int) outputShape[outputShape.length - 1];
+                    task.output = output.getFloatBuffer();
+                }
+                metrics.increment(PipelineMetrics.Counter.ALLOCATIONS);
+                metrics.increment(PipelineMetrics.Counter.BATCHES);
             }
+            long end = metrics.record(PipelineMetrics.Stage.INFERENCE, start);
+            roiPlanner.recordViewCost(end - start);
+            AdaptiveGovernor adaptiveGovernor = governor;
+            if (adaptiveGovernor != null) {
+                adaptiveGovernor.onFrame(end / 1000000L, end - start, framePipeline.getQueuedCount());
+            }
+            if (task.views != null) {
+                runViews(active, task, start);
+            }
+        } finally {
+            // Slot input sudah tidak diperlukan setelah run()
+            releaseSlot(task);
         }
+        return task;
     }
 
-    private void speakDetectionResults(ArrayList<Result> results) {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastSpeakTime < SPEAK_DELAY) {
-            return;
+    // Waktu inference satu frame deteksi: frame di antaranya hanya di-track; 0 = tanpa batas
+    private static long roiBudgetNanos(OperatingPoint point) {
+        return point != null ? point.getFrameIntervalNanos() * point.getDetectEvery() : 0;
+    }
+
+    // Crop ROI dijalankan satu per satu setelah view global; crop yang tidak muat lagi di budget
+    // frame dilewati, frame berikutnya tidak ikut terlambat
+    private void runViews(LoadedModel active, FrameTask task, long frameStart) throws OrtException {
+        long budget = roiBudgetNanos(operatingPoint);
+        for (int i = 0; i < task.views.size(); i++) {
+            FrameTask.View view = task.views.get(i);
+            long start = metrics.start();
+            if (budget > 0 && start - frameStart + roiPlanner.getViewCostNanos() > budget) break;
+            try (OrtSession.Result result = active.session.run(
+                    view.slot.getInputs(ortEnvironment, active.signature.getInputName()))) {
+                OnnxTensor output = (OnnxTensor) result.get(0);
+                long[] outputShape = output.getInfo().getShape();
+                view.rows = (int) outputShape[outputShape.length - 1];
+                view.output = output.getFloatBuffer();
+            }
+            metrics.increment(PipelineMetrics.Counter.ALLOCATIONS);
+            metrics.increment(PipelineMetrics.Counter.BATCHES);
+            roiPlanner.recordViewCost(metrics.record(PipelineMetrics.Stage.INFERENCE, start) - start);
         }
+    }
 
-        StringBuilder detectionText = new StringBuilder();
-        boolean hasDetections = false;
-
-        for (Result result : results) {
-            String label = supportOnnx.getLabels()[result.getLabel()];
-            float confidence = result.getScore() * 100;
-
-            if (confidence > 50) { //nilai confidence 45, artinya object dengan akurasi baca 45% baru bisa ada suara
-                hasDetections = true;
-
-                // Customized announcements based on object type
-                switch(label) {
-                    case "ZebraCross":
-                        detectionText.append("Zebra cross di depan, ");
-                        break;
-                    case "RambuBelokKanan":
-                        detectionText.append("Rambu belok kanan di depan, ");
-                        break;
-                    case "RambuBelokKiri":
-                        detectionText.append("Rambu belok kiri di depan, ");
-                        break;
-                    case "RambuPutarBalik":
-                        detectionText.append("Rambu putar balik di depan, ");
-                        break;
-                    case "RambuTitikKumpul":
-                        detectionText.append("Titik kumpul di depan, ");
-                        break;
-                    case "GedungFTMM":
-                        detectionText.append("Gedung FTMM terdeteksi, ");
-                        break;
-                    case "orang":
-                        detectionText.append("Ada orang di depan, ");
-                        break;
-                    case "Mobil":
-                        detectionText.append("Ada mobil di depan, ");
-                        break;
-                    case "sepedamotor":
-                        detectionText.append("Ada sepeda motor di depan, ");
-                        break;
-                }
+    private FrameTask decodeDetections(FrameTask task) {
+        if (!task.isDetection()) return task;
+        int width = task.inputTransform.getTargetWidth();
+        int height = task.inputTransform.getTargetHeight();
+        // Dengan model pendamping: deteksi semua model sudah digabung di satu namespace class
+        Detections global;
+        if (task.graph != null) {
+            task.graph.getBranch(0).setThresholds(supportOnnx.objectThresh, supportOnnx.iouThresh);
+            task.graph.decode(task.graphOutputs, width, height);
+            global = task.graph;
+            task.graphOutputs = null;
+        } else {
+            global = supportOnnx.decode(task.output, task.rows, width, height);
+        }
+        DetectionBatch batch = detectionBatches.acquire();
+        if (task.views == null) {
+            batch.addAll(global, null);
+        } else {
+            // View global dan crop digabung di koordinat frame (NMS antar view), lalu kembali ke
+            // koordinat input view global seperti frame tanpa crop
+            roiMerger.setIouThreshold(supportOnnx.iouThresh);
+            roiMerger.begin(task.inputTransform.getSourceWidth(), task.inputTransform.getSourceHeight());
+            roiMerger.add(global, task.inputTransform.inverse());
+            for (int i = 0; i < task.views.size(); i++) {
+                FrameTask.View view = task.views.get(i);
+                if (view.output == null) continue;
+                roiMerger.add(supportOnnx.decode(view.output, view.rows, width, height), view.transform.inverse(),
+                        view.left, view.top, view.right, view.bottom);
+                view.output = null;
             }
+            roiMerger.merge();
+            batch.addAll(roiMerger, task.inputTransform);
+        }
+        task.detections = batch;
+        task.output = null;
+        return task;
+    }
+
+    private Void publishDetections(FrameTask task) {
+        if (!startupTimer.has(MARK_FIRST_DETECTION)) {
+            startupTimer.mark(MARK_FIRST_DETECTION);
+            Log.i("Startup", startupTimer.toString());
         }
 
-        if (hasDetections) {
-            String textToSpeak = detectionText.toString().trim();
-            if (textToSpeak.endsWith(",")) {
-                textToSpeak = textToSpeak.substring(0, textToSpeak.length() - 1);
+        long start = metrics.start();
+        // Box yang ditampilkan dan diucapkan berasal dari track (ID stabil, tidak berkedip)
+        DetectionBatch.View tracked = trackDetections(task);
+        updateRoiSeeds(tracked, task.inputTransform);
+
+        // Audio feedback dari perubahan track, event urgent langsung memotong kalimat yang berjalan
+        announcementEngine.update(SystemClock.uptimeMillis(), tracker.getVisibleTracks());
+
+        // Snapshot baru untuk overlay; UI thread menggambar di vsync berikutnya kalau berubah
+        long transformStart = metrics.start();
+        rectView.publish(tracked, task.inputTransform);
+        metrics.record(PipelineMetrics.Stage.TRANSFORM, transformStart);
+
+        metrics.record(PipelineMetrics.Stage.PUBLISH, start);
+        metrics.record(PipelineMetrics.Stage.FRAME, task.startNanos);
+        metrics.increment(PipelineMetrics.Counter.FRAMES_OUT);
+        metrics.add(PipelineMetrics.Counter.DETECTIONS, tracked.size());
+        return null;
+    }
+
+    // Hasilnya trackedBatch, berlaku sampai frame berikutnya di thread output
+    private DetectionBatch.View trackDetections(FrameTask task) {
+        List<Track> tracks;
+        if (task.isDetection()) {
+            // Box track dalam koordinat input model, tidak berlaku lagi kalau ukuran input berubah
+            int inputWidth = task.inputTransform.getTargetWidth();
+            int inputHeight = task.inputTransform.getTargetHeight();
+            if (inputWidth != trackedInputWidth || inputHeight != trackedInputHeight) {
+                tracker.reset();
+                // ID track lama hilang bersama tracker; tanpa ini semuanya diumumkan "pergi"
+                announcementEngine.reset();
+                trackedInputWidth = inputWidth;
+                trackedInputHeight = inputHeight;
             }
+            trackInput.clear();
+            if (task.detections != null) {
+                task.detections.copyTo(trackInput);
+                releaseDetections(task);
+            }
+            tracks = tracker.update(trackInput);
+            // Track baru butuh minHits deteksi sebelum tampil: satu deteksi tambahan di frame
+            // berikutnya, tapi tidak dua kali berturut-turut. Scene kosong tetap ikut cadence.
+            boolean tentative = tracker.getTrackCount() > tracks.size();
+            if (tentative && !confirmationRequested) {
+                detectionScheduler.requestDetection();
+                confirmationRequested = true;
+            } else {
+                confirmationRequested = false;
+            }
+        } else {
+            tracks = tracker.predict();
+        }
 
-            textToSpeech.speak(textToSpeak, TextToSpeech.QUEUE_FLUSH, null, null);
-            lastSpeakTime = currentTime;
+        trackedBatch.clear();
+        trackedBatch.addTracks(tracks);
+        return trackedBatch.view();
+    }
+
+    // Track dipetakan ke koordinat frame untuk planner ROI di frame deteksi berikutnya
+    private void updateRoiSeeds(DetectionBatch.View tracked, FrameTransform inputTransform) {
+        FrameTransform toFrame = inputTransform.inverse();
+        float[] seeds = roiSeeds.beginWrite();
+        int count = Math.min(tracked.size(), roiSeeds.capacity());
+        for (int i = 0; i < count; i++) {
+            tracked.mapBox(i, toFrame, seeds, i * 4);
         }
+        roiSeeds.publish(count);
     }
 
-    @Override
-    protected void onStop() {
-        try {
-            ortSession.endProfiling();
-        } catch (OrtException e) {
-            Log.e("ONNX", "Error ending profiling: " + e.getMessage());
-            e.printStackTrace();
+    // Output mentah yang belum di-decode, hanya referensi heap
+    private static void releaseOutputs(FrameTask task) {
+        task.output = null;
+        task.graphOutputs = null;
+        if (task.views != null) {
+            for (int i = 0; i < task.views.size(); i++) {
+                task.views.get(i).output = null;
+            }
+        }
+    }
+
+    private void releaseDetections(FrameTask task) {
+        if (task.detections != null) {
+            task.detections.release();
+            task.detections = null;
+        }
+    }
+
+    private void releaseSlot(FrameTask task) {
+        if (task.slot != null) {
+            task.pool.release(task.slot);
+            task.slot = null;
+        }
+        if (task.views != null) {
+            for (int i = 0; i < task.views.size(); i++) {
+                FrameTask.View view = task.views.get(i);
+                if (view.slot != null) {
+                    view.pool.release(view.slot);
+                    view.slot = null;
+                }
+            }
         }
-        super.onStop();
     }
 
     @Override
     protected void onDestroy() {
+        destroyed = true;
+        if (metricsReporter != null) {
+            metricsReporter.stop();
+        }
+
+        // Hentikan analyzer dan pipeline sebelum session ditutup. Tahap yang masih di dalam
+        // session.run native tidak bisa diinterupsi; selama itu tensor dan session tetap dibuka.
+        analysisExecutor.shutdown();
+        modelSwitchExecutor.shutdownNow();
+        boolean stopped = framePipeline == null || framePipeline.shutdown(PIPELINE_SHUTDOWN_TIMEOUT);
+        if (graphExecutor != null) {
+            graphExecutor.shutdownNow();
+            try {
+                stopped &= graphExecutor.awaitTermination(PIPELINE_SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped = false;
+            }
+        }
+
+        if (frameRecorder != null) {
+            try {
+                frameRecorder.close();
+                Log.i("Recorder", "Recorded " + frameRecorder.getFramesWritten() + " frames, dropped "
+                        + frameRecorder.getFramesDropped() + ": " + frameRecorder.getFile());
+            } catch (IOException e) {
+                Log.e("Recorder", "Error closing recording: " + e.getMessage());
+            }
+        }
+
         // Cleanup Text-to-Speech
+        announcementSpeech.close();
         if (textToSpeech != null) {
             textToSpeech.stop();
             textToSpeech.shutdown();
         }
 
+        if (!stopped) {
+            // Ditutup bersama proses; menutupnya sekarang membuat inference yang berjalan crash
+            Log.w("ONNX", "Inference still running after " + PIPELINE_SHUTDOWN_TIMEOUT
+                    + " ms, ONNX resources left open");
+            super.onDestroy();
+            return;
+        }
+
         // Cleanup ONNX resources
+        for (InputTensorPool pool : tensorPools.values()) {
+            pool.close();
+        }
+        for (InputTensorPool pool : roiPools.values()) {
+            pool.close();
+        }
+        try {
+            modelSwitchExecutor.awaitTermination(PIPELINE_SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (LoadedModel loaded : loadedModels.values()) {
+            closeQuietly(loaded.session);
+        }
+        List<LoadedCompanion> companionSessions = loadedCompanions;
+        if (companionSessions != null) {
+            for (LoadedCompanion companion : companionSessions) {
+                closeQuietly(companion.session);
+            }
+        }
         try {
-            ortSession.close();
             ortEnvironment.close();
         } catch (OrtException e) {
             Log.e("ONNX", "Error closing ONNX resources: " + e.getMessage());
@@ -297,4 +1048,43 @@ public class MainActivity extends AppCompatActivity {
 
         super.onDestroy();
     }
+
+    // Session dengan varian dan metadata-nya, diganti sebagai satu referensi
+    private static final class LoadedModel {
+        final ModelVariant variant;
+        final OrtSession session;
+        final ModelSignature signature;
+
+        // Model ini + model pendamping, dibuat graphFor() di thread inference
+        DetectorGraph graph;
+
+        LoadedModel(ModelVariant variant, OrtSession session, ModelSignature signature) {
+            this.variant = variant;
+            this.session = session;
+            this.signature = signature;
+        }
+    }
+
+    private static final class LoadedCompanion {
+        final CompanionModel companion;
+        final OrtSession session;
+        final ModelSignature signature;
+        final String[] labels;
+
+        LoadedCompanion(CompanionModel companion, OrtSession session, ModelSignature signature, String[] labels) {
+            this.companion = companion;
+            this.session = session;
+            this.signature = signature;
+            this.labels = labels;
+        }
+    }
+
+    private static void closeQuietly(OrtSession session) {
+        if (session == null) return;
+        try {
+            session.close();
+        } catch (OrtException e) {
+            Log.e("ONNX", "Error closing ONNX session: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
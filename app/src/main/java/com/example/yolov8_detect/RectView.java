@@ -4,130 +4,201 @@ import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.RectF;
+import android.graphics.Typeface;
 import android.util.AttributeSet;
 import android.view.View;
 import androidx.annotation.Nullable;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+// Overlay deteksi. Pipeline menulis DetectionSnapshot (class id int, box di koordinat view)
+// lewat DetectionSnapshotBuffer, UI thread hanya membaca snapshot terbaru. Paint dan teks
+// label disiapkan di awal, jadi onDraw tidak mengalokasikan apa pun.
 public class RectView extends View {
-    private final Map<RectF, String> detectionMap = new HashMap<>();
-    private final Paint[] classPaints;
+    // Palet kalau manifest model tidak punya warna (cukup) untuk semua class
+    private static final int[] DEFAULT_COLORS = {
+            Color.rgb(65, 105, 225),    // Royal Blue
+            Color.rgb(220, 20, 60),     // Crimson Red
+            Color.rgb(50, 205, 50),     // Lime Green
+            Color.rgb(255, 215, 0),     // Golden Yellow
+            Color.rgb(0, 255, 255),     // Aqua
+            Color.rgb(255, 0, 255),     // Magenta
+            Color.rgb(255, 255, 255),   // White
+            Color.rgb(255, 165, 0),     // Orange
+            Color.rgb(128, 0, 128)      // Purple
+    };
+
+    private Paint[] classPaints;
     private final Paint textPaint = new Paint();
-    private String[] labels;
+    private final Paint bgPaint = new Paint();
+    private final Paint debugPaint = new Paint();
+    private final DetectionSnapshotBuffer snapshots = new DetectionSnapshotBuffer(SupportOnnx.MAX_DETECTIONS);
+    // Teks "label, NN%" dan lebarnya per class per persen, dibuat sekali di setLabels
+    private String[][] labelTexts;
+    private float[][] labelWidths;
+    // Overlay metrik (debug), null kalau tidak ditampilkan
+    private String[] debugLines;
+
+    // Pipeline thread: transform model -> view di-cache selama transform input dan ukuran view sama
+    private FrameTransform cachedInput;
+    private FrameTransform cachedModelToView;
+    private int cachedWidth;
+    private int cachedHeight;
+    private long frameCounter;
+
+    // UI thread: snapshot yang sedang digambar
+    private DetectionSnapshot current;
+    private final AtomicBoolean frameScheduled = new AtomicBoolean();
+    // Paling banyak satu invalidate per vsync, dan hanya kalau isi overlay berubah
+    private final Runnable frameCallback = new Runnable() {
+        @Override
+        public void run() {
+            frameScheduled.set(false);
+            if (!snapshots.hasFresh()) return;
+            DetectionSnapshot latest = snapshots.latest();
+            if (current == null || latest.getSignature() != current.getSignature()) {
+                current = latest;
+                invalidate();
+            } else {
+                current = latest;
+            }
+        }
+    };
 
     public RectView(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
 
-        // Inisialisasi paint untuk setiap class dengan warna berbeda
-        classPaints = new Paint[9]; // Sesuai jumlah class
-        for(int i = 0; i < classPaints.length; i++) {
-            classPaints[i] = new Paint();
-            classPaints[i].setStyle(Paint.Style.STROKE);
-            classPaints[i].setStrokeWidth(10.0f);
-            classPaints[i].setStrokeCap(Paint.Cap.ROUND);
-            classPaints[i].setStrokeJoin(Paint.Join.ROUND);
-            classPaints[i].setStrokeMiter(100);
-        }
-
-        // Set warna untuk setiap class dengan warna yang lebih kontras
-        classPaints[0].setColor(Color.rgb(65, 105, 225));    // GedungFTMM - Royal Blue
-        classPaints[1].setColor(Color.rgb(220, 20, 60));     // Mobil - Crimson Red
-        classPaints[2].setColor(Color.rgb(50, 205, 50));     // RambuBelokKanan - Lime Green
-        classPaints[3].setColor(Color.rgb(255, 215, 0));     // RambuBelokKiri - Golden Yellow
-        classPaints[4].setColor(Color.rgb(0, 255, 255));     // RambuPutarBalik - Aqua
-        classPaints[5].setColor(Color.rgb(255, 0, 255));     // RambuTitikKumpul - Magenta
-        classPaints[6].setColor(Color.rgb(255, 255, 255));   // ZebraCross - White
-        classPaints[7].setColor(Color.rgb(255, 165, 0));     // orang - Orange
-        classPaints[8].setColor(Color.rgb(128, 0, 128));     // sepedamotor - Purple
+        // Warna default sampai setLabels() dipanggil dengan warna dari manifest model
+        classPaints = createPaints(DEFAULT_COLORS);
 
         // Konfigurasi paint untuk teks
         textPaint.setTextSize(60.0f);
         textPaint.setColor(Color.WHITE);
         textPaint.setShadowLayer(5.0f, 0f, 0f, Color.BLACK); // Menambah shadow untuk keterbacaan
+
+        bgPaint.setColor(Color.argb(160, 0, 0, 0)); // Semi-transparent black
+
+        debugPaint.setTextSize(28.0f);
+        debugPaint.setColor(Color.GREEN);
+        debugPaint.setTypeface(Typeface.MONOSPACE);
+        debugPaint.setShadowLayer(3.0f, 0f, 0f, Color.BLACK);
     }
 
-    public void setLabels(String[] labels) {
-        this.labels = labels;
+    // Dipanggil di UI thread, null menyembunyikan overlay
+    public void setDebugText(String text) {
+        debugLines = text != null ? text.split("\n") : null;
+        invalidate();
     }
 
-    // Method untuk transformasi koordinat rectangle
-    public ArrayList<Result> transFormRect(ArrayList<Result> resultArrayList) {
-        float scaleX = getWidth() / (float) SupportOnnx.INPUT_SIZE;
-        float scaleY = scaleX * 9f / 16f;
-        float realY = getWidth() * 9f / 16f;
-        float diffY = realY - getHeight();
-
-        for (Result result : resultArrayList) {
-            RectF rect = result.getRectF();
-            rect.left *= scaleX;
-            rect.right *= scaleX;
-            rect.top = rect.top * scaleY - (diffY / 2f);
-            rect.bottom = rect.bottom * scaleY - (diffY / 2f);
+    // Dipanggil di UI thread; colors dari ModelVariant, boleh kosong
+    public void setLabels(String[] labels, int[] colors) {
+        int[] classColors = new int[labels.length];
+        for (int c = 0; c < labels.length; c++) {
+            classColors[c] = c < colors.length ? colors[c] : DEFAULT_COLORS[c % DEFAULT_COLORS.length];
+        }
+        classPaints = createPaints(classColors);
+
+        String[][] texts = new String[labels.length][101];
+        float[][] widths = new float[labels.length][101];
+        for (int c = 0; c < labels.length; c++) {
+            for (int percent = 0; percent <= 100; percent++) {
+                texts[c][percent] = labels[c] + ", " + percent + "%";
+                widths[c][percent] = textPaint.measureText(texts[c][percent]);
+            }
         }
-        return resultArrayList;
+        labelTexts = texts;
+        labelWidths = widths;
     }
 
-    // Method untuk membersihkan deteksi sebelumnya
-    public void clear() {
-        detectionMap.clear();
+    private static Paint[] createPaints(int[] colors) {
+        Paint[] paints = new Paint[colors.length];
+        for (int i = 0; i < paints.length; i++) {
+            paints[i] = new Paint();
+            paints[i].setStyle(Paint.Style.STROKE);
+            paints[i].setStrokeWidth(10.0f);
+            paints[i].setStrokeCap(Paint.Cap.ROUND);
+            paints[i].setStrokeJoin(Paint.Join.ROUND);
+            paints[i].setStrokeMiter(100);
+            paints[i].setColor(colors[i]);
+        }
+        return paints;
     }
 
-    // Method untuk mengubah hasil deteksi menjadi map untuk ditampilkan
-    public void resultToList(ArrayList<Result> results) {
-        for (Result result : results) {
-            String label = labels[result.getLabel()];
-            int confidence = Math.round(result.getScore() * 100);
-            String displayText = String.format("%s, %d%%", label, confidence);
-            detectionMap.put(result.getRectF(), displayText);
+    // Dipanggil dari pipeline thread: memetakan hasil ke koordinat view, menulis snapshot
+    // baru, lalu menjadwalkan satu pengecekan di frame display berikutnya.
+    public void publish(Detections detections, FrameTransform inputTransform) {
+        FrameTransform modelToView = modelToView(inputTransform);
+        DetectionSnapshot snapshot = snapshots.beginWrite();
+        snapshot.clear(++frameCounter);
+        for (int i = 0; i < detections.size(); i++) {
+            snapshot.add(
+                    modelToView.mapX(detections.getLeft(i)),
+                    modelToView.mapY(detections.getTop(i)),
+                    modelToView.mapX(detections.getRight(i)),
+                    modelToView.mapY(detections.getBottom(i)),
+                    detections.getClassId(i),
+                    detections.getScore(i));
+        }
+        snapshots.publish();
+
+        if (frameScheduled.compareAndSet(false, true)) {
+            postOnAnimation(frameCallback);
         }
     }
 
+    // PreviewView memakai FILL_CENTER, jadi frame -> view adalah center crop
+    private FrameTransform modelToView(FrameTransform inputTransform) {
+        int width = getWidth();
+        int height = getHeight();
+        if (inputTransform != cachedInput || width != cachedWidth || height != cachedHeight) {
+            FrameTransform viewTransform = FrameTransform.create(ResizeMode.CENTER_CROP,
+                    inputTransform.getSourceWidth(), inputTransform.getSourceHeight(), width, height);
+            cachedModelToView = inputTransform.inverse().then(viewTransform);
+            cachedInput = inputTransform;
+            cachedWidth = width;
+            cachedHeight = height;
+        }
+        return cachedModelToView;
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
-        for (Map.Entry<RectF, String> detection : detectionMap.entrySet()) {
-            RectF rect = detection.getKey();
-            String text = detection.getValue();
-            String label = text.split(",")[0].trim();
-
-            // Mendapatkan index class untuk warna yang sesuai
-            int classIndex = getClassIndex(label);
-
-            // Menggambar rectangle
-            canvas.drawRect(rect, classPaints[classIndex]);
-
-            // Menggambar background untuk teks
-            Paint bgPaint = new Paint();
-            bgPaint.setColor(Color.argb(160, 0, 0, 0)); // Semi-transparent black
-            float textWidth = textPaint.measureText(text);
+        DetectionSnapshot snapshot = current;
+        String[][] texts = labelTexts;
+        if (snapshot != null && texts != null) {
             float textHeight = textPaint.getTextSize();
-            canvas.drawRect(
-                    rect.left + 10.0f,
-                    rect.top,
-                    rect.left + textWidth + 20.0f,
-                    rect.top + textHeight + 10.0f,
-                    bgPaint
-            );
-
-            // Menggambar teks
-            canvas.drawText(text,
-                    rect.left + 10.0f,
-                    rect.top + textHeight,
-                    textPaint);
+            for (int i = 0; i < snapshot.size(); i++) {
+                int classId = snapshot.getClassId(i);
+                if (classId < 0 || classId >= texts.length) continue;
+                float left = snapshot.getLeft(i);
+                float top = snapshot.getTop(i);
+
+                // Menggambar rectangle
+                canvas.drawRect(left, top, snapshot.getRight(i), snapshot.getBottom(i),
+                        classPaints[classId % classPaints.length]);
+
+                // Menggambar background untuk teks
+                int percent = snapshot.getPercent(i);
+                canvas.drawRect(
+                        left + 10.0f,
+                        top,
+                        left + labelWidths[classId][percent] + 20.0f,
+                        top + textHeight + 10.0f,
+                        bgPaint
+                );
+
+                // Menggambar teks
+                canvas.drawText(texts[classId][percent], left + 10.0f, top + textHeight, textPaint);
+            }
         }
-    }
 
-    private int getClassIndex(String label) {
-        if (labels != null) {
-            for (int i = 0; i < labels.length; i++) {
-                if (labels[i].equals(label)) return i;
+        if (debugLines != null) {
+            float lineHeight = debugPaint.getTextSize() * 1.2f;
+            for (int i = 0; i < debugLines.length; i++) {
+                canvas.drawText(debugLines[i], 20.0f, lineHeight * (i + 1), debugPaint);
             }
         }
-        return 0;
     }
-}
\ No newline at end of file
+}
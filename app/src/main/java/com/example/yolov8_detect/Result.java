@@ -2,6 +2,10 @@ package com.example.yolov8_detect;
 
 import android.graphics.RectF;
 
+import java.util.ArrayList;
+
+// Satu deteksi sebagai objek dengan RectF, untuk kode lama (outputsToNMSPredictions, toResults).
+// Pipeline sendiri memakai DetectionBatch; ini hanya adapter di atasnya.
 public class Result {
     private final int label;
     private final float score;
@@ -13,6 +17,20 @@ public class Result {
         this.rectF = rectF;
     }
 
+    // Salinan deteksi k, RectF baru
+    public Result(Detections detections, int k) {
+        this(detections.getClassId(k), detections.getScore(k), new RectF(detections.getLeft(k),
+                detections.getTop(k), detections.getRight(k), detections.getBottom(k)));
+    }
+
+    public static ArrayList<Result> fromBatch(DetectionBatch.View batch) {
+        ArrayList<Result> results = new ArrayList<>(batch.size());
+        for (int k = 0; k < batch.size(); k++) {
+            results.add(new Result(batch, k));
+        }
+        return results;
+    }
+
     public int getLabel() {
         return label;
     }
@@ -1,215 +1,304 @@
 package com.example.yolov8_detect;
 
 import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.ImageFormat;
-import android.graphics.Rect;
 import android.graphics.RectF;
-import android.graphics.YuvImage;
 import android.media.Image;
+import android.util.Log;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Map;
 
 public class SupportOnnx {
-    static final String fileName = "cobaa.onnx";
-    static final String labelName = "label.txt";
+    // File model, label, normalisasi dan warna per varian ada di manifest (ModelRegistry)
+    static final String manifestName = "models.properties";
+    static final String phraseName = "phrases.txt";
+    // Ukuran input default untuk varian dengan input "auto" sebelum session memberi tahu ukurannya
     static final int INPUT_SIZE = 640;
+    static final int INPUT_WIDTH = INPUT_SIZE;
+    static final int INPUT_HEIGHT = INPUT_SIZE;
+    static final ResizeMode RESIZE_MODE = ResizeMode.LETTERBOX;
     static final int BATCH_SIZE = 1;
     static final int PIXEL_SIZE = 3;
-    static final int FLOAT_SIZE = 4;
+    // Kapasitas kandidat awal untuk model dengan jumlah anchor dinamis
+    static final int DEFAULT_ANCHORS = 8400;
+    static final int MAX_DETECTIONS = 100;
 
     public float iouThresh = 0.5f;
     public float objectThresh = 0.4f;
     private final Context context;
+    private final YuvFrame yuvFrame = new YuvFrame();
+    // Satu preprocessor per ukuran input (governor bisa menurunkan ke 480/320), key dari
+    // sizeKey(lebar, tinggi); hanya thread analyzer
+    private final Map<Long, YuvPreprocessor> preprocessors = new HashMap<>();
+    // Decode + NMS dari core, sama persis dengan runner di JVM. Dibuat di thread loader
+    // setelah session siap, dipakai di thread decode
+    private volatile YoloDetector detector;
+    private PipelineMetrics metrics;
+    private ModelVariant variant;
+    private List<String> assetNames;
     private String[] labels;
+    // Label varian + label model pendamping, id class yang dipakai overlay, tracker dan pengumuman
+    private final LabelSpace labelSpace = new LabelSpace();
+    private final Map<String, String[]> companionLabels = new HashMap<>();
 
     public SupportOnnx(Context context) {
         this.context = context;
     }
 
-    public void loadModel() {
-        AssetManager assetManager = context.getAssets();
-        File outputFile = new File(context.getFilesDir() + "/" + fileName);
-
-        try {
-            InputStream inputStream = assetManager.open(fileName);
-            OutputStream outputStream = new FileOutputStream(outputFile);
-            byte[] buffer = new byte[1024 * 4];
-            int read;
-            while ((read = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, read);
-            }
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+        if (detector != null) detector.setMetrics(metrics);
+    }
 
-            inputStream.close();
-            outputStream.flush();
-            outputStream.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+    // Manifest dikirim di dalam APK, manifest rusak berarti build yang salah
+    public ModelRegistry loadRegistry() {
+        try (InputStreamReader reader = new InputStreamReader(context.getAssets().open(manifestName), "UTF-8")) {
+            return ModelRegistry.parse(reader);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot read " + manifestName + ": " + e.getMessage(), e);
         }
     }
 
-    public void loadLabel() {
-        try {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(context.getAssets().open(labelName)));
-            String line;
-            List<String> labelList = new ArrayList<>();
-            while ((line = reader.readLine()) != null) {
-                labelList.add(line);
+    // Varian tanpa file di assets dilewati saat memilih model
+    public boolean isAvailable(ModelVariant variant) {
+        return isAvailable(variant.getFile());
+    }
+
+    private boolean isAvailable(String file) {
+        if (assetNames == null) {
+            try {
+                String[] names = context.getAssets().list("");
+                assetNames = names != null ? Arrays.asList(names) : new ArrayList<String>();
+            } catch (IOException e) {
+                assetNames = new ArrayList<>();
             }
-            labels = new String[labelList.size()];
-            labelList.toArray(labels);
-        } catch (IOException e) {
-            e.printStackTrace();
         }
+        return assetNames.contains(file);
     }
 
-    public Bitmap imageToBitmap(Image image) {
-        Image.Plane[] planes = image.getPlanes();
-
-        ByteBuffer yBuffer = planes[0].getBuffer();
-        ByteBuffer uBuffer = planes[1].getBuffer();
-        ByteBuffer vBuffer = planes[2].getBuffer();
-        int ySize = yBuffer.remaining();
-        int uSize = uBuffer.remaining();
-        int vSize = vBuffer.remaining();
-        byte[] yuvBytes = new byte[ySize + uSize + vSize];
-        yBuffer.get(yuvBytes, 0, ySize);
-        vBuffer.get(yuvBytes, ySize, vSize);
-        uBuffer.get(yuvBytes, ySize + vSize, uSize);
-
-        YuvImage yuvImage = new YuvImage(yuvBytes, ImageFormat.NV21, image.getWidth(), image.getHeight(), null);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        yuvImage.compressToJpeg(new Rect(0, 0, yuvImage.getWidth(), yuvImage.getHeight()), 90, out);
-
-        byte[] imageBytes = out.toByteArray();
+    // Varian yang dipakai: label, normalisasi preprocess. Dipanggil sebelum loadLabel()
+    public void setVariant(ModelVariant variant) {
+        this.variant = variant;
+        preprocessors.clear();
+    }
 
-        return BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
+    public ModelVariant getVariant() {
+        return variant;
     }
 
-    public Bitmap rescaleBitmap(Bitmap bitmap) {
-        return Bitmap.createScaledBitmap(bitmap, INPUT_SIZE, INPUT_SIZE, true);
+    // Model dari assets hanya disalin ke filesDir kalau versi aplikasi atau ukurannya berubah
+    public ModelStore.Source createModelSource(ModelVariant variant) {
+        return createModelSource(variant.getFile());
     }
 
-    public FloatBuffer bitmapToFloatBuffer(Bitmap bitmap) {
-        int cap = BATCH_SIZE * PIXEL_SIZE * INPUT_SIZE * INPUT_SIZE;
-        ByteOrder order = ByteOrder.nativeOrder();
-        FloatBuffer buffer = ByteBuffer.allocate(cap * FLOAT_SIZE).order(order).asFloatBuffer();
+    public ModelStore.Source createModelSource(final String fileName) {
+        final AssetManager assetManager = context.getAssets();
+        return new ModelStore.Source() {
+            @Override
+            public String getName() {
+                return fileName;
+            }
+
+            @Override
+            public String getVersion() {
+                // Asset hanya bisa berubah lewat update APK
+                try {
+                    PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+                    return info.versionCode + ":" + info.lastUpdateTime;
+                } catch (PackageManager.NameNotFoundException e) {
+                    return null;
+                }
+            }
 
-        int area = INPUT_SIZE * INPUT_SIZE;
-        int[] bitmapData = new int[area];
+            @Override
+            public long getLength() {
+                // Hanya tersedia untuk asset yang tidak dikompresi (noCompress 'onnx')
+                try (AssetFileDescriptor descriptor = assetManager.openFd(fileName)) {
+                    return descriptor.getLength();
+                } catch (IOException e) {
+                    return -1;
+                }
+            }
 
-        bitmap.getPixels(bitmapData, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight());
-        for (int i = 0; i < INPUT_SIZE - 1; i++) {
-            for (int j = 0; j < INPUT_SIZE - 1; j++) {
-                int idx = INPUT_SIZE * i + j;
-                int pixelValue = bitmapData[idx];
-                float imageMean = 0.0f;
-                float imageSTD = 255.0f;
-                buffer.put(idx, (((pixelValue >> 16 & 0xFF) - imageMean) / imageSTD));
-                buffer.put(idx + area, (((pixelValue >> 8 & 0xFF) - imageMean) / imageSTD));
-                buffer.put(idx + area * 2, (((pixelValue & 0xFF) - imageMean) / imageSTD));
+            @Override
+            public InputStream open() throws IOException {
+                return assetManager.open(fileName, AssetManager.ACCESS_STREAMING);
             }
+        };
+    }
+
+    public void loadLabel() {
+        try {
+            labels = readLabels(variant.getLabels());
+            labelSpace.add(labels);
+        } catch (IOException e) {
+            Log.e("ONNX", "Error loading labels of " + variant + ": " + e.getMessage(), e);
         }
-        buffer.rewind();
-        return buffer;
     }
 
-    public ArrayList<Result> outputsToNMSPredictions(float[][][] output, int rows) {
-        ArrayList<Result> results = new ArrayList<>();
+    // Model pendamping yang file dan labelnya ada di assets; labelnya masuk ke namespace class
+    // setelah label varian (id class varian tidak berubah). Dipanggil setelah loadLabel().
+    public List<CompanionModel> loadCompanions(ModelRegistry registry) {
+        for (Map.Entry<String, String> alias : registry.getAliases().entrySet()) {
+            labelSpace.addAlias(alias.getKey(), alias.getValue());
+        }
+        List<CompanionModel> available = new ArrayList<>();
+        for (CompanionModel companion : registry.getCompanions()) {
+            if (!isAvailable(companion.getFile())) continue;
+            try {
+                String[] companionLabelList = readLabels(companion.getLabels());
+                labelSpace.add(companionLabelList);
+                companionLabels.put(companion.getName(), companionLabelList);
+                available.add(companion);
+            } catch (IOException e) {
+                Log.e("ONNX", "Error loading labels of " + companion + ": " + e.getMessage());
+            }
+        }
+        return available;
+    }
 
-        float[][][] outputV8 = new float[1][rows][output[0].length];
+    public String[] getLabels(CompanionModel companion) {
+        return companionLabels.get(companion.getName());
+    }
 
-        for (int l = 0; l < output[0].length ; l++) {
-            for (int m = 0; m < rows; m++) {
-                outputV8[0][m][l] = output[0][l][m];
+    private String[] readLabels(String asset) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(context.getAssets().open(asset)))) {
+            String line;
+            List<String> labelList = new ArrayList<>();
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) labelList.add(line.trim());
             }
+            return labelList.toArray(new String[0]);
         }
+    }
 
+    // Dipanggil setelah session siap: jumlah class dan anchor dari metadata model, bukan konstanta
+    public void configure(ModelSignature signature) {
+        signature.checkLabels(labels.length);
+        // Kamera selalu satu frame per run; batch tetap > 1 hanya untuk runner offline
+        if (signature.getBatchSize() > 1) {
+            throw new IllegalStateException("Model expects batches of " + signature.getBatchSize() + ": " + signature);
+        }
+        int anchors = signature.getAnchorCount() > 0 ? signature.getAnchorCount() : DEFAULT_ANCHORS;
+        YoloDetector configured = new YoloDetector(labels.length, objectThresh, iouThresh, anchors, MAX_DETECTIONS);
+        configured.setMetrics(metrics);
+        detector = configured;
+    }
 
-        for (int i = 0; i < rows; ++i) {
-            int detectionClass = -1;
-            float maxClass = 0;
+    // Tabel kalimat pengumuman per kelas, dipanggil setelah loadLabel() dan loadCompanions()
+    public PhraseTable loadPhrases() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(context.getAssets().open(phraseName), "UTF-8"))) {
+            return PhraseTable.parse(reader, getDisplayLabels());
+        } catch (IOException e) {
+            Log.e("ONNX", "Error loading " + phraseName + ": " + e.getMessage());
+            return new PhraseTable(labelSpace.size());
+        }
+    }
 
-            float[] _classes = new float[labels.length];
-            System.arraycopy(outputV8[0][i], 4, _classes, 0, labels.length);
+    // Langsung dari plane YUV ke tensor CHW, tanpa JPEG dan tanpa Bitmap.
+    // Transform yang dikembalikan dipakai untuk memetakan deteksi kembali ke frame kamera.
+    public FrameTransform imageToFloatBuffer(Image image, FloatBuffer buffer) {
+        return imageToFloatBuffer(image, buffer, INPUT_WIDTH, INPUT_HEIGHT);
+    }
 
-            for (int c = 0; c < labels.length; ++c) {
-                if (_classes[c] > maxClass) {
-                    detectionClass = c;
-                    maxClass = _classes[c];
-                }
-            }
+    // Input lebar x tinggi, boleh tidak persegi (letterbox ke 640x384 dan sejenisnya)
+    public FrameTransform imageToFloatBuffer(Image image, FloatBuffer buffer, int inputWidth, int inputHeight) {
+        return preprocessorFor(inputWidth, inputHeight).preprocess(imageToFrame(image), buffer);
+    }
 
-            float confidenceInClass = maxClass;
-            if (confidenceInClass > objectThresh) {
-                float xPos = outputV8[0][i][0];
-                float yPos = outputV8[0][i][1];
-                float width = outputV8[0][i][2];
-                float height = outputV8[0][i][3];
-
-                RectF rectF = new RectF(Math.max(0, xPos - width / 2), Math.max(0, yPos - height / 2),
-                        Math.min(INPUT_SIZE - 1, xPos + width / 2), Math.min(INPUT_SIZE - 1, yPos + height / 2));
-                Result recognition = new Result(detectionClass, confidenceInClass, rectF);
-                results.add(recognition);
-            }
+    // Hanya region ke-index dari regions (left, top, right, bottom piksel frame), resolusi penuh.
+    // Transform tetap memetakan koordinat frame penuh ke input.
+    public FrameTransform imageToFloatBuffer(Image image, FloatBuffer buffer, int inputWidth, int inputHeight,
+                                             int[] regions, int index) {
+        int r = index * 4;
+        return preprocessorFor(inputWidth, inputHeight).preprocess(imageToFrame(image),
+                regions[r], regions[r + 1], regions[r + 2], regions[r + 3], buffer);
+    }
+
+    private YuvPreprocessor preprocessorFor(int inputWidth, int inputHeight) {
+        long key = sizeKey(inputWidth, inputHeight);
+        YuvPreprocessor preprocessor = preprocessors.get(key);
+        if (preprocessor == null) {
+            preprocessor = new YuvPreprocessor(inputWidth, inputHeight, RESIZE_MODE);
+            preprocessor.setNormalization(variant.getMean(), variant.getStd());
+            preprocessors.put(key, preprocessor);
         }
+        return preprocessor;
+    }
 
-        return nms(results);
+    // Key map per ukuran input lebar x tinggi
+    static long sizeKey(int width, int height) {
+        return (long) width << 32 | height;
     }
 
-    public ArrayList<Result> nms(ArrayList<Result> results) {
-        ArrayList<Result> nmsList = new ArrayList<>();
+    public YuvFrame imageToFrame(Image image) {
+        Image.Plane[] planes = image.getPlanes();
+        return yuvFrame.wrap(image.getWidth(), image.getHeight(),
+                planes[0].getBuffer(), planes[0].getRowStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(),
+                planes[1].getRowStride(), planes[1].getPixelStride());
+    }
 
-        for (int k = 0; k < labels.length; k++) {
-            //1.find max confidence per class
-            PriorityQueue<Result> pq =
-                    new PriorityQueue<>(50,
-                            (o1, o2) -> Float.compare(o1.getScore(), o2.getScore()));
+    // Membaca output mentah [1, 4 + C, rows] tanpa transpose dan tanpa array boxed.
+    // Result hanya dibuat untuk deteksi yang lolos NMS.
+    public ArrayList<Result> outputsToNMSPredictions(FloatBuffer output, int rows) {
+        return outputsToNMSPredictions(output, rows, INPUT_WIDTH, INPUT_HEIGHT);
+    }
 
-            for (int i = 0; i < results.size(); i++) {
-                if (results.get(i).getLabel() == k) {
-                    pq.add(results.get(i));
-                }
-            }
+    public ArrayList<Result> outputsToNMSPredictions(FloatBuffer output, int rows, int inputWidth, int inputHeight) {
+        return toResults(decode(output, rows, inputWidth, inputHeight), null);
+    }
 
-            //2.do non maximum suppression
-            while (pq.size() > 0) {
-                //insert detection with max confidence
-                Result[] a = new Result[pq.size()];
-                Result[] detections = pq.toArray(a);
-                Result max = detections[0];
-                nmsList.add(max);
-                pq.clear();
-
-                for (int j = 1; j < detections.length; j++) {
-                    Result detection = detections[j];
-                    RectF b = detection.getRectF();
-                    if (box_iou(max.getRectF(), b) < iouThresh) {
-                        pq.add(detection);
-                    }
-                }
-            }
+    // Decode + NMS tanpa Result; hasilnya berlaku sampai decode() berikutnya (thread decode)
+    public Detections decode(FloatBuffer output, int rows, int inputWidth, int inputHeight) {
+        YoloDetector active = detector;
+        active.setThresholds(objectThresh, iouThresh);
+        active.postprocess(output, rows, inputWidth, inputHeight);
+        return active;
+    }
+
+    // Untuk kode lama yang masih butuh list Result; pipeline menulis langsung ke DetectionBatch.
+    // Box dipetakan dengan transform, null: koordinat detections apa adanya
+    public ArrayList<Result> toResults(Detections detections, FrameTransform transform) {
+        DetectionBatch batch = new DetectionBatch(detections.size());
+        batch.addAll(detections, transform);
+        return Result.fromBatch(batch.view());
+    }
+
+    // NMS lama (PriorityQueue per label) diganti NmsEngine: sekali sort, supresi lewat bitmask
+    public ArrayList<Result> nms(ArrayList<Result> results) {
+        DetectionCandidates input = new DetectionCandidates(results.size());
+        for (Result result : results) {
+            RectF r = result.getRectF();
+            input.add(r.left, r.top, r.right, r.bottom, result.getScore(), result.getLabel());
+        }
+        NmsEngine nmsEngine = new NmsEngine(NmsEngine.Mode.CLASS_AWARE, iouThresh, MAX_DETECTIONS);
+        int[] selected = new int[Math.min(results.size(), MAX_DETECTIONS)];
+        int kept = nmsEngine.run(input, selected);
+
+        ArrayList<Result> nmsList = new ArrayList<>(kept);
+        for (int k = 0; k < kept; k++) {
+            nmsList.add(results.get(selected[k]));
         }
         return nmsList;
     }
 
     protected float box_iou(RectF a, RectF b) {
-        return box_intersection(a, b) / box_union(a, b);
+        float i = box_intersection(a, b);
+        return i / ((a.right - a.left) * (a.bottom - a.top) + (b.right - b.left) * (b.bottom - b.top) - i);
     }
 
     protected float box_intersection(RectF a, RectF b) {
@@ -221,11 +310,6 @@ public class SupportOnnx {
         return w * h;
     }
 
-    protected float box_union(RectF a, RectF b) {
-        float i = box_intersection(a, b);
-        return (a.right - a.left) * (a.bottom - a.top) + (b.right - b.left) * (b.bottom - b.top) - i;
-    }
-
     protected float overlap(float x1, float w1, float x2, float w2) {
         float l1 = x1 - w1 / 2;
         float l2 = x2 - w2 / 2;
@@ -239,4 +323,13 @@ public class SupportOnnx {
     public String[] getLabels() {
         return labels;
     }
+
+    // Semua class yang bisa keluar dari decode, termasuk dari model pendamping
+    public String[] getDisplayLabels() {
+        return labelSpace.getLabels();
+    }
+
+    public LabelSpace getLabelSpace() {
+        return labelSpace;
+    }
 }
@@ -0,0 +1,101 @@
+#!/usr/bin/env python3
+"""Compares two JMH JSON result files (build/results/jmh/results.json).
+
+    python3 compare_results.py baseline.json current.json [--max-regression 10]
+
+Prints time and allocated bytes per operation for every benchmark in both files and
+exits with 1 when one got slower, or allocates more, by more than --max-regression percent.
+Throughput scores (ops/s, e.g. BatchInferenceBenchmark) count as slower when they drop: the
+time column is the change in time per operation whatever the benchmark mode.
+"""
+import argparse
+import json
+import sys
+
+ALLOC = "·gc.alloc.rate.norm"
+
+
+def load(path):
+    with open(path) as f:
+        runs = json.load(f)
+    results = {}
+    for run in runs:
+        name = run["benchmark"].rsplit(".", 2)
+        name = name[-2] + "." + name[-1]
+        params = run.get("params")
+        if params:
+            name += "(" + ",".join("%s=%s" % (k, v) for k, v in sorted(params.items())) + ")"
+        alloc = run.get("secondaryMetrics", {}).get(ALLOC)
+        results[name] = {
+            "score": run["primaryMetric"]["score"],
+            "unit": run["primaryMetric"]["scoreUnit"],
+            "alloc": alloc["score"] if alloc else None,
+        }
+    return results
+
+
+# Below this many bytes per operation the gc profiler measures its own noise
+ALLOC_NOISE = 16
+
+
+def change(old, new):
+    if old is None or new is None:
+        return None
+    return (new - old) / old * 100
+
+
+def is_throughput(unit):
+    # ops/s, ops/ms, ...; average time units are s/op, us/op, ...
+    return unit.startswith("ops/")
+
+
+def time_change(old, new):
+    # Positive: slower. Time per operation is the inverse of a throughput score.
+    if is_throughput(new["unit"]):
+        return change(1 / old["score"], 1 / new["score"])
+    return change(old["score"], new["score"])
+
+
+def alloc_change(old, new):
+    if old is None or new is None:
+        return None
+    if new < ALLOC_NOISE:
+        return 0.0
+    if old < ALLOC_NOISE:
+        # Allocation free before, allocating now
+        return float("inf")
+    return change(old, new)
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--max-regression", type=float, default=10.0, help="percent")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+    failed = []
+    print("%-60s %14s %14s %8s %14s %8s" % ("benchmark", "before", "after", "time", "B/op", "alloc"))
+    for name in sorted(set(baseline) & set(current)):
+        old, new = baseline[name], current[name]
+        slower = time_change(old, new)
+        allocs = alloc_change(old["alloc"], new["alloc"])
+        print("%-60s %11.3f %-2s %11.3f %-2s %+7.1f%% %14s %8s" % (
+            name, old["score"], old["unit"][:2], new["score"], new["unit"][:2], slower,
+            "-" if new["alloc"] is None else "%.0f" % new["alloc"],
+            "-" if allocs is None else "%+.1f%%" % allocs))
+        if slower > args.max_regression or (allocs or 0) > args.max_regression:
+            failed.append(name)
+    for name in sorted(set(baseline) ^ set(current)):
+        print("%-60s only in %s" % (name, args.baseline if name in baseline else args.current))
+
+    if failed:
+        print("\nRegressed by more than %.0f%%: %s" % (args.max_regression, ", ".join(failed)))
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,119 @@
+package com.example.yolov8_detect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Per frame cost of deciding what to say in a steady scene: the original
+// speakDetectionResults text building (switch on label strings, StringBuilder, trim)
+// against AnnouncementEngine.update, which only speaks on changes.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AnnouncementBenchmark {
+    static final String[] LABELS = {"GedungFTMM", "Mobil", "RambuBelokKanan", "RambuBelokKiri",
+            "RambuPutarBalik", "RambuTitikKumpul", "ZebraCross", "orang", "sepedamotor"};
+
+    private ArrayList<LegacyPostprocess.Detection> results;
+    private ArrayList<Track> tracks;
+    private AnnouncementEngine engine;
+    private long nowMs;
+
+    @Setup
+    public void setUp() {
+        // Two cars, a person, a zebra cross and a sign in view
+        int[] classes = {1, 1, 7, 6, 2};
+        results = new ArrayList<>();
+        tracks = new ArrayList<>();
+        for (int i = 0; i < classes.length; i++) {
+            float left = 40 + i * 110;
+            results.add(new LegacyPostprocess.Detection(classes[i], 0.8f,
+                    new LegacyPostprocess.Box(left, 200, left + 100, 320)));
+            tracks.add(new Track(i + 1, classes[i], 0.8f, left, 200, left + 100, 320));
+        }
+
+        PhraseTable phrases = new PhraseTable(LABELS.length);
+        phrases.set(1, 90, 4000, "Ada mobil di depan", "Awas, mobil mendekat", "Mobil sudah lewat");
+        phrases.set(2, 40, 10000, "Rambu belok kanan di depan", "", "");
+        phrases.set(6, 50, 8000, "Zebra cross di depan", "", "");
+        phrases.set(7, 70, 4000, "Ada orang di depan", "Orang mendekat", "");
+        engine = new AnnouncementEngine(phrases, (text, interrupt) -> true);
+        // First frames announce the scene, the measured frames see it unchanged
+        for (int frame = 0; frame < 10; frame++) {
+            engine.update(nowMs += 33, tracks);
+            engine.onSpeechDone();
+        }
+    }
+
+    @Benchmark
+    public String legacyTextBuilding() {
+        return buildText(results);
+    }
+
+    @Benchmark
+    public long announcementEngine() {
+        engine.update(nowMs += 33, tracks);
+        return engine.getAnnouncements();
+    }
+
+    // speakDetectionResults without the 3 s throttle and the TextToSpeech call
+    static String buildText(ArrayList<LegacyPostprocess.Detection> results) {
+        StringBuilder detectionText = new StringBuilder();
+        boolean hasDetections = false;
+
+        for (LegacyPostprocess.Detection result : results) {
+            String label = LABELS[result.label];
+            float confidence = result.score * 100;
+
+            if (confidence > 50) {
+                hasDetections = true;
+
+                switch (label) {
+                    case "ZebraCross":
+                        detectionText.append("Zebra cross di depan, ");
+                        break;
+                    case "RambuBelokKanan":
+                        detectionText.append("Rambu belok kanan di depan, ");
+                        break;
+                    case "RambuBelokKiri":
+                        detectionText.append("Rambu belok kiri di depan, ");
+                        break;
+                    case "RambuPutarBalik":
+                        detectionText.append("Rambu putar balik di depan, ");
+                        break;
+                    case "RambuTitikKumpul":
+                        detectionText.append("Titik kumpul di depan, ");
+                        break;
+                    case "GedungFTMM":
+                        detectionText.append("Gedung FTMM terdeteksi, ");
+                        break;
+                    case "orang":
+                        detectionText.append("Ada orang di depan, ");
+                        break;
+                    case "Mobil":
+                        detectionText.append("Ada mobil di depan, ");
+                        break;
+                    case "sepedamotor":
+                        detectionText.append("Ada sepeda motor di depan, ");
+                        break;
+                }
+            }
+        }
+
+        if (!hasDetections) {
+            return null;
+        }
+        String textToSpeak = detectionText.toString().trim();
+        if (textToSpeak.endsWith(",")) {
+            textToSpeak = textToSpeak.substring(0, textToSpeak.length() - 1);
+        }
+        return textToSpeak;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.yolov8_detect;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+// Frames/sec of one CPU session against the batch size: session run plus parallel decode
+// and NMS of every slice (BatchDetector). Needs a real detector exported with a dynamic
+// batch (yolo export dynamic=True), given as -Pmodel; without it build.gradle skips this class.
+// Compare the "frames" counter (frames/s); the primary score counts batches.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchInferenceBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int batchSize;
+
+    private OrtSession session;
+    private BatchDetector detector;
+    private ExecutorService decodeExecutor;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Frames {
+        public long frames;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            frames = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws OrtException {
+        String path = System.getProperty("bench.model");
+        if (path == null) {
+            throw new IllegalStateException("Set -Pmodel=<detector.onnx> (dynamic batch export)");
+        }
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        session = new SessionFactory(environment).createSession(path, SessionConfig.builder().build());
+        ModelSignature signature = ModelSignature.read(session);
+        int size = signature.isDynamicInput() ? OutputFixtures.INPUT_SIZE : signature.getInputWidth();
+        detector = new BatchDetector(environment, signature, signature.getClassCount(), size, size,
+                batchSize, 0.25f, 0.45f, 100);
+        if (detector.getMaxBatch() != batchSize) {
+            throw new IllegalStateException("Model runs batches of " + detector.getMaxBatch() + ": " + signature);
+        }
+        decodeExecutor = Executors.newFixedThreadPool(batchSize);
+        detector.setExecutor(decodeExecutor);
+
+        // The same camera frame in every slice
+        YuvPreprocessor preprocessor = new YuvPreprocessor(size, size, ResizeMode.LETTERBOX);
+        YuvFrame frame = FrameFixtures.cameraFrame();
+        for (int i = 0; i < batchSize; i++) {
+            preprocessor.preprocess(frame, detector.getInput(i));
+        }
+    }
+
+    @Benchmark
+    public BatchDetector batch(Frames frames) throws OrtException, InterruptedException {
+        detector.run(session, batchSize);
+        frames.frames += batchSize;
+        return detector;
+    }
+
+    @TearDown
+    public void tearDown() throws OrtException {
+        decodeExecutor.shutdownNow();
+        detector.close();
+        session.close();
+    }
+}
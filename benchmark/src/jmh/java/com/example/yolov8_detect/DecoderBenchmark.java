@@ -0,0 +1,61 @@
+package com.example.yolov8_detect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+// Old boxed/transposed decode + PriorityQueue NMS against YoloOutputDecoder + NmsEngine
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DecoderBenchmark {
+    private float[][][] boxedOutput;
+    private FloatBuffer outputBuffer;
+    private LegacyPostprocess legacy;
+    private YoloOutputDecoder decoder;
+    private NmsEngine nmsEngine;
+    private DetectionCandidates candidates;
+    private int[] keep;
+
+    @Setup
+    public void setUp() {
+        float[] output = OutputFixtures.channelMajor();
+        boxedOutput = OutputFixtures.boxed(output, OutputFixtures.ANCHORS);
+        // ORT hands the output back as a direct native-order buffer
+        outputBuffer = ByteBuffer.allocateDirect(output.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        outputBuffer.put(output).rewind();
+
+        legacy = new LegacyPostprocess(OutputFixtures.CLASSES, OutputFixtures.INPUT_SIZE);
+        decoder = new YoloOutputDecoder(OutputFixtures.CLASSES, 0.4f);
+        nmsEngine = new NmsEngine(0.5f);
+        candidates = new DetectionCandidates(OutputFixtures.ANCHORS);
+        keep = new int[100];
+    }
+
+    @Benchmark
+    public Object legacyDecodeAndNms() {
+        return legacy.outputsToNMSPredictions(boxedOutput, OutputFixtures.ANCHORS);
+    }
+
+    @Benchmark
+    public int decodeOnly() {
+        return decoder.decode(outputBuffer, OutputFixtures.ANCHORS,
+                OutputFixtures.INPUT_SIZE, OutputFixtures.INPUT_SIZE, candidates);
+    }
+
+    @Benchmark
+    public int decodeAndNms() {
+        decoder.decode(outputBuffer, OutputFixtures.ANCHORS,
+                OutputFixtures.INPUT_SIZE, OutputFixtures.INPUT_SIZE, candidates);
+        return nmsEngine.run(candidates, keep);
+    }
+}
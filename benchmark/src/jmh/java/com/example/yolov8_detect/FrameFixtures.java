@@ -0,0 +1,64 @@
+package com.example.yolov8_detect;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+// Camera frame fixtures. With bench.recording pointing to a .yfr file (FrameRecorder) the
+// first recorded frame is used as delivered by the camera, otherwise a seeded synthetic
+// 1280x720 frame in the NV21 style YUV_420_888 layout most phones produce.
+public final class FrameFixtures {
+    public static final int WIDTH = 1280;
+    public static final int HEIGHT = 720;
+
+    private FrameFixtures() {
+    }
+
+    public static YuvFrame cameraFrame() {
+        String path = System.getProperty("bench.recording");
+        if (path == null) {
+            return synthetic(7L, WIDTH, HEIGHT);
+        }
+        try (FrameRecordingReader reader = new FrameRecordingReader(new File(path))) {
+            if (reader.getFrameCount() == 0) {
+                throw new IOException("Recording has no frames");
+            }
+            // Copy out of the mapping, the reader is closed here
+            YuvFrame mapped = reader.read(0, new YuvFrame());
+            return new YuvFrame().wrap(mapped.getWidth(), mapped.getHeight(),
+                    copy(mapped.getYBuffer()), mapped.getYRowStride(),
+                    copy(mapped.getUBuffer()), copy(mapped.getVBuffer()),
+                    mapped.getUvRowStride(), mapped.getUvPixelStride());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read recording " + path, e);
+        }
+    }
+
+    // Smooth gradients plus noise, so neither resize nor JPEG get an easy constant image.
+    // U and V are views one byte apart into one interleaved VU plane (pixel stride 2).
+    public static YuvFrame synthetic(long seed, int width, int height) {
+        Random random = new Random(seed);
+        ByteBuffer y = ByteBuffer.allocateDirect(width * height);
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                y.put(row * width + col, (byte) ((col * 255 / width + row * 64 / height + random.nextInt(16)) & 0xFF));
+            }
+        }
+        ByteBuffer vu = ByteBuffer.allocateDirect(width * height / 2);
+        for (int i = 0; i < vu.capacity(); i++) {
+            vu.put(i, (byte) (112 + random.nextInt(32)));
+        }
+        ByteBuffer v = vu.duplicate();
+        v.limit(vu.capacity() - 1);
+        ByteBuffer u = vu.duplicate();
+        u.position(1);
+        return new YuvFrame().wrap(width, height, y, width, u.slice(), v.slice(), width, 2);
+    }
+
+    private static ByteBuffer copy(ByteBuffer source) {
+        ByteBuffer copy = ByteBuffer.allocateDirect(source.remaining());
+        copy.put(source.duplicate()).flip();
+        return copy;
+    }
+}
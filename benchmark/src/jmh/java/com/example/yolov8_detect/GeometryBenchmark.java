@@ -0,0 +1,159 @@
+package com.example.yolov8_detect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Box geometry per frame: pairwise IoU (box_iou vs NmsEngine.iou) and mapping the
+// detections to the overlay (RectView.transFormRect, the original and the later one that
+// is now removed, vs the cached FrameTransform writing straight into a DetectionSnapshot
+// or a DetectionBatch).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeometryBenchmark {
+    private static final int DETECTIONS = 100;
+    // Portrait phone screen
+    private static final int VIEW_WIDTH = 1080;
+    private static final int VIEW_HEIGHT = 2160;
+
+    private LegacyPostprocess legacy;
+    private LegacyPostprocess.Box[] legacyBoxes;
+    private ArrayList<LegacyPostprocess.Detection> legacyResults;
+    private float[] boxes;
+    private int[] classIds;
+    private float[] scores;
+    private FrameTransform inputTransform;
+    private FrameTransform modelToView;
+    private DetectionSnapshot snapshot;
+    private DetectionBatch source;
+    private DetectionBatch batch;
+    private long frameId;
+
+    @Setup
+    public void setUp() {
+        DetectionCandidates candidates = NmsBenchmark.clustered(new Random(5), DETECTIONS);
+        legacy = new LegacyPostprocess(OutputFixtures.CLASSES, OutputFixtures.INPUT_SIZE);
+        legacyBoxes = new LegacyPostprocess.Box[DETECTIONS];
+        legacyResults = new ArrayList<>(DETECTIONS);
+        boxes = new float[DETECTIONS * 4];
+        classIds = new int[DETECTIONS];
+        scores = new float[DETECTIONS];
+        for (int i = 0; i < DETECTIONS; i++) {
+            boxes[i * 4] = candidates.getLeft(i);
+            boxes[i * 4 + 1] = candidates.getTop(i);
+            boxes[i * 4 + 2] = candidates.getRight(i);
+            boxes[i * 4 + 3] = candidates.getBottom(i);
+            classIds[i] = candidates.getClassId(i);
+            scores[i] = candidates.getScore(i);
+            legacyBoxes[i] = new LegacyPostprocess.Box(boxes[i * 4], boxes[i * 4 + 1], boxes[i * 4 + 2], boxes[i * 4 + 3]);
+            legacyResults.add(new LegacyPostprocess.Detection(classIds[i], scores[i],
+                    new LegacyPostprocess.Box(0, 0, 0, 0)));
+        }
+        inputTransform = FrameTransform.create(ResizeMode.LETTERBOX,
+                FrameFixtures.WIDTH, FrameFixtures.HEIGHT, OutputFixtures.INPUT_SIZE, OutputFixtures.INPUT_SIZE);
+        modelToView = modelToView();
+        snapshot = new DetectionSnapshot(DETECTIONS);
+        source = new DetectionBatch(DETECTIONS);
+        for (int i = 0; i < DETECTIONS; i++) {
+            source.add(boxes[i * 4], boxes[i * 4 + 1], boxes[i * 4 + 2], boxes[i * 4 + 3], scores[i], classIds[i]);
+        }
+        batch = new DetectionBatch(DETECTIONS);
+    }
+
+    // Every pair once, the worst case of one NMS pass
+    @Benchmark
+    public float legacyBoxIou() {
+        float sum = 0;
+        for (int a = 0; a < DETECTIONS; a++) {
+            for (int b = a + 1; b < DETECTIONS; b++) {
+                sum += legacy.box_iou(legacyBoxes[a], legacyBoxes[b]);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float nmsEngineIou() {
+        float sum = 0;
+        for (int a = 0; a < DETECTIONS; a++) {
+            for (int b = a + 1; b < DETECTIONS; b++) {
+                sum += NmsEngine.iou(boxes, a, boxes, b);
+            }
+        }
+        return sum;
+    }
+
+    // Original transFormRect: in place on the result rects with the hard-coded 16:9 factors.
+    // The rects are reset from the fixture first, otherwise the scaling would compound.
+    @Benchmark
+    public Object legacyTransFormRect() {
+        float scaleX = VIEW_WIDTH / (float) OutputFixtures.INPUT_SIZE;
+        float scaleY = scaleX * 9f / 16f;
+        float realY = VIEW_WIDTH * 9f / 16f;
+        float diffY = realY - VIEW_HEIGHT;
+        for (int i = 0; i < DETECTIONS; i++) {
+            LegacyPostprocess.Box rect = legacyResults.get(i).box;
+            rect.left = boxes[i * 4];
+            rect.top = boxes[i * 4 + 1];
+            rect.right = boxes[i * 4 + 2];
+            rect.bottom = boxes[i * 4 + 3];
+
+            rect.left = rect.left * scaleX;
+            rect.right = rect.right * scaleX;
+            rect.top = rect.top * scaleY - (diffY / 2f);
+            rect.bottom = rect.bottom * scaleY - (diffY / 2f);
+        }
+        return legacyResults;
+    }
+
+    // Later transFormRect (now removed): transforms composed per call, a new list of new results
+    @Benchmark
+    public Object transFormRect() {
+        FrameTransform perCall = modelToView();
+        ArrayList<LegacyPostprocess.Detection> mapped = new ArrayList<>(DETECTIONS);
+        for (int i = 0; i < DETECTIONS; i++) {
+            int b = i * 4;
+            mapped.add(new LegacyPostprocess.Detection(classIds[i], scores[i], new LegacyPostprocess.Box(
+                    perCall.mapX(boxes[b]), perCall.mapY(boxes[b + 1]),
+                    perCall.mapX(boxes[b + 2]), perCall.mapY(boxes[b + 3]))));
+        }
+        return mapped;
+    }
+
+    // Decode to output stage hand-off: mapped into a reused DetectionBatch instead of a list of results
+    @Benchmark
+    public int detectionBatch() {
+        batch.clear();
+        batch.addAll(source, modelToView);
+        return batch.size();
+    }
+
+    // What RectView.setResults does: cached transform, recycled snapshot, no allocation
+    @Benchmark
+    public long snapshotPublish() {
+        snapshot.clear(++frameId);
+        for (int i = 0; i < DETECTIONS; i++) {
+            int b = i * 4;
+            snapshot.add(modelToView.mapX(boxes[b]), modelToView.mapY(boxes[b + 1]),
+                    modelToView.mapX(boxes[b + 2]), modelToView.mapY(boxes[b + 3]),
+                    classIds[i], scores[i]);
+        }
+        snapshot.seal();
+        return snapshot.getSignature();
+    }
+
+    private FrameTransform modelToView() {
+        FrameTransform viewTransform = FrameTransform.create(ResizeMode.CENTER_CROP,
+                inputTransform.getSourceWidth(), inputTransform.getSourceHeight(), VIEW_WIDTH, VIEW_HEIGHT);
+        return inputTransform.inverse().then(viewTransform);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.yolov8_detect;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+
+// Android-free copy of the original SupportOnnx.outputsToNMSPredictions / nms / box_iou,
+// kept verbatim (RectF replaced by Box) as the baseline for the benchmarks.
+public class LegacyPostprocess {
+    public float iouThresh = 0.5f;
+    public float objectThresh = 0.4f;
+    private final int numClasses;
+    private final int inputSize;
+
+    public LegacyPostprocess(int numClasses, int inputSize) {
+        this.numClasses = numClasses;
+        this.inputSize = inputSize;
+    }
+
+    public static class Box {
+        public float left;
+        public float top;
+        public float right;
+        public float bottom;
+
+        public Box(float left, float top, float right, float bottom) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+    }
+
+    public static class Detection {
+        public final int label;
+        public final float score;
+        public final Box box;
+
+        public Detection(int label, float score, Box box) {
+            this.label = label;
+            this.score = score;
+            this.box = box;
+        }
+    }
+
+    public ArrayList<Detection> outputsToNMSPredictions(float[][][] output, int rows) {
+        ArrayList<Detection> results = new ArrayList<>();
+
+        float[][][] outputV8 = new float[1][rows][output[0].length];
+
+        for (int l = 0; l < output[0].length; l++) {
+            for (int m = 0; m < rows; m++) {
+                outputV8[0][m][l] = output[0][l][m];
+            }
+        }
+
+        for (int i = 0; i < rows; ++i) {
+            int detectionClass = -1;
+            float maxClass = 0;
+
+            float[] _classes = new float[numClasses];
+            System.arraycopy(outputV8[0][i], 4, _classes, 0, numClasses);
+
+            for (int c = 0; c < numClasses; ++c) {
+                if (_classes[c] > maxClass) {
+                    detectionClass = c;
+                    maxClass = _classes[c];
+                }
+            }
+
+            float confidenceInClass = maxClass;
+            if (confidenceInClass > objectThresh) {
+                float xPos = outputV8[0][i][0];
+                float yPos = outputV8[0][i][1];
+                float width = outputV8[0][i][2];
+                float height = outputV8[0][i][3];
+
+                Box box = new Box(Math.max(0, xPos - width / 2), Math.max(0, yPos - height / 2),
+                        Math.min(inputSize - 1, xPos + width / 2), Math.min(inputSize - 1, yPos + height / 2));
+                results.add(new Detection(detectionClass, confidenceInClass, box));
+            }
+        }
+
+        return nms(results);
+    }
+
+    public ArrayList<Detection> nms(ArrayList<Detection> results) {
+        ArrayList<Detection> nmsList = new ArrayList<>();
+
+        for (int k = 0; k < numClasses; k++) {
+            PriorityQueue<Detection> pq =
+                    new PriorityQueue<>(50, (o1, o2) -> Float.compare(o1.score, o2.score));
+
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).label == k) {
+                    pq.add(results.get(i));
+                }
+            }
+
+            while (pq.size() > 0) {
+                Detection[] a = new Detection[pq.size()];
+                Detection[] detections = pq.toArray(a);
+                Detection max = detections[0];
+                nmsList.add(max);
+                pq.clear();
+
+                for (int j = 1; j < detections.length; j++) {
+                    Detection detection = detections[j];
+                    if (box_iou(max.box, detection.box) < iouThresh) {
+                        pq.add(detection);
+                    }
+                }
+            }
+        }
+        return nmsList;
+    }
+
+    public float box_iou(Box a, Box b) {
+        return box_intersection(a, b) / box_union(a, b);
+    }
+
+    private float box_intersection(Box a, Box b) {
+        float w = overlap((a.left + a.right) / 2, a.right - a.left,
+                (b.left + b.right) / 2, b.right - b.left);
+        float h = overlap((a.top + a.bottom) / 2, a.bottom - a.top,
+                (b.top + b.bottom) / 2, b.bottom - b.top);
+        if (w < 0 || h < 0) return 0;
+        return w * h;
+    }
+
+    private float box_union(Box a, Box b) {
+        float i = box_intersection(a, b);
+        return (a.right - a.left) * (a.bottom - a.top) + (b.right - b.left) * (b.bottom - b.top) - i;
+    }
+
+    private float overlap(float x1, float w1, float x2, float w2) {
+        float l1 = x1 - w1 / 2;
+        float l2 = x2 - w2 / 2;
+        float left = Math.max(l1, l2);
+        float r1 = x1 + w1 / 2;
+        float r2 = x2 + w2 / 2;
+        float right = Math.min(r1, r2);
+        return right - left;
+    }
+}
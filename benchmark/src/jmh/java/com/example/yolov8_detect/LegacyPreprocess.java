@@ -0,0 +1,145 @@
+package com.example.yolov8_detect;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+// Android-free port of the original imageToBitmap -> rescaleBitmap -> bitmapToFloatBuffer chain,
+// as the baseline for PreprocessBenchmark. Bitmaps are int[] ARGB arrays. YuvImage.compressToJpeg
+// + BitmapFactory have no JVM equivalent; jpegRoundTrip() uses ImageIO at the same quality, which
+// shows the allocation pattern but not the speed of the device codec.
+public class LegacyPreprocess {
+    private static final int BATCH_SIZE = 1;
+    private static final int PIXEL_SIZE = 3;
+    private static final int FLOAT_SIZE = 4;
+
+    private final int inputSize;
+
+    public LegacyPreprocess(int inputSize) {
+        this.inputSize = inputSize;
+    }
+
+    // imageToBitmap, first half: planes copied into one NV21 array (Y, then V, then U)
+    public byte[] toNv21(YuvFrame frame) {
+        ByteBuffer yBuffer = frame.getYBuffer().duplicate();
+        ByteBuffer uBuffer = frame.getUBuffer().duplicate();
+        ByteBuffer vBuffer = frame.getVBuffer().duplicate();
+        int ySize = yBuffer.remaining();
+        int uSize = uBuffer.remaining();
+        int vSize = vBuffer.remaining();
+        byte[] yuvBytes = new byte[ySize + uSize + vSize];
+        yBuffer.get(yuvBytes, 0, ySize);
+        vBuffer.get(yuvBytes, ySize, vSize);
+        uBuffer.get(yuvBytes, ySize + vSize, uSize);
+        return yuvBytes;
+    }
+
+    // What decoding the NV21 JPEG gives back: full range BT.601 ARGB pixels
+    public int[] nv21ToArgb(byte[] nv21, int width, int height) {
+        int[] argb = new int[width * height];
+        int frameSize = width * height;
+        for (int row = 0; row < height; row++) {
+            int uvRow = frameSize + (row >> 1) * width;
+            for (int col = 0; col < width; col++) {
+                int luma = nv21[row * width + col] & 0xFF;
+                int uv = uvRow + (col & ~1);
+                int v = (nv21[uv] & 0xFF) - 128;
+                int u = (nv21[uv + 1] & 0xFF) - 128;
+                int r = clamp(Math.round(luma + 1.402f * v));
+                int g = clamp(Math.round(luma - 0.344136f * u - 0.714136f * v));
+                int b = clamp(Math.round(luma + 1.772f * u));
+                argb[row * width + col] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+        return argb;
+    }
+
+    // compressToJpeg(quality 90) + decodeByteArray stand-in
+    public int[] jpegRoundTrip(int[] argb, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, width, height, argb, 0, width);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.9f);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        return decoded.getRGB(0, 0, width, height, null, 0, width);
+    }
+
+    // Bitmap.createScaledBitmap(bitmap, size, size, true): bilinear, stretched to a square
+    public int[] rescale(int[] argb, int width, int height) {
+        int[] scaled = new int[inputSize * inputSize];
+        float sx = width / (float) inputSize;
+        float sy = height / (float) inputSize;
+        for (int oy = 0; oy < inputSize; oy++) {
+            float fy = Math.max(0, (oy + 0.5f) * sy - 0.5f);
+            int y0 = Math.min(height - 1, (int) fy);
+            int y1 = Math.min(height - 1, y0 + 1);
+            float wy = fy - y0;
+            for (int ox = 0; ox < inputSize; ox++) {
+                float fx = Math.max(0, (ox + 0.5f) * sx - 0.5f);
+                int x0 = Math.min(width - 1, (int) fx);
+                int x1 = Math.min(width - 1, x0 + 1);
+                float wx = fx - x0;
+                int a = argb[y0 * width + x0];
+                int b = argb[y0 * width + x1];
+                int c = argb[y1 * width + x0];
+                int d = argb[y1 * width + x1];
+                int pixel = 0xFF000000;
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    float top = ((a >> shift) & 0xFF) * (1 - wx) + ((b >> shift) & 0xFF) * wx;
+                    float bottom = ((c >> shift) & 0xFF) * (1 - wx) + ((d >> shift) & 0xFF) * wx;
+                    pixel |= clamp(Math.round(top * (1 - wy) + bottom * wy)) << shift;
+                }
+                scaled[oy * inputSize + ox] = pixel;
+            }
+        }
+        return scaled;
+    }
+
+    // bitmapToFloatBuffer, verbatim (including the per-call buffer and the skipped last row/column)
+    public FloatBuffer bitmapToFloatBuffer(int[] bitmapPixels) {
+        int cap = BATCH_SIZE * PIXEL_SIZE * inputSize * inputSize;
+        ByteOrder order = ByteOrder.nativeOrder();
+        FloatBuffer buffer = ByteBuffer.allocate(cap * FLOAT_SIZE).order(order).asFloatBuffer();
+
+        int area = inputSize * inputSize;
+        int[] bitmapData = new int[area];
+
+        System.arraycopy(bitmapPixels, 0, bitmapData, 0, area);
+        for (int i = 0; i < inputSize - 1; i++) {
+            for (int j = 0; j < inputSize - 1; j++) {
+                int idx = inputSize * i + j;
+                int pixelValue = bitmapData[idx];
+                float imageMean = 0.0f;
+                float imageSTD = 255.0f;
+                buffer.put(idx, (((pixelValue >> 16 & 0xFF) - imageMean) / imageSTD));
+                buffer.put(idx + area, (((pixelValue >> 8 & 0xFF) - imageMean) / imageSTD));
+                buffer.put(idx + area * 2, (((pixelValue & 0xFF) - imageMean) / imageSTD));
+            }
+        }
+        buffer.rewind();
+        return buffer;
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(255, value);
+    }
+}
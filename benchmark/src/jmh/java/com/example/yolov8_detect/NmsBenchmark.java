@@ -0,0 +1,82 @@
+package com.example.yolov8_detect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// PriorityQueue NMS from SupportOnnx against every NmsEngine mode at growing candidate counts
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NmsBenchmark {
+    @Param({"100", "1000", "8000"})
+    public int candidateCount;
+
+    private ArrayList<LegacyPostprocess.Detection> legacyCandidates;
+    private LegacyPostprocess legacy;
+    private DetectionCandidates candidates;
+    private NmsEngine classAware;
+    private NmsEngine batched;
+    private NmsEngine soft;
+    private int[] keep;
+
+    @Setup
+    public void setUp() {
+        candidates = clustered(new Random(11), candidateCount);
+        legacyCandidates = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidates.size(); i++) {
+            legacyCandidates.add(new LegacyPostprocess.Detection(candidates.getClassId(i), candidates.getScore(i),
+                    new LegacyPostprocess.Box(candidates.getLeft(i), candidates.getTop(i),
+                            candidates.getRight(i), candidates.getBottom(i))));
+        }
+        legacy = new LegacyPostprocess(OutputFixtures.CLASSES, OutputFixtures.INPUT_SIZE);
+        classAware = new NmsEngine(NmsEngine.Mode.CLASS_AWARE, 0.5f, 100);
+        batched = new NmsEngine(NmsEngine.Mode.BATCHED, 0.5f, 100);
+        soft = new NmsEngine(NmsEngine.Mode.SOFT, 0.5f, 100);
+        soft.setSoftParameters(0.5f, 0.4f);
+        keep = new int[100];
+    }
+
+    @Benchmark
+    public Object legacyPriorityQueue() {
+        return legacy.nms(legacyCandidates);
+    }
+
+    @Benchmark
+    public int classAware() {
+        return classAware.run(candidates, keep);
+    }
+
+    @Benchmark
+    public int batched() {
+        return batched.run(candidates, keep);
+    }
+
+    @Benchmark
+    public int softNms() {
+        return soft.run(candidates, keep);
+    }
+
+    // Boxes clustered around a grid of objects, the way YOLO anchors fire
+    static DetectionCandidates clustered(Random random, int count) {
+        DetectionCandidates c = new DetectionCandidates(count);
+        for (int i = 0; i < count; i++) {
+            float cx = (random.nextInt(10) + 0.5f) * 64 + random.nextFloat() * 16;
+            float cy = (random.nextInt(10) + 0.5f) * 64 + random.nextFloat() * 16;
+            float w = 24 + random.nextFloat() * 64;
+            float h = 24 + random.nextFloat() * 64;
+            c.add(cx - w / 2, cy - h / 2, cx + w / 2, cy + h / 2,
+                    0.4f + random.nextFloat() * 0.6f, random.nextInt(OutputFixtures.CLASSES));
+        }
+        return c;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.yolov8_detect;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// Model output fixtures for the benchmarks. A recorded output (raw little-endian float32,
+// shape [1, 4 + C, N], e.g. numpy tofile()) is used when bench.outputTensor points to one,
+// otherwise a seeded synthetic output with a realistic share of confident anchors.
+public final class OutputFixtures {
+    public static final int CLASSES = 9;
+    public static final int ANCHORS = 8400;
+    public static final int INPUT_SIZE = 640;
+
+    private OutputFixtures() {
+    }
+
+    public static float[] channelMajor() {
+        String path = System.getProperty("bench.outputTensor");
+        if (path != null) {
+            try {
+                return load(path);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read output tensor " + path, e);
+            }
+        }
+        return synthetic(42L, ANCHORS);
+    }
+
+    public static float[] load(String path) throws IOException {
+        byte[] bytes = Files.readAllBytes(Paths.get(path));
+        FloatBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        float[] data = new float[buffer.remaining()];
+        buffer.get(data);
+        if (data.length != (4 + CLASSES) * ANCHORS) {
+            throw new IOException("Expected " + (4 + CLASSES) * ANCHORS + " floats, got " + data.length);
+        }
+        return data;
+    }
+
+    public static float[] synthetic(long seed, int anchors) {
+        Random random = new Random(seed);
+        float[] output = new float[(4 + CLASSES) * anchors];
+        for (int a = 0; a < anchors; a++) {
+            output[a] = random.nextFloat() * INPUT_SIZE;
+            output[anchors + a] = random.nextFloat() * INPUT_SIZE;
+            output[2 * anchors + a] = 8 + random.nextFloat() * 160;
+            output[3 * anchors + a] = 8 + random.nextFloat() * 160;
+            for (int c = 0; c < CLASSES; c++) {
+                float score = random.nextFloat() * 0.05f;
+                if (random.nextInt(200) == 0) score = 0.35f + random.nextFloat() * 0.65f;
+                output[(4 + c) * anchors + a] = score;
+            }
+        }
+        return output;
+    }
+
+    // Same data in the boxed [1][4 + C][N] form that result.get(0).getValue() returned
+    public static float[][][] boxed(float[] channelMajor, int anchors) {
+        int channels = channelMajor.length / anchors;
+        float[][][] output = new float[1][channels][anchors];
+        for (int c = 0; c < channels; c++) {
+            System.arraycopy(channelMajor, c * anchors, output[0][c], 0, anchors);
+        }
+        return output;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.yolov8_detect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+// Camera frame -> model input, step by step: the original plane copy, YUV -> RGB, JPEG round
+// trip, createScaledBitmap and bitmapToFloatBuffer against the single pass YuvPreprocessor,
+// and the MotionGate check that replaces all of it on unchanged frames.
+// Run with -prof gc (on by default in build.gradle) to see the bytes allocated per frame.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PreprocessBenchmark {
+    private YuvFrame frame;
+    private LegacyPreprocess legacy;
+    private byte[] nv21;
+    private int[] argb;
+    private int[] scaled;
+    private YuvPreprocessor letterbox;
+    private YuvPreprocessor stretch;
+    private FloatBuffer tensor;
+    private MotionGate gate;
+
+    @Setup
+    public void setUp() {
+        frame = FrameFixtures.cameraFrame();
+        legacy = new LegacyPreprocess(OutputFixtures.INPUT_SIZE);
+        nv21 = legacy.toNv21(frame);
+        argb = legacy.nv21ToArgb(nv21, frame.getWidth(), frame.getHeight());
+        scaled = legacy.rescale(argb, frame.getWidth(), frame.getHeight());
+        letterbox = new YuvPreprocessor(OutputFixtures.INPUT_SIZE, OutputFixtures.INPUT_SIZE, ResizeMode.LETTERBOX);
+        stretch = new YuvPreprocessor(OutputFixtures.INPUT_SIZE, OutputFixtures.INPUT_SIZE, ResizeMode.STRETCH);
+        int floats = 3 * OutputFixtures.INPUT_SIZE * OutputFixtures.INPUT_SIZE;
+        tensor = ByteBuffer.allocateDirect(floats * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        gate = new MotionGate();
+        gate.setMaxSkipped(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public byte[] legacyPlaneCopy() {
+        return legacy.toNv21(frame);
+    }
+
+    @Benchmark
+    public int[] legacyYuvToRgb() {
+        return legacy.nv21ToArgb(nv21, frame.getWidth(), frame.getHeight());
+    }
+
+    @Benchmark
+    public int[] legacyJpegRoundTrip() throws IOException {
+        return legacy.jpegRoundTrip(argb, frame.getWidth(), frame.getHeight());
+    }
+
+    @Benchmark
+    public int[] legacyResize() {
+        return legacy.rescale(argb, frame.getWidth(), frame.getHeight());
+    }
+
+    @Benchmark
+    public FloatBuffer legacyNormalize() {
+        return legacy.bitmapToFloatBuffer(scaled);
+    }
+
+    // The whole original chain except the JPEG step
+    @Benchmark
+    public FloatBuffer legacyTotal() {
+        byte[] bytes = legacy.toNv21(frame);
+        int[] pixels = legacy.nv21ToArgb(bytes, frame.getWidth(), frame.getHeight());
+        return legacy.bitmapToFloatBuffer(legacy.rescale(pixels, frame.getWidth(), frame.getHeight()));
+    }
+
+    @Benchmark
+    public FrameTransform yuvPreprocessorLetterbox() {
+        return letterbox.preprocess(frame, tensor);
+    }
+
+    // Same geometry as the original createScaledBitmap
+    @Benchmark
+    public FrameTransform yuvPreprocessorStretch() {
+        return stretch.preprocess(frame, tensor);
+    }
+
+    // What a gated frame costs instead of preprocess + inference: the same frame every call
+    @Benchmark
+    public boolean motionGate() {
+        return gate.shouldInfer(frame);
+    }
+}
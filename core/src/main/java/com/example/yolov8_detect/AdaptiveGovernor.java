@@ -0,0 +1,156 @@
+package com.example.yolov8_detect;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Moves the detection loop between operating points (best quality first) based on
+// measured detector latency, pipeline backlog and a ThermalSignal.
+//  - Down one point once the loop has been overloaded for downgradeAfterMs: p75 latency
+//    over the point's budget (a few GC spikes do not move it), queues backing up, or
+//    the device running hot.
+//  - Up one point only after upgradeAfterMs of clear headroom, and only if the latency
+//    scaled to the better point's input size still fits its budget.
+//  - Straight to the last point when the thermal signal is critical.
+// Different thresholds and hold times in each direction plus a minimum dwell after every
+// switch keep it from oscillating. Time is passed in, so traces can be replayed in tests.
+public class AdaptiveGovernor {
+    public interface Listener {
+        void onOperatingPointChanged(OperatingPoint from, OperatingPoint to, String reason);
+    }
+
+    private static final int WINDOW = 20;
+    private static final int MIN_SAMPLES = 10;
+
+    private final OperatingPoint[] points;
+    private final ThermalSignal thermal;
+    private Listener listener;
+
+    private long downgradeAfterMs = 1000;
+    private long upgradeAfterMs = 8000;
+    private long minDwellMs = 2000;
+    private float hotPressure = 0.7f;
+    private float coolPressure = 0.4f;
+    private float criticalPressure = 0.95f;
+
+    private final double[] latencies = new double[WINDOW];
+    private final double[] sorted = new double[WINDOW];
+    private int samples;
+    private int next;
+    private double queueAverage;
+
+    private int level;
+    private long changedAtMs = Long.MIN_VALUE / 2;
+    private long overloadedSinceMs = -1;
+    private long underloadedSinceMs = -1;
+    private int switches;
+
+    public AdaptiveGovernor(List<OperatingPoint> points, ThermalSignal thermal) {
+        if (points.isEmpty()) {
+            throw new IllegalArgumentException("At least one operating point required");
+        }
+        this.points = points.toArray(new OperatingPoint[0]);
+        this.thermal = thermal;
+    }
+
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized void setHoldTimes(long downgradeAfterMs, long upgradeAfterMs, long minDwellMs) {
+        this.downgradeAfterMs = downgradeAfterMs;
+        this.upgradeAfterMs = upgradeAfterMs;
+        this.minDwellMs = minDwellMs;
+    }
+
+    public synchronized void setPressureThresholds(float cool, float hot, float critical) {
+        this.coolPressure = cool;
+        this.hotPressure = hot;
+        this.criticalPressure = critical;
+    }
+
+    public synchronized OperatingPoint getCurrent() {
+        return points[level];
+    }
+
+    public synchronized int getLevel() {
+        return level;
+    }
+
+    // Number of operating point changes so far
+    public synchronized int getSwitches() {
+        return switches;
+    }
+
+    // One detector run: its latency (bottleneck stage) and the items queued in the pipeline.
+    // Returns the operating point to use from now on.
+    public synchronized OperatingPoint onFrame(long nowMs, long latencyNanos, int queueDepth) {
+        latencies[next] = latencyNanos / 1e6;
+        next = (next + 1) % WINDOW;
+        if (samples < WINDOW) samples++;
+        queueAverage = queueAverage * 0.9 + queueDepth * 0.1;
+        return evaluate(nowMs);
+    }
+
+    public synchronized OperatingPoint evaluate(long nowMs) {
+        float pressure = thermal.getPressure();
+        if (pressure >= criticalPressure && level < points.length - 1) {
+            return switchTo(points.length - 1, nowMs, "thermal critical");
+        }
+        if (nowMs - changedAtMs < minDwellMs || samples < MIN_SAMPLES) {
+            return points[level];
+        }
+
+        OperatingPoint current = points[level];
+        double p75 = p75();
+        double budget = budgetMs(current);
+        boolean overloaded = p75 > budget || queueAverage > 1 || pressure >= hotPressure;
+        boolean underloaded = !overloaded && level > 0 && pressure < coolPressure && queueAverage < 0.25
+                && scaledLatency(p75, current, points[level - 1]) < budgetMs(points[level - 1]) * 0.8;
+
+        overloadedSinceMs = overloaded ? (overloadedSinceMs < 0 ? nowMs : overloadedSinceMs) : -1;
+        underloadedSinceMs = underloaded ? (underloadedSinceMs < 0 ? nowMs : underloadedSinceMs) : -1;
+
+        if (overloadedSinceMs >= 0 && nowMs - overloadedSinceMs >= downgradeAfterMs && level < points.length - 1) {
+            String reason = pressure >= hotPressure ? "thermal" : p75 > budget ? "latency" : "backlog";
+            return switchTo(level + 1, nowMs, reason);
+        }
+        if (underloadedSinceMs >= 0 && nowMs - underloadedSinceMs >= upgradeAfterMs) {
+            return switchTo(level - 1, nowMs, "headroom");
+        }
+        return current;
+    }
+
+    private OperatingPoint switchTo(int newLevel, long nowMs, String reason) {
+        OperatingPoint from = points[level];
+        level = newLevel;
+        changedAtMs = nowMs;
+        overloadedSinceMs = -1;
+        underloadedSinceMs = -1;
+        // Latencies of the old point say little about the new one
+        samples = 0;
+        next = 0;
+        switches++;
+        if (listener != null) {
+            listener.onOperatingPointChanged(from, points[level], reason);
+        }
+        return points[level];
+    }
+
+    // The detector runs once every detectEvery frames, so that is its time budget
+    static double budgetMs(OperatingPoint point) {
+        return point.getFrameIntervalNanos() * point.getDetectEvery() / 1e6;
+    }
+
+    // Detector cost grows with the input area
+    static double scaledLatency(double latencyMs, OperatingPoint from, OperatingPoint to) {
+        double ratio = to.getInputWidth() * (double) to.getInputHeight()
+                / (from.getInputWidth() * (double) from.getInputHeight());
+        return latencyMs * ratio;
+    }
+
+    private double p75() {
+        System.arraycopy(latencies, 0, sorted, 0, samples);
+        Arrays.sort(sorted, 0, samples);
+        return sorted[Math.min(samples - 1, (int) Math.ceil(0.75 * samples) - 1)];
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.yolov8_detect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns the tracker output into spoken announcements. Instead of repeating everything in
+// view on a fixed timer, only changes are announced:
+//  - APPEARED: a new track of a class,
+//  - APPROACHING: a track's box grew by approachGrowth (area) since it was last announced,
+//  - LEFT: a track disappeared.
+// Events are ranked by the class priority from the PhraseTable (approaching ranks higher,
+// leaving lower) and de-duplicated per class and event type with the class cooldown, so
+// three people walking in give one "Ada orang". One phrase is spoken at a time; an urgent
+// event (priority >= URGENT_PRIORITY) interrupts a less important phrase on the same frame.
+// Events waiting longer than maxAgeMs are dropped, stale news is worse than none.
+public class AnnouncementEngine {
+    public enum EventType {
+        APPEARED,
+        APPROACHING,
+        LEFT
+    }
+
+    public static final int URGENT_PRIORITY = 80;
+    private static final int APPROACH_BONUS = 10;
+    private static final int LEFT_PENALTY = 30;
+    private static final EventType[] TYPES = EventType.values();
+
+    private final PhraseTable phrases;
+    private final SpeechSink sink;
+
+    private float minScore = 0.5f;
+    private float approachGrowth = 1.5f;
+    private long maxAgeMs = 1500;
+    // Fallback when the sink never reports the end of an utterance
+    private long maxSpeechMs = 8000;
+
+    private final ArrayList<TrackState> states = new ArrayList<>();
+    // One pending slot and one last-spoken time per class and event type
+    private final long[] pendingAtMs;
+    private final long[] spokenAtMs;
+
+    private boolean speaking;
+    private int speakingPriority;
+    private long speakingSinceMs;
+    private long announcements;
+    private long interruptions;
+
+    public AnnouncementEngine(PhraseTable phrases, SpeechSink sink) {
+        this.phrases = phrases;
+        this.sink = sink;
+        int slots = phrases.getClassCount() * TYPES.length;
+        pendingAtMs = new long[slots];
+        spokenAtMs = new long[slots];
+        for (int i = 0; i < slots; i++) {
+            pendingAtMs[i] = -1;
+            spokenAtMs[i] = Long.MIN_VALUE / 2;
+        }
+    }
+
+    // minScore: tracks below it are not announced; approachGrowth: box area ratio that
+    // counts as getting closer; maxAgeMs: how long an event may wait for the speaker
+    public synchronized void setThresholds(float minScore, float approachGrowth, long maxAgeMs) {
+        this.minScore = minScore;
+        this.approachGrowth = approachGrowth;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    // Called once per published frame with the confirmed tracks
+    public synchronized void update(long nowMs, List<Track> tracks) {
+        for (int s = 0; s < states.size(); s++) {
+            states.get(s).seen = false;
+        }
+
+        for (int t = 0; t < tracks.size(); t++) {
+            Track track = tracks.get(t);
+            float area = Math.max(0f, track.getRight() - track.getLeft())
+                    * Math.max(0f, track.getBottom() - track.getTop());
+            TrackState state = find(track.getId());
+            if (state == null) {
+                if (track.getScore() < minScore) continue;
+                states.add(new TrackState(track.getId(), track.getClassId(), area));
+                post(track.getClassId(), EventType.APPEARED, nowMs);
+                continue;
+            }
+            state.seen = true;
+            if (area >= state.referenceArea * approachGrowth) {
+                post(state.classId, EventType.APPROACHING, nowMs);
+                state.referenceArea = area;
+            } else if (area < state.referenceArea) {
+                // Growth is measured from the smallest box since the last announcement
+                state.referenceArea = area;
+            }
+        }
+
+        for (int s = states.size() - 1; s >= 0; s--) {
+            TrackState state = states.get(s);
+            if (!state.seen) {
+                post(state.classId, EventType.LEFT, nowMs);
+                states.remove(s);
+            }
+        }
+
+        dispatch(nowMs);
+    }
+
+    // From the sink, on any thread; the next phrase goes out on the next update()
+    public synchronized void onSpeechDone() {
+        speaking = false;
+    }
+
+    public synchronized void reset() {
+        states.clear();
+        for (int i = 0; i < pendingAtMs.length; i++) {
+            pendingAtMs[i] = -1;
+        }
+    }
+
+    public synchronized boolean isSpeaking() {
+        return speaking;
+    }
+
+    public synchronized long getAnnouncements() {
+        return announcements;
+    }
+
+    public synchronized long getInterruptions() {
+        return interruptions;
+    }
+
+    static int priority(PhraseTable phrases, int classId, EventType type) {
+        int priority = phrases.getPriority(classId);
+        if (type == EventType.APPROACHING) return priority + APPROACH_BONUS;
+        if (type == EventType.LEFT) return priority - LEFT_PENALTY;
+        return priority;
+    }
+
+    private void post(int classId, EventType type, long nowMs) {
+        if (phrases.getPhrase(classId, type) == null) return;
+        int slot = classId * TYPES.length + type.ordinal();
+        if (nowMs - spokenAtMs[slot] < phrases.getCooldownMs(classId)) return;
+        if (pendingAtMs[slot] < 0) {
+            pendingAtMs[slot] = nowMs;
+        }
+    }
+
+    private void dispatch(long nowMs) {
+        if (speaking && nowMs - speakingSinceMs > maxSpeechMs) {
+            speaking = false;
+        }
+
+        int best = -1;
+        int bestPriority = Integer.MIN_VALUE;
+        for (int slot = 0; slot < pendingAtMs.length; slot++) {
+            if (pendingAtMs[slot] < 0) continue;
+            if (nowMs - pendingAtMs[slot] > maxAgeMs) {
+                pendingAtMs[slot] = -1;
+                continue;
+            }
+            int priority = priority(phrases, slot / TYPES.length, TYPES[slot % TYPES.length]);
+            if (priority > bestPriority || (priority == bestPriority && pendingAtMs[slot] > pendingAtMs[best])) {
+                best = slot;
+                bestPriority = priority;
+            }
+        }
+        if (best < 0) return;
+
+        boolean interrupt = false;
+        if (speaking) {
+            if (bestPriority < URGENT_PRIORITY || bestPriority <= speakingPriority) return;
+            interrupt = true;
+        }
+
+        int classId = best / TYPES.length;
+        if (!sink.speak(phrases.getPhrase(classId, TYPES[best % TYPES.length]), interrupt)) return;
+        pendingAtMs[best] = -1;
+        spokenAtMs[best] = nowMs;
+        speaking = true;
+        speakingPriority = bestPriority;
+        speakingSinceMs = nowMs;
+        announcements++;
+        if (interrupt) interruptions++;
+    }
+
+    private TrackState find(int trackId) {
+        for (int s = 0; s < states.size(); s++) {
+            if (states.get(s).trackId == trackId) return states.get(s);
+        }
+        return null;
+    }
+
+    private static final class TrackState {
+        final int trackId;
+        final int classId;
+        float referenceArea;
+        boolean seen = true;
+
+        TrackState(int trackId, int classId, float area) {
+            this.trackId = trackId;
+            this.classId = classId;
+            this.referenceArea = area;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.yolov8_detect;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Collects items for batched inference. take() hands out a batch as soon as it is full or
+// the oldest item in it has waited maxDelay, so batching never adds more than that to a
+// frame's latency. Bounded: put() blocks and offer() refuses when full, which is the back
+// pressure for producers. After close() consumers drain what is left, then take() returns 0.
+public class BatchQueue<T> {
+    private final Object[] items;
+    private final long[] arrivals;
+    private final long maxDelayNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int head;
+    private int count;
+    private boolean closed;
+
+    public BatchQueue(int capacity, long maxDelay, TimeUnit unit) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        items = new Object[capacity];
+        arrivals = new long[capacity];
+        maxDelayNanos = unit.toNanos(maxDelay);
+    }
+
+    // False when full or closed; the caller rejects the item
+    public boolean offer(T item) {
+        lock.lock();
+        try {
+            if (closed || count == items.length) return false;
+            enqueue(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(T item) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == items.length && !closed) {
+                notFull.await();
+            }
+            if (closed) throw new IllegalStateException("Queue is closed");
+            enqueue(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(T item) {
+        int tail = (head + count) % items.length;
+        items[tail] = item;
+        arrivals[tail] = System.nanoTime();
+        count++;
+        notEmpty.signalAll();
+    }
+
+    // Waits for the first item, then until max items are there or the oldest is due.
+    // Adds up to max items to out in arrival order; 0 once closed and empty.
+    @SuppressWarnings("unchecked")
+    public int take(List<T> out, int max) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                // Also after waiting: another consumer may have taken everything meanwhile
+                while (count == 0) {
+                    if (closed) return 0;
+                    notEmpty.await();
+                }
+                long wait = arrivals[head] + maxDelayNanos - System.nanoTime();
+                if (count >= max || closed || wait <= 0) break;
+                notEmpty.awaitNanos(wait);
+            }
+            int taken = Math.min(max, count);
+            for (int i = 0; i < taken; i++) {
+                out.add((T) items[head]);
+                items[head] = null;
+                head = (head + 1) % items.length;
+            }
+            count -= taken;
+            notFull.signalAll();
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+}
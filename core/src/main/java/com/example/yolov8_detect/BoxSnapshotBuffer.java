@@ -0,0 +1,52 @@
+package com.example.yolov8_detect;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Box arrays (left, top, right, bottom per box) handed from one writer thread to one reader
+// thread without locks or allocation, rotated the same way as DetectionSnapshotBuffer. The
+// count travels with its array, so the reader never sees boxes of two different publishes.
+public class BoxSnapshotBuffer {
+    private static final int INDEX_MASK = 0x3;
+    private static final int FRESH = 0x4;
+
+    private final float[][] boxes = new float[3][];
+    private final int[] counts = new int[3];
+    // Index of the middle array, FRESH when the reader has not taken it yet
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;   // writer only
+    private int front = 2;  // reader only
+
+    public BoxSnapshotBuffer(int capacity) {
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = new float[capacity * 4];
+        }
+    }
+
+    public int capacity() {
+        return boxes[0].length / 4;
+    }
+
+    // Writer: array to fill for the next publish(), 4 floats per box
+    public float[] beginWrite() {
+        return boxes[back];
+    }
+
+    // Writer: makes the first count boxes of the back array the latest snapshot
+    public void publish(int count) {
+        counts[back] = count;
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    // Reader: boxes of the latest publish, valid until the next call
+    public float[] latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return boxes[front];
+    }
+
+    // Reader: box count of the array returned by the last latest()
+    public int latestCount() {
+        return counts[front];
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.yolov8_detect;
+
+// A model that runs next to the selected variant on the same input tensor (DetectorGraph),
+// as described in the model manifest (see ModelRegistry). It has its own labels and
+// thresholds and runs every getEvery() detection frames.
+public final class CompanionModel {
+    private final String name;
+    private final String file;
+    private final String labels;
+    private final float scoreThreshold;
+    private final float iouThreshold;
+    private final int every;
+
+    CompanionModel(String name, String file, String labels, float scoreThreshold, float iouThreshold, int every) {
+        this.name = name;
+        this.file = file;
+        this.labels = labels;
+        this.scoreThreshold = scoreThreshold;
+        this.iouThreshold = iouThreshold;
+        this.every = every;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public String getLabels() {
+        return labels;
+    }
+
+    public float getScoreThreshold() {
+        return scoreThreshold;
+    }
+
+    public float getIouThreshold() {
+        return iouThreshold;
+    }
+
+    public int getEvery() {
+        return every;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + file + ", every " + every + ")";
+    }
+}
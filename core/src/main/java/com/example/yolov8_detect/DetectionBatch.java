@@ -0,0 +1,274 @@
+package com.example.yolov8_detect;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The detections of one frame as they move between pipeline stages: boxes (left, top, right,
+// bottom), scores, class ids and track ids (NO_TRACK for raw detections) in parallel arrays.
+// No Android types, so decode, tracking and the overlay mapping run the same on a plain JVM.
+// Batches come from a Pool and go back to it when the frame is done; the arrays grow to the
+// largest frame seen and are reused after that. Consumers read through view(), which has no
+// writers and is indexed like Detections, so iterating boxes nothing.
+// A batch is written by one thread and handed over; it is not thread safe.
+public class DetectionBatch implements Detections {
+    public static final int NO_TRACK = -1;
+
+    private final Pool pool;
+    private final View view = new View();
+    private float[] boxes;
+    private float[] scores;
+    private int[] classIds;
+    private int[] trackIds;
+    private int size;
+
+    public DetectionBatch(int capacity) {
+        this(null, capacity);
+    }
+
+    private DetectionBatch(Pool pool, int capacity) {
+        this.pool = pool;
+        capacity = Math.max(1, capacity);
+        boxes = new float[capacity * 4];
+        scores = new float[capacity];
+        classIds = new int[capacity];
+        trackIds = new int[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(float left, float top, float right, float bottom, float score, int classId) {
+        add(left, top, right, bottom, score, classId, NO_TRACK);
+    }
+
+    public void add(float left, float top, float right, float bottom, float score, int classId, int trackId) {
+        if (size == scores.length) {
+            grow(size * 2);
+        }
+        int b = size * 4;
+        boxes[b] = left;
+        boxes[b + 1] = top;
+        boxes[b + 2] = right;
+        boxes[b + 3] = bottom;
+        scores[size] = score;
+        classIds[size] = classId;
+        trackIds[size] = trackId;
+        size++;
+    }
+
+    // Appends detections with their boxes mapped through transform; null keeps the coordinates
+    public void addAll(Detections detections, FrameTransform transform) {
+        int count = detections.size();
+        if (size + count > scores.length) {
+            grow(size + count);
+        }
+        for (int k = 0; k < count; k++) {
+            int b = size * 4;
+            if (transform != null) {
+                detections.mapBox(k, transform, boxes, b);
+            } else {
+                boxes[b] = detections.getLeft(k);
+                boxes[b + 1] = detections.getTop(k);
+                boxes[b + 2] = detections.getRight(k);
+                boxes[b + 3] = detections.getBottom(k);
+            }
+            scores[size] = detections.getScore(k);
+            classIds[size] = detections.getClassId(k);
+            trackIds[size] = NO_TRACK;
+            size++;
+        }
+    }
+
+    public void addTracks(List<Track> tracks) {
+        if (size + tracks.size() > scores.length) {
+            grow(size + tracks.size());
+        }
+        for (int i = 0; i < tracks.size(); i++) {
+            Track track = tracks.get(i);
+            add(track.getLeft(), track.getTop(), track.getRight(), track.getBottom(), track.getScore(),
+                    track.getClassId(), track.getId());
+        }
+    }
+
+    // Into the tracker's input, which has its own arrays
+    public void copyTo(DetectionCandidates candidates) {
+        for (int k = 0; k < size; k++) {
+            int b = k * 4;
+            candidates.add(boxes[b], boxes[b + 1], boxes[b + 2], boxes[b + 3], scores[k], classIds[k]);
+        }
+    }
+
+    // Back to the pool it came from; no-op for a batch made with the public constructor
+    public void release() {
+        if (pool != null) {
+            pool.release(this);
+        }
+    }
+
+    // Read-only access for consumers, the same object for the life of the batch
+    public View view() {
+        return view;
+    }
+
+    public int getCapacity() {
+        return scores.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public float getLeft(int k) {
+        return boxes[k * 4];
+    }
+
+    @Override
+    public float getTop(int k) {
+        return boxes[k * 4 + 1];
+    }
+
+    @Override
+    public float getRight(int k) {
+        return boxes[k * 4 + 2];
+    }
+
+    @Override
+    public float getBottom(int k) {
+        return boxes[k * 4 + 3];
+    }
+
+    @Override
+    public float getScore(int k) {
+        return scores[k];
+    }
+
+    @Override
+    public int getClassId(int k) {
+        return classIds[k];
+    }
+
+    public int getTrackId(int k) {
+        return trackIds[k];
+    }
+
+    @Override
+    public void mapBox(int k, FrameTransform transform, float[] dst, int offset) {
+        transform.mapBox(boxes, k * 4, dst, offset);
+    }
+
+    private void grow(int capacity) {
+        capacity = Math.max(capacity, 16);
+        float[] newBoxes = new float[capacity * 4];
+        float[] newScores = new float[capacity];
+        int[] newClassIds = new int[capacity];
+        int[] newTrackIds = new int[capacity];
+        System.arraycopy(boxes, 0, newBoxes, 0, size * 4);
+        System.arraycopy(scores, 0, newScores, 0, size);
+        System.arraycopy(classIds, 0, newClassIds, 0, size);
+        System.arraycopy(trackIds, 0, newTrackIds, 0, size);
+        boxes = newBoxes;
+        scores = newScores;
+        classIds = newClassIds;
+        trackIds = newTrackIds;
+    }
+
+    // Read side of a batch: what a consumer (overlay, tracker input, ROI seeds) may touch
+    public final class View implements Detections {
+        private View() {
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public float getLeft(int k) {
+            return boxes[k * 4];
+        }
+
+        @Override
+        public float getTop(int k) {
+            return boxes[k * 4 + 1];
+        }
+
+        @Override
+        public float getRight(int k) {
+            return boxes[k * 4 + 2];
+        }
+
+        @Override
+        public float getBottom(int k) {
+            return boxes[k * 4 + 3];
+        }
+
+        @Override
+        public float getScore(int k) {
+            return scores[k];
+        }
+
+        @Override
+        public int getClassId(int k) {
+            return classIds[k];
+        }
+
+        public int getTrackId(int k) {
+            return trackIds[k];
+        }
+
+        @Override
+        public void mapBox(int k, FrameTransform transform, float[] dst, int offset) {
+            transform.mapBox(boxes, k * 4, dst, offset);
+        }
+    }
+
+    // Batches for frames in flight. acquire() never fails: when every batch is out a new one
+    // is made (counted as a miss), and release() keeps at most size batches.
+    public static class Pool {
+        private final ArrayBlockingQueue<DetectionBatch> free;
+        private final int capacity;
+        private final AtomicLong misses = new AtomicLong();
+
+        public Pool(int size, int capacity) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("Pool size must be positive: " + size);
+            }
+            this.capacity = capacity;
+            free = new ArrayBlockingQueue<>(size);
+            for (int i = 0; i < size; i++) {
+                free.add(new DetectionBatch(this, capacity));
+            }
+        }
+
+        // Empty batch
+        public DetectionBatch acquire() {
+            DetectionBatch batch = free.poll();
+            if (batch == null) {
+                misses.incrementAndGet();
+                return new DetectionBatch(this, capacity);
+            }
+            batch.clear();
+            return batch;
+        }
+
+        public void release(DetectionBatch batch) {
+            if (batch == null) return;
+            if (batch.pool != this) {
+                throw new IllegalArgumentException("Batch belongs to another pool");
+            }
+            free.offer(batch);
+        }
+
+        public int available() {
+            return free.size();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+    }
+}
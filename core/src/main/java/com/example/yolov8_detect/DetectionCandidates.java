@@ -0,0 +1,90 @@
+package com.example.yolov8_detect;
+
+// Struct-of-arrays store for decoded boxes before NMS. Boxes are kept as
+// left, top, right, bottom in model input coordinates. Arrays grow once to the
+// anchor count and are then reused for every frame.
+public class DetectionCandidates {
+    private float[] boxes;
+    private float[] scores;
+    private int[] classIds;
+    private int size;
+
+    public DetectionCandidates(int capacity) {
+        boxes = new float[capacity * 4];
+        scores = new float[capacity];
+        classIds = new int[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (scores.length < capacity) {
+            float[] newBoxes = new float[capacity * 4];
+            float[] newScores = new float[capacity];
+            int[] newClassIds = new int[capacity];
+            System.arraycopy(boxes, 0, newBoxes, 0, size * 4);
+            System.arraycopy(scores, 0, newScores, 0, size);
+            System.arraycopy(classIds, 0, newClassIds, 0, size);
+            boxes = newBoxes;
+            scores = newScores;
+            classIds = newClassIds;
+        }
+    }
+
+    public void add(float left, float top, float right, float bottom, float score, int classId) {
+        if (size == scores.length) {
+            ensureCapacity(Math.max(16, size * 2));
+        }
+        int b = size * 4;
+        boxes[b] = left;
+        boxes[b + 1] = top;
+        boxes[b + 2] = right;
+        boxes[b + 3] = bottom;
+        scores[size] = score;
+        classIds[size] = classId;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public float getLeft(int i) {
+        return boxes[i * 4];
+    }
+
+    public float getTop(int i) {
+        return boxes[i * 4 + 1];
+    }
+
+    public float getRight(int i) {
+        return boxes[i * 4 + 2];
+    }
+
+    public float getBottom(int i) {
+        return boxes[i * 4 + 3];
+    }
+
+    public float getScore(int i) {
+        return scores[i];
+    }
+
+    public int getClassId(int i) {
+        return classIds[i];
+    }
+
+    // Raw arrays for hot loops; only the first size() entries are valid
+    public float[] boxes() {
+        return boxes;
+    }
+
+    public float[] scores() {
+        return scores;
+    }
+
+    public int[] classIds() {
+        return classIds;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.yolov8_detect;
+
+import java.util.Locale;
+
+// Detections as JSON, shared by the runner's output lines and the server's responses:
+// [{"class_id":N,"label":"...","score":S,"box":[left,top,right,bottom]}, ...]
+public final class DetectionJson {
+    public static final String CLASS_KEY = "{\"class_id\":";
+
+    private DetectionJson() {
+    }
+
+    // Boxes mapped through toSource; box is scratch of at least 4 floats
+    public static void appendDetections(StringBuilder json, Detections detections, FrameTransform toSource,
+                                        String[] labels, float[] box) {
+        json.append('[');
+        for (int k = 0; k < detections.size(); k++) {
+            detections.mapBox(k, toSource, box, 0);
+            int classId = detections.getClassId(k);
+            if (k > 0) json.append(',');
+            json.append(CLASS_KEY).append(classId).append(",\"label\":");
+            appendString(json, classId < labels.length ? labels[classId] : String.valueOf(classId));
+            json.append(",\"score\":").append(format(detections.getScore(k)))
+                    .append(",\"box\":[").append(format(box[0])).append(',').append(format(box[1]))
+                    .append(',').append(format(box[2])).append(',').append(format(box[3]))
+                    .append("]}");
+        }
+        json.append(']');
+    }
+
+    // Quoted and escaped JSON string
+    public static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static String format(float value) {
+        return String.format(Locale.US, "%.4f", value);
+    }
+}
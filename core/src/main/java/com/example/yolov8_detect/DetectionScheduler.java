@@ -0,0 +1,48 @@
+package com.example.yolov8_detect;
+
+// Decides per frame whether the detector runs or the tracker coasts on predictions:
+// every detectEvery-th frame is detected, and so is the next frame after a request
+// (nothing tracked yet, scene cut...). detectEvery = 1 detects every frame.
+public class DetectionScheduler {
+    private volatile int detectEvery;
+    private int sinceDetection;
+    private boolean forced = true;
+    private long detectedFrames;
+    private long trackedFrames;
+
+    public DetectionScheduler(int detectEvery) {
+        setDetectEvery(detectEvery);
+    }
+
+    public void setDetectEvery(int detectEvery) {
+        this.detectEvery = Math.max(1, detectEvery);
+    }
+
+    public int getDetectEvery() {
+        return detectEvery;
+    }
+
+    // Called once per frame, in frame order
+    public synchronized boolean nextFrame() {
+        if (forced || ++sinceDetection >= detectEvery) {
+            forced = false;
+            sinceDetection = 0;
+            detectedFrames++;
+            return true;
+        }
+        trackedFrames++;
+        return false;
+    }
+
+    public synchronized void requestDetection() {
+        forced = true;
+    }
+
+    public synchronized long getDetectedFrames() {
+        return detectedFrames;
+    }
+
+    public synchronized long getTrackedFrames() {
+        return trackedFrames;
+    }
+}
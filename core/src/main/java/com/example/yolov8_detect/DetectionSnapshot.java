@@ -0,0 +1,95 @@
+package com.example.yolov8_detect;
+
+// Detections of one frame as the overlay draws them: view-space boxes (l, t, r, b),
+// class ids and whole-percent scores. Instances are preallocated and recycled by
+// DetectionSnapshotBuffer; once published a snapshot is never written until the
+// reader has let go of it, so the UI thread can treat it as immutable.
+public class DetectionSnapshot {
+    private final float[] boxes;
+    private final int[] classIds;
+    private final int[] percents;
+    private int count;
+    private long frameId;
+    private long signature;
+
+    public DetectionSnapshot(int capacity) {
+        boxes = new float[capacity * 4];
+        classIds = new int[capacity];
+        percents = new int[capacity];
+    }
+
+    public int getCapacity() {
+        return classIds.length;
+    }
+
+    // Writer side: clear(), add() for every box, then seal()
+    public void clear(long frameId) {
+        this.frameId = frameId;
+        count = 0;
+    }
+
+    // Returns false once the snapshot is full
+    public boolean add(float left, float top, float right, float bottom, int classId, float score) {
+        if (count == classIds.length) return false;
+        int b = count * 4;
+        boxes[b] = left;
+        boxes[b + 1] = top;
+        boxes[b + 2] = right;
+        boxes[b + 3] = bottom;
+        classIds[count] = classId;
+        percents[count] = Math.max(0, Math.min(100, Math.round(score * 100)));
+        count++;
+        return true;
+    }
+
+    // Signature over what is visible (class, percent, boxes rounded to whole pixels),
+    // equal signatures mean the overlay would draw the same picture
+    public void seal() {
+        long hash = count;
+        for (int i = 0; i < count; i++) {
+            hash = hash * 31 + classIds[i];
+            hash = hash * 31 + percents[i];
+            int b = i * 4;
+            for (int k = 0; k < 4; k++) {
+                hash = hash * 31 + Math.round(boxes[b + k]);
+            }
+        }
+        signature = hash;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getFrameId() {
+        return frameId;
+    }
+
+    public long getSignature() {
+        return signature;
+    }
+
+    public float getLeft(int i) {
+        return boxes[i * 4];
+    }
+
+    public float getTop(int i) {
+        return boxes[i * 4 + 1];
+    }
+
+    public float getRight(int i) {
+        return boxes[i * 4 + 2];
+    }
+
+    public float getBottom(int i) {
+        return boxes[i * 4 + 3];
+    }
+
+    public int getClassId(int i) {
+        return classIds[i];
+    }
+
+    public int getPercent(int i) {
+        return percents[i];
+    }
+}
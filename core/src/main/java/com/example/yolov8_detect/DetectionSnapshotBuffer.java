@@ -0,0 +1,48 @@
+package com.example.yolov8_detect;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hands detection snapshots from one writer thread (pipeline) to one reader thread (UI)
+// without locks or allocation. Three snapshots rotate: the writer fills its back buffer
+// and swaps it into the middle, the reader swaps the middle with its front buffer when a
+// new one is waiting. The writer therefore never touches the snapshot being drawn.
+public class DetectionSnapshotBuffer {
+    private static final int INDEX_MASK = 0x3;
+    private static final int FRESH = 0x4;
+
+    private final DetectionSnapshot[] snapshots = new DetectionSnapshot[3];
+    // Index of the middle snapshot, FRESH when the reader has not taken it yet
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;   // writer only
+    private int front = 2;  // reader only
+
+    public DetectionSnapshotBuffer(int capacity) {
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new DetectionSnapshot(capacity);
+        }
+    }
+
+    // Writer: snapshot to fill for the next publish()
+    public DetectionSnapshot beginWrite() {
+        return snapshots[back];
+    }
+
+    // Writer: makes the filled back buffer the latest snapshot
+    public void publish() {
+        snapshots[back].seal();
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    // Reader: latest published snapshot, stays valid until the next call
+    public DetectionSnapshot latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+
+    // Reader: whether publish() happened since the last latest()
+    public boolean hasFresh() {
+        return (middle.get() & FRESH) != 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.yolov8_detect;
+
+// Read access to the detections a detector kept, best first, boxes in the detector's
+// coordinates. mapBox() maps box k through a transform into dst[offset .. offset + 3].
+public interface Detections {
+    int size();
+
+    float getLeft(int k);
+
+    float getTop(int k);
+
+    float getRight(int k);
+
+    float getBottom(int k);
+
+    float getScore(int k);
+
+    int getClassId(int k);
+
+    void mapBox(int k, FrameTransform transform, float[] dst, int offset);
+}
@@ -0,0 +1,259 @@
+package com.example.yolov8_detect;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+// Several models on one preprocessed frame: every branch's session reads the same input
+// tensor, in parallel on the executor when one is set. Each branch decodes in its own label
+// space with its own thresholds; labels are then mapped to one LabelSpace (same name or an
+// alias = same class) and the branches are merged with class-aware NMS.
+// A branch that is not due this frame (ModelBranch.getEvery()) contributes its last
+// detections, so a slow model does not blink in and out between its runs.
+// run() (inference thread) and decode() (decode thread) are split like the app pipeline; the
+// Outputs of a frame carry the raw outputs from one to the other. Neither is thread safe.
+public class DetectorGraph implements Detections {
+    private final List<ModelBranch> branches = new ArrayList<>();
+    private final List<BranchRun> runs = new ArrayList<>();
+    private final List<BranchRun> due = new ArrayList<>();
+    private final LabelSpace labelSpace;
+    private final DetectionCandidates candidates;
+    private final NmsEngine nmsEngine;
+    private final int[] keep;
+    private Outputs ownOutputs;
+    private ExecutorService executor;
+    private PipelineMetrics metrics;
+    private long frames;
+    private int kept;
+
+    // labelSpace may be shared with the UI so class ids are known before the graph exists
+    public DetectorGraph(LabelSpace labelSpace, float mergeIouThreshold, int maxDetections) {
+        this.labelSpace = labelSpace;
+        candidates = new DetectionCandidates(maxDetections * 2);
+        nmsEngine = new NmsEngine(NmsEngine.Mode.CLASS_AWARE, mergeIouThreshold, maxDetections);
+        keep = new int[maxDetections];
+    }
+
+    // Returns the branch index. Static inputs must match, every branch reads the same tensor.
+    public int addBranch(ModelBranch branch) {
+        ModelSignature signature = branch.getSignature();
+        if (signature.getBatchSize() > 1) {
+            throw new IllegalArgumentException(branch.getName() + ": batch " + signature.getBatchSize()
+                    + ", the graph runs one frame");
+        }
+        for (ModelBranch other : branches) {
+            ModelSignature shared = other.getSignature();
+            if (!signature.isDynamicInput() && !shared.isDynamicInput()
+                    && (signature.getInputWidth() != shared.getInputWidth()
+                    || signature.getInputHeight() != shared.getInputHeight())) {
+                throw new IllegalArgumentException(branch.getName() + " takes " + signature.getInputWidth() + "x"
+                        + signature.getInputHeight() + ", " + other.getName() + " " + shared.getInputWidth()
+                        + "x" + shared.getInputHeight());
+            }
+        }
+        branch.classMap = labelSpace.add(branch.getLabels());
+        branch.getDetections().setMetrics(metrics);
+        branches.add(branch);
+        runs.add(new BranchRun(branches.size() - 1));
+        ownOutputs = null;
+        return branches.size() - 1;
+    }
+
+    public int getBranchCount() {
+        return branches.size();
+    }
+
+    public ModelBranch getBranch(int index) {
+        return branches.get(index);
+    }
+
+    // Unified labels, indexed by getClassId()
+    public LabelSpace getLabelSpace() {
+        return labelSpace;
+    }
+
+    // Runs the due branches on this executor; without one they run one after another
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    // Records BATCHES per session run, DECODE and NMS per branch; callers time run() as INFERENCE
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+        for (ModelBranch branch : branches) {
+            branch.getDetections().setMetrics(metrics);
+        }
+    }
+
+    public Outputs newOutputs() {
+        return new Outputs(branches.size());
+    }
+
+    // Runs the branches due this frame on input ([1, 3, H, W]) into outputs
+    public void run(OnnxTensor input, Outputs outputs) throws OrtException, InterruptedException {
+        if (outputs.outputs.length != branches.size()) {
+            throw new IllegalArgumentException("Outputs for " + outputs.outputs.length + " branches, graph has "
+                    + branches.size());
+        }
+        long frame = frames++;
+        due.clear();
+        for (int i = 0; i < runs.size(); i++) {
+            outputs.outputs[i] = null;
+            if (frame % branches.get(i).getEvery() == 0) {
+                due.add(runs.get(i).set(input, outputs));
+            }
+        }
+        if (executor == null || due.size() <= 1) {
+            for (int i = 0; i < due.size(); i++) {
+                due.get(i).call();
+            }
+            return;
+        }
+        for (Future<Void> future : executor.invokeAll(due)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof OrtException) throw (OrtException) cause;
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+            }
+        }
+    }
+
+    // Decodes what run() produced and merges all branches; returns the number of detections
+    public int decode(Outputs outputs, int inputWidth, int inputHeight) {
+        candidates.clear();
+        for (int i = 0; i < branches.size(); i++) {
+            ModelBranch branch = branches.get(i);
+            YoloDetector detector = branch.getDetections();
+            FloatBuffer output = outputs.outputs[i];
+            if (output != null) {
+                detector.postprocess(output, outputs.rows[i], inputWidth, inputHeight);
+                branch.decodedWidth = inputWidth;
+                branch.decodedHeight = inputHeight;
+                outputs.outputs[i] = null;
+            } else if (branch.decodedWidth != inputWidth || branch.decodedHeight != inputHeight) {
+                // Nothing held yet, or held for another input size
+                continue;
+            }
+            for (int k = 0; k < detector.size(); k++) {
+                candidates.add(detector.getLeft(k), detector.getTop(k), detector.getRight(k), detector.getBottom(k),
+                        detector.getScore(k), branch.classMap[detector.getClassId(k)]);
+            }
+        }
+        kept = nmsEngine.run(candidates, keep);
+        return kept;
+    }
+
+    // run() and decode() in one go, for callers without a pipeline
+    public int detect(OnnxTensor input, int inputWidth, int inputHeight) throws OrtException, InterruptedException {
+        if (ownOutputs == null) {
+            ownOutputs = newOutputs();
+        }
+        run(input, ownOutputs);
+        return decode(ownOutputs, inputWidth, inputHeight);
+    }
+
+    @Override
+    public int size() {
+        return kept;
+    }
+
+    @Override
+    public float getLeft(int k) {
+        return candidates.getLeft(keep[k]);
+    }
+
+    @Override
+    public float getTop(int k) {
+        return candidates.getTop(keep[k]);
+    }
+
+    @Override
+    public float getRight(int k) {
+        return candidates.getRight(keep[k]);
+    }
+
+    @Override
+    public float getBottom(int k) {
+        return candidates.getBottom(keep[k]);
+    }
+
+    @Override
+    public float getScore(int k) {
+        return nmsEngine.getScore(candidates, keep[k]);
+    }
+
+    @Override
+    public int getClassId(int k) {
+        return candidates.getClassId(keep[k]);
+    }
+
+    @Override
+    public void mapBox(int k, FrameTransform transform, float[] dst, int offset) {
+        transform.mapBox(candidates.boxes(), keep[k] * 4, dst, offset);
+    }
+
+    // Raw outputs of one frame between run() and decode(); null for branches that did not run
+    public static final class Outputs {
+        final FloatBuffer[] outputs;
+        final int[] rows;
+
+        Outputs(int branches) {
+            outputs = new FloatBuffer[branches];
+            rows = new int[branches];
+        }
+
+        public boolean ran(int branch) {
+            return outputs[branch] != null;
+        }
+    }
+
+    private final class BranchRun implements Callable<Void> {
+        private final int index;
+        private OnnxTensor input;
+        private Map<String, OnnxTensor> inputs;
+        private Outputs outputs;
+
+        BranchRun(int index) {
+            this.index = index;
+        }
+
+        BranchRun set(OnnxTensor tensor, Outputs outputs) {
+            if (tensor != input) {
+                input = tensor;
+                inputs = Collections.singletonMap(branches.get(index).getSignature().getInputName(), tensor);
+            }
+            this.outputs = outputs;
+            return this;
+        }
+
+        @Override
+        public Void call() throws OrtException {
+            OrtSession session = branches.get(index).getSession();
+            try (OrtSession.Result result = session.run(inputs)) {
+                OnnxTensor tensor = (OnnxTensor) result.get(0);
+                long[] shape = tensor.getInfo().getShape();
+                outputs.rows[index] = (int) shape[shape.length - 1];
+                // Copy, the native tensor is released with the result
+                outputs.outputs[index] = tensor.getFloatBuffer();
+            }
+            if (metrics != null) {
+                metrics.increment(PipelineMetrics.Counter.BATCHES);
+                metrics.increment(PipelineMetrics.Counter.ALLOCATIONS);
+            }
+            outputs = null;
+            return null;
+        }
+    }
+}
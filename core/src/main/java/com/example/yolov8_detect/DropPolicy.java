@@ -0,0 +1,11 @@
+package com.example.yolov8_detect;
+
+// What a full hand-off queue does with a new item
+public enum DropPolicy {
+    // Wait for space; upstream slows down to the pace of this stage
+    BLOCK,
+    // Reject the incoming item
+    DROP_NEWEST,
+    // Evict the oldest queued item so the freshest frame always gets through
+    DROP_OLDEST
+}
@@ -0,0 +1,300 @@
+package com.example.yolov8_detect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Chain of stages, each on its own thread, connected by bounded hand-off queues.
+// While stage N works on frame k, stage N-1 can already work on frame k+1.
+// The caller's thread (e.g. the CameraX analyzer doing capture/preprocess) feeds the
+// first queue through submit(). Nothing here depends on Android.
+public class FramePipeline<T> {
+
+    // Called for every item that is evicted, rejected, left in a queue at shutdown or whose
+    // stage threw (after the ErrorListener), so pooled resources held by the item can be
+    // returned once. item is the input type of the named stage.
+    public interface DropListener {
+        void onDropped(String stage, Object item);
+    }
+
+    public interface ErrorListener {
+        void onError(String stage, Throwable error);
+    }
+
+    // Marks cheap items (e.g. frames that only move tracked boxes) that must not push out real
+    // work: under DROP_OLDEST they never evict a queued item, a full queue drops them instead
+    public interface YieldPolicy {
+        boolean yields(Object item);
+    }
+
+    private final String name;
+    private final List<Stage<Object, Object>> stages;
+    private final DropListener dropListener;
+    private final ErrorListener errorListener;
+    private final YieldPolicy yieldPolicy;
+    private volatile boolean running;
+
+    private FramePipeline(String name, List<Stage<Object, Object>> stages, DropListener dropListener,
+                          ErrorListener errorListener, YieldPolicy yieldPolicy) {
+        this.name = name;
+        this.stages = stages;
+        this.dropListener = dropListener;
+        this.errorListener = errorListener;
+        this.yieldPolicy = yieldPolicy;
+    }
+
+    public static <T> Builder<T, T> builder(String name) {
+        return new Builder<>(name);
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        for (final Stage<Object, Object> stage : stages) {
+            stage.thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work(stage);
+                }
+            }, name + "-" + stage.name);
+            stage.thread.setDaemon(true);
+            stage.thread.start();
+        }
+    }
+
+    // Hands an item to the first stage according to its drop policy.
+    // Returns false if the item was dropped (the drop listener has already been called).
+    public boolean submit(T item) {
+        if (!running) {
+            drop(stages.get(0), item);
+            return false;
+        }
+        return enqueue(stages.get(0), item);
+    }
+
+    // Stops all stage threads, waits up to timeoutMs for them and releases queued items.
+    // False when a stage is still inside its processor after the timeout (a native call does
+    // not see the interrupt): whatever that stage uses must stay open. Calling it again waits
+    // for the remaining threads.
+    public boolean shutdown(long timeoutMs) {
+        boolean stopping;
+        synchronized (this) {
+            stopping = running;
+            running = false;
+        }
+        if (stopping) {
+            for (Stage<Object, Object> stage : stages) {
+                if (stage.thread != null) stage.thread.interrupt();
+            }
+        }
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (Stage<Object, Object> stage : stages) {
+            if (stage.thread == null) continue;
+            try {
+                stage.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Stage<Object, Object> stage : stages) {
+            Object item;
+            while ((item = stage.queue.poll()) != null) {
+                drop(stage, item);
+            }
+        }
+        return isTerminated();
+    }
+
+    // True once no stage thread is alive (also before start())
+    public boolean isTerminated() {
+        for (Stage<Object, Object> stage : stages) {
+            if (stage.thread != null && stage.thread.isAlive()) return false;
+        }
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Items waiting in all stage queues, cheap enough to poll every frame
+    public int getQueuedCount() {
+        int queued = 0;
+        for (int i = 0; i < stages.size(); i++) {
+            queued += stages.get(i).queue.size();
+        }
+        return queued;
+    }
+
+    public List<StageStats> getStats() {
+        List<StageStats> stats = new ArrayList<>(stages.size());
+        for (Stage<Object, Object> stage : stages) {
+            stats.add(new StageStats(stage.name, stage.processed.get(), stage.dropped.get(),
+                    stage.failed.get(), stage.busyNanos.get(), stage.queue.size()));
+        }
+        return stats;
+    }
+
+    private void work(Stage<Object, Object> stage) {
+        while (running) {
+            Object item;
+            try {
+                item = stage.queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            Object output = null;
+            long start = System.nanoTime();
+            try {
+                output = stage.processor.process(item);
+            } catch (Exception e) {
+                stage.failed.incrementAndGet();
+                if (errorListener != null) errorListener.onError(stage.name, e);
+                // Counted as failed, not dropped, but released the same way
+                if (dropListener != null) dropListener.onDropped(stage.name, item);
+            }
+            stage.busyNanos.addAndGet(System.nanoTime() - start);
+            stage.processed.incrementAndGet();
+
+            if (output != null && stage.next != null) {
+                if (running) {
+                    enqueue(stage.next, output);
+                } else {
+                    drop(stage.next, output);
+                }
+            }
+        }
+    }
+
+    private boolean enqueue(Stage<Object, Object> stage, Object item) {
+        ArrayBlockingQueue<Object> queue = stage.queue;
+        switch (stage.policy) {
+            case BLOCK:
+                try {
+                    while (running) {
+                        if (queue.offer(item, 50, TimeUnit.MILLISECONDS)) return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                drop(stage, item);
+                return false;
+            case DROP_NEWEST:
+                if (queue.offer(item)) return true;
+                drop(stage, item);
+                return false;
+            case DROP_OLDEST:
+            default:
+                if (yieldPolicy != null && yieldPolicy.yields(item)) {
+                    if (queue.offer(item)) return true;
+                    drop(stage, item);
+                    return false;
+                }
+                while (!queue.offer(item)) {
+                    Object evicted = queue.poll();
+                    if (evicted != null) drop(stage, evicted);
+                }
+                return true;
+        }
+    }
+
+    private void drop(Stage<Object, Object> stage, Object item) {
+        stage.dropped.incrementAndGet();
+        if (dropListener != null) dropListener.onDropped(stage.name, item);
+    }
+
+    private static class Stage<I, O> {
+        final String name;
+        final PipelineStage<I, O> processor;
+        final DropPolicy policy;
+        final ArrayBlockingQueue<Object> queue;
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong busyNanos = new AtomicLong();
+        Stage<Object, Object> next;
+        Thread thread;
+
+        Stage(String name, PipelineStage<I, O> processor, int capacity, DropPolicy policy) {
+            this.name = name;
+            this.processor = processor;
+            this.policy = policy;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    public static class StageStats {
+        public final String name;
+        public final long processed;
+        public final long dropped;
+        public final long failed;
+        public final long busyNanos;
+        public final int queued;
+
+        StageStats(String name, long processed, long dropped, long failed, long busyNanos, int queued) {
+            this.name = name;
+            this.processed = processed;
+            this.dropped = dropped;
+            this.failed = failed;
+            this.busyNanos = busyNanos;
+            this.queued = queued;
+        }
+
+        @Override
+        public String toString() {
+            return name + "{processed=" + processed + ", dropped=" + dropped + ", failed=" + failed
+                    + ", busyMs=" + busyNanos / 1_000_000 + ", queued=" + queued + "}";
+        }
+    }
+
+    // I is the type accepted by submit(), O the output type of the last added stage
+    public static class Builder<I, O> {
+        private final String name;
+        private final List<Stage<Object, Object>> stages = new ArrayList<>();
+        private DropListener dropListener;
+        private ErrorListener errorListener;
+        private YieldPolicy yieldPolicy;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <N> Builder<I, N> stage(String stageName, int capacity, DropPolicy policy,
+                                       PipelineStage<? super O, N> processor) {
+            Stage<Object, Object> stage = new Stage<>(stageName,
+                    (PipelineStage<Object, Object>) (PipelineStage<?, ?>) processor, capacity, policy);
+            if (!stages.isEmpty()) {
+                stages.get(stages.size() - 1).next = stage;
+            }
+            stages.add(stage);
+            return (Builder<I, N>) this;
+        }
+
+        public Builder<I, O> onDropped(DropListener listener) {
+            this.dropListener = listener;
+            return this;
+        }
+
+        public Builder<I, O> onError(ErrorListener listener) {
+            this.errorListener = listener;
+            return this;
+        }
+
+        public Builder<I, O> yieldWhen(YieldPolicy policy) {
+            this.yieldPolicy = policy;
+            return this;
+        }
+
+        public FramePipeline<I> build() {
+            if (stages.isEmpty()) {
+                throw new IllegalStateException("Pipeline " + name + " has no stages");
+            }
+            return new FramePipeline<>(name, new ArrayList<>(stages), dropListener, errorListener, yieldPolicy);
+        }
+    }
+}
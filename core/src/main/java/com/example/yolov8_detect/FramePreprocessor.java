@@ -0,0 +1,15 @@
+package com.example.yolov8_detect;
+
+import java.nio.FloatBuffer;
+
+// Turns a camera frame into the model input tensor (NCHW, float).
+// Implementations write the three channel planes starting at tensor.position()
+// and leave the buffer position untouched.
+public interface FramePreprocessor {
+    // Returns the source -> model input transform used for this frame
+    FrameTransform preprocess(YuvFrame frame, FloatBuffer tensor);
+
+    int getInputWidth();
+
+    int getInputHeight();
+}
@@ -0,0 +1,194 @@
+package com.example.yolov8_detect;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Records camera frames exactly as delivered (Y, U, V planes with their strides) so field
+// problems can be replayed with FrameRecordingReader. The analyzer thread only copies the
+// planes into a preallocated buffer and hands it over; a background thread does the file I/O.
+// When every buffer is in flight the frame is dropped, the analyzer never waits on disk.
+//
+// File layout, little endian:
+//   header  "YFRC" version:int
+//   chunks  "FRME" payloadLength:int timestampNanos:long rotation:int width:int height:int
+//           yRowStride:int uvRowStride:int uvPixelStride:int yLength:int uLength:int vLength:int
+//           Y bytes, U bytes, V bytes
+//   index   "INDX" count:int offset:long * count        (written by close())
+//   footer  indexOffset:long "YFRX"
+// A recording cut short (crash, battery) has no index; the reader rebuilds it by scanning chunks.
+public class FrameRecorder implements AutoCloseable {
+    static final int MAGIC = 0x43524659;        // "YFRC"
+    static final int FRAME_CHUNK = 0x454D5246;  // "FRME"
+    static final int INDEX_CHUNK = 0x58444E49;  // "INDX"
+    static final int FOOTER_MAGIC = 0x58524659; // "YFRX"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    // Chunk type and payload length
+    static final int CHUNK_HEADER_SIZE = 8;
+    // Fixed part of a frame chunk payload, planes follow
+    static final int FRAME_FIELDS_SIZE = 8 + 4 * 9;
+    static final int FOOTER_SIZE = 12;
+
+    private final File file;
+    private final RandomAccessFile output;
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> pending;
+    private final Thread writer;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    // Only touched by the writer thread
+    private long[] offsets = new long[256];
+    private int count;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    // buffers: frames that may wait for the writer before new ones are dropped
+    public FrameRecorder(File file, int buffers) throws IOException {
+        if (buffers <= 0) {
+            throw new IllegalArgumentException("Need at least one buffer: " + buffers);
+        }
+        this.file = file;
+        output = new RandomAccessFile(file, "rw");
+        output.setLength(0);
+        channel = output.getChannel();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        writeFully(header);
+
+        free = new ArrayBlockingQueue<>(buffers);
+        pending = new ArrayBlockingQueue<>(buffers);
+        for (int i = 0; i < buffers; i++) {
+            // Sized on first use, camera frames all have the same size
+            free.add(ByteBuffer.allocate(0));
+        }
+        writer = new Thread(this::writeLoop, "frame-recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    // Called on the analyzer thread. Copies the planes and returns at once; false when the
+    // frame was dropped (writer behind, or the recorder closed or failed)
+    public boolean offer(YuvFrame frame, long timestampNanos, int rotationDegrees) {
+        if (closed || failure != null) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        ByteBuffer y = frame.getYBuffer().duplicate();
+        ByteBuffer u = frame.getUBuffer().duplicate();
+        ByteBuffer v = frame.getVBuffer().duplicate();
+        int payload = FRAME_FIELDS_SIZE + y.remaining() + u.remaining() + v.remaining();
+        int size = CHUNK_HEADER_SIZE + payload;
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        buffer.clear();
+        buffer.putInt(FRAME_CHUNK).putInt(payload)
+                .putLong(timestampNanos).putInt(rotationDegrees)
+                .putInt(frame.getWidth()).putInt(frame.getHeight())
+                .putInt(frame.getYRowStride()).putInt(frame.getUvRowStride()).putInt(frame.getUvPixelStride())
+                .putInt(y.remaining()).putInt(u.remaining()).putInt(v.remaining());
+        buffer.put(y).put(u).put(v);
+        buffer.flip();
+        pending.add(buffer);
+        return true;
+    }
+
+    public long getFramesWritten() {
+        return written.get();
+    }
+
+    public long getFramesDropped() {
+        return dropped.get();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    // Writes what is queued, then the index and footer
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure == null) {
+                writeIndex();
+            }
+            channel.force(false);
+        } finally {
+            output.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                ByteBuffer buffer = pending.poll(50, TimeUnit.MILLISECONDS);
+                if (buffer == null) {
+                    if (closed) return;
+                    continue;
+                }
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = channel.position();
+                bytesWritten.addAndGet(buffer.remaining());
+                writeFully(buffer);
+                written.incrementAndGet();
+                free.add(buffer);
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        long indexOffset = channel.position();
+        ByteBuffer index = ByteBuffer.allocate(CHUNK_HEADER_SIZE + count * 8 + FOOTER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(INDEX_CHUNK).putInt(count);
+        for (int i = 0; i < count; i++) {
+            index.putLong(offsets[i]);
+        }
+        index.putLong(indexOffset).putInt(FOOTER_MAGIC);
+        index.flip();
+        writeFully(index);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
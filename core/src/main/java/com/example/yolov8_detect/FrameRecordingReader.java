@@ -0,0 +1,172 @@
+package com.example.yolov8_detect;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+// Replays a FrameRecorder file. The file is memory mapped and frames come out as YuvFrames
+// whose planes are slices of the mapping, so the preprocessor reads the recorded bytes
+// directly. Files above 2 GB are mapped one frame chunk at a time instead.
+// Uses the index when the recording was closed properly, otherwise scans the chunks and
+// keeps every complete frame. read() only creates slices, several threads may call it.
+public class FrameRecordingReader implements AutoCloseable {
+    private final RandomAccessFile input;
+    private final FileChannel channel;
+    // Whole file, null when it is too large for one mapping
+    private final MappedByteBuffer mapped;
+    private long[] offsets = new long[0];
+    private long[] timestamps = new long[0];
+    private int[] rotations = new int[0];
+    private int count;
+    private boolean indexed;
+
+    public FrameRecordingReader(File file) throws IOException {
+        input = new RandomAccessFile(file, "r");
+        channel = input.getChannel();
+        try {
+            long length = channel.size();
+            mapped = length <= Integer.MAX_VALUE
+                    ? channel.map(FileChannel.MapMode.READ_ONLY, 0, length)
+                    : null;
+            ByteBuffer header = region(0, FrameRecorder.HEADER_SIZE);
+            if (length < FrameRecorder.HEADER_SIZE || header.getInt(0) != FrameRecorder.MAGIC) {
+                throw new IOException(file + " is not a frame recording");
+            }
+            if (header.getInt(4) != FrameRecorder.VERSION) {
+                throw new IOException(file + ": unsupported version " + header.getInt(4));
+            }
+            if (!readIndex(length)) {
+                scan(length);
+            }
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    public int getFrameCount() {
+        return count;
+    }
+
+    // False when the index was rebuilt from an unfinished recording
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public long getTimestampNanos(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    public int getRotationDegrees(int index) {
+        checkIndex(index);
+        return rotations[index];
+    }
+
+    // Wraps frame index into holder (zero copy) and returns it
+    public YuvFrame read(int index, YuvFrame holder) throws IOException {
+        checkIndex(index);
+        long offset = offsets[index];
+        int payload = region(offset, FrameRecorder.CHUNK_HEADER_SIZE).getInt(4);
+        ByteBuffer chunk = region(offset + FrameRecorder.CHUNK_HEADER_SIZE, payload);
+        int yLength = chunk.getInt(32);
+        int uLength = chunk.getInt(36);
+        int vLength = chunk.getInt(40);
+        int planes = FrameRecorder.FRAME_FIELDS_SIZE;
+        return holder.wrap(chunk.getInt(12), chunk.getInt(16),
+                slice(chunk, planes, yLength), chunk.getInt(20),
+                slice(chunk, planes + yLength, uLength), slice(chunk, planes + yLength + uLength, vLength),
+                chunk.getInt(24), chunk.getInt(28));
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private boolean readIndex(long length) throws IOException {
+        if (length < FrameRecorder.HEADER_SIZE + FrameRecorder.CHUNK_HEADER_SIZE + FrameRecorder.FOOTER_SIZE) {
+            return false;
+        }
+        ByteBuffer footer = region(length - FrameRecorder.FOOTER_SIZE, FrameRecorder.FOOTER_SIZE);
+        if (footer.getInt(8) != FrameRecorder.FOOTER_MAGIC) return false;
+        long indexOffset = footer.getLong(0);
+        if (indexOffset < FrameRecorder.HEADER_SIZE || indexOffset > length - FrameRecorder.FOOTER_SIZE) return false;
+
+        ByteBuffer header = region(indexOffset, FrameRecorder.CHUNK_HEADER_SIZE);
+        int frames = header.getInt(4);
+        if (header.getInt(0) != FrameRecorder.INDEX_CHUNK || frames < 0
+                || indexOffset + FrameRecorder.CHUNK_HEADER_SIZE + frames * 8L + FrameRecorder.FOOTER_SIZE != length) {
+            return false;
+        }
+        ByteBuffer index = region(indexOffset + FrameRecorder.CHUNK_HEADER_SIZE, frames * 8);
+        ensureCapacity(frames);
+        for (int i = 0; i < frames; i++) {
+            add(index.getLong(i * 8));
+        }
+        indexed = true;
+        return true;
+    }
+
+    private void scan(long length) throws IOException {
+        long offset = FrameRecorder.HEADER_SIZE;
+        while (offset + FrameRecorder.CHUNK_HEADER_SIZE <= length) {
+            ByteBuffer header = region(offset, FrameRecorder.CHUNK_HEADER_SIZE);
+            int type = header.getInt(0);
+            int payload = header.getInt(4);
+            long end = offset + FrameRecorder.CHUNK_HEADER_SIZE + payload;
+            // Torn last chunk: the recording stopped while it was being written
+            if (type != FrameRecorder.FRAME_CHUNK || payload < FrameRecorder.FRAME_FIELDS_SIZE || end > length) {
+                break;
+            }
+            add(offset);
+            offset = end;
+        }
+    }
+
+    private void add(long offset) throws IOException {
+        ensureCapacity(count + 1);
+        ByteBuffer fields = region(offset + FrameRecorder.CHUNK_HEADER_SIZE, 12);
+        offsets[count] = offset;
+        timestamps[count] = fields.getLong(0);
+        rotations[count] = fields.getInt(8);
+        count++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (offsets.length >= capacity) return;
+        int size = Math.max(capacity, offsets.length * 2);
+        offsets = Arrays.copyOf(offsets, size);
+        timestamps = Arrays.copyOf(timestamps, size);
+        rotations = Arrays.copyOf(rotations, size);
+    }
+
+    // length bytes at offset as a little endian buffer starting at 0
+    private ByteBuffer region(long offset, int length) throws IOException {
+        ByteBuffer buffer;
+        if (mapped != null) {
+            buffer = slice(mapped, (int) offset, length);
+        } else {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Frame " + index + " of " + count);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.yolov8_detect;
+
+// Immutable axis-aligned affine transform between two image spaces:
+// target = source * scale + offset. Used to go from camera frame to model input
+// and back, and from camera frame to view coordinates.
+public final class FrameTransform {
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final int targetWidth;
+    private final int targetHeight;
+    private final float scaleX;
+    private final float scaleY;
+    private final float offsetX;
+    private final float offsetY;
+
+    public FrameTransform(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight,
+                          float scaleX, float scaleY, float offsetX, float offsetY) {
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    public static FrameTransform create(ResizeMode mode, int sourceWidth, int sourceHeight,
+                                        int targetWidth, int targetHeight) {
+        float sx = targetWidth / (float) sourceWidth;
+        float sy = targetHeight / (float) sourceHeight;
+        switch (mode) {
+            case STRETCH:
+                return new FrameTransform(sourceWidth, sourceHeight, targetWidth, targetHeight, sx, sy, 0, 0);
+            case LETTERBOX:
+                return centered(sourceWidth, sourceHeight, targetWidth, targetHeight, Math.min(sx, sy));
+            case CENTER_CROP:
+                return centered(sourceWidth, sourceHeight, targetWidth, targetHeight, Math.max(sx, sy));
+            default:
+                throw new IllegalArgumentException("Unknown resize mode " + mode);
+        }
+    }
+
+    private static FrameTransform centered(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight,
+                                           float scale) {
+        float offsetX = (targetWidth - sourceWidth * scale) / 2f;
+        float offsetY = (targetHeight - sourceHeight * scale) / 2f;
+        return new FrameTransform(sourceWidth, sourceHeight, targetWidth, targetHeight, scale, scale, offsetX, offsetY);
+    }
+
+    public FrameTransform inverse() {
+        return new FrameTransform(targetWidth, targetHeight, sourceWidth, sourceHeight,
+                1f / scaleX, 1f / scaleY, -offsetX / scaleX, -offsetY / scaleY);
+    }
+
+    // this: A -> B, next: B -> C, result: A -> C
+    public FrameTransform then(FrameTransform next) {
+        return new FrameTransform(sourceWidth, sourceHeight, next.targetWidth, next.targetHeight,
+                scaleX * next.scaleX, scaleY * next.scaleY,
+                offsetX * next.scaleX + next.offsetX, offsetY * next.scaleY + next.offsetY);
+    }
+
+    public float mapX(float x) {
+        return x * scaleX + offsetX;
+    }
+
+    public float mapY(float y) {
+        return y * scaleY + offsetY;
+    }
+
+    // Maps a box stored as left, top, right, bottom from src[srcOffset] into dst[dstOffset].
+    // src and dst may be the same array.
+    public void mapBox(float[] src, int srcOffset, float[] dst, int dstOffset) {
+        float left = mapX(src[srcOffset]);
+        float top = mapY(src[srcOffset + 1]);
+        float right = mapX(src[srcOffset + 2]);
+        float bottom = mapY(src[srcOffset + 3]);
+        dst[dstOffset] = left;
+        dst[dstOffset + 1] = top;
+        dst[dstOffset + 2] = right;
+        dst[dstOffset + 3] = bottom;
+    }
+
+    public int getSourceWidth() {
+        return sourceWidth;
+    }
+
+    public int getSourceHeight() {
+        return sourceHeight;
+    }
+
+    public int getTargetWidth() {
+        return targetWidth;
+    }
+
+    public int getTargetHeight() {
+        return targetHeight;
+    }
+
+    public float getScaleX() {
+        return scaleX;
+    }
+
+    public float getScaleY() {
+        return scaleY;
+    }
+
+    public float getOffsetX() {
+        return offsetX;
+    }
+
+    public float getOffsetY() {
+        return offsetY;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameTransform{" + sourceWidth + "x" + sourceHeight + " -> " + targetWidth + "x" + targetHeight
+                + ", scale=" + scaleX + "/" + scaleY + ", offset=" + offsetX + "/" + offsetY + "}";
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.yolov8_detect;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Runs synthetic inferences until latency settles. The first runs pay for lazy kernel
+// selection and arena growth; warm-up stops once the p95 of the last window stays within
+// tolerance of the window before it (or after maxRuns, reported as not converged).
+public class InferenceWarmup {
+    public interface Inference {
+        void run() throws Exception;
+    }
+
+    public static class Stats {
+        private final double[] latenciesMs;
+        private final boolean converged;
+        private final double convergedP95Ms;
+
+        Stats(double[] latenciesMs, boolean converged, double convergedP95Ms) {
+            this.latenciesMs = latenciesMs;
+            this.converged = converged;
+            this.convergedP95Ms = convergedP95Ms;
+        }
+
+        public int getRuns() {
+            return latenciesMs.length;
+        }
+
+        public double getFirstRunMs() {
+            return latenciesMs.length > 0 ? latenciesMs[0] : Double.NaN;
+        }
+
+        public boolean isConverged() {
+            return converged;
+        }
+
+        // p95 of the last window when warm-up stopped
+        public double getConvergedP95Ms() {
+            return convergedP95Ms;
+        }
+
+        // p99 over every run after the first
+        public double getP99Ms() {
+            if (latenciesMs.length < 2) return getFirstRunMs();
+            return percentile(Arrays.copyOfRange(latenciesMs, 1, latenciesMs.length), 0.99);
+        }
+
+        public double[] getLatenciesMs() {
+            return latenciesMs.clone();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "runs=%d first=%.1fms p95=%.1fms p99=%.1fms converged=%b",
+                    getRuns(), getFirstRunMs(), convergedP95Ms, getP99Ms(), converged);
+        }
+    }
+
+    private final int minRuns;
+    private final int maxRuns;
+    private final int window;
+    private final double tolerance;
+
+    // tolerance is relative, 0.1 = consecutive window p95 within 10%
+    public InferenceWarmup(int minRuns, int maxRuns, int window, double tolerance) {
+        if (window < 1 || maxRuns < minRuns) {
+            throw new IllegalArgumentException("window >= 1 and maxRuns >= minRuns required");
+        }
+        this.minRuns = minRuns;
+        this.maxRuns = maxRuns;
+        this.window = window;
+        this.tolerance = tolerance;
+    }
+
+    public Stats run(Inference inference) throws Exception {
+        double[] latencies = new double[maxRuns];
+        double[] scratch = new double[window];
+        int runs = 0;
+        double p95 = Double.NaN;
+        while (runs < maxRuns) {
+            long start = System.nanoTime();
+            inference.run();
+            latencies[runs++] = (System.nanoTime() - start) / 1e6;
+
+            if (runs >= window) {
+                p95 = windowPercentile(latencies, runs - window, scratch);
+            }
+            if (runs >= Math.max(minRuns, 2 * window)) {
+                double previous = windowPercentile(latencies, runs - 2 * window, scratch);
+                if (Math.abs(p95 - previous) <= tolerance * previous) {
+                    return new Stats(Arrays.copyOf(latencies, runs), true, p95);
+                }
+            }
+        }
+        return new Stats(Arrays.copyOf(latencies, runs), false, p95);
+    }
+
+    private double windowPercentile(double[] latencies, int from, double[] scratch) {
+        System.arraycopy(latencies, from, scratch, 0, window);
+        return percentile(scratch, 0.95);
+    }
+
+    // Nearest-rank percentile, sorts values in place
+    static double percentile(double[] values, double p) {
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(p * values.length);
+        return values[Math.max(0, Math.min(values.length - 1, rank - 1))];
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.yolov8_detect;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+
+// Small ring of preallocated direct input buffers. Every slot keeps one OnnxTensor that wraps
+// its buffer (ORT uses direct buffers without copying), so steady-state frames allocate nothing.
+public class InputTensorPool implements AutoCloseable {
+    private static final int FLOAT_SIZE = 4;
+
+    private final long[] shape;
+    private final int elementCount;
+    private final Slot[] slots;
+    private final ArrayBlockingQueue<Slot> free;
+
+    private final AtomicLong bufferAllocations = new AtomicLong();
+    private final AtomicLong tensorAllocations = new AtomicLong();
+    private final AtomicLong acquireMisses = new AtomicLong();
+
+    public InputTensorPool(int size, long[] shape) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + size);
+        }
+        this.shape = shape.clone();
+        long count = 1;
+        for (long dim : shape) {
+            count *= dim;
+        }
+        elementCount = (int) count;
+
+        slots = new Slot[size];
+        free = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(this);
+            free.add(slots[i]);
+        }
+    }
+
+    // Returns null when every slot is in flight; the caller should drop the frame
+    public Slot acquire() {
+        Slot slot = free.poll();
+        if (slot == null) {
+            acquireMisses.incrementAndGet();
+            return null;
+        }
+        slot.buffer.clear();
+        return slot;
+    }
+
+    public void release(Slot slot) {
+        if (slot == null) return;
+        if (slot.pool != this) {
+            throw new IllegalArgumentException("Slot belongs to another pool");
+        }
+        free.offer(slot);
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    public int available() {
+        return free.size();
+    }
+
+    public long[] getShape() {
+        return shape.clone();
+    }
+
+    public long getBufferAllocations() {
+        return bufferAllocations.get();
+    }
+
+    public long getTensorAllocations() {
+        return tensorAllocations.get();
+    }
+
+    public long getAcquireMisses() {
+        return acquireMisses.get();
+    }
+
+    @Override
+    public void close() {
+        for (Slot slot : slots) {
+            slot.close();
+        }
+    }
+
+    public static class Slot {
+        private final InputTensorPool pool;
+        private final FloatBuffer buffer;
+        private OnnxTensor tensor;
+        private Map<String, OnnxTensor> inputs;
+
+        private Slot(InputTensorPool pool) {
+            this.pool = pool;
+            buffer = ByteBuffer.allocateDirect(pool.elementCount * FLOAT_SIZE)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+            pool.bufferAllocations.incrementAndGet();
+        }
+
+        public FloatBuffer getBuffer() {
+            return buffer;
+        }
+
+        // Tensor and input map are built once per slot and reused for every frame
+        public Map<String, OnnxTensor> getInputs(OrtEnvironment environment, String inputName) throws OrtException {
+            if (inputs == null || !inputs.containsKey(inputName)) {
+                inputs = Collections.singletonMap(inputName, getTensor(environment));
+            }
+            return inputs;
+        }
+
+        public OnnxTensor getTensor(OrtEnvironment environment) throws OrtException {
+            if (tensor == null) {
+                buffer.clear();
+                tensor = OnnxTensor.createTensor(environment, buffer, pool.shape);
+                pool.tensorAllocations.incrementAndGet();
+            }
+            return tensor;
+        }
+
+        private void close() {
+            if (tensor != null) {
+                tensor.close();
+                tensor = null;
+                inputs = null;
+            }
+        }
+    }
+}
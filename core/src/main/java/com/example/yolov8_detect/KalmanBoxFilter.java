@@ -0,0 +1,102 @@
+package com.example.yolov8_detect;
+
+// Constant-velocity Kalman filter over a box centre and size (cx, cy, w, h).
+// With a diagonal process/measurement noise the SORT state covariance never couples
+// different coordinates, so it is run as four independent position/velocity filters
+// in closed form. Noise scales with the box height like ByteTrack (1/20 and 1/160).
+public class KalmanBoxFilter {
+    private static final float STD_POSITION = 1f / 20;
+    private static final float STD_VELOCITY = 1f / 160;
+
+    private final float[] x = new float[4];
+    private final float[] v = new float[4];
+    // Covariance of (position, velocity) per coordinate
+    private final float[] pxx = new float[4];
+    private final float[] pxv = new float[4];
+    private final float[] pvv = new float[4];
+
+    public void init(float left, float top, float right, float bottom) {
+        x[0] = (left + right) / 2;
+        x[1] = (top + bottom) / 2;
+        x[2] = Math.max(1, right - left);
+        x[3] = Math.max(1, bottom - top);
+        float h = x[3];
+        for (int k = 0; k < 4; k++) {
+            v[k] = 0;
+            pxx[k] = square(2 * STD_POSITION * h);
+            pxv[k] = 0;
+            pvv[k] = square(10 * STD_VELOCITY * h);
+        }
+    }
+
+    public void predict() {
+        float q = square(STD_POSITION * x[3]);
+        float qv = square(STD_VELOCITY * x[3]);
+        for (int k = 0; k < 4; k++) {
+            x[k] += v[k];
+            // P = F P F' + Q with F = [1 1; 0 1]
+            pxx[k] += 2 * pxv[k] + pvv[k] + q;
+            pxv[k] += pvv[k];
+            pvv[k] += qv;
+        }
+        x[2] = Math.max(1, x[2]);
+        x[3] = Math.max(1, x[3]);
+    }
+
+    public void update(float left, float top, float right, float bottom) {
+        float r = square(STD_POSITION * x[3]);
+        correct(0, (left + right) / 2, r);
+        correct(1, (top + bottom) / 2, r);
+        correct(2, Math.max(1, right - left), r);
+        correct(3, Math.max(1, bottom - top), r);
+    }
+
+    private void correct(int k, float measured, float r) {
+        float s = pxx[k] + r;
+        float gainX = pxx[k] / s;
+        float gainV = pxv[k] / s;
+        float residual = measured - x[k];
+        x[k] += gainX * residual;
+        v[k] += gainV * residual;
+        pvv[k] -= gainV * pxv[k];
+        pxx[k] *= 1 - gainX;
+        pxv[k] *= 1 - gainX;
+    }
+
+    public float getLeft() {
+        return x[0] - x[2] / 2;
+    }
+
+    public float getTop() {
+        return x[1] - x[3] / 2;
+    }
+
+    public float getRight() {
+        return x[0] + x[2] / 2;
+    }
+
+    public float getBottom() {
+        return x[1] + x[3] / 2;
+    }
+
+    public float getVelocityX() {
+        return v[0];
+    }
+
+    public float getVelocityY() {
+        return v[1];
+    }
+
+    // Writes (l, t, r, b) at boxes[index * 4], the layout NmsEngine.iou reads
+    public void writeBox(float[] boxes, int index) {
+        int b = index * 4;
+        boxes[b] = getLeft();
+        boxes[b + 1] = getTop();
+        boxes[b + 2] = getRight();
+        boxes[b + 3] = getBottom();
+    }
+
+    private static float square(float value) {
+        return value * value;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.yolov8_detect;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One class namespace over several models: a label gets an id the first time it is added,
+// the same name (or an alias of it) from another model gets the same id. Models added first
+// keep their own ids, so the main model's class ids do not change. add() is idempotent.
+public final class LabelSpace {
+    private final Map<String, String> aliases = new HashMap<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+
+    // A label of another model that means canonical (e.g. "person" -> "orang"); before add()
+    public synchronized void addAlias(String label, String canonical) {
+        aliases.put(label, canonical);
+    }
+
+    // Unified id per model label
+    public synchronized int[] add(String[] modelLabels) {
+        int[] classMap = new int[modelLabels.length];
+        for (int i = 0; i < modelLabels.length; i++) {
+            String label = aliases.containsKey(modelLabels[i]) ? aliases.get(modelLabels[i]) : modelLabels[i];
+            Integer id = ids.get(label);
+            if (id == null) {
+                id = labels.size();
+                ids.put(label, id);
+                labels.add(label);
+            }
+            classMap[i] = id;
+        }
+        return classMap;
+    }
+
+    // -1 when the label (or its alias) was never added
+    public synchronized int getId(String label) {
+        Integer id = ids.get(aliases.containsKey(label) ? aliases.get(label) : label);
+        return id != null ? id : -1;
+    }
+
+    public synchronized int size() {
+        return labels.size();
+    }
+
+    public synchronized String[] getLabels() {
+        return labels.toArray(new String[0]);
+    }
+
+    // Label file of one model: one label per line in class id order, blank lines skipped
+    public static String[] readLabels(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) lines.add(line.trim());
+            }
+        }
+        return lines.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.yolov8_detect;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Takes a PipelineMetrics snapshot every periodMs on a daemon thread and hands it to a sink
+// (log line, JSON file, overlay). Snapshots allocate, recording stays allocation free.
+public class MetricsReporter {
+    public interface Sink {
+        void report(PipelineMetrics.Snapshot snapshot);
+    }
+
+    // Called for the first failing report after a successful one, not for every period
+    public interface ErrorListener {
+        void onError(RuntimeException error);
+    }
+
+    private final PipelineMetrics metrics;
+    private final long periodMs;
+    private final Sink sink;
+    private final ErrorListener errorListener;
+    private ScheduledExecutorService scheduler;
+    private final AtomicLong failures = new AtomicLong();
+    private volatile boolean failing;
+
+    public MetricsReporter(PipelineMetrics metrics, long periodMs, Sink sink) {
+        this(metrics, periodMs, sink, error -> {
+            System.err.println("Metrics sink failed, further failures are only counted");
+            error.printStackTrace();
+        });
+    }
+
+    public MetricsReporter(PipelineMetrics metrics, long periodMs, Sink sink, ErrorListener errorListener) {
+        this.metrics = metrics;
+        this.periodMs = periodMs;
+        this.sink = sink;
+        this.errorListener = errorListener;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::reportNow, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void reportNow() {
+        try {
+            sink.report(metrics.snapshot());
+            failing = false;
+        } catch (RuntimeException e) {
+            // A failing sink must not cancel the schedule
+            failures.incrementAndGet();
+            if (!failing) {
+                failing = true;
+                if (errorListener != null) errorListener.onError(e);
+            }
+        }
+    }
+
+    // Reports whose sink threw since start
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.yolov8_detect;
+
+import ai.onnxruntime.OrtSession;
+
+// One model of a DetectorGraph: its session, its own label space and thresholds, and how
+// often it runs (every = 3: every third frame of the graph). The session is owned by the
+// caller. Decoding state lives here, so a branch belongs to one graph.
+public class ModelBranch {
+    private final String name;
+    private final OrtSession session;
+    private final ModelSignature signature;
+    private final String[] labels;
+    private final int every;
+    private final YoloDetector detector;
+    // Label index -> unified class id, filled by DetectorGraph.addBranch()
+    int[] classMap;
+    // Input size of the held detections, -1 before the first decode
+    int decodedWidth = -1;
+    int decodedHeight = -1;
+
+    public ModelBranch(String name, OrtSession session, ModelSignature signature, String[] labels,
+                       float scoreThreshold, float iouThreshold, int every, int maxDetections) {
+        if (every <= 0) {
+            throw new IllegalArgumentException(name + ": rate must be positive: " + every);
+        }
+        signature.checkLabels(labels.length);
+        this.name = name;
+        this.session = session;
+        this.signature = signature;
+        this.labels = labels.clone();
+        this.every = every;
+        int anchors = signature.getAnchorCount() > 0 ? signature.getAnchorCount() : 8400;
+        detector = new YoloDetector(labels.length, scoreThreshold, iouThreshold, anchors, maxDetections);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public OrtSession getSession() {
+        return session;
+    }
+
+    public ModelSignature getSignature() {
+        return signature;
+    }
+
+    public String[] getLabels() {
+        return labels.clone();
+    }
+
+    public int getEvery() {
+        return every;
+    }
+
+    public void setThresholds(float scoreThreshold, float iouThreshold) {
+        detector.setThresholds(scoreThreshold, iouThreshold);
+    }
+
+    // Own detections of the last decode, in model input coordinates and label space
+    public YoloDetector getDetections() {
+        return detector;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (every " + every + ", " + labels.length + " labels)";
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.yolov8_detect;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+// Installs the model through a ModelStore and opens its session on a background thread,
+// so the UI and camera can come up while ONNX Runtime parses and optimizes the graph.
+// With a warm-up configured the session is only published (the detector goes live) after
+// its latency converged. Readiness is published once: listener callback, isReady()/getSession()
+// and awaitReady().
+public class ModelLoader {
+    public static final String MARK_INSTALLED = "model_installed";
+    public static final String MARK_SESSION = "session_ready";
+    public static final String MARK_LIVE = "detector_live";
+
+    public interface SessionOpener {
+        OrtSession open(File model) throws Exception;
+    }
+
+    // Synthetic input at the production shape, asked for once the session exists
+    public interface WarmupInputs {
+        Map<String, OnnxTensor> create(OrtSession session) throws OrtException;
+    }
+
+    public interface Listener {
+        // Called on the loader thread
+        void onReady(OrtSession session, StartupTimer timer);
+
+        void onFailed(Exception error, StartupTimer timer);
+    }
+
+    private final ModelStore store;
+    private final ModelStore.Source source;
+    private final SessionOpener opener;
+    private final StartupTimer timer;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile OrtSession session;
+    private volatile Exception error;
+    private volatile boolean copied;
+    private volatile InferenceWarmup.Stats warmupStats;
+    private InferenceWarmup warmup;
+    private WarmupInputs warmupInputs;
+    private Thread thread;
+
+    public ModelLoader(ModelStore store, ModelStore.Source source, SessionOpener opener, StartupTimer timer) {
+        this.store = store;
+        this.source = source;
+        this.opener = opener;
+        this.timer = timer;
+    }
+
+    public synchronized void setWarmup(InferenceWarmup warmup, WarmupInputs inputs) {
+        this.warmup = warmup;
+        this.warmupInputs = inputs;
+    }
+
+    public synchronized void start(final Listener listener) {
+        if (thread != null) {
+            throw new IllegalStateException("Loader already started");
+        }
+        thread = new Thread(() -> {
+            try {
+                load();
+            } catch (Exception e) {
+                // Recorded in load(), reported below
+            }
+            if (session != null) {
+                listener.onReady(session, timer);
+            } else {
+                listener.onFailed(error, timer);
+            }
+        }, "model-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Blocking variant, also used by start()
+    public OrtSession load() throws Exception {
+        try {
+            ModelStore.Installed installed = store.install(source);
+            copied = installed.isCopied();
+            timer.mark(MARK_INSTALLED);
+            OrtSession opened = opener.open(installed.getFile());
+            timer.mark(MARK_SESSION);
+            try {
+                warmUp(opened);
+            } catch (Exception e) {
+                opened.close();
+                throw e;
+            }
+            timer.mark(MARK_LIVE);
+            session = opened;
+            return opened;
+        } catch (Exception e) {
+            error = e;
+            throw e;
+        } finally {
+            done.countDown();
+        }
+    }
+
+    private void warmUp(final OrtSession opened) throws Exception {
+        InferenceWarmup warmup;
+        WarmupInputs warmupInputs;
+        synchronized (this) {
+            warmup = this.warmup;
+            warmupInputs = this.warmupInputs;
+        }
+        if (warmup == null) return;
+
+        final Map<String, OnnxTensor> inputs = warmupInputs.create(opened);
+        // Output only needs to be produced
+        warmupStats = warmup.run(() -> opened.run(inputs).close());
+    }
+
+    // Null when no warm-up was configured or it has not finished yet
+    public InferenceWarmup.Stats getWarmupStats() {
+        return warmupStats;
+    }
+
+    public boolean isReady() {
+        return session != null;
+    }
+
+    // Null until ready (and forever if loading failed)
+    public OrtSession getSession() {
+        return session;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    // Whether this launch had to copy the model (false when the stamped copy was reused)
+    public boolean wasCopied() {
+        return copied;
+    }
+
+    public StartupTimer getTimer() {
+        return timer;
+    }
+
+    // Returns the session, or null on timeout or failure
+    public OrtSession awaitReady(long timeoutMs) throws InterruptedException {
+        done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        return session;
+    }
+}
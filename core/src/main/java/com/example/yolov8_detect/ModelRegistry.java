@@ -0,0 +1,256 @@
+package com.example.yolov8_detect;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+// Model variants from a manifest (java.util.Properties), in order of preference:
+//
+//   variants=fp32,int8
+//   default=fp32
+//   variant.fp32.file=cobaa.onnx
+//   variant.fp32.precision=fp32              fp32 | fp16 | int8
+//   variant.fp32.input=640x640               or "auto": read from the session
+//   variant.fp32.normalization=0,255         mean,std applied to 0..255 pixel values
+//   variant.fp32.labels=label.txt
+//   variant.fp32.colors=#4169E1,#DC143C,...  one per class, optional
+//   variant.fp32.min_ram_mb=3072             optional
+//   variant.fp32.operating_points=high       governor points this variant is meant for, optional
+//
+// Optional companion models, run next to the chosen variant on the same input (DetectorGraph):
+//
+//   companions=general
+//   companion.general.file=general.onnx
+//   companion.general.labels=label_general.txt
+//   companion.general.score=0.5              default 0.4
+//   companion.general.iou=0.5                default 0.5
+//   companion.general.every=3                runs every 3rd detection frame, default 1
+//   aliases=person:orang,car:Mobil           companion label -> variant label, one class
+//
+// The device gets the first variant it has the memory (and the file) for; the governor may
+// then move to a compatible variant that lists its current operating point.
+public final class ModelRegistry {
+    public interface Availability {
+        boolean isAvailable(ModelVariant variant);
+    }
+
+    private final List<ModelVariant> variants;
+    private final ModelVariant defaultVariant;
+    private final List<CompanionModel> companions;
+    private final Map<String, String> aliases;
+
+    private ModelRegistry(List<ModelVariant> variants, ModelVariant defaultVariant,
+                          List<CompanionModel> companions, Map<String, String> aliases) {
+        this.variants = Collections.unmodifiableList(variants);
+        this.defaultVariant = defaultVariant;
+        this.companions = Collections.unmodifiableList(companions);
+        this.aliases = Collections.unmodifiableMap(aliases);
+    }
+
+    public static ModelRegistry parse(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        return fromProperties(properties);
+    }
+
+    public static ModelRegistry fromProperties(Properties properties) {
+        String names = properties.getProperty("variants");
+        if (names == null || names.trim().isEmpty()) {
+            throw new IllegalArgumentException("Manifest has no variants");
+        }
+        List<ModelVariant> variants = new ArrayList<>();
+        for (String name : split(names)) {
+            variants.add(parseVariant(properties, name));
+        }
+        String defaultName = properties.getProperty("default", variants.get(0).getName()).trim();
+        ModelVariant defaultVariant = null;
+        for (ModelVariant variant : variants) {
+            if (variant.getName().equals(defaultName)) defaultVariant = variant;
+        }
+        if (defaultVariant == null) {
+            throw new IllegalArgumentException("Default variant " + defaultName + " is not listed in variants");
+        }
+        List<CompanionModel> companions = new ArrayList<>();
+        for (String name : split(properties.getProperty("companions", ""))) {
+            companions.add(parseCompanion(properties, name));
+        }
+        Map<String, String> aliases = new LinkedHashMap<>();
+        for (String alias : split(properties.getProperty("aliases", ""))) {
+            int colon = alias.indexOf(':');
+            if (colon <= 0 || colon == alias.length() - 1) {
+                throw new IllegalArgumentException("aliases: expected <label>:<label>, got " + alias);
+            }
+            aliases.put(alias.substring(0, colon).trim(), alias.substring(colon + 1).trim());
+        }
+        return new ModelRegistry(variants, defaultVariant, companions, aliases);
+    }
+
+    public List<ModelVariant> getVariants() {
+        return variants;
+    }
+
+    // Null when there is no such variant
+    public ModelVariant get(String name) {
+        for (ModelVariant variant : variants) {
+            if (variant.getName().equals(name)) return variant;
+        }
+        return null;
+    }
+
+    public ModelVariant getDefault() {
+        return defaultVariant;
+    }
+
+    public List<CompanionModel> getCompanions() {
+        return companions;
+    }
+
+    // Companion label -> label of the variant it is merged with
+    public Map<String, String> getAliases() {
+        return aliases;
+    }
+
+    // First variant the device can run. When it is short on memory for all of them the
+    // lightest available one is used; the default when no file is available at all.
+    public ModelVariant selectForDevice(int ramMb, Availability availability) {
+        ModelVariant lightest = null;
+        for (ModelVariant variant : variants) {
+            if (!availability.isAvailable(variant)) continue;
+            if (variant.getMinRamMb() <= ramMb) return variant;
+            if (lightest == null || variant.getMinRamMb() < lightest.getMinRamMb()) lightest = variant;
+        }
+        return lightest != null ? lightest : defaultVariant;
+    }
+
+    // Variant for a governor operating point: the first one compatible with the device choice
+    // that lists the point and that the device can run, otherwise the device choice itself
+    public ModelVariant selectForOperatingPoint(String point, ModelVariant deviceVariant, int ramMb,
+                                                Availability availability) {
+        for (ModelVariant variant : variants) {
+            if (variant.getOperatingPoints().contains(point)
+                    && variant.isCompatibleWith(deviceVariant)
+                    && variant.getMinRamMb() <= Math.max(ramMb, deviceVariant.getMinRamMb())
+                    && availability.isAvailable(variant)) {
+                return variant;
+            }
+        }
+        return deviceVariant;
+    }
+
+    private static ModelVariant parseVariant(Properties properties, String name) {
+        String prefix = "variant." + name + ".";
+        String file = required(properties, prefix + "file");
+        ModelVariant.Precision precision;
+        try {
+            precision = ModelVariant.Precision.valueOf(
+                    properties.getProperty(prefix + "precision", "fp32").trim().toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(prefix + "precision: expected fp32, fp16 or int8");
+        }
+
+        int width = 0;
+        int height = 0;
+        String input = properties.getProperty(prefix + "input", "auto").trim();
+        if (!input.equalsIgnoreCase("auto")) {
+            int x = input.indexOf('x');
+            if (x < 0) throw new IllegalArgumentException(prefix + "input: expected <W>x<H> or auto, got " + input);
+            width = number(prefix + "input", input.substring(0, x), 1);
+            height = number(prefix + "input", input.substring(x + 1), 1);
+        }
+
+        List<String> normalization = split(properties.getProperty(prefix + "normalization", "0,255"));
+        if (normalization.size() != 2) {
+            throw new IllegalArgumentException(prefix + "normalization: expected mean,std");
+        }
+        float mean;
+        float std;
+        try {
+            mean = Float.parseFloat(normalization.get(0));
+            std = Float.parseFloat(normalization.get(1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(prefix + "normalization: not a number");
+        }
+        if (std <= 0) throw new IllegalArgumentException(prefix + "normalization: std must be positive");
+
+        List<String> colorList = split(properties.getProperty(prefix + "colors", ""));
+        int[] colors = new int[colorList.size()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = parseColor(prefix + "colors", colorList.get(i));
+        }
+
+        String ram = properties.getProperty(prefix + "min_ram_mb");
+        int minRamMb = ram == null ? 0 : number(prefix + "min_ram_mb", ram, 0);
+        Set<String> points = new LinkedHashSet<>(split(properties.getProperty(prefix + "operating_points", "")));
+
+        return new ModelVariant(name, file, precision, width, height, mean, std,
+                required(properties, prefix + "labels"), colors, minRamMb, points);
+    }
+
+    private static CompanionModel parseCompanion(Properties properties, String name) {
+        String prefix = "companion." + name + ".";
+        float score = fraction(prefix + "score", properties.getProperty(prefix + "score", "0.4"));
+        float iou = fraction(prefix + "iou", properties.getProperty(prefix + "iou", "0.5"));
+        int every = number(prefix + "every", properties.getProperty(prefix + "every", "1"), 1);
+        return new CompanionModel(name, required(properties, prefix + "file"),
+                required(properties, prefix + "labels"), score, iou, every);
+    }
+
+    private static float fraction(String key, String value) {
+        float parsed;
+        try {
+            parsed = Float.parseFloat(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + ": not a number: " + value);
+        }
+        if (parsed < 0 || parsed > 1) throw new IllegalArgumentException(key + " must be in [0, 1]: " + value);
+        return parsed;
+    }
+
+    private static String required(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Manifest is missing " + key);
+        }
+        return value.trim();
+    }
+
+    // #RRGGBB or #AARRGGBB
+    private static int parseColor(String key, String value) {
+        if (value.startsWith("#") && (value.length() == 7 || value.length() == 9)) {
+            try {
+                long color = Long.parseLong(value.substring(1), 16);
+                return value.length() == 7 ? (int) (0xFF000000L | color) : (int) color;
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+        }
+        throw new IllegalArgumentException(key + ": expected #RRGGBB, got " + value);
+    }
+
+    private static int number(String key, String value, int min) {
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + ": not a number: " + value);
+        }
+        if (parsed < min) throw new IllegalArgumentException(key + " must be at least " + min + ": " + value);
+        return parsed;
+    }
+
+    private static List<String> split(String list) {
+        List<String> items = new ArrayList<>();
+        for (String item : list.split(",")) {
+            if (!item.trim().isEmpty()) items.add(item.trim());
+        }
+        return items;
+    }
+}
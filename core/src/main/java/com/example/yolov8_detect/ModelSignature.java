@@ -0,0 +1,141 @@
+package com.example.yolov8_detect;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import ai.onnxruntime.NodeInfo;
+import ai.onnxruntime.OnnxJavaType;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.TensorInfo;
+
+// Input and output shapes of a YOLOv8 detector as the session reports them, so sizes and
+// class counts come from the model instead of constants. Dynamic dimensions are -1.
+// Expected: input [N, 3, H, W] float, output [N, 4 + classes, anchors] float, extra leading
+// dimensions of size 1 are tolerated (FP16 and INT8
+// variants must keep float inputs/outputs, e.g. keep_io_types when converting).
+// N is the batch: 1 for the usual export, -1 when exported with a dynamic batch.
+public final class ModelSignature {
+    private final String inputName;
+    private final long[] inputShape;
+    private final String outputName;
+    private final long[] outputShape;
+
+    public ModelSignature(String inputName, long[] inputShape, String outputName, long[] outputShape) {
+        if (inputShape.length != 4 || (inputShape[1] != 3 && inputShape[1] >= 0)) {
+            throw new IllegalArgumentException("Expected input [N, 3, H, W], got " + Arrays.toString(inputShape));
+        }
+        int rank = outputShape.length;
+        if (rank < 3 || (outputShape[rank - 2] >= 0 && outputShape[rank - 2] <= 4)
+                || !batchDims(outputShape, rank - 2, inputShape[0])) {
+            throw new IllegalArgumentException("Expected output [N, 4 + classes, anchors], got "
+                    + Arrays.toString(outputShape));
+        }
+        this.inputName = inputName;
+        this.inputShape = inputShape.clone();
+        this.outputName = outputName;
+        this.outputShape = outputShape.clone();
+    }
+
+    // Leading dimensions: the batch (first) and singletons
+    private static boolean batchDims(long[] shape, int count, long batch) {
+        for (int i = 0; i < count; i++) {
+            if (shape[i] > 1 && !(i == 0 && shape[i] == batch)) return false;
+        }
+        return true;
+    }
+
+    public static ModelSignature read(OrtSession session) throws OrtException {
+        Map.Entry<String, NodeInfo> input = session.getInputInfo().entrySet().iterator().next();
+        Map.Entry<String, NodeInfo> output = session.getOutputInfo().entrySet().iterator().next();
+        return new ModelSignature(input.getKey(), floatShape(input.getValue()),
+                output.getKey(), floatShape(output.getValue()));
+    }
+
+    private static long[] floatShape(NodeInfo node) {
+        if (!(node.getInfo() instanceof TensorInfo)) {
+            throw new IllegalArgumentException(node.getName() + " is not a tensor");
+        }
+        TensorInfo info = (TensorInfo) node.getInfo();
+        if (info.type != OnnxJavaType.FLOAT) {
+            throw new IllegalArgumentException(node.getName() + " is " + info.type
+                    + ", the pipeline needs float tensors (convert with keep_io_types)");
+        }
+        return info.getShape();
+    }
+
+    public String getInputName() {
+        return inputName;
+    }
+
+    public String getOutputName() {
+        return outputName;
+    }
+
+    public long[] getInputShape() {
+        return inputShape.clone();
+    }
+
+    public long[] getOutputShape() {
+        return outputShape.clone();
+    }
+
+    // -1 when the model takes any size
+    public int getInputWidth() {
+        return (int) inputShape[3];
+    }
+
+    public int getInputHeight() {
+        return (int) inputShape[2];
+    }
+
+    // Frames per run: 1 for most exports, -1 when the batch is dynamic
+    public int getBatchSize() {
+        return (int) inputShape[0];
+    }
+
+    public boolean isDynamicInput() {
+        return inputShape[2] < 0 || inputShape[3] < 0;
+    }
+
+    // -1 when the output is dynamic in that dimension
+    public int getClassCount() {
+        long channels = outputShape[outputShape.length - 2];
+        return channels < 0 ? -1 : (int) channels - 4;
+    }
+
+    public int getAnchorCount() {
+        return (int) outputShape[outputShape.length - 1];
+    }
+
+    // Fails when the label file does not belong to this model
+    public void checkLabels(int labelCount) {
+        int classes = getClassCount();
+        if (classes >= 0 && classes != labelCount) {
+            throw new IllegalStateException("Model has " + classes + " classes but the label file has "
+                    + labelCount + " labels");
+        }
+    }
+
+    // Square input size: the model's when static, otherwise requested (0: 640). Also checks
+    // the labels, like checkLabels().
+    public int squareInputSize(int labelCount, int requested) {
+        checkLabels(labelCount);
+        if (isDynamicInput()) {
+            return requested > 0 ? requested : 640;
+        }
+        if (getInputWidth() != getInputHeight()) {
+            throw new IllegalArgumentException("Only square inputs are supported: " + this);
+        }
+        if (requested > 0 && requested != getInputWidth()) {
+            throw new IllegalArgumentException("Input size " + requested + " requested but the model takes "
+                    + getInputWidth());
+        }
+        return getInputWidth();
+    }
+
+    @Override
+    public String toString() {
+        return inputName + Arrays.toString(inputShape) + " -> " + outputName + Arrays.toString(outputShape);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.yolov8_detect;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+// Keeps an on-disk copy of a bundled model and only rewrites it when the source changed.
+// Next to every model a small stamp file records the source version, size and SHA-256
+// of the copy, so an unchanged model costs a stat and a properties read per launch.
+public class ModelStore {
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String STAMP_SUFFIX = ".stamp";
+
+    // Where the bundled model comes from (an APK asset, a file, a test byte array)
+    public interface Source {
+        String getName();
+
+        // Changes whenever the model may have changed (e.g. app version code + install time),
+        // null when unknown: the source is then hashed to decide whether to copy
+        String getVersion();
+
+        // Size in bytes, -1 when unknown (compressed assets)
+        long getLength();
+
+        InputStream open() throws IOException;
+    }
+
+    public static class Installed {
+        private final File file;
+        private final boolean copied;
+        private final long length;
+        private final String sha256;
+
+        Installed(File file, boolean copied, long length, String sha256) {
+            this.file = file;
+            this.copied = copied;
+            this.length = length;
+            this.sha256 = sha256;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public boolean isCopied() {
+            return copied;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+    }
+
+    private final File directory;
+    private boolean verifyHash;
+
+    public ModelStore(File directory) {
+        this.directory = directory;
+    }
+
+    // Also re-hash the existing copy before trusting a matching version stamp
+    // (catches a truncated or modified file, costs one read of the model)
+    public void setVerifyHash(boolean verifyHash) {
+        this.verifyHash = verifyHash;
+    }
+
+    public File getFile(String name) {
+        return new File(directory, name);
+    }
+
+    public Installed install(Source source) throws IOException {
+        File target = getFile(source.getName());
+        File stampFile = new File(directory, source.getName() + STAMP_SUFFIX);
+        Properties stamp = readStamp(stampFile);
+
+        if (stamp != null && target.isFile()) {
+            long stampedLength = Long.parseLong(stamp.getProperty("size", "-1"));
+            String stampedHash = stamp.getProperty("sha256");
+            boolean sizeMatches = target.length() == stampedLength
+                    && (source.getLength() < 0 || source.getLength() == stampedLength);
+
+            if (sizeMatches && stampedHash != null) {
+                String version = source.getVersion();
+                boolean sourceMatches = version != null
+                        ? version.equals(stamp.getProperty("version"))
+                        : stampedHash.equals(sha256(source));
+                if (sourceMatches && (!verifyHash || stampedHash.equals(sha256(target)))) {
+                    return new Installed(target, false, stampedLength, stampedHash);
+                }
+            }
+        }
+
+        return copy(source, target, stampFile);
+    }
+
+    private Installed copy(Source source, File target, File stampFile) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        // Stamp goes first so a crash mid-copy never leaves a valid stamp for a partial file
+        stampFile.delete();
+
+        File temp = new File(directory, source.getName() + ".tmp");
+        MessageDigest digest = newDigest();
+        long length = 0;
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        try (InputStream in = source.open(); FileOutputStream out = new FileOutputStream(temp)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                digest.update(buffer, 0, read);
+                length += read;
+            }
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(target)) {
+            target.delete();
+            if (!temp.renameTo(target)) {
+                temp.delete();
+                throw new IOException("Cannot move " + temp + " to " + target);
+            }
+        }
+
+        String hash = toHex(digest.digest());
+        Properties stamp = new Properties();
+        if (source.getVersion() != null) {
+            stamp.setProperty("version", source.getVersion());
+        }
+        stamp.setProperty("size", String.valueOf(length));
+        stamp.setProperty("sha256", hash);
+        try (OutputStream out = new FileOutputStream(stampFile)) {
+            stamp.store(out, null);
+        }
+        return new Installed(target, true, length, hash);
+    }
+
+    private static Properties readStamp(File stampFile) {
+        if (!stampFile.isFile()) return null;
+        Properties stamp = new Properties();
+        try (InputStream in = new FileInputStream(stampFile)) {
+            stamp.load(in);
+            return stamp;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Hashes the file through a read-only mapping, the model is never copied onto the heap
+    public static String sha256(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileInputStream in = new FileInputStream(file); FileChannel channel = in.getChannel()) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long chunk = Math.min(Integer.MAX_VALUE, size - position);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, chunk);
+                digest.update(mapped);
+                position += chunk;
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String sha256(Source source) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        try (InputStream in = source.open()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.yolov8_detect;
+
+import java.util.Collections;
+import java.util.Set;
+
+// One model file and everything needed to run it, as described in the model manifest
+// (see ModelRegistry). Input size 0 means "take it from the model".
+public final class ModelVariant {
+    public enum Precision {
+        FP32,
+        FP16,
+        INT8
+    }
+
+    private final String name;
+    private final String file;
+    private final Precision precision;
+    private final int inputWidth;
+    private final int inputHeight;
+    private final float mean;
+    private final float std;
+    private final String labels;
+    private final int[] classColors;
+    private final int minRamMb;
+    private final Set<String> operatingPoints;
+
+    ModelVariant(String name, String file, Precision precision, int inputWidth, int inputHeight,
+                 float mean, float std, String labels, int[] classColors, int minRamMb,
+                 Set<String> operatingPoints) {
+        this.name = name;
+        this.file = file;
+        this.precision = precision;
+        this.inputWidth = inputWidth;
+        this.inputHeight = inputHeight;
+        this.mean = mean;
+        this.std = std;
+        this.labels = labels;
+        this.classColors = classColors;
+        this.minRamMb = minRamMb;
+        this.operatingPoints = Collections.unmodifiableSet(operatingPoints);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    public int getInputHeight() {
+        return inputHeight;
+    }
+
+    public boolean hasInputSize() {
+        return inputWidth > 0 && inputHeight > 0;
+    }
+
+    public float getMean() {
+        return mean;
+    }
+
+    public float getStd() {
+        return std;
+    }
+
+    public String getLabels() {
+        return labels;
+    }
+
+    // ARGB per class, empty when the manifest has none (the app then uses its palette)
+    public int[] getClassColors() {
+        return classColors.clone();
+    }
+
+    public int getMinRamMb() {
+        return minRamMb;
+    }
+
+    // Governor operating points this variant is preferred for, empty = none in particular
+    public Set<String> getOperatingPoints() {
+        return operatingPoints;
+    }
+
+    // Whether the app can swap between the two sessions without touching anything else:
+    // same classes, same preprocessing
+    public boolean isCompatibleWith(ModelVariant other) {
+        return labels.equals(other.labels)
+                && mean == other.mean && std == other.std
+                && inputWidth == other.inputWidth && inputHeight == other.inputHeight;
+    }
+
+    @Override
+    public String toString() {
+        return name + "{" + file + ", " + precision
+                + (hasInputSize() ? ", " + inputWidth + "x" + inputHeight : "") + "}";
+    }
+}
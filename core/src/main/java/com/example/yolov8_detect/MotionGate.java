@@ -0,0 +1,151 @@
+package com.example.yolov8_detect;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Skips the detector on frames that look like the last inferred one (user standing still at
+// a crossing): the Y plane is averaged into a small grid of blocks, sampled every few pixels,
+// and compared block by block with the grid of the last frame that went to inference.
+// The reference only moves on inference, so slow drift adds up until it counts.
+// A global brightness shift (auto exposure) is taken out before comparing. After maxSkipped
+// gated frames in a row the next frame is inferred regardless. Not thread safe.
+public class MotionGate {
+    public static final int DEFAULT_GRID_WIDTH = 32;
+    public static final int DEFAULT_GRID_HEIGHT = 24;
+    // Luma levels a block mean must move to count as changed
+    public static final int DEFAULT_BLOCK_THRESHOLD = 10;
+    // Share of changed blocks that makes a frame new; at least one block
+    public static final float DEFAULT_CHANGED_FRACTION = 0.003f;
+    public static final int DEFAULT_MAX_SKIPPED = 15;
+    // Pixels sampled per block row and column at most
+    private static final int SAMPLES_PER_BLOCK = 4;
+
+    private final int gridWidth;
+    private final int gridHeight;
+    private final int[] sums;
+    private final int[] counts;
+    private int[] current;
+    private int[] reference;
+    private boolean hasReference;
+    private int referenceWidth;
+    private int referenceHeight;
+    private int blockThreshold = DEFAULT_BLOCK_THRESHOLD;
+    private int minChangedBlocks;
+    private int maxSkipped = DEFAULT_MAX_SKIPPED;
+    private int skippedInRow;
+    private int lastChangedBlocks;
+    private long inferredFrames;
+    private long skippedFrames;
+
+    public MotionGate() {
+        this(DEFAULT_GRID_WIDTH, DEFAULT_GRID_HEIGHT);
+    }
+
+    public MotionGate(int gridWidth, int gridHeight) {
+        if (gridWidth <= 0 || gridHeight <= 0) {
+            throw new IllegalArgumentException("Invalid grid " + gridWidth + "x" + gridHeight);
+        }
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        int blocks = gridWidth * gridHeight;
+        sums = new int[blocks];
+        counts = new int[blocks];
+        current = new int[blocks];
+        reference = new int[blocks];
+        setChangedFraction(DEFAULT_CHANGED_FRACTION);
+    }
+
+    public void setBlockThreshold(int blockThreshold) {
+        this.blockThreshold = blockThreshold;
+    }
+
+    public void setChangedFraction(float changedFraction) {
+        if (changedFraction < 0 || changedFraction > 1) {
+            throw new IllegalArgumentException("Changed fraction must be in [0, 1]: " + changedFraction);
+        }
+        minChangedBlocks = Math.max(1, Math.round(changedFraction * gridWidth * gridHeight));
+    }
+
+    // Gated frames in a row before inference is forced; 0 = never gate
+    public void setMaxSkipped(int maxSkipped) {
+        this.maxSkipped = maxSkipped;
+    }
+
+    // True when frame has to be inferred; it then becomes the reference
+    public boolean shouldInfer(YuvFrame frame) {
+        sample(frame);
+        boolean sameSize = frame.getWidth() == referenceWidth && frame.getHeight() == referenceHeight;
+        lastChangedBlocks = hasReference && sameSize ? changedBlocks() : current.length;
+        if (lastChangedBlocks < minChangedBlocks && skippedInRow < maxSkipped) {
+            skippedInRow++;
+            skippedFrames++;
+            return false;
+        }
+        int[] swap = reference;
+        reference = current;
+        current = swap;
+        hasReference = true;
+        referenceWidth = frame.getWidth();
+        referenceHeight = frame.getHeight();
+        skippedInRow = 0;
+        inferredFrames++;
+        return true;
+    }
+
+    // The reference frame never reached inference (dropped): the next frame is inferred
+    public void reset() {
+        hasReference = false;
+        skippedInRow = 0;
+    }
+
+    // Changed blocks of the last shouldInfer(), all blocks without a reference
+    public int getLastChangedBlocks() {
+        return lastChangedBlocks;
+    }
+
+    public long getInferredFrames() {
+        return inferredFrames;
+    }
+
+    public long getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    private void sample(YuvFrame frame) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        ByteBuffer y = frame.getYBuffer();
+        int rowStride = frame.getYRowStride();
+        int stepX = Math.max(1, width / (gridWidth * SAMPLES_PER_BLOCK));
+        int stepY = Math.max(1, height / (gridHeight * SAMPLES_PER_BLOCK));
+        Arrays.fill(sums, 0);
+        Arrays.fill(counts, 0);
+        for (int py = stepY / 2; py < height; py += stepY) {
+            int row = py * gridHeight / height * gridWidth;
+            int offset = py * rowStride;
+            for (int px = stepX / 2; px < width; px += stepX) {
+                int block = row + px * gridWidth / width;
+                sums[block] += y.get(offset + px) & 0xFF;
+                counts[block]++;
+            }
+        }
+        for (int i = 0; i < current.length; i++) {
+            current[i] = counts[i] > 0 ? sums[i] / counts[i] : 0;
+        }
+    }
+
+    private int changedBlocks() {
+        long shift = 0;
+        for (int i = 0; i < current.length; i++) {
+            shift += current[i] - reference[i];
+        }
+        int mean = (int) (shift / current.length);
+        int changed = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (Math.abs(current[i] - reference[i] - mean) > blockThreshold) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
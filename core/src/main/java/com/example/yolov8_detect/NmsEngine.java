@@ -0,0 +1,221 @@
+package com.example.yolov8_detect;
+
+import java.util.Arrays;
+
+// Non-maximum suppression over DetectionCandidates (primitive boxes/scores/class ids).
+// Candidates are sorted once and suppressed through a bitmask, no queue is rebuilt
+// per kept box. All scratch arrays are reused between calls.
+public class NmsEngine {
+    public enum Mode {
+        // Greedy NMS over one score-sorted list, boxes only suppress boxes of the
+        // same class (a class id compare is cheaper than the IoU). Fastest on CPU.
+        CLASS_AWARE,
+        // Same result as CLASS_AWARE in one pass over all classes: every class is shifted
+        // to its own coordinate range so boxes of different classes can never overlap
+        BATCHED,
+        // Gaussian Soft-NMS: overlapping boxes of the same class get their score decayed
+        // instead of being removed, and drop out once below softScoreThreshold
+        SOFT
+    }
+
+    private Mode mode = Mode.CLASS_AWARE;
+    private float iouThreshold;
+    private int maxDetections = Integer.MAX_VALUE;
+    private float softSigma = 0.5f;
+    private float softScoreThreshold = 0.05f;
+
+    private long[] order = new long[0];
+    private long[] suppressed = new long[0];
+    private float[] shifted = new float[0];
+    private float[] softScores = new float[0];
+
+    public NmsEngine(float iouThreshold) {
+        this.iouThreshold = iouThreshold;
+    }
+
+    public NmsEngine(Mode mode, float iouThreshold, int maxDetections) {
+        this.mode = mode;
+        this.iouThreshold = iouThreshold;
+        this.maxDetections = maxDetections;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setIouThreshold(float iouThreshold) {
+        this.iouThreshold = iouThreshold;
+    }
+
+    public float getIouThreshold() {
+        return iouThreshold;
+    }
+
+    public void setMaxDetections(int maxDetections) {
+        this.maxDetections = maxDetections;
+    }
+
+    public int getMaxDetections() {
+        return maxDetections;
+    }
+
+    public void setSoftParameters(float sigma, float scoreThreshold) {
+        this.softSigma = sigma;
+        this.softScoreThreshold = scoreThreshold;
+    }
+
+    // Writes kept candidate indices into keep (highest score first) and returns how many.
+    // At most min(keep.length, maxDetections) boxes are kept.
+    public int run(DetectionCandidates candidates, int[] keep) {
+        int limit = Math.min(keep.length, maxDetections);
+        int n = candidates.size();
+        if (n == 0 || limit <= 0) return 0;
+
+        switch (mode) {
+            case BATCHED:
+                return greedy(shiftByClass(candidates), candidates.classIds(), false, candidates.scores(), n, keep, limit);
+            case SOFT:
+                return soft(candidates, keep, limit);
+            case CLASS_AWARE:
+            default:
+                return greedy(candidates.boxes(), candidates.classIds(), true, candidates.scores(), n, keep, limit);
+        }
+    }
+
+    // Score of candidate i as seen by the last run (decayed for SOFT)
+    public float getScore(DetectionCandidates candidates, int i) {
+        return mode == Mode.SOFT ? softScores[i] : candidates.getScore(i);
+    }
+
+    private int greedy(float[] boxes, int[] classIds, boolean checkClass, float[] scores, int n,
+                       int[] keep, int limit) {
+        sortByScore(scores, n);
+        clearSuppressed(n);
+
+        int kept = 0;
+        for (int i = n - 1; i >= 0 && kept < limit; i--) {
+            int a = (int) order[i];
+            if (isSuppressed(a)) continue;
+            keep[kept++] = a;
+
+            for (int j = i - 1; j >= 0; j--) {
+                int b = (int) order[j];
+                if (isSuppressed(b) || (checkClass && classIds[b] != classIds[a])) continue;
+                if (iou(boxes, a, boxes, b) >= iouThreshold) {
+                    suppressed[b >>> 6] |= 1L << b;
+                }
+            }
+        }
+        return kept;
+    }
+
+    private int soft(DetectionCandidates candidates, int[] keep, int limit) {
+        int n = candidates.size();
+        if (softScores.length < n) {
+            softScores = new float[n];
+        }
+        System.arraycopy(candidates.scores(), 0, softScores, 0, n);
+        clearSuppressed(n);
+
+        float[] boxes = candidates.boxes();
+        int[] classIds = candidates.classIds();
+        float denominator = 1f / softSigma;
+        int kept = 0;
+        while (kept < limit) {
+            // Scores change after every pick, so the next maximum is searched linearly
+            int a = -1;
+            float best = softScoreThreshold;
+            for (int i = 0; i < n; i++) {
+                if (!isSuppressed(i) && softScores[i] >= best) {
+                    best = softScores[i];
+                    a = i;
+                }
+            }
+            if (a < 0) break;
+            keep[kept++] = a;
+            suppressed[a >>> 6] |= 1L << a;
+
+            for (int b = 0; b < n; b++) {
+                if (isSuppressed(b) || classIds[b] != classIds[a]) continue;
+                float iou = iou(boxes, a, boxes, b);
+                if (iou > 0) {
+                    softScores[b] *= (float) Math.exp(-(iou * iou) * denominator);
+                    if (softScores[b] < softScoreThreshold) {
+                        suppressed[b >>> 6] |= 1L << b;
+                    }
+                }
+            }
+        }
+        return kept;
+    }
+
+    private float[] shiftByClass(DetectionCandidates candidates) {
+        int n = candidates.size();
+        float[] boxes = candidates.boxes();
+        int[] classIds = candidates.classIds();
+        float extent = 0;
+        for (int i = 0; i < n * 4; i++) {
+            extent = Math.max(extent, Math.abs(boxes[i]));
+        }
+        extent = extent * 2 + 1;
+
+        if (shifted.length < n * 4) {
+            shifted = new float[n * 4];
+        }
+        for (int i = 0; i < n; i++) {
+            float offset = classIds[i] * extent;
+            int b = i * 4;
+            shifted[b] = boxes[b] + offset;
+            shifted[b + 1] = boxes[b + 1] + offset;
+            shifted[b + 2] = boxes[b + 2] + offset;
+            shifted[b + 3] = boxes[b + 3] + offset;
+        }
+        return shifted;
+    }
+
+    // Packs (score bits, index) into longs so a primitive sort orders indices by score.
+    // Scores are non-negative, so their IEEE bits sort like the floats themselves.
+    private void sortByScore(float[] scores, int n) {
+        ensureOrder(n);
+        for (int i = 0; i < n; i++) {
+            order[i] = ((long) Float.floatToRawIntBits(Math.max(0f, scores[i])) << 32) | i;
+        }
+        Arrays.sort(order, 0, n);
+    }
+
+    private void ensureOrder(int n) {
+        if (order.length < n) {
+            order = new long[n];
+        }
+    }
+
+    private void clearSuppressed(int n) {
+        int words = (n + 63) >>> 6;
+        if (suppressed.length < words) {
+            suppressed = new long[words];
+        } else {
+            Arrays.fill(suppressed, 0, words, 0L);
+        }
+    }
+
+    private boolean isSuppressed(int i) {
+        return (suppressed[i >>> 6] & (1L << i)) != 0;
+    }
+
+    // IoU of box a in boxesA and box b in boxesB (left, top, right, bottom), intersection computed once
+    public static float iou(float[] boxesA, int a, float[] boxesB, int b) {
+        int ia = a * 4;
+        int ib = b * 4;
+        float w = Math.min(boxesA[ia + 2], boxesB[ib + 2]) - Math.max(boxesA[ia], boxesB[ib]);
+        float h = Math.min(boxesA[ia + 3], boxesB[ib + 3]) - Math.max(boxesA[ia + 1], boxesB[ib + 1]);
+        if (w <= 0 || h <= 0) return 0;
+        float intersection = w * h;
+        float areaA = (boxesA[ia + 2] - boxesA[ia]) * (boxesA[ia + 3] - boxesA[ia + 1]);
+        float areaB = (boxesB[ib + 2] - boxesB[ib]) * (boxesB[ib + 3] - boxesB[ib + 1]);
+        return intersection / (areaA + areaB - intersection);
+    }
+}
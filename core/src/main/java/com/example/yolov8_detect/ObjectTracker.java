@@ -0,0 +1,173 @@
+package com.example.yolov8_detect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// SORT/ByteTrack-style multi-object tracker. Every track carries a Kalman-predicted box
+// and detections are associated by IoU (same class only):
+//  1. high-score detections against all tracks,
+//  2. low-score detections against the confirmed tracks still unmatched (ByteTrack),
+//  3. unmatched high-score detections start tentative tracks.
+// Association is greedy on IoU, which matches Hungarian assignment for the sparse
+// overlaps of a street scene at a fraction of the cost. update() is for frames that ran
+// the detector, predict() coasts all tracks through frames that skipped it.
+public class ObjectTracker {
+    private final float matchIou;
+    private final float highScore;
+    private final int minHits;
+    private final int maxMisses;
+
+    private final ArrayList<Track> tracks = new ArrayList<>();
+    private final ArrayList<Track> visible = new ArrayList<>();
+    private int nextId = 1;
+
+    private float[] predicted = new float[0];
+    private long[] pairs = new long[0];
+    private boolean[] trackMatched = new boolean[0];
+    private boolean[] detectionMatched = new boolean[0];
+
+    public ObjectTracker() {
+        this(0.3f, 0.5f, 2, 3);
+    }
+
+    // matchIou: minimum IoU for an association; highScore: detections below it only
+    // extend confirmed tracks; minHits: matches before a track is shown; maxMisses:
+    // detection rounds a track survives without a match
+    public ObjectTracker(float matchIou, float highScore, int minHits, int maxMisses) {
+        this.matchIou = matchIou;
+        this.highScore = highScore;
+        this.minHits = minHits;
+        this.maxMisses = maxMisses;
+    }
+
+    public List<Track> update(DetectionCandidates detections) {
+        int trackCount = tracks.size();
+        int n = detections.size();
+        advance();
+        ensureScratch(trackCount, n);
+        Arrays.fill(trackMatched, 0, trackCount, false);
+        Arrays.fill(detectionMatched, 0, n, false);
+
+        associate(detections, true, false);
+        associate(detections, false, true);
+
+        for (int t = trackCount - 1; t >= 0; t--) {
+            if (trackMatched[t]) continue;
+            Track track = tracks.get(t);
+            track.misses++;
+            // Tentative tracks die on the first miss, confirmed ones after maxMisses
+            if (track.hits < minHits || track.misses > maxMisses) {
+                tracks.remove(t);
+            }
+        }
+        for (int d = 0; d < n; d++) {
+            if (!detectionMatched[d] && detections.getScore(d) >= highScore) {
+                tracks.add(new Track(nextId++, detections.getClassId(d), detections.getScore(d),
+                        detections.getLeft(d), detections.getTop(d), detections.getRight(d), detections.getBottom(d)));
+            }
+        }
+        return collectVisible();
+    }
+
+    // Frame without detector run: move every track along its velocity
+    public List<Track> predict() {
+        advance();
+        return collectVisible();
+    }
+
+    // Confirmed tracks as of the last update()/predict(), reused list
+    public List<Track> getVisibleTracks() {
+        return visible;
+    }
+
+    public int getTrackCount() {
+        return tracks.size();
+    }
+
+    // Total ids handed out, grows with every new (also short lived) track
+    public int getIdsIssued() {
+        return nextId - 1;
+    }
+
+    public void reset() {
+        tracks.clear();
+        visible.clear();
+    }
+
+    private void advance() {
+        for (int t = 0; t < tracks.size(); t++) {
+            Track track = tracks.get(t);
+            track.filter().predict();
+            track.age++;
+        }
+    }
+
+    private void associate(DetectionCandidates detections, boolean high, boolean confirmedOnly) {
+        int trackCount = tracks.size();
+        int n = detections.size();
+        for (int t = 0; t < trackCount; t++) {
+            tracks.get(t).filter().writeBox(predicted, t);
+        }
+
+        float[] boxes = detections.boxes();
+        int pairCount = 0;
+        for (int t = 0; t < trackCount; t++) {
+            if (trackMatched[t]) continue;
+            Track track = tracks.get(t);
+            if (confirmedOnly && track.hits < minHits) continue;
+            for (int d = 0; d < n; d++) {
+                if (detectionMatched[d] || (detections.getScore(d) >= highScore) != high
+                        || detections.getClassId(d) != track.getClassId()) continue;
+                float iou = NmsEngine.iou(predicted, t, boxes, d);
+                if (iou >= matchIou) {
+                    // IoU bits sort like the float, track and detection index below them
+                    pairs[pairCount++] = ((long) Float.floatToRawIntBits(iou) << 32) | ((long) t << 16) | d;
+                }
+            }
+        }
+
+        Arrays.sort(pairs, 0, pairCount);
+        for (int p = pairCount - 1; p >= 0; p--) {
+            int t = (int) (pairs[p] >>> 16) & 0xFFFF;
+            int d = (int) pairs[p] & 0xFFFF;
+            if (trackMatched[t] || detectionMatched[d]) continue;
+            trackMatched[t] = true;
+            detectionMatched[d] = true;
+
+            Track track = tracks.get(t);
+            track.filter().update(detections.getLeft(d), detections.getTop(d),
+                    detections.getRight(d), detections.getBottom(d));
+            track.score = detections.getScore(d);
+            track.hits++;
+            track.misses = 0;
+        }
+    }
+
+    private List<Track> collectVisible() {
+        visible.clear();
+        for (int t = 0; t < tracks.size(); t++) {
+            Track track = tracks.get(t);
+            if (track.hits >= minHits) {
+                visible.add(track);
+            }
+        }
+        return visible;
+    }
+
+    private void ensureScratch(int trackCount, int detectionCount) {
+        if (trackCount > 0xFFFF || detectionCount > 0xFFFF) {
+            throw new IllegalArgumentException("Too many tracks or detections");
+        }
+        if (predicted.length < trackCount * 4) {
+            predicted = new float[trackCount * 4];
+            trackMatched = new boolean[trackCount];
+        }
+        if (detectionMatched.length < detectionCount) {
+            detectionMatched = new boolean[detectionCount];
+        }
+        if (pairs.length < trackCount * detectionCount) {
+            pairs = new long[trackCount * detectionCount];
+        }
+    }
+}
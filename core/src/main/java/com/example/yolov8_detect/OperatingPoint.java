@@ -0,0 +1,60 @@
+package com.example.yolov8_detect;
+
+// One setting of the detection loop the AdaptiveGovernor can switch to:
+// how many frames per second are analyzed, the model input size (width x height) and how
+// often the detector runs (the tracker covers the frames in between).
+public final class OperatingPoint {
+    private final String name;
+    private final int targetFps;
+    private final int inputWidth;
+    private final int inputHeight;
+    private final int detectEvery;
+
+    // Square input
+    public OperatingPoint(String name, int targetFps, int inputSize, int detectEvery) {
+        this(name, targetFps, inputSize, inputSize, detectEvery);
+    }
+
+    public OperatingPoint(String name, int targetFps, int inputWidth, int inputHeight, int detectEvery) {
+        this.name = name;
+        this.targetFps = targetFps;
+        this.inputWidth = inputWidth;
+        this.inputHeight = inputHeight;
+        this.detectEvery = detectEvery;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    public int getInputHeight() {
+        return inputHeight;
+    }
+
+    public int getDetectEvery() {
+        return detectEvery;
+    }
+
+    // Time budget of one frame at the target rate
+    public long getFrameIntervalNanos() {
+        return 1_000_000_000L / targetFps;
+    }
+
+    // Same point for a model that only takes one input size
+    public OperatingPoint withInputSize(int width, int height) {
+        return new OperatingPoint(name, targetFps, width, height, detectEvery);
+    }
+
+    @Override
+    public String toString() {
+        return name + "{fps=" + targetFps + ", input=" + inputWidth + "x" + inputHeight + ", detectEvery=" + detectEvery + "}";
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.yolov8_detect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+// 16-bit PCM audio held in memory, read from the WAV files a speech engine writes.
+// Only uncompressed 16-bit PCM is accepted; other chunks (LIST, fact) are skipped.
+public class PcmClip {
+    private static final int RIFF = 0x46464952; // "RIFF"
+    private static final int WAVE = 0x45564157; // "WAVE"
+    private static final int FMT = 0x20746D66;  // "fmt "
+    private static final int DATA = 0x61746164; // "data"
+    private static final int PCM_FORMAT = 1;
+
+    private final int sampleRate;
+    private final int channels;
+    private final short[] samples;
+
+    public PcmClip(int sampleRate, int channels, short[] samples) {
+        if (sampleRate <= 0 || channels <= 0 || samples.length % channels != 0) {
+            throw new IllegalArgumentException("Invalid clip: " + sampleRate + " Hz, " + channels + " channels, "
+                    + samples.length + " samples");
+        }
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.samples = samples;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    // Interleaved; not copied
+    public short[] getSamples() {
+        return samples;
+    }
+
+    public long getDurationMs() {
+        return samples.length / channels * 1000L / sampleRate;
+    }
+
+    // Clips one after another with gapMs of silence between them; null when they differ in
+    // sample rate or channels (no resampling here, the caller falls back to live speech)
+    public static PcmClip concat(List<PcmClip> clips, int gapMs) {
+        if (clips.isEmpty()) return null;
+        PcmClip first = clips.get(0);
+        if (clips.size() == 1) return first;
+        int gap = first.sampleRate * gapMs / 1000 * first.channels;
+        int length = gap * (clips.size() - 1);
+        for (PcmClip clip : clips) {
+            if (clip.sampleRate != first.sampleRate || clip.channels != first.channels) return null;
+            length += clip.samples.length;
+        }
+        short[] joined = new short[length];
+        int offset = 0;
+        for (int i = 0; i < clips.size(); i++) {
+            if (i > 0) offset += gap;
+            short[] part = clips.get(i).samples;
+            System.arraycopy(part, 0, joined, offset, part.length);
+            offset += part.length;
+        }
+        return new PcmClip(first.sampleRate, first.channels, joined);
+    }
+
+    public static PcmClip readWav(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return readWav(in);
+        } catch (IOException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static PcmClip readWav(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] header = new byte[12];
+        data.readFully(header);
+        ByteBuffer riff = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+        if (riff.getInt(0) != RIFF || riff.getInt(8) != WAVE) {
+            throw new IOException("Not a WAV file");
+        }
+        int sampleRate = 0;
+        int channels = 0;
+        byte[] chunkHeader = new byte[8];
+        while (true) {
+            try {
+                data.readFully(chunkHeader);
+            } catch (EOFException e) {
+                throw new IOException("No data chunk");
+            }
+            ByteBuffer chunk = ByteBuffer.wrap(chunkHeader).order(ByteOrder.LITTLE_ENDIAN);
+            int id = chunk.getInt(0);
+            long length = chunk.getInt(4) & 0xFFFFFFFFL;
+            if (id == FMT) {
+                if (length < 16) throw new IOException("Short fmt chunk: " + length);
+                byte[] fmt = new byte[(int) length];
+                data.readFully(fmt);
+                ByteBuffer format = ByteBuffer.wrap(fmt).order(ByteOrder.LITTLE_ENDIAN);
+                int bits = format.getShort(14);
+                if (format.getShort(0) != PCM_FORMAT || bits != 16) {
+                    throw new IOException("Only 16-bit PCM is supported, got format " + format.getShort(0)
+                            + " with " + bits + " bits");
+                }
+                channels = format.getShort(2);
+                sampleRate = format.getInt(4);
+                if (channels <= 0 || sampleRate <= 0) {
+                    throw new IOException("Invalid fmt chunk: " + channels + " channels, " + sampleRate + " Hz");
+                }
+                skipPadding(data, length);
+            } else if (id == DATA) {
+                if (sampleRate == 0) throw new IOException("data chunk before fmt chunk");
+                // Engines streaming to the file may leave the length at 0 or 0xFFFFFFFF: read to the end
+                byte[] bytes;
+                if (length == 0 || length == 0xFFFFFFFFL) {
+                    bytes = readRest(data);
+                } else {
+                    bytes = new byte[(int) length];
+                    data.readFully(bytes);
+                }
+                short[] samples = new short[bytes.length / 2 / channels * channels];
+                ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(samples);
+                return new PcmClip(sampleRate, channels, samples);
+            } else {
+                skipFully(data, length);
+                skipPadding(data, length);
+            }
+        }
+    }
+
+    public void writeWav(File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            writeWav(out);
+        }
+    }
+
+    public void writeWav(OutputStream out) throws IOException {
+        int dataLength = samples.length * 2;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + dataLength).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(RIFF).putInt(36 + dataLength).putInt(WAVE);
+        buffer.putInt(FMT).putInt(16).putShort((short) PCM_FORMAT).putShort((short) channels)
+                .putInt(sampleRate).putInt(sampleRate * channels * 2).putShort((short) (channels * 2))
+                .putShort((short) 16);
+        buffer.putInt(DATA).putInt(dataLength);
+        buffer.asShortBuffer().put(samples);
+        out.write(buffer.array());
+    }
+
+    private static byte[] readRest(DataInputStream data) throws IOException {
+        ByteArrayOutputStream rest = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = data.read(buffer)) != -1) {
+            rest.write(buffer, 0, read);
+        }
+        return rest.toByteArray();
+    }
+
+    // Chunks are word aligned
+    private static void skipPadding(DataInputStream data, long length) throws IOException {
+        if ((length & 1) != 0) {
+            skipFully(data, 1);
+        }
+    }
+
+    private static void skipFully(DataInputStream data, long length) throws IOException {
+        while (length > 0) {
+            int skipped = data.skipBytes((int) Math.min(length, Integer.MAX_VALUE));
+            if (skipped <= 0) throw new EOFException();
+            length -= skipped;
+        }
+    }
+}
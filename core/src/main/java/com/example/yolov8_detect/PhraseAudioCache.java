@@ -0,0 +1,268 @@
+package com.example.yolov8_detect;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Announcement phrases synthesized once to WAV clips and held decoded in memory, so a warning
+// starts playing right away instead of after the speech engine has synthesized it.
+// Clips live in one directory next to a manifest holding the format version and the voice key
+// (locale, voice, engine, rate: whatever changes how a phrase sounds). prepare() with another
+// voice key evicts every clip. A clip is named after a hash of its phrase, so an edited phrase
+// gets a new clip and the clips of phrases that are gone are deleted by the next prepare().
+// A message of several phrases (joined with SEPARATOR) is composed clip by clip; when any
+// part is missing compose() returns null and the caller speaks the message live.
+// prepare() runs on one background thread at a time; get() and compose() from any thread.
+public class PhraseAudioCache {
+    public static final int FORMAT_VERSION = 1;
+    public static final String SEPARATOR = ". ";
+    // Pause between the phrases of a composed message
+    public static final int DEFAULT_GAP_MS = 150;
+    static final String MANIFEST = "clips.properties";
+    static final String CLIP_SUFFIX = ".wav";
+    private static final String CLIP_KEY = "clip.";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Writes text spoken with the current voice to a WAV file (16-bit PCM)
+    public interface Synthesizer {
+        // false when the engine could not (busy, voice data missing); the phrase stays a miss
+        // and is tried again on the next prepare()
+        boolean synthesize(String text, File file) throws IOException, InterruptedException;
+    }
+
+    private final File directory;
+    private final Synthesizer synthesizer;
+    private final Map<String, PcmClip> clips = new HashMap<>();
+    private String voiceKey;
+    private int gapMs = DEFAULT_GAP_MS;
+    private long hits;
+    private long misses;
+    private long synthesized;
+    private long evicted;
+
+    public PhraseAudioCache(File directory, Synthesizer synthesizer) {
+        this.directory = directory;
+        this.synthesizer = synthesizer;
+    }
+
+    public synchronized void setGapMs(int gapMs) {
+        this.gapMs = gapMs;
+    }
+
+    // Makes every phrase playable for voiceKey: clips on disk from an earlier run are loaded,
+    // missing ones are synthesized. Returns the number of phrases synthesized.
+    public int prepare(String voiceKey, Collection<String> phrases) throws IOException, InterruptedException {
+        Properties manifest = readManifest();
+        boolean sameVoice = manifest != null
+                && String.valueOf(FORMAT_VERSION).equals(manifest.getProperty("format"))
+                && voiceKey.equals(manifest.getProperty("voice"));
+        synchronized (this) {
+            if (!voiceKey.equals(this.voiceKey)) {
+                clips.clear();
+                this.voiceKey = voiceKey;
+            }
+        }
+        if (!sameVoice) {
+            evictAll();
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+
+        Properties next = new Properties();
+        next.setProperty("format", String.valueOf(FORMAT_VERSION));
+        next.setProperty("voice", voiceKey);
+        Set<String> names = new HashSet<>();
+        int made = 0;
+        for (String phrase : phrases) {
+            String name = clipName(phrase);
+            File file = new File(directory, name);
+            PcmClip clip = null;
+            if (sameVoice && phrase.equals(manifest.getProperty(CLIP_KEY + name)) && file.isFile()) {
+                clip = readClip(file);
+            }
+            if (clip == null) {
+                File temp = new File(directory, name + TEMP_SUFFIX);
+                clip = synthesizer.synthesize(phrase, temp) ? readClip(temp) : null;
+                if (clip == null || !rename(temp, file)) {
+                    temp.delete();
+                    continue;
+                }
+                made++;
+            }
+            names.add(name);
+            next.setProperty(CLIP_KEY + name, phrase);
+            synchronized (this) {
+                clips.put(phrase, clip);
+            }
+        }
+
+        synchronized (this) {
+            clips.keySet().retainAll(phrases);
+            synthesized += made;
+        }
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(CLIP_SUFFIX) && !names.contains(file.getName())) {
+                    deleteClip(file);
+                }
+            }
+        }
+        writeManifest(next);
+        return made;
+    }
+
+    // The clip of one phrase, null on a miss
+    public synchronized PcmClip get(String phrase) {
+        PcmClip clip = clips.get(phrase);
+        if (clip != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return clip;
+    }
+
+    // The clip of a whole message: a cached phrase, or phrases joined with SEPARATOR that are
+    // all cached. Null when any part is missing.
+    public synchronized PcmClip compose(String message) {
+        PcmClip clip = clips.get(message);
+        if (clip == null && message.contains(SEPARATOR)) {
+            String[] parts = message.split(Pattern.quote(SEPARATOR), -1);
+            List<PcmClip> joined = new ArrayList<>(parts.length);
+            for (String part : parts) {
+                PcmClip partClip = clips.get(part.trim());
+                if (partClip == null) {
+                    joined = null;
+                    break;
+                }
+                joined.add(partClip);
+            }
+            clip = joined != null ? PcmClip.concat(joined, gapMs) : null;
+        }
+        if (clip != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return clip;
+    }
+
+    // Drops the clips in memory and on disk, e.g. when the app's voice settings are reset
+    public void clear() {
+        synchronized (this) {
+            clips.clear();
+            voiceKey = null;
+        }
+        evictAll();
+    }
+
+    public synchronized String getVoiceKey() {
+        return voiceKey;
+    }
+
+    public synchronized int size() {
+        return clips.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getSynthesized() {
+        return synthesized;
+    }
+
+    // Clip files deleted because the voice changed or their phrase is gone
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+
+    static String clipName(String phrase) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(phrase.getBytes(UTF_8));
+            return ModelStore.toHex(hash).substring(0, 16) + CLIP_SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void evictAll() {
+        new File(directory, MANIFEST).delete();
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            if (file.getName().endsWith(CLIP_SUFFIX) || file.getName().endsWith(TEMP_SUFFIX)) {
+                deleteClip(file);
+            }
+        }
+    }
+
+    private void deleteClip(File file) {
+        if (file.delete() && file.getName().endsWith(CLIP_SUFFIX)) {
+            synchronized (this) {
+                evicted++;
+            }
+        }
+    }
+
+    // Unreadable or empty clip: treated as missing, synthesized again
+    private static PcmClip readClip(File file) {
+        try {
+            PcmClip clip = PcmClip.readWav(file);
+            return clip.getSamples().length > 0 ? clip : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean rename(File from, File to) {
+        if (from.renameTo(to)) return true;
+        to.delete();
+        return from.renameTo(to);
+    }
+
+    private Properties readManifest() {
+        File file = new File(directory, MANIFEST);
+        if (!file.isFile()) return null;
+        Properties manifest = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            manifest.load(in);
+            return manifest;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void writeManifest(Properties manifest) throws IOException {
+        File temp = new File(directory, MANIFEST + TEMP_SUFFIX);
+        try (OutputStream out = new FileOutputStream(temp)) {
+            manifest.store(out, null);
+        }
+        if (!rename(temp, new File(directory, MANIFEST))) {
+            temp.delete();
+            throw new IOException("Cannot write " + new File(directory, MANIFEST));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.yolov8_detect;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Per-class announcement data, read once from a tab separated table:
+//   label <TAB> priority <TAB> cooldown_ms <TAB> appeared <TAB> approaching <TAB> left
+// Lines starting with '#' are comments; an empty phrase means the event is not announced.
+// Classes missing from the table are never announced.
+public class PhraseTable {
+    private final int[] priorities;
+    private final long[] cooldownsMs;
+    // [classId * EVENT_TYPES + type.ordinal()]
+    private final String[] phrases;
+
+    private static final int EVENT_TYPES = AnnouncementEngine.EventType.values().length;
+
+    public PhraseTable(int classCount) {
+        priorities = new int[classCount];
+        cooldownsMs = new long[classCount];
+        phrases = new String[classCount * EVENT_TYPES];
+    }
+
+    public static PhraseTable parse(BufferedReader reader, String[] labels) throws IOException {
+        PhraseTable table = new PhraseTable(labels.length);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty() || line.startsWith("#")) continue;
+            String[] fields = line.split("\t", -1);
+            if (fields.length < 4) {
+                throw new IOException("Line " + lineNumber + ": expected at least 4 fields, got " + fields.length);
+            }
+            int classId = Arrays.asList(labels).indexOf(fields[0].trim());
+            if (classId < 0) continue;
+            try {
+                table.set(classId, Integer.parseInt(fields[1].trim()), Long.parseLong(fields[2].trim()),
+                        fields[3], fields.length > 4 ? fields[4] : "", fields.length > 5 ? fields[5] : "");
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return table;
+    }
+
+    public void set(int classId, int priority, long cooldownMs, String appeared, String approaching, String left) {
+        priorities[classId] = priority;
+        cooldownsMs[classId] = cooldownMs;
+        int base = classId * EVENT_TYPES;
+        phrases[base + AnnouncementEngine.EventType.APPEARED.ordinal()] = emptyToNull(appeared);
+        phrases[base + AnnouncementEngine.EventType.APPROACHING.ordinal()] = emptyToNull(approaching);
+        phrases[base + AnnouncementEngine.EventType.LEFT.ordinal()] = emptyToNull(left);
+    }
+
+    public int getClassCount() {
+        return priorities.length;
+    }
+
+    public int getPriority(int classId) {
+        return priorities[classId];
+    }
+
+    public long getCooldownMs(int classId) {
+        return cooldownsMs[classId];
+    }
+
+    // null when the event is not announced for this class
+    public String getPhrase(int classId, AnnouncementEngine.EventType type) {
+        if (classId < 0 || classId >= priorities.length) return null;
+        return phrases[classId * EVENT_TYPES + type.ordinal()];
+    }
+
+    // Every distinct phrase of the table, in class order; what a PhraseAudioCache has to hold
+    public List<String> getPhrases() {
+        ArrayList<String> distinct = new ArrayList<>();
+        for (String phrase : phrases) {
+            if (phrase != null && !distinct.contains(phrase)) {
+                distinct.add(phrase);
+            }
+        }
+        return distinct;
+    }
+
+    private static String emptyToNull(String phrase) {
+        String trimmed = phrase.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
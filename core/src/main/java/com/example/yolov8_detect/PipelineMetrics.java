@@ -0,0 +1,249 @@
+package com.example.yolov8_detect;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-stage latency histograms and frame counters for the detection loop.
+// Stages time themselves with start()/record(); both are allocation free and safe to
+// call from any pipeline thread. snapshot() copies everything out for display or dumps.
+public class PipelineMetrics {
+    public enum Stage {
+        PREPROCESS("preprocess"),
+        INFERENCE("inference"),
+        DECODE("decode"),
+        NMS("nms"),
+        TRANSFORM("transform"),
+        PUBLISH("publish"),
+        // Capture to published result
+        FRAME("frame");
+
+        final String key;
+
+        Stage(String key) {
+            this.key = key;
+        }
+    }
+
+    public enum Counter {
+        FRAMES_IN("frames_in"),
+        FRAMES_DROPPED("frames_dropped"),
+        FRAMES_OUT("frames_out"),
+        // Frames served by the tracker without running the detector
+        FRAMES_TRACKED("frames_tracked"),
+        // Frames that reused the last detections because the scene did not change (MotionGate)
+        FRAMES_GATED("frames_gated"),
+        DETECTIONS("detections"),
+        // Inference runs; fewer than frames_out when frames are batched
+        BATCHES("batches"),
+        // Per-frame heap allocations we know of (output copies, result lists)
+        ALLOCATIONS("allocations");
+
+        final String key;
+
+        Counter(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final Counter[] COUNTERS = Counter.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTERS.length);
+    private volatile long resetNanos = System.nanoTime();
+
+    public PipelineMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    // Records the time since startNanos and returns now, so consecutive stages can chain
+    public long record(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        histograms[stage.ordinal()].recordNanos(now - startNanos);
+        return now;
+    }
+
+    public void increment(Counter counter) {
+        counters.incrementAndGet(counter.ordinal());
+    }
+
+    public void add(Counter counter, long delta) {
+        counters.addAndGet(counter.ordinal(), delta);
+    }
+
+    public LatencyHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    public long getCount(Counter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            counters.set(i, 0);
+        }
+        resetNanos = System.nanoTime();
+    }
+
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot(STAGES.length, COUNTERS.length);
+        snapshot.elapsedMs = (System.nanoTime() - resetNanos) / 1e6;
+        for (int i = 0; i < STAGES.length; i++) {
+            LatencyHistogram histogram = histograms[i];
+            snapshot.counts[i] = histogram.getCount();
+            snapshot.mean[i] = histogram.getMeanMs();
+            snapshot.p50[i] = histogram.getPercentileMs(0.50);
+            snapshot.p95[i] = histogram.getPercentileMs(0.95);
+            snapshot.p99[i] = histogram.getPercentileMs(0.99);
+            snapshot.max[i] = histogram.getMaxNanos() / 1e6;
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            snapshot.counters[i] = counters.get(i);
+        }
+        return snapshot;
+    }
+
+    // Point-in-time copy, latencies in milliseconds
+    public static class Snapshot {
+        double elapsedMs;
+        final long[] counts;
+        final double[] mean;
+        final double[] p50;
+        final double[] p95;
+        final double[] p99;
+        final double[] max;
+        final long[] counters;
+
+        Snapshot(int stages, int counterCount) {
+            counts = new long[stages];
+            mean = new double[stages];
+            p50 = new double[stages];
+            p95 = new double[stages];
+            p99 = new double[stages];
+            max = new double[stages];
+            counters = new long[counterCount];
+        }
+
+        public long getCount(Stage stage) {
+            return counts[stage.ordinal()];
+        }
+
+        public double getMeanMs(Stage stage) {
+            return mean[stage.ordinal()];
+        }
+
+        public double getP50Ms(Stage stage) {
+            return p50[stage.ordinal()];
+        }
+
+        public double getP95Ms(Stage stage) {
+            return p95[stage.ordinal()];
+        }
+
+        public double getP99Ms(Stage stage) {
+            return p99[stage.ordinal()];
+        }
+
+        public double getMaxMs(Stage stage) {
+            return max[stage.ordinal()];
+        }
+
+        public long getCounter(Counter counter) {
+            return counters[counter.ordinal()];
+        }
+
+        // Frames published per second since the last reset
+        public double getFps() {
+            return elapsedMs > 0 ? getCounter(Counter.FRAMES_OUT) * 1000.0 / elapsedMs : 0;
+        }
+
+        public double getDetectionsPerFrame() {
+            long frames = getCounter(Counter.FRAMES_OUT);
+            return frames > 0 ? getCounter(Counter.DETECTIONS) / (double) frames : 0;
+        }
+
+        public String toJson() {
+            StringBuilder json = new StringBuilder(512);
+            json.append('{');
+            json.append("\"elapsed_ms\":").append(format(elapsedMs));
+            json.append(",\"fps\":").append(format(getFps()));
+            json.append(",\"detections_per_frame\":").append(format(getDetectionsPerFrame()));
+            json.append(",\"counters\":{");
+            for (int i = 0; i < COUNTERS.length; i++) {
+                if (i > 0) json.append(',');
+                json.append('"').append(COUNTERS[i].key).append("\":").append(counters[i]);
+            }
+            json.append("},\"stages\":{");
+            for (int i = 0; i < STAGES.length; i++) {
+                if (i > 0) json.append(',');
+                json.append('"').append(STAGES[i].key).append("\":{")
+                        .append("\"count\":").append(counts[i])
+                        .append(",\"mean\":").append(format(mean[i]))
+                        .append(",\"p50\":").append(format(p50[i]))
+                        .append(",\"p95\":").append(format(p95[i]))
+                        .append(",\"p99\":").append(format(p99[i]))
+                        .append(",\"max\":").append(format(max[i]))
+                        .append('}');
+            }
+            json.append("}}");
+            return json.toString();
+        }
+
+        // Prometheus text format: counters as <prefix>_<key>_total and every stage as one series
+        // of the <prefix>_stage_seconds summary (p50/p95/p99 since the last reset, _sum, _count).
+        // Throughput is rate(<prefix>_frames_out_total) on the Prometheus side.
+        public String toPrometheus(String prefix) {
+            StringBuilder text = new StringBuilder(2048);
+            for (int i = 0; i < COUNTERS.length; i++) {
+                String name = prefix + '_' + COUNTERS[i].key + "_total";
+                text.append("# TYPE ").append(name).append(" counter\n")
+                        .append(name).append(' ').append(counters[i]).append('\n');
+            }
+            String summary = prefix + "_stage_seconds";
+            text.append("# TYPE ").append(summary).append(" summary\n");
+            for (int i = 0; i < STAGES.length; i++) {
+                String stage = "stage=\"" + STAGES[i].key + '"';
+                appendSample(text, summary, stage + ",quantile=\"0.5\"", p50[i] / 1000);
+                appendSample(text, summary, stage + ",quantile=\"0.95\"", p95[i] / 1000);
+                appendSample(text, summary, stage + ",quantile=\"0.99\"", p99[i] / 1000);
+                appendSample(text, summary + "_sum", stage, mean[i] * counts[i] / 1000);
+                text.append(summary).append("_count{").append(stage).append("} ").append(counts[i]).append('\n');
+            }
+            return text.toString();
+        }
+
+        private static void appendSample(StringBuilder text, String name, String labels, double value) {
+            text.append(name).append('{').append(labels).append("} ")
+                    .append(String.format(Locale.US, "%.6f", value)).append('\n');
+        }
+
+        // Compact multi-line text for the debug overlay
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(256);
+            text.append(String.format(Locale.US, "%.1f fps  in %d  drop %d  det/frame %.1f",
+                    getFps(), getCounter(Counter.FRAMES_IN), getCounter(Counter.FRAMES_DROPPED),
+                    getDetectionsPerFrame()));
+            for (int i = 0; i < STAGES.length; i++) {
+                if (counts[i] == 0) continue;
+                text.append('\n').append(String.format(Locale.US, "%-10s p50 %6.1f  p95 %6.1f  p99 %6.1f ms",
+                        STAGES[i].key, p50[i], p95[i], p99[i]));
+            }
+            return text.toString();
+        }
+
+        private static String format(double value) {
+            return String.format(Locale.US, "%.3f", value);
+        }
+    }
+}
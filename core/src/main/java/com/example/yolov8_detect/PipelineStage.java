@@ -0,0 +1,6 @@
+package com.example.yolov8_detect;
+
+// One step of a FramePipeline. Returning null ends the item's trip through the pipeline.
+public interface PipelineStage<I, O> {
+    O process(I input) throws Exception;
+}
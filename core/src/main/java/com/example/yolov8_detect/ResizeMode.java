@@ -0,0 +1,11 @@
+package com.example.yolov8_detect;
+
+// How a source frame is fitted into the model input
+public enum ResizeMode {
+    // Keep aspect ratio, pad the short side (YOLOv8 default)
+    LETTERBOX,
+    // Scale each axis independently, distorts wide frames
+    STRETCH,
+    // Keep aspect ratio, fill the target and cut the overflow (PreviewView FILL_CENTER)
+    CENTER_CROP
+}
@@ -0,0 +1,157 @@
+package com.example.yolov8_detect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+// Startup auto-tuner: opens each candidate configuration, runs a few warm-up
+// inferences, times a few more and keeps the configuration with the lowest median.
+// Candidates that fail to open (e.g. a provider missing from this ORT build) are skipped.
+public class SessionAutoTuner {
+
+    // One candidate being measured
+    public interface Trial extends AutoCloseable {
+        void run() throws Exception;
+
+        @Override
+        void close();
+    }
+
+    public interface TrialFactory {
+        Trial open(SessionConfig config) throws Exception;
+    }
+
+    private final int warmupRuns;
+    private final int measuredRuns;
+
+    public SessionAutoTuner(int warmupRuns, int measuredRuns) {
+        if (measuredRuns <= 0) {
+            throw new IllegalArgumentException("measuredRuns must be positive");
+        }
+        this.warmupRuns = warmupRuns;
+        this.measuredRuns = measuredRuns;
+    }
+
+    public Result tune(List<SessionConfig> candidates, TrialFactory factory) {
+        List<Measurement> measurements = new ArrayList<>();
+        Measurement best = null;
+        for (SessionConfig config : candidates) {
+            Measurement measurement = measure(config, factory);
+            measurements.add(measurement);
+            if (measurement.error == null && (best == null || measurement.medianMs < best.medianMs)) {
+                best = measurement;
+            }
+        }
+        return new Result(best == null ? null : best.config, measurements);
+    }
+
+    private Measurement measure(SessionConfig config, TrialFactory factory) {
+        Trial trial;
+        try {
+            trial = factory.open(config);
+        } catch (Exception e) {
+            return new Measurement(config, Double.NaN, e);
+        }
+        try {
+            for (int i = 0; i < warmupRuns; i++) {
+                trial.run();
+            }
+            double[] times = new double[measuredRuns];
+            for (int i = 0; i < measuredRuns; i++) {
+                long start = System.nanoTime();
+                trial.run();
+                times[i] = (System.nanoTime() - start) / 1e6;
+            }
+            Arrays.sort(times);
+            return new Measurement(config, times[measuredRuns / 2], null);
+        } catch (Exception e) {
+            return new Measurement(config, Double.NaN, e);
+        } finally {
+            trial.close();
+        }
+    }
+
+    // Trials backed by real ORT sessions fed with fixed warm-up inputs
+    public static TrialFactory sessionTrials(final SessionFactory sessionFactory, final String modelPath,
+                                             final Map<String, OnnxTensor> inputs) {
+        return new TrialFactory() {
+            @Override
+            public Trial open(SessionConfig config) throws OrtException {
+                return sessionTrial(sessionFactory.createSession(modelPath, config), inputs);
+            }
+        };
+    }
+
+    // Single-input model fed one tensor under whatever name the model gives its input, so
+    // variants exported with another input name are tuned the same way
+    public static TrialFactory sessionTrials(final SessionFactory sessionFactory, final String modelPath,
+                                             final OnnxTensor input) {
+        return new TrialFactory() {
+            @Override
+            public Trial open(SessionConfig config) throws OrtException {
+                OrtSession session = sessionFactory.createSession(modelPath, config);
+                return sessionTrial(session, Collections.singletonMap(session.getInputNames().iterator().next(), input));
+            }
+        };
+    }
+
+    private static Trial sessionTrial(final OrtSession session, final Map<String, OnnxTensor> inputs) {
+        return new Trial() {
+            @Override
+            public void run() throws OrtException {
+                session.run(inputs).close();
+            }
+
+            @Override
+            public void close() {
+                try {
+                    session.close();
+                } catch (OrtException ignored) {
+                    // Nothing left to release
+                }
+            }
+        };
+    }
+
+    public static class Measurement {
+        public final SessionConfig config;
+        public final double medianMs;
+        public final Exception error;
+
+        Measurement(SessionConfig config, double medianMs, Exception error) {
+            this.config = config;
+            this.medianMs = medianMs;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return config.encode() + " -> " + (error == null ? String.format("%.2f ms", medianMs) : "failed: " + error.getMessage());
+        }
+    }
+
+    public static class Result {
+        private final SessionConfig best;
+        private final List<Measurement> measurements;
+
+        Result(SessionConfig best, List<Measurement> measurements) {
+            this.best = best;
+            this.measurements = Collections.unmodifiableList(measurements);
+        }
+
+        // null when every candidate failed
+        public SessionConfig getBest() {
+            return best;
+        }
+
+        public List<Measurement> getMeasurements() {
+            return measurements;
+        }
+    }
+}
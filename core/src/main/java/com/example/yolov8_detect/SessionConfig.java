@@ -0,0 +1,230 @@
+package com.example.yolov8_detect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.onnxruntime.OrtSession.SessionOptions.ExecutionMode;
+import ai.onnxruntime.OrtSession.SessionOptions.OptLevel;
+
+// Typed ONNX Runtime session settings. Immutable; build with SessionConfig.builder()
+// or start from one of the device presets.
+public final class SessionConfig {
+    public enum ExecutionProvider {
+        CPU,
+        XNNPACK,
+        NNAPI
+    }
+
+    private final int intraOpThreads;
+    private final int interOpThreads;
+    private final OptLevel optLevel;
+    private final ExecutionMode executionMode;
+    private final boolean memoryPattern;
+    private final boolean cpuArena;
+    private final ExecutionProvider executionProvider;
+
+    private SessionConfig(Builder builder) {
+        intraOpThreads = builder.intraOpThreads;
+        interOpThreads = builder.interOpThreads;
+        optLevel = builder.optLevel;
+        executionMode = builder.executionMode;
+        memoryPattern = builder.memoryPattern;
+        cpuArena = builder.cpuArena;
+        executionProvider = builder.executionProvider;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        return new Builder()
+                .intraOpThreads(intraOpThreads)
+                .interOpThreads(interOpThreads)
+                .optLevel(optLevel)
+                .executionMode(executionMode)
+                .memoryPattern(memoryPattern)
+                .cpuArena(cpuArena)
+                .executionProvider(executionProvider);
+    }
+
+    // Old phones: few cores, keep one free for the camera and UI
+    public static SessionConfig lowEnd(int cores) {
+        return builder().intraOpThreads(Math.max(1, Math.min(2, cores - 1))).build();
+    }
+
+    // Default: intra-op threads on the big cores (about half on big.LITTLE SoCs)
+    public static SessionConfig balanced(int cores) {
+        return builder().intraOpThreads(Math.max(1, Math.min(4, cores / 2))).build();
+    }
+
+    public static SessionConfig performance(int cores) {
+        return builder()
+                .intraOpThreads(Math.max(1, Math.min(4, cores / 2)))
+                .executionProvider(ExecutionProvider.XNNPACK)
+                .build();
+    }
+
+    public static SessionConfig forDevice(int cores) {
+        if (cores <= 4) return lowEnd(cores);
+        return balanced(cores);
+    }
+
+    // Small search space for SessionAutoTuner: thread counts x execution providers
+    public static List<SessionConfig> tuningCandidates(int cores, ExecutionProvider... providers) {
+        List<Integer> threads = new ArrayList<>();
+        for (int t : new int[]{1, 2, cores / 2, cores}) {
+            if (t >= 1 && t <= cores && !threads.contains(t)) threads.add(t);
+        }
+        List<SessionConfig> candidates = new ArrayList<>();
+        for (ExecutionProvider provider : providers) {
+            for (int t : threads) {
+                candidates.add(builder().intraOpThreads(t).executionProvider(provider).build());
+            }
+        }
+        return candidates;
+    }
+
+    public int getIntraOpThreads() {
+        return intraOpThreads;
+    }
+
+    public int getInterOpThreads() {
+        return interOpThreads;
+    }
+
+    public OptLevel getOptLevel() {
+        return optLevel;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public boolean isMemoryPattern() {
+        return memoryPattern;
+    }
+
+    public boolean isCpuArena() {
+        return cpuArena;
+    }
+
+    public ExecutionProvider getExecutionProvider() {
+        return executionProvider;
+    }
+
+    // Compact key=value form, used to persist a tuned configuration and as cache key
+    public String encode() {
+        return "intra=" + intraOpThreads
+                + ";inter=" + interOpThreads
+                + ";opt=" + optLevel.name()
+                + ";mode=" + executionMode.name()
+                + ";mem=" + memoryPattern
+                + ";arena=" + cpuArena
+                + ";ep=" + executionProvider.name();
+    }
+
+    public static SessionConfig decode(String encoded) {
+        Builder builder = builder();
+        for (String entry : encoded.split(";")) {
+            int eq = entry.indexOf('=');
+            if (eq < 0) continue;
+            String key = entry.substring(0, eq).trim();
+            String value = entry.substring(eq + 1).trim();
+            switch (key) {
+                case "intra":
+                    builder.intraOpThreads(Integer.parseInt(value));
+                    break;
+                case "inter":
+                    builder.interOpThreads(Integer.parseInt(value));
+                    break;
+                case "opt":
+                    builder.optLevel(OptLevel.valueOf(value));
+                    break;
+                case "mode":
+                    builder.executionMode(ExecutionMode.valueOf(value));
+                    break;
+                case "mem":
+                    builder.memoryPattern(Boolean.parseBoolean(value));
+                    break;
+                case "arena":
+                    builder.cpuArena(Boolean.parseBoolean(value));
+                    break;
+                case "ep":
+                    builder.executionProvider(ExecutionProvider.valueOf(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown session setting " + key);
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SessionConfig && encode().equals(((SessionConfig) o).encode());
+    }
+
+    @Override
+    public int hashCode() {
+        return encode().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "SessionConfig{" + encode() + "}";
+    }
+
+    public static class Builder {
+        // 0 lets ONNX Runtime pick
+        private int intraOpThreads = 0;
+        private int interOpThreads = 1;
+        private OptLevel optLevel = OptLevel.ALL_OPT;
+        private ExecutionMode executionMode = ExecutionMode.SEQUENTIAL;
+        private boolean memoryPattern = true;
+        private boolean cpuArena = true;
+        private ExecutionProvider executionProvider = ExecutionProvider.CPU;
+
+        public Builder intraOpThreads(int threads) {
+            this.intraOpThreads = threads;
+            return this;
+        }
+
+        public Builder interOpThreads(int threads) {
+            this.interOpThreads = threads;
+            return this;
+        }
+
+        public Builder optLevel(OptLevel optLevel) {
+            this.optLevel = optLevel;
+            return this;
+        }
+
+        public Builder executionMode(ExecutionMode executionMode) {
+            this.executionMode = executionMode;
+            return this;
+        }
+
+        public Builder memoryPattern(boolean memoryPattern) {
+            this.memoryPattern = memoryPattern;
+            return this;
+        }
+
+        public Builder cpuArena(boolean cpuArena) {
+            this.cpuArena = cpuArena;
+            return this;
+        }
+
+        public Builder executionProvider(ExecutionProvider executionProvider) {
+            this.executionProvider = executionProvider;
+            return this;
+        }
+
+        public SessionConfig build() {
+            if (intraOpThreads < 0 || interOpThreads < 0) {
+                throw new IllegalArgumentException("Thread counts must be >= 0");
+            }
+            return new SessionConfig(this);
+        }
+    }
+}
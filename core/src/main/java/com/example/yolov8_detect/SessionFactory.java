@@ -0,0 +1,110 @@
+package com.example.yolov8_detect;
+
+import java.io.File;
+import java.util.Collections;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+// Builds OrtSession.SessionOptions from a SessionConfig and creates sessions, optionally
+// caching the graph-optimized model on disk so later launches skip the optimizer.
+public class SessionFactory {
+    private final OrtEnvironment environment;
+    private File optimizedModelDir;
+
+    public SessionFactory(OrtEnvironment environment) {
+        this.environment = environment;
+    }
+
+    // Directory for optimized models, null disables caching
+    public void setOptimizedModelCache(File directory) {
+        this.optimizedModelDir = directory;
+    }
+
+    public OrtSession.SessionOptions createOptions(SessionConfig config) throws OrtException {
+        OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+        try {
+            options.setOptimizationLevel(config.getOptLevel());
+            options.setExecutionMode(config.getExecutionMode());
+            options.setMemoryPatternOptimization(config.isMemoryPattern());
+            options.setCPUArenaAllocator(config.isCpuArena());
+            if (config.getInterOpThreads() > 0) {
+                options.setInterOpNumThreads(config.getInterOpThreads());
+            }
+
+            switch (config.getExecutionProvider()) {
+                case XNNPACK:
+                    // XNNPACK brings its own thread pool; ORT's pool then only runs the
+                    // leftover CPU kernels and should not spin against it
+                    options.addXnnpack(Collections.singletonMap("intra_op_num_threads",
+                            String.valueOf(Math.max(1, config.getIntraOpThreads()))));
+                    options.setIntraOpNumThreads(1);
+                    options.addConfigEntry("session.intra_op.allow_spinning", "0");
+                    break;
+                case NNAPI:
+                    options.addNnapi();
+                    setIntraOpThreads(options, config);
+                    break;
+                case CPU:
+                default:
+                    setIntraOpThreads(options, config);
+                    break;
+            }
+            return options;
+        } catch (OrtException | RuntimeException e) {
+            options.close();
+            throw e;
+        }
+    }
+
+    private static void setIntraOpThreads(OrtSession.SessionOptions options, SessionConfig config)
+            throws OrtException {
+        if (config.getIntraOpThreads() > 0) {
+            options.setIntraOpNumThreads(config.getIntraOpThreads());
+        }
+    }
+
+    public OrtSession createSession(String modelPath, SessionConfig config) throws OrtException {
+        File cached = optimizedModelFile(new File(modelPath), config);
+        if (cached != null && cached.isFile()) {
+            // Graph already optimized for this config, skip the optimizer passes
+            SessionConfig noOpt = config.toBuilder().optLevel(OrtSession.SessionOptions.OptLevel.NO_OPT).build();
+            try (OrtSession.SessionOptions options = createOptions(noOpt)) {
+                return environment.createSession(cached.getAbsolutePath(), options);
+            } catch (OrtException e) {
+                // Corrupt or incompatible cache entry, rebuild it below
+                cached.delete();
+            }
+        }
+
+        try (OrtSession.SessionOptions options = createOptions(config)) {
+            File temp = null;
+            if (cached != null) {
+                temp = new File(cached.getPath() + ".tmp");
+                options.setOptimizedModelFilePath(temp.getAbsolutePath());
+            }
+            OrtSession session = environment.createSession(modelPath, options);
+            if (temp != null && temp.isFile() && !temp.renameTo(cached)) {
+                temp.delete();
+            }
+            return session;
+        }
+    }
+
+    // Cache entry name depends on the model file identity and the session config.
+    // Only CPU sessions are cached: a fully optimized graph can contain CPU-only fused
+    // nodes that NNAPI/XNNPACK would no longer be able to take.
+    File optimizedModelFile(File model, SessionConfig config) {
+        if (optimizedModelDir == null || config.getExecutionProvider() != SessionConfig.ExecutionProvider.CPU
+                || config.getOptLevel() == OrtSession.SessionOptions.OptLevel.NO_OPT) {
+            return null;
+        }
+        if (!optimizedModelDir.isDirectory() && !optimizedModelDir.mkdirs()) {
+            return null;
+        }
+        String key = model.getName() + ":" + model.length() + ":" + model.lastModified() + ":"
+                + config.getOptLevel();
+        return new File(optimizedModelDir, model.getName() + "." + Integer.toHexString(key.hashCode()) + ".opt.onnx");
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.yolov8_detect;
+
+// Where AnnouncementEngine sends its phrases: TextToSpeech on the device, a recorder in tests.
+// The sink calls AnnouncementEngine.onSpeechDone() when an utterance has finished.
+public interface SpeechSink {
+    // interrupt: stop whatever is being said and speak this now.
+    // Returns false if nothing can be spoken yet (engine not ready), the phrase stays queued.
+    boolean speak(String text, boolean interrupt);
+}
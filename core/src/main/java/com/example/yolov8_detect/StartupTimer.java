@@ -0,0 +1,53 @@
+package com.example.yolov8_detect;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Milestones since app start (model installed, session ready, first detection...).
+// Every mark is the elapsed time from the same start, only the first mark of a name counts.
+public class StartupTimer {
+    private final long startNanos;
+    private final Map<String, Long> marks = new LinkedHashMap<>();
+
+    public StartupTimer() {
+        this(System.nanoTime());
+    }
+
+    public StartupTimer(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    // Returns the elapsed milliseconds recorded for name
+    public synchronized long mark(String name) {
+        Long existing = marks.get(name);
+        if (existing != null) return existing;
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        marks.put(name, elapsed);
+        return elapsed;
+    }
+
+    public synchronized boolean has(String name) {
+        return marks.containsKey(name);
+    }
+
+    // Elapsed milliseconds of a mark, -1 if it was never reached
+    public synchronized long get(String name) {
+        Long value = marks.get(name);
+        return value != null ? value : -1;
+    }
+
+    public synchronized Map<String, Long> getMarks() {
+        return new LinkedHashMap<>(marks);
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> entry : marks.entrySet()) {
+            if (text.length() > 0) text.append(' ');
+            text.append(entry.getKey()).append('=').append(entry.getValue()).append("ms");
+        }
+        return text.toString();
+    }
+}
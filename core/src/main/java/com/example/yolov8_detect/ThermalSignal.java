@@ -0,0 +1,10 @@
+package com.example.yolov8_detect;
+
+// Device condition the AdaptiveGovernor backs off for. 0 = cool and plenty of battery,
+// 1 = throttling or about to; implementations map platform thermal status, battery
+// saver and the like onto that range.
+public interface ThermalSignal {
+    ThermalSignal NONE = () -> 0f;
+
+    float getPressure();
+}
@@ -0,0 +1,108 @@
+package com.example.yolov8_detect;
+
+// Merges the detections of several views of one frame (global view, tiles, regions of
+// interest) in frame coordinates. A box touching an edge of its view that lies inside the
+// frame is a cut-off part of an object and is dropped: the overlapping tile or the global
+// view sees the whole object. Duplicates across views then go through class-aware NMS
+// (cross-tile NMS), the higher score wins. Not thread safe.
+public class TileMerger implements Detections {
+    // Boxes this close (frame pixels) to an inner view edge count as cut off
+    private static final float EDGE_MARGIN = 2f;
+
+    private final DetectionCandidates candidates;
+    private final NmsEngine nmsEngine;
+    private final int[] keep;
+    private final float[] box = new float[4];
+    private int frameWidth;
+    private int frameHeight;
+    private int kept;
+
+    public TileMerger(float iouThreshold, int maxDetections) {
+        candidates = new DetectionCandidates(maxDetections * 4);
+        nmsEngine = new NmsEngine(NmsEngine.Mode.CLASS_AWARE, iouThreshold, maxDetections);
+        keep = new int[maxDetections];
+    }
+
+    public void setIouThreshold(float iouThreshold) {
+        nmsEngine.setIouThreshold(iouThreshold);
+    }
+
+    public void begin(int frameWidth, int frameHeight) {
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        candidates.clear();
+        kept = 0;
+    }
+
+    // The global view: nothing is cut off
+    public void add(Detections view, FrameTransform toFrame) {
+        add(view, toFrame, 0, 0, frameWidth, frameHeight);
+    }
+
+    // A view of the region left, top, right, bottom; toFrame maps its input to the frame
+    public void add(Detections view, FrameTransform toFrame, int left, int top, int right, int bottom) {
+        // Edges on the frame border cut nothing, they never drop a box
+        float innerLeft = left > 0 ? left + EDGE_MARGIN : Float.NEGATIVE_INFINITY;
+        float innerTop = top > 0 ? top + EDGE_MARGIN : Float.NEGATIVE_INFINITY;
+        float innerRight = right < frameWidth ? right - EDGE_MARGIN : Float.POSITIVE_INFINITY;
+        float innerBottom = bottom < frameHeight ? bottom - EDGE_MARGIN : Float.POSITIVE_INFINITY;
+        for (int k = 0; k < view.size(); k++) {
+            view.mapBox(k, toFrame, box, 0);
+            if (box[0] < innerLeft || box[1] < innerTop || box[2] > innerRight || box[3] > innerBottom) {
+                continue;
+            }
+            candidates.add(box[0], box[1], box[2], box[3], view.getScore(k), view.getClassId(k));
+        }
+    }
+
+    // Returns the number of merged detections
+    public int merge() {
+        kept = nmsEngine.run(candidates, keep);
+        return kept;
+    }
+
+    // Candidates before merge(): every box that survived the edge check
+    public int getCandidateCount() {
+        return candidates.size();
+    }
+
+    @Override
+    public int size() {
+        return kept;
+    }
+
+    @Override
+    public float getLeft(int k) {
+        return candidates.getLeft(keep[k]);
+    }
+
+    @Override
+    public float getTop(int k) {
+        return candidates.getTop(keep[k]);
+    }
+
+    @Override
+    public float getRight(int k) {
+        return candidates.getRight(keep[k]);
+    }
+
+    @Override
+    public float getBottom(int k) {
+        return candidates.getBottom(keep[k]);
+    }
+
+    @Override
+    public float getScore(int k) {
+        return nmsEngine.getScore(candidates, keep[k]);
+    }
+
+    @Override
+    public int getClassId(int k) {
+        return candidates.getClassId(keep[k]);
+    }
+
+    @Override
+    public void mapBox(int k, FrameTransform transform, float[] dst, int offset) {
+        transform.mapBox(candidates.boxes(), keep[k] * 4, dst, offset);
+    }
+}
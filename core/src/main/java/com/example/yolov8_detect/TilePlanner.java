@@ -0,0 +1,226 @@
+package com.example.yolov8_detect;
+
+// Picks the extra views of a frame for tiled inference, next to the global view (whole frame
+// squashed into the input) where small distant objects such as road signs are only a few
+// pixels. Regions are written as left, top, right, bottom in frame pixels.
+// TILES: the frame covered by overlapping tileSize squares at full resolution (SAHI style).
+// ROI: a square around each recent small detection, cropped at up to 2x zoom.
+// The time budget caps the views of one frame (global view included) by their measured cost;
+// tiles that do not fit are taken in the next frames, round robin.
+// plan() is not thread safe; recordViewCost() may be called from another (single) thread.
+public class TilePlanner {
+    public enum Mode {
+        OFF,
+        TILES,
+        ROI
+    }
+
+    // Region side in object sizes, so the crop keeps some context around the object
+    private static final int ROI_CONTEXT = 3;
+    private static final double COST_SMOOTHING = 0.2;
+
+    private final float overlap;
+    private final int maxViews;
+    private Mode mode = Mode.OFF;
+    private int tileSize;
+    private long budgetNanos;
+    private volatile long viewCostNanos;
+
+    // Tile grid of the current frame size
+    private int[] grid = new int[0];
+    private int gridCount;
+    private int gridWidth = -1;
+    private int gridHeight = -1;
+    private int cursor;
+    // ROI scratch: box indices smallest first
+    private int[] order = new int[0];
+
+    public TilePlanner(int tileSize, float overlap, int maxViews) {
+        if (overlap < 0 || overlap >= 1) {
+            throw new IllegalArgumentException("Overlap must be in [0, 1): " + overlap);
+        }
+        this.tileSize = tileSize;
+        this.overlap = overlap;
+        this.maxViews = maxViews;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Tile side and largest ROI side in frame pixels, usually the model input size
+    public void setTileSize(int tileSize) {
+        if (tileSize != this.tileSize) {
+            this.tileSize = tileSize;
+            gridWidth = -1;
+        }
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    // Time for all views of one frame, the global view included; 0 = no limit
+    public void setTimeBudget(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    // Measured inference + decode time of one view
+    public void recordViewCost(long nanos) {
+        long cost = viewCostNanos;
+        viewCostNanos = cost == 0 ? nanos : (long) (cost + (nanos - cost) * COST_SMOOTHING);
+    }
+
+    public long getViewCostNanos() {
+        return viewCostNanos;
+    }
+
+    // Extra views that fit the budget next to the global view
+    public int viewLimit() {
+        int limit = maxViews;
+        long cost = viewCostNanos;
+        if (budgetNanos > 0 && cost > 0) {
+            limit = (int) Math.min(limit, budgetNanos / cost - 1);
+        }
+        return Math.max(0, limit);
+    }
+
+    // Regions for the next frame into regions (4 ints each); boxes are recent detections in
+    // frame coordinates (left, top, right, bottom), used by ROI. Returns the region count.
+    public int plan(int frameWidth, int frameHeight, float[] boxes, int boxCount, int[] regions) {
+        int limit = Math.min(viewLimit(), regions.length / 4);
+        if (limit == 0) return 0;
+        switch (mode) {
+            case TILES:
+                return planTiles(frameWidth, frameHeight, regions, limit);
+            case ROI:
+                return planRegions(frameWidth, frameHeight, boxes, boxCount, regions, limit);
+            case OFF:
+            default:
+                return 0;
+        }
+    }
+
+    private int planTiles(int frameWidth, int frameHeight, int[] regions, int limit) {
+        if (frameWidth != gridWidth || frameHeight != gridHeight) {
+            buildGrid(frameWidth, frameHeight);
+        }
+        if (gridCount <= 1) return 0;
+        int count = Math.min(limit, gridCount);
+        if (count == gridCount) cursor = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(grid, ((cursor + i) % gridCount) * 4, regions, i * 4, 4);
+        }
+        cursor = (cursor + count) % gridCount;
+        return count;
+    }
+
+    // One tile when the frame fits a tile: that is the global view already
+    private void buildGrid(int frameWidth, int frameHeight) {
+        int tileWidth = Math.min(tileSize, frameWidth);
+        int tileHeight = Math.min(tileSize, frameHeight);
+        int columns = steps(frameWidth, tileWidth);
+        int rows = steps(frameHeight, tileHeight);
+        gridCount = columns * rows;
+        if (grid.length < gridCount * 4) {
+            grid = new int[gridCount * 4];
+        }
+        for (int row = 0; row < rows; row++) {
+            int top = position(row, rows, frameHeight, tileHeight);
+            for (int column = 0; column < columns; column++) {
+                int left = position(column, columns, frameWidth, tileWidth);
+                int g = (row * columns + column) * 4;
+                grid[g] = left;
+                grid[g + 1] = top;
+                grid[g + 2] = left + tileWidth;
+                grid[g + 3] = top + tileHeight;
+            }
+        }
+        gridWidth = frameWidth;
+        gridHeight = frameHeight;
+        cursor = 0;
+    }
+
+    private int steps(int length, int tile) {
+        if (length <= tile) return 1;
+        float stride = tile * (1 - overlap);
+        return (int) Math.ceil((length - tile) / stride) + 1;
+    }
+
+    // Tiles spread evenly, the last one flush with the frame edge
+    private static int position(int index, int count, int length, int tile) {
+        if (count == 1) return 0;
+        return Math.round(index * (length - tile) / (float) (count - 1));
+    }
+
+    private int planRegions(int frameWidth, int frameHeight, float[] boxes, int boxCount, int[] regions, int limit) {
+        if (boxes == null || boxCount == 0) return 0;
+        if (order.length < boxCount) {
+            order = new int[boxCount];
+        }
+        // Small objects gain the most from more pixels; big ones are fine in the global view
+        int candidates = 0;
+        for (int i = 0; i < boxCount; i++) {
+            if (longSide(boxes, i) * ROI_CONTEXT <= tileSize) {
+                order[candidates++] = i;
+            }
+        }
+        for (int i = 1; i < candidates; i++) {
+            int box = order[i];
+            float area = area(boxes, box);
+            int j = i - 1;
+            while (j >= 0 && area(boxes, order[j]) > area) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = box;
+        }
+
+        int count = 0;
+        int minSide = tileSize / 2;
+        for (int i = 0; i < candidates && count < limit; i++) {
+            int b = order[i] * 4;
+            float centerX = (boxes[b] + boxes[b + 2]) / 2;
+            float centerY = (boxes[b + 1] + boxes[b + 3]) / 2;
+            if (covered(regions, count, centerX, centerY)) continue;
+            int side = Math.max(minSide, Math.round(longSide(boxes, order[i]) * ROI_CONTEXT));
+            int width = Math.min(side, frameWidth);
+            int height = Math.min(side, frameHeight);
+            int left = clamp(Math.round(centerX - width / 2f), frameWidth - width);
+            int top = clamp(Math.round(centerY - height / 2f), frameHeight - height);
+            int r = count * 4;
+            regions[r] = left;
+            regions[r + 1] = top;
+            regions[r + 2] = left + width;
+            regions[r + 3] = top + height;
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean covered(int[] regions, int count, float x, float y) {
+        for (int i = 0; i < count; i++) {
+            int r = i * 4;
+            if (x >= regions[r] && x < regions[r + 2] && y >= regions[r + 1] && y < regions[r + 3]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static float longSide(float[] boxes, int i) {
+        return Math.max(boxes[i * 4 + 2] - boxes[i * 4], boxes[i * 4 + 3] - boxes[i * 4 + 1]);
+    }
+
+    private static float area(float[] boxes, int i) {
+        return (boxes[i * 4 + 2] - boxes[i * 4]) * (boxes[i * 4 + 3] - boxes[i * 4 + 1]);
+    }
+
+    private static int clamp(int value, int max) {
+        return value < 0 ? 0 : Math.min(value, max);
+    }
+}
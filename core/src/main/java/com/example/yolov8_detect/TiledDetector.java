@@ -0,0 +1,120 @@
+package com.example.yolov8_detect;
+
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+// Tiled inference over one frame: the global view plus the views a TilePlanner picks, all at
+// the model input size and run through one BatchDetector (one run per getMaxBatch() views),
+// merged in frame coordinates by TileMerger.
+// TILES plans the tiles up front and runs them in the global view's batch. ROI runs the global
+// view first and crops around its small detections, so offline runs need no earlier frame.
+// Views the budget has no time left for are skipped. Not thread safe, one per session worker.
+public class TiledDetector {
+    private final BatchDetector batch;
+    private final YuvPreprocessor preprocessor;
+    private final TilePlanner planner;
+    private final TileMerger merger;
+    private final int[] regions;
+    private final FrameTransform[] transforms;
+    private float[] seeds = new float[0];
+    private long budgetNanos;
+    private int viewsRun;
+
+    public TiledDetector(BatchDetector batch, YuvPreprocessor preprocessor, TilePlanner planner,
+                         TileMerger merger, int maxViews) {
+        this.batch = batch;
+        this.preprocessor = preprocessor;
+        this.planner = planner;
+        this.merger = merger;
+        regions = new int[maxViews * 4];
+        transforms = new FrameTransform[batch.getMaxBatch()];
+    }
+
+    // Time for all views of a frame; 0 = no limit
+    public void setTimeBudget(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+        planner.setTimeBudget(budgetNanos);
+    }
+
+    public TilePlanner getPlanner() {
+        return planner;
+    }
+
+    // Runs the views of frame and returns the number of merged detections (getDetections())
+    public int detect(OrtSession session, YuvFrame frame) throws OrtException, InterruptedException {
+        long start = System.nanoTime();
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        merger.begin(width, height);
+        viewsRun = 0;
+
+        int views;
+        if (planner.getMode() == TilePlanner.Mode.ROI) {
+            run(session, frame, 0, 0, start);
+            int seedCount = merger.merge();
+            if (seeds.length < seedCount * 4) {
+                seeds = new float[seedCount * 4];
+            }
+            for (int k = 0; k < seedCount; k++) {
+                seeds[k * 4] = merger.getLeft(k);
+                seeds[k * 4 + 1] = merger.getTop(k);
+                seeds[k * 4 + 2] = merger.getRight(k);
+                seeds[k * 4 + 3] = merger.getBottom(k);
+            }
+            views = planner.plan(width, height, seeds, seedCount, regions);
+            run(session, frame, 1, views, start);
+        } else {
+            views = planner.plan(width, height, null, 0, regions);
+            run(session, frame, 0, views, start);
+        }
+        return merger.merge();
+    }
+
+    // View 0 is the global view, view v > 0 is regions[v - 1]
+    private void run(OrtSession session, YuvFrame frame, int first, int regionCount, long start)
+            throws OrtException, InterruptedException {
+        int last = regionCount;
+        int maxBatch = batch.getMaxBatch();
+        for (int from = first; from <= last; from += maxBatch) {
+            if (from > 0 && budgetNanos > 0 && System.nanoTime() - start + planner.getViewCostNanos() > budgetNanos) {
+                return;
+            }
+            int count = Math.min(maxBatch, last - from + 1);
+            for (int i = 0; i < count; i++) {
+                int view = from + i;
+                if (view == 0) {
+                    transforms[i] = preprocessor.preprocess(frame, batch.getInput(i));
+                } else {
+                    int r = (view - 1) * 4;
+                    transforms[i] = preprocessor.preprocess(frame, regions[r], regions[r + 1],
+                            regions[r + 2], regions[r + 3], batch.getInput(i));
+                }
+            }
+            long runStart = System.nanoTime();
+            batch.run(session, count);
+            planner.recordViewCost((System.nanoTime() - runStart) / count);
+            for (int i = 0; i < count; i++) {
+                int view = from + i;
+                FrameTransform toFrame = transforms[i].inverse();
+                if (view == 0) {
+                    merger.add(batch.getDetections(i), toFrame);
+                } else {
+                    int r = (view - 1) * 4;
+                    merger.add(batch.getDetections(i), toFrame, regions[r], regions[r + 1],
+                            regions[r + 2], regions[r + 3]);
+                }
+            }
+            viewsRun += count;
+        }
+    }
+
+    // Merged detections of the last detect(), in frame coordinates
+    public Detections getDetections() {
+        return merger;
+    }
+
+    // Views run for the last frame, the global view included
+    public int getViewsRun() {
+        return viewsRun;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.yolov8_detect;
+
+// One object followed by ObjectTracker. The id stays the same for as long as the
+// track lives; the box is the Kalman estimate, not the raw detection.
+public class Track {
+    private final int id;
+    private final int classId;
+    private final KalmanBoxFilter filter = new KalmanBoxFilter();
+    float score;
+    int hits;
+    // Detection rounds in a row without a matching box
+    int misses;
+    int age;
+
+    Track(int id, int classId, float score, float left, float top, float right, float bottom) {
+        this.id = id;
+        this.classId = classId;
+        this.score = score;
+        this.hits = 1;
+        filter.init(left, top, right, bottom);
+    }
+
+    KalmanBoxFilter filter() {
+        return filter;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getClassId() {
+        return classId;
+    }
+
+    // Score of the last matched detection
+    public float getScore() {
+        return score;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    // Frames since the track was created, detection and tracked-only frames alike
+    public int getAge() {
+        return age;
+    }
+
+    public float getLeft() {
+        return filter.getLeft();
+    }
+
+    public float getTop() {
+        return filter.getTop();
+    }
+
+    public float getRight() {
+        return filter.getRight();
+    }
+
+    public float getBottom() {
+        return filter.getBottom();
+    }
+}
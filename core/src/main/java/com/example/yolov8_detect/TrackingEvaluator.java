@@ -0,0 +1,146 @@
+package com.example.yolov8_detect;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Replays a sequence with known object identities through DetectionScheduler + ObjectTracker
+// and scores the output: detector calls saved versus identity switches and box quality.
+// Everything is plain Java so sequences can be replayed on the JVM (tests, runner).
+public class TrackingEvaluator {
+    // Ground truth of a replayed sequence
+    public interface Sequence {
+        int getFrameCount();
+
+        // Objects visible in frame, boxes written into out
+        void truth(int frame, DetectionCandidates out, int[] ids);
+
+        // What the detector reports for frame (noisy, missed, extra boxes...)
+        void detect(int frame, DetectionCandidates out);
+    }
+
+    public static class Report {
+        int frames;
+        int detectorCalls;
+        int idSwitches;
+        int matches;
+        int misses;
+        int falsePositives;
+        double iouSum;
+
+        public int getFrames() {
+            return frames;
+        }
+
+        public int getDetectorCalls() {
+            return detectorCalls;
+        }
+
+        // Fraction of frames that did not run the detector
+        public double getDetectorCallsSaved() {
+            return frames == 0 ? 0 : 1 - detectorCalls / (double) frames;
+        }
+
+        public int getIdSwitches() {
+            return idSwitches;
+        }
+
+        public int getMatches() {
+            return matches;
+        }
+
+        public int getMisses() {
+            return misses;
+        }
+
+        public int getFalsePositives() {
+            return falsePositives;
+        }
+
+        public double getMeanIou() {
+            return matches == 0 ? 0 : iouSum / matches;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "frames=%d detector_calls=%d saved=%.1f%% id_switches=%d matches=%d misses=%d fp=%d mean_iou=%.3f",
+                    frames, detectorCalls, getDetectorCallsSaved() * 100, idSwitches, matches, misses,
+                    falsePositives, getMeanIou());
+        }
+    }
+
+    private final float matchIou;
+    private final int maxObjects;
+
+    // matchIou: IoU at which an output box counts as the ground-truth object
+    public TrackingEvaluator(float matchIou, int maxObjects) {
+        this.matchIou = matchIou;
+        this.maxObjects = maxObjects;
+    }
+
+    public Report run(Sequence sequence, ObjectTracker tracker, DetectionScheduler scheduler) {
+        DetectionCandidates detections = new DetectionCandidates(maxObjects);
+        DetectionCandidates truth = new DetectionCandidates(maxObjects);
+        int[] truthIds = new int[maxObjects];
+        float[] trackBoxes = new float[maxObjects * 4];
+        boolean[] used = new boolean[maxObjects];
+        Map<Integer, Integer> lastTrackOfObject = new HashMap<>();
+        Report report = new Report();
+
+        for (int frame = 0; frame < sequence.getFrameCount(); frame++) {
+            List<Track> tracks;
+            if (scheduler.nextFrame()) {
+                detections.clear();
+                sequence.detect(frame, detections);
+                tracks = tracker.update(detections);
+                report.detectorCalls++;
+                if (tracks.isEmpty()) {
+                    scheduler.requestDetection();
+                }
+            } else {
+                tracks = tracker.predict();
+            }
+            report.frames++;
+
+            truth.clear();
+            sequence.truth(frame, truth, truthIds);
+            int trackCount = Math.min(tracks.size(), maxObjects);
+            for (int t = 0; t < trackCount; t++) {
+                tracks.get(t).filter().writeBox(trackBoxes, t);
+                used[t] = false;
+            }
+
+            // Greedy: each ground-truth object takes its best unused track of the same class
+            for (int g = 0; g < truth.size(); g++) {
+                int best = -1;
+                float bestIou = matchIou;
+                for (int t = 0; t < trackCount; t++) {
+                    if (used[t] || tracks.get(t).getClassId() != truth.getClassId(g)) continue;
+                    float iou = NmsEngine.iou(truth.boxes(), g, trackBoxes, t);
+                    if (iou >= bestIou) {
+                        bestIou = iou;
+                        best = t;
+                    }
+                }
+                if (best < 0) {
+                    report.misses++;
+                    continue;
+                }
+                used[best] = true;
+                report.matches++;
+                report.iouSum += bestIou;
+                int trackId = tracks.get(best).getId();
+                Integer previous = lastTrackOfObject.put(truthIds[g], trackId);
+                if (previous != null && previous != trackId) {
+                    report.idSwitches++;
+                }
+            }
+            for (int t = 0; t < trackCount; t++) {
+                if (!used[t]) report.falsePositives++;
+            }
+        }
+        return report;
+    }
+}
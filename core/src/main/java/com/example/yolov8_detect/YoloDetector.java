@@ -0,0 +1,118 @@
+package com.example.yolov8_detect;
+
+import java.nio.FloatBuffer;
+import java.util.Map;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+// The platform-neutral half of the detection chain: session run -> YoloOutputDecoder ->
+// NmsEngine. Shared by SupportOnnx on the device and the JVM runner, so both decode and
+// suppress exactly the same way. Boxes stay in model input coordinates; use mapBox() with
+// the inverse of the preprocessing transform to get back to the source frame.
+// Not thread safe, one instance per worker thread.
+public class YoloDetector implements Detections {
+    private final YoloOutputDecoder decoder;
+    private final NmsEngine nmsEngine;
+    private final DetectionCandidates candidates;
+    private final int[] keep;
+    private int kept;
+    private PipelineMetrics metrics;
+
+    public YoloDetector(int numClasses, float scoreThreshold, float iouThreshold, int maxAnchors, int maxDetections) {
+        decoder = new YoloOutputDecoder(numClasses, scoreThreshold);
+        nmsEngine = new NmsEngine(NmsEngine.Mode.CLASS_AWARE, iouThreshold, maxDetections);
+        candidates = new DetectionCandidates(maxAnchors);
+        keep = new int[maxDetections];
+    }
+
+    public void setThresholds(float scoreThreshold, float iouThreshold) {
+        decoder.setScoreThreshold(scoreThreshold);
+        nmsEngine.setIouThreshold(iouThreshold);
+    }
+
+    // Records INFERENCE, DECODE and NMS when set
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public int getNumClasses() {
+        return decoder.getNumClasses();
+    }
+
+    // Runs the session and post-processes its first output [1, 4 + C, rows].
+    // Returns the number of detections kept.
+    public int detect(OrtSession session, Map<String, OnnxTensor> inputs, int inputWidth, int inputHeight)
+            throws OrtException {
+        long start = System.nanoTime();
+        FloatBuffer output;
+        int rows;
+        try (OrtSession.Result result = session.run(inputs)) {
+            OnnxTensor tensor = (OnnxTensor) result.get(0);
+            long[] shape = tensor.getInfo().getShape();
+            rows = (int) shape[shape.length - 1];
+            // Copy, the native tensor is released with the result
+            output = tensor.getFloatBuffer();
+        }
+        if (metrics != null) {
+            metrics.record(PipelineMetrics.Stage.INFERENCE, start);
+            metrics.increment(PipelineMetrics.Counter.BATCHES);
+            metrics.increment(PipelineMetrics.Counter.ALLOCATIONS);
+        }
+        return postprocess(output, rows, inputWidth, inputHeight);
+    }
+
+    // Decode + NMS of a raw output already copied out of ORT
+    public int postprocess(FloatBuffer output, int rows, int inputWidth, int inputHeight) {
+        long start = System.nanoTime();
+        decoder.decode(output, rows, inputWidth, inputHeight, candidates);
+        if (metrics != null) start = metrics.record(PipelineMetrics.Stage.DECODE, start);
+        kept = nmsEngine.run(candidates, keep);
+        if (metrics != null) metrics.record(PipelineMetrics.Stage.NMS, start);
+        return kept;
+    }
+
+    // Detections of the last detect()/postprocess(), best first
+    @Override
+    public int size() {
+        return kept;
+    }
+
+    @Override
+    public float getLeft(int k) {
+        return candidates.getLeft(keep[k]);
+    }
+
+    @Override
+    public float getTop(int k) {
+        return candidates.getTop(keep[k]);
+    }
+
+    @Override
+    public float getRight(int k) {
+        return candidates.getRight(keep[k]);
+    }
+
+    @Override
+    public float getBottom(int k) {
+        return candidates.getBottom(keep[k]);
+    }
+
+    // Decayed score when NMS runs in SOFT mode
+    @Override
+    public float getScore(int k) {
+        return nmsEngine.getScore(candidates, keep[k]);
+    }
+
+    @Override
+    public int getClassId(int k) {
+        return candidates.getClassId(keep[k]);
+    }
+
+    // Box k mapped through transform into dst[offset .. offset + 3]
+    @Override
+    public void mapBox(int k, FrameTransform transform, float[] dst, int offset) {
+        transform.mapBox(candidates.boxes(), keep[k] * 4, dst, offset);
+    }
+}
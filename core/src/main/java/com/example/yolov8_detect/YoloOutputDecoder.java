@@ -0,0 +1,90 @@
+package com.example.yolov8_detect;
+
+import java.nio.FloatBuffer;
+
+// Decodes the raw YOLOv8 output [1, 4 + C, N] in its native channel-major layout.
+// Class scores are scanned one channel row at a time (sequential memory), anchors that
+// never beat the threshold are rejected before their box is read, and survivors go
+// into a reusable DetectionCandidates. Nothing is allocated per frame.
+public class YoloOutputDecoder {
+    private final int numClasses;
+    private float scoreThreshold;
+    private float[] raw = new float[0];
+    private float[] bestScore = new float[0];
+    private int[] bestClass = new int[0];
+
+    public YoloOutputDecoder(int numClasses, float scoreThreshold) {
+        this.numClasses = numClasses;
+        this.scoreThreshold = scoreThreshold;
+    }
+
+    public void setScoreThreshold(float scoreThreshold) {
+        this.scoreThreshold = scoreThreshold;
+    }
+
+    public float getScoreThreshold() {
+        return scoreThreshold;
+    }
+
+    public int getNumClasses() {
+        return numClasses;
+    }
+
+    // Reads (4 + C) * numAnchors floats from output.position() without moving the position
+    public int decode(FloatBuffer output, int numAnchors, int inputWidth, int inputHeight, DetectionCandidates out) {
+        int length = (4 + numClasses) * numAnchors;
+        if (raw.length < length) {
+            raw = new float[length];
+        }
+        int position = output.position();
+        output.get(raw, 0, length);
+        output.position(position);
+        return decode(raw, 0, numAnchors, inputWidth, inputHeight, out);
+    }
+
+    public int decode(float[] output, int offset, int numAnchors, int inputWidth, int inputHeight,
+                      DetectionCandidates out) {
+        if (bestScore.length < numAnchors) {
+            bestScore = new float[numAnchors];
+            bestClass = new int[numAnchors];
+        }
+        float[] best = bestScore;
+        int[] cls = bestClass;
+        float threshold = scoreThreshold;
+        for (int a = 0; a < numAnchors; a++) {
+            best[a] = threshold;
+            cls[a] = -1;
+        }
+
+        for (int c = 0; c < numClasses; c++) {
+            int row = offset + (4 + c) * numAnchors;
+            for (int a = 0; a < numAnchors; a++) {
+                float score = output[row + a];
+                if (score > best[a]) {
+                    best[a] = score;
+                    cls[a] = c;
+                }
+            }
+        }
+
+        out.clear();
+        out.ensureCapacity(numAnchors);
+        float maxX = inputWidth - 1;
+        float maxY = inputHeight - 1;
+        int xRow = offset;
+        int yRow = offset + numAnchors;
+        int wRow = offset + numAnchors * 2;
+        int hRow = offset + numAnchors * 3;
+        for (int a = 0; a < numAnchors; a++) {
+            if (cls[a] < 0) continue;
+            float x = output[xRow + a];
+            float y = output[yRow + a];
+            float halfW = output[wRow + a] / 2;
+            float halfH = output[hRow + a] / 2;
+            out.add(Math.max(0, x - halfW), Math.max(0, y - halfH),
+                    Math.min(maxX, x + halfW), Math.min(maxY, y + halfH),
+                    best[a], cls[a]);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.yolov8_detect;
+
+import java.nio.ByteBuffer;
+
+// Android-free view of a YUV_420_888 frame (Y, U and V planes with their strides).
+// The holder is reused from frame to frame, wrap() only swaps the references.
+public class YuvFrame {
+    private int width;
+    private int height;
+    private ByteBuffer yBuffer;
+    private ByteBuffer uBuffer;
+    private ByteBuffer vBuffer;
+    private int yRowStride;
+    private int uvRowStride;
+    private int uvPixelStride;
+
+    public YuvFrame wrap(int width, int height,
+                         ByteBuffer yBuffer, int yRowStride,
+                         ByteBuffer uBuffer, ByteBuffer vBuffer,
+                         int uvRowStride, int uvPixelStride) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid frame size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.yBuffer = yBuffer;
+        this.uBuffer = uBuffer;
+        this.vBuffer = vBuffer;
+        this.yRowStride = yRowStride;
+        this.uvRowStride = uvRowStride;
+        this.uvPixelStride = uvPixelStride;
+        return this;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public ByteBuffer getYBuffer() {
+        return yBuffer;
+    }
+
+    public ByteBuffer getUBuffer() {
+        return uBuffer;
+    }
+
+    public ByteBuffer getVBuffer() {
+        return vBuffer;
+    }
+
+    public int getYRowStride() {
+        return yRowStride;
+    }
+
+    public int getUvRowStride() {
+        return uvRowStride;
+    }
+
+    public int getUvPixelStride() {
+        return uvPixelStride;
+    }
+
+    // New I420 frame from packed 0xRRGGBB pixels, row by row (alpha is ignored), with the full
+    // range BT.601 (JFIF) matrix YuvPreprocessor inverts. Chroma is the average of each 2x2 block.
+    public static YuvFrame fromRgb(int[] rgb, int width, int height) {
+        int chromaWidth = (width + 1) / 2;
+        int chromaHeight = (height + 1) / 2;
+        byte[] y = new byte[width * height];
+        byte[] u = new byte[chromaWidth * chromaHeight];
+        byte[] v = new byte[chromaWidth * chromaHeight];
+
+        for (int i = 0; i < y.length; i++) {
+            int pixel = rgb[i];
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            y[i] = (byte) clamp(Math.round(0.299f * r + 0.587f * g + 0.114f * b));
+        }
+        for (int cy = 0; cy < chromaHeight; cy++) {
+            for (int cx = 0; cx < chromaWidth; cx++) {
+                float r = 0, g = 0, b = 0;
+                int count = 0;
+                for (int dy = 0; dy < 2; dy++) {
+                    int py = cy * 2 + dy;
+                    if (py >= height) continue;
+                    for (int dx = 0; dx < 2; dx++) {
+                        int px = cx * 2 + dx;
+                        if (px >= width) continue;
+                        int pixel = rgb[py * width + px];
+                        r += (pixel >> 16) & 0xFF;
+                        g += (pixel >> 8) & 0xFF;
+                        b += pixel & 0xFF;
+                        count++;
+                    }
+                }
+                r /= count;
+                g /= count;
+                b /= count;
+                int c = cy * chromaWidth + cx;
+                u[c] = (byte) clamp(Math.round(-0.168736f * r - 0.331264f * g + 0.5f * b + 128));
+                v[c] = (byte) clamp(Math.round(0.5f * r - 0.418688f * g - 0.081312f * b + 128));
+            }
+        }
+        return new YuvFrame().wrap(width, height, ByteBuffer.wrap(y), width,
+                ByteBuffer.wrap(u), ByteBuffer.wrap(v), chromaWidth, 1);
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(255, value);
+    }
+}
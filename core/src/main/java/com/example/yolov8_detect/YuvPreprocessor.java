@@ -0,0 +1,211 @@
+package com.example.yolov8_detect;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+// Single pass YUV_420_888 -> normalized CHW float tensor.
+// Luma is sampled bilinearly, chroma with nearest neighbour, and the JFIF (full range BT.601)
+// conversion matches what YuvImage.compressToJpeg + BitmapFactory produced before.
+// Pixels that fall outside the frame (letterbox bars) get the YOLOv8 pad colour.
+// A crop region (tiles, regions of interest) is fitted into the input the same way.
+public class YuvPreprocessor implements FramePreprocessor {
+    private static final int FRAC_BITS = 8;
+    private static final int FRAC_ONE = 1 << FRAC_BITS;
+    private static final int PAD_VALUE = 114;
+
+    private final int inputWidth;
+    private final int inputHeight;
+    private final ResizeMode resizeMode;
+    private final float[] normalized = new float[256];
+
+    // Sampling tables for the current source size, rebuilt only when the frame size changes
+    private final int[] xLeft;
+    private final int[] xRight;
+    private final int[] xFrac;
+    private final int[] xChroma;
+    private final int[] yTop;
+    private final int[] yBottom;
+    private final int[] yFrac;
+    private final int[] yChroma;
+    private int sourceWidth = -1;
+    private int sourceHeight = -1;
+    private int cropLeft;
+    private int cropTop;
+    private int cropRight;
+    private int cropBottom;
+    private FrameTransform transform;
+
+    public YuvPreprocessor(int inputWidth, int inputHeight) {
+        this(inputWidth, inputHeight, ResizeMode.LETTERBOX);
+    }
+
+    public YuvPreprocessor(int inputWidth, int inputHeight, ResizeMode resizeMode) {
+        this.inputWidth = inputWidth;
+        this.inputHeight = inputHeight;
+        this.resizeMode = resizeMode;
+        xLeft = new int[inputWidth];
+        xRight = new int[inputWidth];
+        xFrac = new int[inputWidth];
+        xChroma = new int[inputWidth];
+        yTop = new int[inputHeight];
+        yBottom = new int[inputHeight];
+        yFrac = new int[inputHeight];
+        yChroma = new int[inputHeight];
+        setNormalization(0.0f, 255.0f);
+    }
+
+    public void setNormalization(float mean, float std) {
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = (i - mean) / std;
+        }
+    }
+
+    @Override
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    @Override
+    public int getInputHeight() {
+        return inputHeight;
+    }
+
+    public ResizeMode getResizeMode() {
+        return resizeMode;
+    }
+
+    @Override
+    public FrameTransform preprocess(YuvFrame frame, FloatBuffer tensor) {
+        return preprocess(frame, 0, 0, frame.getWidth(), frame.getHeight(), tensor);
+    }
+
+    // Only the region left, top, right, bottom of the frame goes into the input.
+    // The returned transform still maps full frame coordinates to the input.
+    public FrameTransform preprocess(YuvFrame frame, int left, int top, int right, int bottom, FloatBuffer tensor) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        if (width != sourceWidth || height != sourceHeight
+                || left != cropLeft || top != cropTop || right != cropRight || bottom != cropBottom) {
+            if (left < 0 || top < 0 || right > width || bottom > height || left >= right || top >= bottom) {
+                throw new IllegalArgumentException("Region " + left + "," + top + "," + right + "," + bottom
+                        + " outside the " + width + "x" + height + " frame");
+            }
+            buildTables(width, height, left, top, right, bottom);
+        }
+
+        ByteBuffer yBuffer = frame.getYBuffer();
+        ByteBuffer uBuffer = frame.getUBuffer();
+        ByteBuffer vBuffer = frame.getVBuffer();
+        int yRowStride = frame.getYRowStride();
+        int uvRowStride = frame.getUvRowStride();
+        int uvPixelStride = frame.getUvPixelStride();
+
+        int area = inputWidth * inputHeight;
+        int base = tensor.position();
+        float pad = normalized[PAD_VALUE];
+        for (int oy = 0; oy < inputHeight; oy++) {
+            int out = base + oy * inputWidth;
+            if (yTop[oy] < 0) {
+                for (int ox = 0; ox < inputWidth; ox++) {
+                    fill(tensor, out + ox, area, pad);
+                }
+                continue;
+            }
+
+            int topRow = yTop[oy] * yRowStride;
+            int bottomRow = yBottom[oy] * yRowStride;
+            int fy = yFrac[oy];
+            int chromaRow = yChroma[oy] * uvRowStride;
+
+            for (int ox = 0; ox < inputWidth; ox++) {
+                int l = xLeft[ox];
+                if (l < 0) {
+                    fill(tensor, out + ox, area, pad);
+                    continue;
+                }
+                int r = xRight[ox];
+                int fx = xFrac[ox];
+                int a = yBuffer.get(topRow + l) & 0xFF;
+                int b = yBuffer.get(topRow + r) & 0xFF;
+                int c = yBuffer.get(bottomRow + l) & 0xFF;
+                int d = yBuffer.get(bottomRow + r) & 0xFF;
+                int upper = (a << FRAC_BITS) + (b - a) * fx;
+                int lower = (c << FRAC_BITS) + (d - c) * fx;
+                int luma = ((upper << FRAC_BITS) + (lower - upper) * fy + (1 << (2 * FRAC_BITS - 1))) >> (2 * FRAC_BITS);
+
+                int chroma = chromaRow + xChroma[ox] * uvPixelStride;
+                int u = (uBuffer.get(chroma) & 0xFF) - 128;
+                int v = (vBuffer.get(chroma) & 0xFF) - 128;
+
+                // 10 bit fixed point JFIF coefficients
+                int red = clamp(luma + ((1436 * v) >> 10));
+                int green = clamp(luma - ((352 * u + 731 * v) >> 10));
+                int blue = clamp(luma + ((1815 * u) >> 10));
+
+                int idx = out + ox;
+                tensor.put(idx, normalized[red]);
+                tensor.put(idx + area, normalized[green]);
+                tensor.put(idx + area * 2, normalized[blue]);
+            }
+        }
+        return transform;
+    }
+
+    // Transform of the last processed frame size and region, null before the first frame
+    public FrameTransform getTransform() {
+        return transform;
+    }
+
+    private static void fill(FloatBuffer tensor, int idx, int area, float value) {
+        tensor.put(idx, value);
+        tensor.put(idx + area, value);
+        tensor.put(idx + area * 2, value);
+    }
+
+    private void buildTables(int width, int height, int left, int top, int right, int bottom) {
+        int regionWidth = right - left;
+        int regionHeight = bottom - top;
+        FrameTransform toInput = FrameTransform.create(resizeMode, regionWidth, regionHeight, inputWidth, inputHeight);
+        fillAxis(left, regionWidth, width, inputWidth, toInput.getScaleX(), toInput.getOffsetX(),
+                xLeft, xRight, xFrac, xChroma);
+        fillAxis(top, regionHeight, height, inputHeight, toInput.getScaleY(), toInput.getOffsetY(),
+                yTop, yBottom, yFrac, yChroma);
+        if (regionWidth == width && regionHeight == height) {
+            transform = toInput;
+        } else {
+            transform = new FrameTransform(width, height, regionWidth, regionHeight, 1, 1, -left, -top).then(toInput);
+        }
+        sourceWidth = width;
+        sourceHeight = height;
+        cropLeft = left;
+        cropTop = top;
+        cropRight = right;
+        cropBottom = bottom;
+    }
+
+    // Region [origin, origin + source) of an axis of length full.
+    // lo[i] = -1 marks target pixels whose centre lies outside the region (padding)
+    private static void fillAxis(int origin, int source, int full, int target, float scale, float offset,
+                                 int[] lo, int[] hi, int[] frac, int[] chroma) {
+        int chromaMax = (full + 1) / 2 - 1;
+        for (int i = 0; i < target; i++) {
+            float center = (i + 0.5f - offset) / scale;
+            if (center < 0 || center >= source) {
+                lo[i] = -1;
+                continue;
+            }
+            float s = center - 0.5f;
+            if (s < 0) s = 0;
+            if (s > source - 1) s = source - 1;
+            int s0 = (int) s;
+            lo[i] = origin + s0;
+            hi[i] = origin + Math.min(s0 + 1, source - 1);
+            frac[i] = Math.round((s - s0) * FRAC_ONE);
+            chroma[i] = Math.min(((int) (origin + s + 0.5f)) >> 1, chromaMax);
+        }
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveGovernorTest {
+    private static final List<OperatingPoint> POINTS = Arrays.asList(
+            new OperatingPoint("high", 30, 640, 2),
+            new OperatingPoint("medium", 20, 480, 3),
+            new OperatingPoint("low", 15, 320, 3),
+            new OperatingPoint("minimum", 10, 320, 5));
+
+    @Test
+    public void fastDevice_staysAtBestPoint() {
+        AdaptiveGovernor governor = new AdaptiveGovernor(POINTS, ThermalSignal.NONE);
+        // 40 ms at 640, budget 2 frames at 30 fps = 66 ms
+        Simulation simulation = new Simulation(governor, 40, () -> 0f);
+
+        simulation.run(60_000);
+
+        assertEquals("high", governor.getCurrent().getName());
+        assertEquals(0, governor.getSwitches());
+    }
+
+    @Test
+    public void slowDevice_settlesWithoutOscillating() {
+        AdaptiveGovernor governor = new AdaptiveGovernor(POINTS, ThermalSignal.NONE);
+        // 200 ms at 640: over the high budget (66 ms); 112 ms at 480 fits medium, 3 frames at 20 fps = 150 ms
+        Simulation simulation = new Simulation(governor, 200, () -> 0f);
+
+        simulation.run(120_000);
+
+        assertEquals("medium", governor.getCurrent().getName());
+        assertEquals(1, governor.getSwitches());
+    }
+
+    @Test
+    public void heatingUp_stepsDownThenRecoversAfterCooling() {
+        final float[] pressure = {0f};
+        AdaptiveGovernor governor = new AdaptiveGovernor(POINTS, () -> pressure[0]);
+        Simulation simulation = new Simulation(governor, 40, () -> pressure[0]);
+
+        simulation.run(10_000);
+        assertEquals(0, governor.getLevel());
+
+        pressure[0] = 0.8f;
+        simulation.run(10_000);
+        assertEquals("minimum", governor.getCurrent().getName());
+
+        // Cooling below the cool threshold climbs back one point at a time
+        pressure[0] = 0.5f;
+        simulation.run(30_000);
+        assertEquals("minimum", governor.getCurrent().getName());
+        pressure[0] = 0.1f;
+        simulation.run(120_000);
+        assertEquals("high", governor.getCurrent().getName());
+    }
+
+    @Test
+    public void criticalPressure_jumpsToLastPoint() {
+        final float[] pressure = {0f};
+        AdaptiveGovernor governor = new AdaptiveGovernor(POINTS, () -> pressure[0]);
+        final String[] reason = {null};
+        governor.setListener((from, to, why) -> reason[0] = why);
+
+        pressure[0] = 1f;
+        assertEquals("minimum", governor.evaluate(0).getName());
+        assertEquals("thermal critical", reason[0]);
+        assertEquals(1, governor.getSwitches());
+    }
+
+    @Test
+    public void scaledLatency_followsInputArea() {
+        OperatingPoint wide = new OperatingPoint("high", 30, 640, 384, 2);
+        OperatingPoint square = POINTS.get(0);
+
+        assertEquals(60, AdaptiveGovernor.scaledLatency(100, square, wide), 1e-9);
+        assertEquals(100, AdaptiveGovernor.scaledLatency(60, wide, square), 1e-9);
+        assertEquals(25, AdaptiveGovernor.scaledLatency(100, square, POINTS.get(2)), 1e-9);
+    }
+
+    @Test
+    public void latencySpike_isAbsorbedByHoldTime() {
+        AdaptiveGovernor governor = new AdaptiveGovernor(POINTS, ThermalSignal.NONE);
+        Simulation simulation = new Simulation(governor, 40, () -> 0f);
+        simulation.run(5_000);
+
+        // Half a second of GC-like spikes, shorter than the downgrade hold time
+        simulation.baseMs = 150;
+        simulation.run(500);
+        simulation.baseMs = 40;
+        simulation.run(10_000);
+
+        assertEquals(0, governor.getSwitches());
+    }
+
+    interface Pressure {
+        float get();
+    }
+
+    // Detector latency = base * (size / 640)^2, slowed down by thermal pressure
+    static class Simulation {
+        final AdaptiveGovernor governor;
+        final Pressure pressure;
+        double baseMs;
+        long nowMs;
+
+        Simulation(AdaptiveGovernor governor, double baseMs, Pressure pressure) {
+            this.governor = governor;
+            this.baseMs = baseMs;
+            this.pressure = pressure;
+        }
+
+        void run(long durationMs) {
+            long end = nowMs + durationMs;
+            while (nowMs < end) {
+                OperatingPoint point = governor.getCurrent();
+                double scale = point.getInputWidth() * point.getInputHeight() / (640.0 * 640.0);
+                double latency = baseMs * scale * (1 + pressure.get());
+                governor.onFrame(nowMs, (long) (latency * 1e6), 0);
+                // Next detector run: after the budget, or later when the detector is slower
+                nowMs += Math.max((long) AdaptiveGovernor.budgetMs(point), (long) latency);
+            }
+        }
+    }
+}
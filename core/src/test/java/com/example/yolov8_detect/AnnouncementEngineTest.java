@@ -0,0 +1,191 @@
+package com.example.yolov8_detect;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AnnouncementEngineTest {
+    private static final String[] LABELS = {"GedungFTMM", "Mobil", "orang"};
+    private static final int BUILDING = 0;
+    private static final int CAR = 1;
+    private static final int PERSON = 2;
+
+    private final RecordingSink sink = new RecordingSink();
+    private AnnouncementEngine engine;
+
+    @Before
+    public void setUp() throws IOException {
+        String table = "# label\tpriority\tcooldown\tappeared\tapproaching\tleft\n"
+                + "GedungFTMM\t20\t10000\tGedung FTMM terdeteksi\t\t\n"
+                + "Mobil\t90\t3000\tAda mobil\tAwas mobil mendekat\tMobil sudah lewat\n"
+                + "orang\t60\t3000\tAda orang\tOrang mendekat\t\n";
+        PhraseTable phrases = PhraseTable.parse(new BufferedReader(new StringReader(table)), LABELS);
+        engine = new AnnouncementEngine(phrases, sink);
+    }
+
+    @Test
+    public void phraseTable_mapsLabelsToClassIds() throws IOException {
+        PhraseTable phrases = PhraseTable.parse(new BufferedReader(new StringReader(
+                "orang\t60\t3000\tAda orang\n" + "Sepeda\t10\t1000\tAda sepeda\n")), LABELS);
+
+        assertEquals("Ada orang", phrases.getPhrase(PERSON, AnnouncementEngine.EventType.APPEARED));
+        assertNull(phrases.getPhrase(PERSON, AnnouncementEngine.EventType.LEFT));
+        assertNull(phrases.getPhrase(CAR, AnnouncementEngine.EventType.APPEARED));
+        assertEquals(60, phrases.getPriority(PERSON));
+    }
+
+    @Test
+    public void sameObjects_areAnnouncedOnlyOnce() {
+        Track person = track(1, PERSON, 100, 100, 50);
+        for (int frame = 0; frame < 100; frame++) {
+            engine.update(frame * 33L, Collections.singletonList(person));
+            engine.onSpeechDone();
+        }
+        assertEquals(Collections.singletonList("Ada orang"), sink.spoken);
+    }
+
+    @Test
+    public void severalTracksOfOneClass_giveOnePhrase() {
+        List<Track> people = new ArrayList<>();
+        for (int id = 1; id <= 3; id++) {
+            people.add(track(id, PERSON, id * 100, 100, 40));
+        }
+        engine.update(0, people);
+        engine.onSpeechDone();
+        engine.update(33, people);
+
+        assertEquals(1, sink.spoken.size());
+    }
+
+    @Test
+    public void vehicle_outranksLandmark() {
+        List<Track> scene = new ArrayList<>();
+        scene.add(track(1, BUILDING, 300, 100, 200));
+        scene.add(track(2, CAR, 100, 200, 60));
+
+        engine.update(0, scene);
+        engine.onSpeechDone();
+        engine.update(33, scene);
+
+        assertEquals("Ada mobil", sink.spoken.get(0));
+        assertEquals("Gedung FTMM terdeteksi", sink.spoken.get(1));
+    }
+
+    @Test
+    public void urgentEvent_interruptsOnTheSameFrame() {
+        List<Track> scene = new ArrayList<>();
+        scene.add(track(1, BUILDING, 300, 100, 200));
+        engine.update(0, scene);
+        assertTrue(engine.isSpeaking());
+
+        scene.add(track(2, CAR, 100, 200, 60));
+        engine.update(33, scene);
+
+        assertEquals("Ada mobil", sink.spoken.get(1));
+        assertTrue(sink.interrupted.get(1));
+        assertEquals(1, engine.getInterruptions());
+    }
+
+    @Test
+    public void lessImportantEvent_waitsForTheSpeaker() {
+        List<Track> scene = new ArrayList<>();
+        scene.add(track(1, CAR, 100, 200, 60));
+        engine.update(0, scene);
+
+        scene.add(track(2, PERSON, 300, 200, 40));
+        engine.update(33, scene);
+        assertEquals(1, sink.spoken.size());
+
+        engine.onSpeechDone();
+        engine.update(66, scene);
+        assertEquals("Ada orang", sink.spoken.get(1));
+        assertFalse(sink.interrupted.get(1));
+    }
+
+    @Test
+    public void growingBox_isAnnouncedAsApproaching() {
+        float size = 40;
+        for (int frame = 0; frame < 30; frame++) {
+            engine.update(frame * 100L, Collections.singletonList(track(7, CAR, 200, 200, size)));
+            engine.onSpeechDone();
+            size *= 1.04f;
+        }
+        assertEquals("Ada mobil", sink.spoken.get(0));
+        assertTrue(sink.spoken.contains("Awas mobil mendekat"));
+    }
+
+    @Test
+    public void departedTrack_isAnnouncedAsLeft() {
+        engine.update(0, Collections.singletonList(track(3, CAR, 200, 200, 60)));
+        engine.onSpeechDone();
+        engine.update(33, Collections.<Track>emptyList());
+
+        assertEquals("Mobil sudah lewat", sink.spoken.get(1));
+    }
+
+    @Test
+    public void staleEvents_areDropped() {
+        engine.update(0, Collections.singletonList(track(1, CAR, 100, 200, 60)));
+        engine.update(33, Collections.singletonList(track(2, PERSON, 300, 200, 40)));
+
+        // Speaker busy for longer than maxAgeMs, the person event expired meanwhile
+        engine.update(2000, Collections.singletonList(track(2, PERSON, 300, 200, 40)));
+        engine.onSpeechDone();
+        engine.update(2033, Collections.singletonList(track(2, PERSON, 300, 200, 40)));
+
+        assertEquals(1, sink.spoken.size());
+    }
+
+    @Test
+    public void cooldown_isPerClass() {
+        engine.update(0, Collections.singletonList(track(1, CAR, 100, 200, 60)));
+        engine.onSpeechDone();
+        engine.update(100, Collections.<Track>emptyList());
+        engine.onSpeechDone();
+
+        // New car inside the cooldown: silent; after it: announced again
+        engine.update(1000, Collections.singletonList(track(2, CAR, 100, 200, 60)));
+        engine.update(1100, Collections.<Track>emptyList());
+        engine.update(4000, Collections.singletonList(track(3, CAR, 100, 200, 60)));
+
+        assertEquals(3, sink.spoken.size());
+        assertEquals("Ada mobil", sink.spoken.get(2));
+    }
+
+    @Test
+    public void sinkNotReady_keepsEventQueued() {
+        sink.ready = false;
+        engine.update(0, Collections.singletonList(track(1, PERSON, 100, 100, 50)));
+        assertTrue(sink.spoken.isEmpty());
+
+        sink.ready = true;
+        engine.update(33, Collections.singletonList(track(1, PERSON, 100, 100, 50)));
+        assertEquals(Collections.singletonList("Ada orang"), sink.spoken);
+    }
+
+    private static Track track(int id, int classId, float cx, float cy, float size) {
+        return new Track(id, classId, 0.9f, cx - size / 2, cy - size / 2, cx + size / 2, cy + size / 2);
+    }
+
+    private static class RecordingSink implements SpeechSink {
+        final List<String> spoken = new ArrayList<>();
+        final List<Boolean> interrupted = new ArrayList<>();
+        boolean ready = true;
+
+        @Override
+        public boolean speak(String text, boolean interrupt) {
+            if (!ready) return false;
+            spoken.add(text);
+            interrupted.add(interrupt);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+
+import static org.junit.Assert.*;
+
+public class BatchDetectorTest {
+    private static final int SIZE = 16;
+    private static final int CLASSES = 2;
+    private static final int ANCHORS = 2;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void run_decodesEverySliceForItsOwnFrame() throws Exception {
+        // One box of class 1; the model scales the output by the frame's mean value
+        float[] output = new float[(4 + CLASSES) * ANCHORS];
+        output[0] = 10;
+        output[ANCHORS] = 10;
+        output[2 * ANCHORS] = 8;
+        output[3 * ANCHORS] = 8;
+        output[5 * ANCHORS] = 0.8f;
+        File model = TestModels.write(folder.getRoot(), "batch.onnx",
+                TestModels.batchDetector(SIZE, output, CLASSES, ANCHORS));
+
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        PipelineMetrics metrics = new PipelineMetrics();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (OrtSession session = environment.createSession(model.getPath(), new OrtSession.SessionOptions());
+             BatchDetector batch = new BatchDetector(environment, ModelSignature.read(session), CLASSES,
+                     SIZE, SIZE, 4, 0.4f, 0.5f, 10)) {
+            batch.setExecutor(executor);
+            batch.setMetrics(metrics);
+            assertEquals(4, batch.getMaxBatch());
+            float[] means = {1f, 0.25f, 0.75f};
+            for (int i = 0; i < means.length; i++) {
+                fill(batch.getInput(i), means[i]);
+            }
+
+            batch.run(session, 3);
+
+            assertEquals(1, batch.getDetections(0).size());
+            assertEquals(0.8f, batch.getDetections(0).getScore(0), 1e-5f);
+            assertEquals(1, batch.getDetections(0).getClassId(0));
+            // 0.8 * 0.25 is below the threshold
+            assertEquals(0, batch.getDetections(1).size());
+            assertEquals(0.6f, batch.getDetections(2).getScore(0), 1e-5f);
+            assertEquals(7.5f - 3f, batch.getDetections(2).getLeft(0), 1e-4f);
+
+            // Smaller batch with the same detector: its own tensor, earlier results replaced
+            fill(batch.getInput(0), 0.25f);
+            batch.run(session, 1);
+            assertEquals(0, batch.getDetections(0).size());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, metrics.getCount(PipelineMetrics.Counter.BATCHES));
+        assertEquals(2, metrics.getHistogram(PipelineMetrics.Stage.INFERENCE).getCount());
+        assertEquals(4, metrics.getHistogram(PipelineMetrics.Stage.DECODE).getCount());
+    }
+
+    @Test
+    public void batchOneExport_runsOneFrameAtATime() throws Exception {
+        float[] output = new float[(4 + CLASSES) * ANCHORS];
+        File model = TestModels.write(folder.getRoot(), "fixed.onnx",
+                TestModels.fixedDetector(SIZE, output, CLASSES, ANCHORS));
+
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        try (OrtSession session = environment.createSession(model.getPath(), new OrtSession.SessionOptions());
+             BatchDetector batch = new BatchDetector(environment, ModelSignature.read(session), CLASSES,
+                     SIZE, SIZE, 8, 0.4f, 0.5f, 10)) {
+            assertEquals(1, batch.getMaxBatch());
+            fill(batch.getInput(0), 1f);
+            batch.run(session, 1);
+            assertEquals(0, batch.getDetections(0).size());
+        }
+    }
+
+    private static void fill(FloatBuffer input, float value) {
+        while (input.hasRemaining()) {
+            input.put(value);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BatchQueueTest {
+    @Test
+    public void fullBatch_doesNotWaitForTheDeadline() throws Exception {
+        BatchQueue<Integer> queue = new BatchQueue<>(8, 10, TimeUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            queue.put(i);
+        }
+        List<Integer> batch = new ArrayList<>();
+
+        long start = System.nanoTime();
+        assertEquals(3, queue.take(batch, 3));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(Arrays.asList(0, 1, 2), batch);
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void partialBatch_isHandedOutWhenTheOldestIsDue() throws Exception {
+        BatchQueue<String> queue = new BatchQueue<>(8, 30, TimeUnit.MILLISECONDS);
+        queue.put("a");
+        List<String> batch = new ArrayList<>();
+
+        long start = System.nanoTime();
+        assertEquals(1, queue.take(batch, 4));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void offer_refusesWhenFull() {
+        BatchQueue<Integer> queue = new BatchQueue<>(2, 0, TimeUnit.MILLISECONDS);
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertFalse(queue.offer(3));
+    }
+
+    @Test
+    public void close_drainsWhatIsLeftThenEnds() throws Exception {
+        final BatchQueue<Integer> queue = new BatchQueue<>(4, 10, TimeUnit.SECONDS);
+        queue.put(1);
+        queue.close();
+        List<Integer> batch = new ArrayList<>();
+
+        assertEquals(1, queue.take(batch, 4));
+        assertEquals(0, queue.take(batch, 4));
+        assertFalse(queue.offer(2));
+    }
+
+    @Test
+    public void waitingConsumer_isWokenByClose() throws Exception {
+        final BatchQueue<Integer> queue = new BatchQueue<>(4, 10, TimeUnit.SECONDS);
+        final int[] taken = {-1};
+        Thread consumer = new Thread(() -> {
+            try {
+                taken[0] = queue.take(new ArrayList<Integer>(), 4);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        Thread.sleep(20);
+        queue.close();
+        consumer.join(2000);
+
+        assertFalse(consumer.isAlive());
+        assertEquals(0, taken[0]);
+    }
+}
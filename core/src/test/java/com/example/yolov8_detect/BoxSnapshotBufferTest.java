@@ -0,0 +1,48 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BoxSnapshotBufferTest {
+
+    @Test
+    public void latest_returnsBoxesAndCountOfLastPublish() {
+        BoxSnapshotBuffer buffer = new BoxSnapshotBuffer(4);
+        buffer.latest();
+        assertEquals(0, buffer.latestCount());
+
+        write(buffer, 1, 2);
+        write(buffer, 2, 3);
+
+        float[] latest = buffer.latest();
+        assertEquals(3, buffer.latestCount());
+        assertEquals(2f, latest[0], 0f);
+        // No new publish: the same array again
+        assertSame(latest, buffer.latest());
+        assertEquals(3, buffer.latestCount());
+    }
+
+    @Test
+    public void writer_neverReusesArrayHeldByReader() {
+        BoxSnapshotBuffer buffer = new BoxSnapshotBuffer(4);
+        write(buffer, 1, 1);
+        float[] held = buffer.latest();
+
+        for (int value = 2; value < 10; value++) {
+            assertNotSame(held, buffer.beginWrite());
+            write(buffer, value, 4);
+        }
+        assertEquals(1f, held[0], 0f);
+        assertEquals(9f, buffer.latest()[0], 0f);
+        assertEquals(4, buffer.latestCount());
+    }
+
+    private static void write(BoxSnapshotBuffer buffer, float value, int count) {
+        float[] boxes = buffer.beginWrite();
+        for (int i = 0; i < count * 4; i++) {
+            boxes[i] = value;
+        }
+        buffer.publish(count);
+    }
+}
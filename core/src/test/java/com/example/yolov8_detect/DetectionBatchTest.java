@@ -0,0 +1,96 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class DetectionBatchTest {
+    @Test
+    public void add_growsAndClearKeepsArrays() {
+        DetectionBatch batch = new DetectionBatch(2);
+        for (int i = 0; i < 40; i++) {
+            batch.add(i, i + 1, i + 2, i + 3, i / 40f, i % 3);
+        }
+        assertEquals(40, batch.size());
+        int capacity = batch.getCapacity();
+        assertTrue(capacity >= 40);
+        assertEquals(39f, batch.getLeft(39), 0f);
+        assertEquals(42f, batch.getBottom(39), 0f);
+        assertEquals(0, batch.getClassId(39));
+        assertEquals(DetectionBatch.NO_TRACK, batch.getTrackId(39));
+
+        batch.clear();
+        assertEquals(0, batch.size());
+        batch.add(1, 2, 3, 4, 0.5f, 1);
+        assertEquals(capacity, batch.getCapacity());
+        assertEquals(1, batch.view().size());
+    }
+
+    @Test
+    public void addAll_mapsBoxesThroughTransform() {
+        // Any Detections (a detector, a merger) can be the source
+        DetectionBatch detections = new DetectionBatch(2);
+        detections.add(10, 20, 30, 40, 0.9f, 1);
+        detections.add(0, 0, 64, 64, 0.4f, 0);
+
+        // 64x64 model input letterboxed from a 128x64 frame: scale 0.5, 16 px bars
+        FrameTransform toFrame = FrameTransform.create(ResizeMode.LETTERBOX, 128, 64, 64, 64).inverse();
+        DetectionBatch batch = new DetectionBatch(1);
+        batch.addAll(detections, toFrame);
+        batch.addAll(detections, null);
+
+        assertEquals(4, batch.size());
+        DetectionBatch.View view = batch.view();
+        assertEquals(20f, view.getLeft(0), 1e-4f);
+        assertEquals(8f, view.getTop(0), 1e-4f);
+        assertEquals(60f, view.getRight(0), 1e-4f);
+        assertEquals(0.9f, view.getScore(0), 0f);
+        assertEquals(1, view.getClassId(0));
+        assertEquals(10f, view.getLeft(2), 0f);
+        assertEquals(40f, view.getBottom(2), 0f);
+    }
+
+    @Test
+    public void tracks_keepTheirIdsAndCopyIntoTrackerInput() {
+        DetectionBatch batch = new DetectionBatch(4);
+        batch.addTracks(Arrays.asList(new Track(7, 2, 0.8f, 1, 2, 3, 4), new Track(9, 0, 0.6f, 5, 6, 7, 8)));
+        assertEquals(7, batch.view().getTrackId(0));
+        assertEquals(9, batch.view().getTrackId(1));
+        assertEquals(2, batch.view().getClassId(0));
+
+        DetectionCandidates input = new DetectionCandidates(1);
+        batch.copyTo(input);
+        assertEquals(2, input.size());
+        assertEquals(5f, input.getLeft(1), 1e-4f);
+        assertEquals(0.6f, input.getScore(1), 0f);
+    }
+
+    @Test
+    public void pool_reusesBatchesAndNeverRunsDry() {
+        DetectionBatch.Pool pool = new DetectionBatch.Pool(2, 8);
+        DetectionBatch first = pool.acquire();
+        first.add(1, 1, 2, 2, 0.5f, 0);
+        first.release();
+
+        DetectionBatch again = pool.acquire();
+        assertEquals(0, again.size());
+        DetectionBatch second = pool.acquire();
+        DetectionBatch extra = pool.acquire();
+        assertNotNull(extra);
+        assertEquals(1, pool.getMisses());
+
+        again.release();
+        second.release();
+        extra.release();
+        assertEquals(2, pool.available());
+        // Unpooled batches release to nowhere
+        new DetectionBatch(1).release();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pool_rejectsForeignBatch() {
+        new DetectionBatch.Pool(1, 1).release(new DetectionBatch.Pool(1, 1).acquire());
+    }
+}
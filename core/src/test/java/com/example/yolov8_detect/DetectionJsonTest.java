@@ -0,0 +1,47 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import static org.junit.Assert.*;
+
+public class DetectionJsonTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void appendDetections_mapsBoxesAndNamesClasses() {
+        DetectionBatch detections = new DetectionBatch(2);
+        detections.add(10, 20, 30, 40, 0.9f, 1);
+        detections.add(0, 0, 64, 64, 0.4f, 5);
+        // 64x64 model input letterboxed from a 128x64 frame: scale 0.5, 16 px bars
+        FrameTransform toFrame = FrameTransform.create(ResizeMode.LETTERBOX, 128, 64, 64, 64).inverse();
+
+        StringBuilder json = new StringBuilder();
+        DetectionJson.appendDetections(json, detections, toFrame, new String[]{"orang", "mobil"}, new float[4]);
+
+        assertEquals("[{\"class_id\":1,\"label\":\"mobil\",\"score\":0.9000,\"box\":[20.0000,8.0000,60.0000,48.0000]},"
+                + "{\"class_id\":5,\"label\":\"5\",\"score\":0.4000,\"box\":[0.0000,-32.0000,128.0000,96.0000]}]",
+                json.toString());
+    }
+
+    @Test
+    public void appendString_escapesQuotesAndControlCharacters() {
+        StringBuilder json = new StringBuilder();
+        DetectionJson.appendString(json, "a\"b\\c\nd");
+        assertEquals("\"a\\\"b\\\\c\\u000ad\"", json.toString());
+    }
+
+    @Test
+    public void readLabels_skipsBlankLines() throws Exception {
+        File file = folder.newFile("label.txt");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(" orang \n\nmobil\n".getBytes("UTF-8"));
+        }
+        assertArrayEquals(new String[]{"orang", "mobil"}, LabelSpace.readLabels(file));
+    }
+}
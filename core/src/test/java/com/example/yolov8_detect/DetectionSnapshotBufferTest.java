@@ -0,0 +1,102 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class DetectionSnapshotBufferTest {
+
+    @Test
+    public void latest_returnsLastPublishedSnapshot() {
+        DetectionSnapshotBuffer buffer = new DetectionSnapshotBuffer(4);
+        assertEquals(0, buffer.latest().size());
+
+        write(buffer, 1, 2);
+        write(buffer, 2, 3);
+        assertTrue(buffer.hasFresh());
+
+        DetectionSnapshot latest = buffer.latest();
+        assertFalse(buffer.hasFresh());
+        assertEquals(2, latest.getFrameId());
+        assertEquals(3, latest.size());
+        // No new publish: the same snapshot again
+        assertSame(latest, buffer.latest());
+    }
+
+    @Test
+    public void writer_neverReusesSnapshotHeldByReader() {
+        DetectionSnapshotBuffer buffer = new DetectionSnapshotBuffer(4);
+        write(buffer, 1, 1);
+        DetectionSnapshot drawn = buffer.latest();
+
+        for (int frame = 2; frame < 10; frame++) {
+            assertNotSame(drawn, buffer.beginWrite());
+            write(buffer, frame, 1);
+        }
+        assertEquals(1, drawn.getFrameId());
+        assertEquals(9, buffer.latest().getFrameId());
+    }
+
+    @Test
+    public void signature_changesOnlyWithVisibleContent() {
+        DetectionSnapshot a = new DetectionSnapshot(2);
+        a.clear(1);
+        a.add(10.2f, 20, 30, 40, 3, 0.871f);
+        a.seal();
+        DetectionSnapshot b = new DetectionSnapshot(2);
+        b.clear(2);
+        b.add(10.4f, 20, 30, 40, 3, 0.868f);
+        b.seal();
+        assertEquals(a.getSignature(), b.getSignature());
+        assertEquals(87, b.getPercent(0));
+
+        b.clear(3);
+        b.add(10.4f, 20, 30, 40, 4, 0.868f);
+        b.seal();
+        assertNotEquals(a.getSignature(), b.getSignature());
+        // Capacity 2: one more fits, then the snapshot is full
+        assertTrue(b.add(0, 0, 1, 1, 0, 1f));
+        assertFalse(b.add(0, 0, 1, 1, 0, 1f));
+    }
+
+    @Test
+    public void concurrentReader_alwaysSeesCompleteSnapshots() throws InterruptedException {
+        final DetectionSnapshotBuffer buffer = new DetectionSnapshotBuffer(8);
+        final int frames = 200_000;
+        final AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            long lastFrame = 0;
+            while (lastFrame < frames && failure.get() == null) {
+                DetectionSnapshot snapshot = buffer.latest();
+                long frame = snapshot.getFrameId();
+                if (frame < lastFrame) failure.set("went back from " + lastFrame + " to " + frame);
+                for (int i = 0; i < snapshot.size(); i++) {
+                    if (snapshot.getClassId(i) != (int) frame || snapshot.getLeft(i) != frame) {
+                        failure.set("torn snapshot " + frame);
+                    }
+                }
+                lastFrame = frame;
+            }
+        });
+        reader.start();
+        for (int frame = 1; frame <= frames; frame++) {
+            write(buffer, frame, 1 + frame % 8);
+        }
+        reader.join(10_000);
+
+        assertNull(failure.get());
+        assertFalse(reader.isAlive());
+    }
+
+    private static void write(DetectionSnapshotBuffer buffer, int frame, int count) {
+        DetectionSnapshot snapshot = buffer.beginWrite();
+        snapshot.clear(frame);
+        for (int i = 0; i < count; i++) {
+            snapshot.add(frame, frame, frame + 10, frame + 10, frame, 0.5f);
+        }
+        buffer.publish();
+    }
+}
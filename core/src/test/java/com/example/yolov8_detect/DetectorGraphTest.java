@@ -0,0 +1,105 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+
+import static org.junit.Assert.*;
+
+public class DetectorGraphTest {
+    private static final int SIZE = 64;
+    private static final int ANCHORS = 2;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void branches_shareTheInputAndMergeIntoOneNamespace() throws Exception {
+        // Campus model: "orang" at the centre, "Rambu" top left
+        float[] campus = output(2, new float[][]{{32, 32, 16, 16, 0, 0.9f}, {8, 8, 8, 8, 1, 0.8f}});
+        // General model: the same person as "person", and a "car"
+        float[] general = output(2, new float[][]{{33, 32, 16, 16, 0, 0.7f}, {48, 48, 12, 12, 1, 0.6f}});
+
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (OrtSession campusSession = session(environment, "campus.onnx", campus);
+             OrtSession generalSession = session(environment, "general.onnx", general);
+             InputTensorPool pool = new InputTensorPool(1, new long[]{1, 3, SIZE, SIZE})) {
+            LabelSpace labels = new LabelSpace();
+            labels.addAlias("person", "orang");
+            DetectorGraph graph = new DetectorGraph(labels, 0.5f, 10);
+            graph.addBranch(new ModelBranch("campus", campusSession, ModelSignature.read(campusSession),
+                    new String[]{"orang", "Rambu"}, 0.4f, 0.5f, 1, 10));
+            // Below its own threshold the car would be gone: thresholds are per branch
+            graph.addBranch(new ModelBranch("general", generalSession, ModelSignature.read(generalSession),
+                    new String[]{"person", "car"}, 0.5f, 0.5f, 2, 10));
+            graph.setExecutor(executor);
+            assertArrayEquals(new String[]{"orang", "Rambu", "car"}, labels.getLabels());
+            assertEquals(0, labels.getId("person"));
+
+            OnnxTensor input = pool.acquire().getTensor(environment);
+            DetectorGraph.Outputs outputs = graph.newOutputs();
+            graph.run(input, outputs);
+            assertTrue(outputs.ran(0));
+            assertTrue(outputs.ran(1));
+            // The two people are one detection, the campus model's score wins
+            assertEquals(3, graph.decode(outputs, SIZE, SIZE));
+            assertEquals(0, graph.getClassId(0));
+            assertEquals(0.9f, graph.getScore(0), 1e-6f);
+            assertEquals(2, graph.getClassId(2));
+            assertEquals(42, graph.getLeft(2), 1e-4f);
+
+            // Frame 2: the general model is not due, its car is held
+            graph.run(input, outputs);
+            assertTrue(outputs.ran(0));
+            assertFalse(outputs.ran(1));
+            assertEquals(3, graph.decode(outputs, SIZE, SIZE));
+            // Held boxes are only valid for the input size they were decoded at
+            graph.run(input, outputs);
+            graph.run(input, outputs);
+            assertFalse(outputs.ran(1));
+            assertEquals(2, graph.decode(outputs, SIZE / 2, SIZE / 2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentStaticInputs_areRejected() throws Exception {
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        try (OrtSession a = session(environment, "a.onnx", output(1, new float[0][]));
+             OrtSession b = environment.createSession(TestModels.write(folder.getRoot(), "b.onnx",
+                     TestModels.fixedDetector(SIZE * 2, output(1, new float[0][]), 1, ANCHORS)).getPath(),
+                     new OrtSession.SessionOptions())) {
+            DetectorGraph graph = new DetectorGraph(new LabelSpace(), 0.5f, 10);
+            graph.addBranch(new ModelBranch("a", a, ModelSignature.read(a), new String[]{"x"}, 0.4f, 0.5f, 1, 10));
+            graph.addBranch(new ModelBranch("b", b, ModelSignature.read(b), new String[]{"x"}, 0.4f, 0.5f, 1, 10));
+        }
+    }
+
+    private OrtSession session(OrtEnvironment environment, String name, float[] output) throws Exception {
+        int classes = output.length / ANCHORS - 4;
+        File model = TestModels.write(folder.getRoot(), name, TestModels.fixedDetector(SIZE, output, classes, ANCHORS));
+        return environment.createSession(model.getPath(), new OrtSession.SessionOptions());
+    }
+
+    // [4 + classes, ANCHORS] from cx, cy, w, h, class, score per anchor
+    private static float[] output(int classes, float[][] boxes) {
+        float[] output = new float[(4 + classes) * ANCHORS];
+        for (int a = 0; a < boxes.length; a++) {
+            for (int i = 0; i < 4; i++) {
+                output[i * ANCHORS + a] = boxes[a][i];
+            }
+            output[(4 + (int) boxes[a][4]) * ANCHORS + a] = boxes[a][5];
+        }
+        return output;
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FramePipelineTest {
+    private static final long STAGE_MS = 20;
+
+    @Test
+    public void stages_overlapAcrossFrames() throws Exception {
+        int frames = 30;
+        final CountDownLatch done = new CountDownLatch(frames);
+        FramePipeline<Integer> pipeline = FramePipeline.<Integer>builder("test")
+                .stage("inference", 1, DropPolicy.BLOCK, sleep())
+                .stage("decode", 1, DropPolicy.BLOCK, sleep())
+                .stage("output", 1, DropPolicy.BLOCK, new PipelineStage<Integer, Void>() {
+                    @Override
+                    public Void process(Integer input) throws Exception {
+                        Thread.sleep(STAGE_MS);
+                        done.countDown();
+                        return null;
+                    }
+                })
+                .build();
+        pipeline.start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            Thread.sleep(STAGE_MS); // fake preprocess on the caller thread
+            assertTrue(pipeline.submit(i));
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        pipeline.shutdown(1000);
+
+        // Sequential would take frames * 4 * STAGE_MS = 2400 ms
+        assertTrue("took " + elapsedMs + " ms", elapsedMs < frames * 4 * STAGE_MS / 2);
+    }
+
+    @Test
+    public void dropOldest_keepsFreshestFrameAndReportsDrops() throws Exception {
+        final List<Object> dropped = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> processed = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        FramePipeline<Integer> pipeline = FramePipeline.<Integer>builder("test")
+                .stage("inference", 1, DropPolicy.DROP_OLDEST, new PipelineStage<Integer, Void>() {
+                    @Override
+                    public Void process(Integer input) throws Exception {
+                        started.countDown();
+                        release.await();
+                        processed.add(input);
+                        return null;
+                    }
+                })
+                .onDropped((stage, item) -> dropped.add(item))
+                .build();
+        pipeline.start();
+
+        pipeline.submit(0);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(pipeline.submit(i));
+        }
+        release.countDown();
+        waitFor(() -> processed.size() == 2);
+        pipeline.shutdown(1000);
+
+        assertEquals(java.util.Arrays.asList(0, 5), processed);
+        assertEquals(java.util.Arrays.<Object>asList(1, 2, 3, 4), dropped);
+        assertEquals(4, pipeline.getStats().get(0).dropped);
+    }
+
+    @Test
+    public void yieldingItems_neverEvictQueuedWork() throws Exception {
+        final List<Object> dropped = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> processed = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        // Negative items stand for track-only frames
+        FramePipeline<Integer> pipeline = FramePipeline.<Integer>builder("test")
+                .stage("inference", 1, DropPolicy.DROP_OLDEST, new PipelineStage<Integer, Void>() {
+                    @Override
+                    public Void process(Integer input) throws Exception {
+                        started.countDown();
+                        release.await();
+                        processed.add(input);
+                        return null;
+                    }
+                })
+                .onDropped((stage, item) -> dropped.add(item))
+                .yieldWhen(item -> (Integer) item < 0)
+                .build();
+        pipeline.start();
+
+        pipeline.submit(0);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        assertTrue(pipeline.submit(1));
+        assertFalse(pipeline.submit(-1));
+        // A real item still evicts an older one
+        assertTrue(pipeline.submit(2));
+        release.countDown();
+        waitFor(() -> processed.size() == 2);
+        assertTrue(pipeline.submit(-2));
+        waitFor(() -> processed.size() == 3);
+        pipeline.shutdown(1000);
+
+        assertEquals(java.util.Arrays.asList(0, 2, -2), processed);
+        assertEquals(java.util.Arrays.<Object>asList(-1, 1), dropped);
+    }
+
+    @Test
+    public void dropNewest_rejectsWhenFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger drops = new AtomicInteger();
+        FramePipeline<Integer> pipeline = FramePipeline.<Integer>builder("test")
+                .stage("inference", 1, DropPolicy.DROP_NEWEST, new PipelineStage<Integer, Void>() {
+                    @Override
+                    public Void process(Integer input) throws Exception {
+                        release.await();
+                        return null;
+                    }
+                })
+                .onDropped((stage, item) -> drops.incrementAndGet())
+                .build();
+        pipeline.start();
+
+        pipeline.submit(0);
+        waitFor(() -> pipeline.getStats().get(0).queued == 0);
+        assertTrue(pipeline.submit(1));
+        assertFalse(pipeline.submit(2));
+        assertEquals(1, drops.get());
+
+        release.countDown();
+        pipeline.shutdown(1000);
+    }
+
+    @Test
+    public void shutdown_releasesQueuedItemsAndStopsThreads() throws Exception {
+        final List<Object> dropped = Collections.synchronizedList(new ArrayList<>());
+        FramePipeline<Integer> pipeline = FramePipeline.<Integer>builder("test")
+                .stage("inference", 4, DropPolicy.BLOCK, new PipelineStage<Integer, Void>() {
+                    @Override
+                    public Void process(Integer input) throws Exception {
+                        Thread.sleep(10_000);
+                        return null;
+                    }
+                })
+                .onDropped((stage, item) -> dropped.add(item))
+                .build();
+        pipeline.start();
+        for (int i = 0; i < 4; i++) {
+            pipeline.submit(i);
+        }
+        waitFor(() -> pipeline.getStats().get(0).queued == 3);
+
+        assertTrue(pipeline.shutdown(1000));
+
+        assertFalse(pipeline.isRunning());
+        assertTrue(pipeline.isTerminated());
+        // 0 was interrupted in its stage, 1-3 were still queued
+        assertEquals(java.util.Arrays.<Object>asList(0, 1, 2, 3), dropped);
+        assertFalse(pipeline.submit(9));
+        assertEquals(9, dropped.get(4));
+    }
+
+    @Test
+    public void shutdown_reportsStageThatIgnoresInterrupts() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final AtomicInteger finish = new AtomicInteger();
+        FramePipeline<Integer> pipeline = FramePipeline.<Integer>builder("test")
+                .stage("inference", 1, DropPolicy.BLOCK, new PipelineStage<Integer, Void>() {
+                    @Override
+                    public Void process(Integer input) {
+                        // Like a native session run: not interruptible
+                        entered.countDown();
+                        while (finish.get() == 0) {
+                            Thread.yield();
+                        }
+                        return null;
+                    }
+                })
+                .build();
+        pipeline.start();
+        pipeline.submit(0);
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+
+        assertFalse(pipeline.shutdown(50));
+        assertFalse(pipeline.isTerminated());
+
+        finish.set(1);
+        assertTrue(pipeline.shutdown(1000));
+        assertTrue(pipeline.isTerminated());
+    }
+
+    @Test
+    public void stageErrors_areReportedReleasedAndPipelineContinues() throws Exception {
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger outputs = new AtomicInteger();
+        final List<Object> released = Collections.synchronizedList(new ArrayList<>());
+        FramePipeline<Integer> pipeline = FramePipeline.<Integer>builder("test")
+                .stage("decode", 8, DropPolicy.BLOCK, new PipelineStage<Integer, Integer>() {
+                    @Override
+                    public Integer process(Integer input) {
+                        if (input % 2 == 0) throw new IllegalStateException("bad frame");
+                        return input;
+                    }
+                })
+                .stage("output", 8, DropPolicy.BLOCK, new PipelineStage<Integer, Void>() {
+                    @Override
+                    public Void process(Integer input) {
+                        outputs.incrementAndGet();
+                        return null;
+                    }
+                })
+                .onError((stage, error) -> errors.incrementAndGet())
+                .onDropped((stage, item) -> released.add(stage + ":" + item))
+                .build();
+        pipeline.start();
+        for (int i = 0; i < 6; i++) {
+            pipeline.submit(i);
+        }
+        waitFor(() -> outputs.get() == 3);
+        pipeline.shutdown(1000);
+
+        assertEquals(3, errors.get());
+        assertEquals(3, pipeline.getStats().get(0).failed);
+        // Every failed item reaches the drop listener once, without counting as dropped
+        assertEquals(java.util.Arrays.<Object>asList("decode:0", "decode:2", "decode:4"), released);
+        assertEquals(0, pipeline.getStats().get(0).dropped);
+    }
+
+    private static PipelineStage<Integer, Integer> sleep() {
+        return new PipelineStage<Integer, Integer>() {
+            @Override
+            public Integer process(Integer input) throws Exception {
+                Thread.sleep(STAGE_MS);
+                return input;
+            }
+        };
+    }
+
+    interface Condition {
+        boolean met();
+    }
+
+    static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.met()) {
+            if (System.currentTimeMillis() > deadline) fail("condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+}
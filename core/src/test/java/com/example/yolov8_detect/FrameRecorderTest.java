@@ -0,0 +1,118 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.*;
+
+public class FrameRecorderTest {
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+    // Camera style row padding
+    private static final int ROW_STRIDE = 80;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replayedFrames_preprocessExactlyLikeTheOriginals() throws Exception {
+        File file = new File(folder.getRoot(), "session.yfr");
+        try (FrameRecorder recorder = new FrameRecorder(file, 8)) {
+            for (int f = 0; f < 5; f++) {
+                while (!recorder.offer(frame(f), 1000L * f, 90)) {
+                    Thread.sleep(1);
+                }
+            }
+        }
+
+        YuvPreprocessor preprocessor = new YuvPreprocessor(32, 32);
+        FloatBuffer expected = FloatBuffer.allocate(3 * 32 * 32);
+        FloatBuffer actual = FloatBuffer.allocate(3 * 32 * 32);
+        try (FrameRecordingReader reader = new FrameRecordingReader(file)) {
+            assertTrue(reader.isIndexed());
+            assertEquals(5, reader.getFrameCount());
+            YuvFrame holder = new YuvFrame();
+            for (int f = 0; f < 5; f++) {
+                YuvFrame replayed = reader.read(f, holder);
+                assertEquals(WIDTH, replayed.getWidth());
+                assertEquals(ROW_STRIDE, replayed.getYRowStride());
+                assertEquals(2, replayed.getUvPixelStride());
+                assertEquals(1000L * f, reader.getTimestampNanos(f));
+                assertEquals(90, reader.getRotationDegrees(f));
+
+                preprocessor.preprocess(frame(f), expected);
+                preprocessor.preprocess(replayed, actual);
+                assertArrayEquals(expected.array(), actual.array(), 0f);
+            }
+        }
+    }
+
+    @Test
+    public void unfinishedRecording_keepsEveryCompleteFrame() throws Exception {
+        File file = new File(folder.getRoot(), "crash.yfr");
+        try (FrameRecorder recorder = new FrameRecorder(file, 8)) {
+            for (int f = 0; f < 3; f++) {
+                while (!recorder.offer(frame(f), f, 0)) {
+                    Thread.sleep(1);
+                }
+            }
+        }
+        // Cut inside the third frame: no index, torn last chunk
+        YuvFrame frame = frame(0);
+        long chunk = FrameRecorder.CHUNK_HEADER_SIZE + FrameRecorder.FRAME_FIELDS_SIZE
+                + frame.getYBuffer().remaining() + frame.getUBuffer().remaining() + frame.getVBuffer().remaining();
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(FrameRecorder.HEADER_SIZE + chunk * 2 + chunk / 2);
+        }
+
+        try (FrameRecordingReader reader = new FrameRecordingReader(file)) {
+            assertFalse(reader.isIndexed());
+            assertEquals(2, reader.getFrameCount());
+            assertEquals(1, reader.getTimestampNanos(1));
+            assertEquals((byte) 1, reader.read(1, new YuvFrame()).getYBuffer().get(0));
+        }
+    }
+
+    @Test
+    public void offerAfterClose_isDropped() throws Exception {
+        FrameRecorder recorder = new FrameRecorder(new File(folder.getRoot(), "closed.yfr"), 1);
+        recorder.close();
+
+        assertFalse(recorder.offer(frame(0), 0, 0));
+        assertEquals(1, recorder.getFramesDropped());
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void otherFiles_areRejected() throws Exception {
+        File file = folder.newFile("notes.txt");
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.write("hello world".getBytes("UTF-8"));
+        }
+        new FrameRecordingReader(file).close();
+    }
+
+    // YUV_420_888 as most cameras deliver it: padded luma rows, interleaved chroma (NV21
+    // memory with U and V views one byte apart). The first luma byte is the frame number.
+    private static YuvFrame frame(int number) {
+        ByteBuffer y = ByteBuffer.allocateDirect(ROW_STRIDE * HEIGHT);
+        for (int i = 0; i < y.capacity(); i++) {
+            y.put(i, (byte) (number + i % 7 * 30));
+        }
+        y.put(0, (byte) number);
+        ByteBuffer vu = ByteBuffer.allocateDirect(ROW_STRIDE * HEIGHT / 2);
+        for (int i = 0; i < vu.capacity(); i++) {
+            vu.put(i, (byte) (100 + i % 50));
+        }
+        ByteBuffer v = vu.duplicate();
+        v.limit(vu.capacity() - 1);
+        ByteBuffer u = vu.duplicate();
+        u.position(1);
+        return new YuvFrame().wrap(WIDTH, HEIGHT, y, ROW_STRIDE, u.slice(), v.slice(), ROW_STRIDE, 2);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameTransformTest {
+    private static final float EPS = 1e-3f;
+
+    @Test
+    public void letterbox_padsShortSide() {
+        FrameTransform t = FrameTransform.create(ResizeMode.LETTERBOX, 1280, 720, 640, 640);
+
+        assertEquals(0.5f, t.getScaleX(), EPS);
+        assertEquals(0.5f, t.getScaleY(), EPS);
+        assertEquals(0f, t.getOffsetX(), EPS);
+        assertEquals(140f, t.getOffsetY(), EPS);
+    }
+
+    @Test
+    public void letterbox_rectangularInputFitsWideFrame() {
+        FrameTransform t = FrameTransform.create(ResizeMode.LETTERBOX, 1280, 720, 640, 384);
+
+        assertEquals(0.5f, t.getScaleX(), EPS);
+        assertEquals(12f, t.getOffsetY(), EPS);
+        assertEquals(0f, t.mapX(0), EPS);
+        assertEquals(372f, t.mapY(720), EPS);
+    }
+
+    @Test
+    public void centerCrop_cutsLongSide() {
+        FrameTransform t = FrameTransform.create(ResizeMode.CENTER_CROP, 1280, 720, 1080, 1080);
+
+        assertEquals(1.5f, t.getScaleX(), EPS);
+        assertEquals(-420f, t.getOffsetX(), EPS);
+        assertEquals(0f, t.getOffsetY(), EPS);
+    }
+
+    @Test
+    public void inverse_roundTripsBoxes() {
+        for (ResizeMode mode : ResizeMode.values()) {
+            FrameTransform t = FrameTransform.create(mode, 1280, 720, 640, 384);
+            float[] source = {100f, 50f, 900f, 700f};
+            float[] box = new float[4];
+
+            t.mapBox(source, 0, box, 0);
+            t.inverse().mapBox(box, 0, box, 0);
+
+            assertArrayEquals(mode.name(), source, box, EPS);
+        }
+    }
+
+    @Test
+    public void then_composesModelToView() {
+        FrameTransform input = FrameTransform.create(ResizeMode.LETTERBOX, 1280, 720, 640, 640);
+        FrameTransform view = FrameTransform.create(ResizeMode.CENTER_CROP, 1280, 720, 1920, 1000);
+        FrameTransform modelToView = input.inverse().then(view);
+
+        float x = 320f;
+        float y = 200f;
+        float sourceX = input.inverse().mapX(x);
+        float sourceY = input.inverse().mapY(y);
+
+        assertEquals(view.mapX(sourceX), modelToView.mapX(x), EPS);
+        assertEquals(view.mapY(sourceY), modelToView.mapY(y), EPS);
+        assertEquals(640, modelToView.getSourceWidth());
+        assertEquals(1920, modelToView.getTargetWidth());
+    }
+}
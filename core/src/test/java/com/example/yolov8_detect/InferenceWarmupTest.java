@@ -0,0 +1,47 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InferenceWarmupTest {
+
+    @Test
+    public void run_stopsOnceP95Converges() throws Exception {
+        // Slow first runs (lazy kernel selection), then steady 2 ms
+        final int[] calls = {0};
+        InferenceWarmup.Stats stats = new InferenceWarmup(5, 50, 4, 0.5).run(() -> {
+            Thread.sleep(calls[0]++ < 3 ? 30 : 2);
+        });
+
+        assertTrue(stats.isConverged());
+        assertTrue(stats.getRuns() < 50);
+        assertTrue(stats.getFirstRunMs() >= 30);
+        assertTrue("p95 " + stats.getConvergedP95Ms(), stats.getConvergedP95Ms() < 20);
+        assertEquals(stats.getRuns(), stats.getLatenciesMs().length);
+    }
+
+    @Test
+    public void run_reportsNotConvergedAfterMaxRuns() throws Exception {
+        // Latency keeps doubling, consecutive windows never agree
+        final int[] sleep = {1};
+        InferenceWarmup.Stats stats = new InferenceWarmup(2, 8, 2, 0.1).run(() -> {
+            Thread.sleep(sleep[0]);
+            sleep[0] *= 2;
+        });
+
+        assertFalse(stats.isConverged());
+        assertEquals(8, stats.getRuns());
+        assertTrue(stats.getP99Ms() >= 100);
+    }
+
+    @Test
+    public void percentile_usesNearestRank() {
+        double[] values = new double[100];
+        for (int i = 0; i < 100; i++) values[i] = 100 - i;
+
+        assertEquals(95, InferenceWarmup.percentile(values, 0.95), 0);
+        assertEquals(99, InferenceWarmup.percentile(values, 0.99), 0);
+        assertEquals(7, InferenceWarmup.percentile(new double[]{7}, 0.95), 0);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.yolov8_detect;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+
+import static org.junit.Assert.*;
+
+public class InputTensorPoolTest {
+    private static final long[] SHAPE = {1, 3, 64, 64};
+    private static OrtEnvironment environment;
+
+    @BeforeClass
+    public static void setUp() {
+        environment = OrtEnvironment.getEnvironment();
+    }
+
+    @Test
+    public void acquire_returnsNullWhenExhausted() {
+        try (InputTensorPool pool = new InputTensorPool(2, SHAPE)) {
+            InputTensorPool.Slot a = pool.acquire();
+            InputTensorPool.Slot b = pool.acquire();
+            assertNotNull(a);
+            assertNotNull(b);
+            assertNull(pool.acquire());
+            assertEquals(1, pool.getAcquireMisses());
+
+            pool.release(a);
+            assertSame(a, pool.acquire());
+        }
+    }
+
+    @Test
+    public void tensor_wrapsSlotBufferWithoutCopy() throws OrtException {
+        try (InputTensorPool pool = new InputTensorPool(1, SHAPE)) {
+            InputTensorPool.Slot slot = pool.acquire();
+            OnnxTensor tensor = slot.getTensor(environment);
+
+            slot.getBuffer().put(5, 42f);
+
+            assertEquals(42f, tensor.getFloatBuffer().get(5), 0f);
+        }
+    }
+
+    @Test
+    public void steadyState_allocatesNothing() throws OrtException {
+        YuvFrame frame = YuvPreprocessorTest.planarFrame(160, 90, 160, (x, y) -> x, (x, y) -> 128, (x, y) -> y);
+        YuvPreprocessor preprocessor = new YuvPreprocessor(64, 64);
+
+        try (InputTensorPool pool = new InputTensorPool(2, SHAPE)) {
+            // Warm up so lazily created tensors, lookup tables and JIT are out of the way
+            runFrames(pool, preprocessor, frame, 2_000);
+            long buffers = pool.getBufferAllocations();
+            long tensors = pool.getTensorAllocations();
+
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long thread = Thread.currentThread().getId();
+            long before = threads.getThreadAllocatedBytes(thread);
+            runFrames(pool, preprocessor, frame, 1_000);
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+            assertEquals(2, buffers);
+            assertEquals(2, tensors);
+            assertEquals(buffers, pool.getBufferAllocations());
+            assertEquals(tensors, pool.getTensorAllocations());
+            assertTrue("allocated " + allocated + " bytes in steady state", allocated < 1024);
+        }
+    }
+
+    private static void runFrames(InputTensorPool pool, YuvPreprocessor preprocessor, YuvFrame frame, int frames)
+            throws OrtException {
+        for (int i = 0; i < frames; i++) {
+            InputTensorPool.Slot slot = pool.acquire();
+            preprocessor.preprocess(frame, slot.getBuffer());
+            slot.getInputs(environment, "images");
+            pool.release(slot);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_coverValuesWithinThreePercent() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long micros = (long) Math.pow(10, random.nextDouble() * 9);
+            int index = LatencyHistogram.bucketIndex(micros);
+            long lower = LatencyHistogram.bucketLowerBound(index);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(micros + " in [" + lower + ", " + upper + "]", lower <= micros && micros <= upper);
+            assertTrue(upper - lower <= Math.max(0, micros / 32));
+        }
+    }
+
+    @Test
+    public void percentiles_matchRecordedDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getPercentileMs(0.50), 50 * 0.03);
+        assertEquals(95, histogram.getPercentileMs(0.95), 95 * 0.03);
+        assertEquals(99, histogram.getPercentileMs(0.99), 99 * 0.03);
+        assertEquals(100, histogram.getPercentileMs(1.0), 100 * 0.03);
+        assertEquals(50.5, histogram.getMeanMs(), 1e-9);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getMaxNanos());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMs(0.99), 0);
+    }
+
+    @Test
+    public void concurrentRecording_losesNothing() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long value = TimeUnit.MILLISECONDS.toNanos(t + 1);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) histogram.recordNanos(value);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(200_000, histogram.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(4), histogram.getMaxNanos());
+        assertEquals(2.5, histogram.getMeanMs(), 1e-9);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+
+import static org.junit.Assert.*;
+
+public class ModelLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void start_opensSessionInBackgroundAndRecordsTimings() throws Exception {
+        final OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        ModelStore store = new ModelStore(folder.getRoot());
+        ModelStoreTest.CountingSource source = new ModelStoreTest.CountingSource("relu.onnx", "1", TestModels.relu(4));
+        final AtomicReference<String> thread = new AtomicReference<>();
+        ModelLoader loader = new ModelLoader(store, source, model -> {
+            thread.set(Thread.currentThread().getName());
+            return environment.createSession(model.getPath(), new OrtSession.SessionOptions());
+        }, new StartupTimer());
+
+        final CountDownLatch ready = new CountDownLatch(1);
+        loader.start(new ModelLoader.Listener() {
+            @Override
+            public void onReady(OrtSession session, StartupTimer timer) {
+                ready.countDown();
+            }
+
+            @Override
+            public void onFailed(Exception error, StartupTimer timer) {
+            }
+        });
+
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+        assertTrue(loader.isReady());
+        assertEquals("model-loader", thread.get());
+        assertEquals("images", loader.getSession().getInputNames().iterator().next());
+        assertTrue(loader.wasCopied());
+        StartupTimer timer = loader.getTimer();
+        assertTrue(timer.has(ModelLoader.MARK_INSTALLED));
+        assertTrue(timer.get(ModelLoader.MARK_SESSION) >= timer.get(ModelLoader.MARK_INSTALLED));
+        loader.getSession().close();
+
+        // Second launch reuses the installed copy
+        ModelLoader again = new ModelLoader(store, source, model ->
+                environment.createSession(model.getPath(), new OrtSession.SessionOptions()), new StartupTimer());
+        again.load().close();
+        assertFalse(again.wasCopied());
+        assertEquals(1, source.opens);
+    }
+
+    @Test
+    public void warmup_runsBeforeDetectorGoesLive() throws Exception {
+        final OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        ModelLoader loader = new ModelLoader(new ModelStore(folder.getRoot()),
+                new ModelStoreTest.CountingSource("relu.onnx", "1", TestModels.relu(4)),
+                model -> environment.createSession(model.getPath(), new OrtSession.SessionOptions()),
+                new StartupTimer());
+        final OnnxTensor input = OnnxTensor.createTensor(environment, FloatBuffer.wrap(new float[48]), new long[]{1, 3, 4, 4});
+        loader.setWarmup(new InferenceWarmup(3, 20, 3, 10.0),
+                session -> Collections.singletonMap(session.getInputNames().iterator().next(), input));
+
+        try (OrtSession session = loader.load()) {
+            assertEquals(1, session.getNumInputs());
+            InferenceWarmup.Stats stats = loader.getWarmupStats();
+            assertTrue(stats.isConverged());
+            assertTrue(stats.getRuns() >= 6);
+            assertTrue(loader.getTimer().get(ModelLoader.MARK_LIVE) >= loader.getTimer().get(ModelLoader.MARK_SESSION));
+        } finally {
+            input.close();
+        }
+    }
+
+    @Test
+    public void start_reportsFailure() throws Exception {
+        ModelLoader loader = new ModelLoader(new ModelStore(folder.getRoot()),
+                new ModelStoreTest.CountingSource("broken.onnx", "1", new byte[16]),
+                model -> {
+                    throw new IOException("bad model");
+                }, new StartupTimer());
+
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final CountDownLatch failed = new CountDownLatch(1);
+        loader.start(new ModelLoader.Listener() {
+            @Override
+            public void onReady(OrtSession session, StartupTimer timer) {
+            }
+
+            @Override
+            public void onFailed(Exception error, StartupTimer timer) {
+                failure.set(error);
+                failed.countDown();
+            }
+        });
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals("bad model", failure.get().getMessage());
+        assertNull(loader.awaitReady(10));
+        assertFalse(loader.getTimer().has(ModelLoader.MARK_SESSION));
+    }
+}
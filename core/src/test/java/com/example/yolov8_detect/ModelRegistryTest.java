@@ -0,0 +1,124 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ModelRegistryTest {
+    private static final String MANIFEST = ""
+            + "variants=fp32,int8,tiny\n"
+            + "variant.fp32.file=model.onnx\n"
+            + "variant.fp32.input=640x640\n"
+            + "variant.fp32.labels=label.txt\n"
+            + "variant.fp32.colors=#4169E1, #80DC143C\n"
+            + "variant.fp32.min_ram_mb=3072\n"
+            + "variant.fp32.operating_points=high,medium\n"
+            + "variant.int8.file=model_int8.onnx\n"
+            + "variant.int8.precision=INT8\n"
+            + "variant.int8.input=640x640\n"
+            + "variant.int8.labels=label.txt\n"
+            + "variant.int8.operating_points=low,minimum\n"
+            + "variant.tiny.file=tiny.onnx\n"
+            + "variant.tiny.precision=fp16\n"
+            + "variant.tiny.labels=label.txt\n"
+            + "variant.tiny.normalization=127.5,127.5\n"
+            + "variant.tiny.operating_points=minimum\n";
+
+    @Test
+    public void parse_readsEveryField() throws Exception {
+        ModelRegistry registry = ModelRegistry.parse(new StringReader(MANIFEST));
+
+        assertEquals(3, registry.getVariants().size());
+        assertEquals("fp32", registry.getDefault().getName());
+        ModelVariant fp32 = registry.get("fp32");
+        assertEquals("model.onnx", fp32.getFile());
+        assertEquals(ModelVariant.Precision.FP32, fp32.getPrecision());
+        assertEquals(640, fp32.getInputWidth());
+        assertEquals(0f, fp32.getMean(), 0f);
+        assertEquals(255f, fp32.getStd(), 0f);
+        assertArrayEquals(new int[]{0xFF4169E1, 0x80DC143C}, fp32.getClassColors());
+        assertEquals(3072, fp32.getMinRamMb());
+
+        ModelVariant tiny = registry.get("tiny");
+        assertEquals(ModelVariant.Precision.FP16, tiny.getPrecision());
+        assertFalse(tiny.hasInputSize());
+        assertEquals(127.5f, tiny.getStd(), 0f);
+        assertNull(registry.get("missing"));
+    }
+
+    @Test
+    public void device_getsTheFirstVariantItHasMemoryAndAFileFor() throws Exception {
+        ModelRegistry registry = ModelRegistry.parse(new StringReader(MANIFEST));
+
+        assertEquals("fp32", registry.selectForDevice(4096, v -> true).getName());
+        assertEquals("int8", registry.selectForDevice(2048, v -> true).getName());
+        assertEquals("int8", registry.selectForDevice(4096, available("model_int8.onnx")).getName());
+        // Not enough memory for any available file: the lightest one still runs
+        assertEquals("fp32", registry.selectForDevice(1024, available("model.onnx")).getName());
+        assertEquals("fp32", registry.selectForDevice(4096, available()).getName());
+    }
+
+    @Test
+    public void governor_switchesOnlyBetweenCompatibleVariants() throws Exception {
+        ModelRegistry registry = ModelRegistry.parse(new StringReader(MANIFEST));
+        ModelVariant fp32 = registry.get("fp32");
+
+        assertSame(fp32, registry.selectForOperatingPoint("high", fp32, 4096, v -> true));
+        assertEquals("int8", registry.selectForOperatingPoint("low", fp32, 4096, v -> true).getName());
+        // tiny lists minimum but has another normalization and input size
+        assertEquals("int8", registry.selectForOperatingPoint("minimum", fp32, 4096, v -> true).getName());
+        assertSame(fp32, registry.selectForOperatingPoint("low", fp32, 4096, available("model.onnx")));
+
+        // A device on int8 for lack of memory does not move up to fp32
+        ModelVariant int8 = registry.get("int8");
+        assertSame(int8, registry.selectForOperatingPoint("high", int8, 2048, v -> true));
+    }
+
+    @Test
+    public void invalidManifests_areRejectedWithTheKey() throws Exception {
+        assertRejected("variants=a\nvariant.a.labels=l.txt\n", "variant.a.file");
+        assertRejected("variants=a\nvariant.a.file=a.onnx\nvariant.a.labels=l.txt\nvariant.a.input=640\n", "variant.a.input");
+        assertRejected("variants=a\nvariant.a.file=a.onnx\nvariant.a.labels=l.txt\nvariant.a.precision=int4\n", "variant.a.precision");
+        assertRejected("variants=a\nvariant.a.file=a.onnx\nvariant.a.labels=l.txt\nvariant.a.colors=red\n", "variant.a.colors");
+        assertRejected("variants=a\ndefault=b\nvariant.a.file=a.onnx\nvariant.a.labels=l.txt\n", "b");
+    }
+
+    @Test
+    public void companions_andAliasesAreOptional() throws Exception {
+        assertTrue(ModelRegistry.parse(new StringReader(MANIFEST)).getCompanions().isEmpty());
+
+        ModelRegistry registry = ModelRegistry.parse(new StringReader(MANIFEST
+                + "companions=general\n"
+                + "companion.general.file=general.onnx\n"
+                + "companion.general.labels=label_general.txt\n"
+                + "companion.general.score=0.55\n"
+                + "companion.general.every=3\n"
+                + "aliases=person:orang, car:Mobil\n"));
+        CompanionModel general = registry.getCompanions().get(0);
+        assertEquals("general.onnx", general.getFile());
+        assertEquals(0.55f, general.getScoreThreshold(), 0f);
+        assertEquals(0.5f, general.getIouThreshold(), 0f);
+        assertEquals(3, general.getEvery());
+        assertEquals("orang", registry.getAliases().get("person"));
+        assertEquals("Mobil", registry.getAliases().get("car"));
+    }
+
+    private static void assertRejected(String manifest, String key) throws Exception {
+        try {
+            ModelRegistry.parse(new StringReader(manifest));
+            fail("Accepted " + manifest);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(key));
+        }
+    }
+
+    private static ModelRegistry.Availability available(String... files) {
+        final Set<String> set = new HashSet<>(Arrays.asList(files));
+        return variant -> set.contains(variant.getFile());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.yolov8_detect;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+
+import static org.junit.Assert.*;
+
+public class ModelSignatureTest {
+    private static OrtEnvironment environment;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUp() {
+        environment = OrtEnvironment.getEnvironment();
+    }
+
+    @Test
+    public void read_takesSizesAndClassesFromTheSession() throws Exception {
+        File model = TestModels.write(folder.getRoot(), "detector.onnx",
+                TestModels.fixedDetector(32, new float[(4 + 3) * 5], 3, 5));
+        try (OrtSession session = environment.createSession(model.getPath(), new OrtSession.SessionOptions())) {
+            ModelSignature signature = ModelSignature.read(session);
+
+            assertEquals("images", signature.getInputName());
+            assertEquals(32, signature.getInputWidth());
+            assertEquals(32, signature.getInputHeight());
+            assertFalse(signature.isDynamicInput());
+            assertEquals(3, signature.getClassCount());
+            assertEquals(5, signature.getAnchorCount());
+            signature.checkLabels(3);
+        }
+    }
+
+    @Test
+    public void dynamicInput_isReportedAsMinusOne() {
+        ModelSignature signature = new ModelSignature("images", new long[]{1, 3, -1, -1},
+                "output0", new long[]{1, 13, -1});
+
+        assertTrue(signature.isDynamicInput());
+        assertEquals(-1, signature.getInputWidth());
+        assertEquals(9, signature.getClassCount());
+        assertEquals(-1, signature.getAnchorCount());
+    }
+
+    @Test
+    public void batchDimension_isReadFromTheInput() {
+        ModelSignature dynamic = new ModelSignature("images", new long[]{-1, 3, 640, 640},
+                "output0", new long[]{-1, 13, 8400});
+        ModelSignature fixed = new ModelSignature("images", new long[]{4, 3, 640, 640},
+                "output0", new long[]{4, 13, 8400});
+
+        assertEquals(-1, dynamic.getBatchSize());
+        assertEquals(4, fixed.getBatchSize());
+        assertEquals(8400, fixed.getAnchorCount());
+    }
+
+    @Test
+    public void squareInputSize_comesFromStaticModels() {
+        ModelSignature fixed = new ModelSignature("images", new long[]{1, 3, 320, 320}, "output0", new long[]{1, 6, 2100});
+        ModelSignature dynamic = new ModelSignature("images", new long[]{1, 3, -1, -1}, "output0", new long[]{1, 6, -1});
+
+        assertEquals(320, fixed.squareInputSize(2, 0));
+        assertEquals(640, dynamic.squareInputSize(2, 0));
+        assertEquals(480, dynamic.squareInputSize(2, 480));
+        try {
+            fixed.squareInputSize(2, 640);
+            fail("Accepted an input size the model does not take");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("320"));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void labelFileOfAnotherModel_isRejected() {
+        new ModelSignature("images", new long[]{1, 3, 640, 640}, "output0", new long[]{1, 13, 8400})
+                .checkLabels(8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonDetectorOutput_isRejected() throws Exception {
+        File model = TestModels.write(folder.getRoot(), "relu.onnx", TestModels.dynamicRelu());
+        try (OrtSession session = environment.createSession(model.getPath(), new OrtSession.SessionOptions())) {
+            ModelSignature.read(session);
+        }
+    }
+}
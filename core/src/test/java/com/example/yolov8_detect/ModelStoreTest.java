@@ -0,0 +1,132 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ModelStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void install_copiesOnceThenReusesStampedCopy() throws Exception {
+        ModelStore store = new ModelStore(folder.getRoot());
+        CountingSource source = new CountingSource("model.onnx", "1", bytes(100_000, 1));
+
+        ModelStore.Installed first = store.install(source);
+        long written = first.getFile().lastModified();
+        ModelStore.Installed second = store.install(source);
+
+        assertTrue(first.isCopied());
+        assertFalse(second.isCopied());
+        assertEquals(1, source.opens);
+        assertEquals(written, second.getFile().lastModified());
+        assertArrayEquals(source.data, Files.readAllBytes(second.getFile().toPath()));
+        assertEquals(first.getSha256(), second.getSha256());
+    }
+
+    @Test
+    public void install_recopiesWhenVersionChanges() throws Exception {
+        ModelStore store = new ModelStore(folder.getRoot());
+        store.install(new CountingSource("model.onnx", "1", bytes(1000, 1)));
+
+        CountingSource updated = new CountingSource("model.onnx", "2", bytes(1000, 2));
+        assertTrue(store.install(updated).isCopied());
+        assertArrayEquals(updated.data, Files.readAllBytes(store.getFile("model.onnx").toPath()));
+    }
+
+    @Test
+    public void install_withoutVersionComparesSourceHash() throws Exception {
+        ModelStore store = new ModelStore(folder.getRoot());
+        store.install(new CountingSource("model.onnx", null, bytes(1000, 1)));
+
+        assertFalse(store.install(new CountingSource("model.onnx", null, bytes(1000, 1))).isCopied());
+        assertTrue(store.install(new CountingSource("model.onnx", null, bytes(1000, 3))).isCopied());
+    }
+
+    @Test
+    public void install_recopiesTruncatedOrModifiedFile() throws Exception {
+        ModelStore store = new ModelStore(folder.getRoot());
+        CountingSource source = new CountingSource("model.onnx", "1", bytes(1000, 1));
+        File file = store.install(source).getFile();
+
+        // Same size, different content: only caught when hashes are verified
+        byte[] modified = bytes(1000, 4);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(modified);
+        }
+        assertFalse(store.install(source).isCopied());
+        store.setVerifyHash(true);
+        assertTrue(store.install(source).isCopied());
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[10]);
+        }
+        store.setVerifyHash(false);
+        assertTrue(store.install(source).isCopied());
+        assertArrayEquals(source.data, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void sha256_matchesMessageDigest() throws Exception {
+        byte[] data = bytes(300_000, 5);
+        File file = folder.newFile("data.bin");
+        Files.write(file.toPath(), data);
+
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(data);
+        StringBuilder hex = new StringBuilder();
+        for (byte b : expected) hex.append(String.format("%02x", b));
+
+        assertEquals(hex.toString(), ModelStore.sha256(file));
+    }
+
+    static byte[] bytes(int size, int seed) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) data[i] = (byte) (i * 31 + seed);
+        return data;
+    }
+
+    static class CountingSource implements ModelStore.Source {
+        final String name;
+        final String version;
+        final byte[] data;
+        int opens;
+
+        CountingSource(String name, String version, byte[] data) {
+            this.name = name;
+            this.version = version;
+            this.data = Arrays.copyOf(data, data.length);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getVersion() {
+            return version;
+        }
+
+        @Override
+        public long getLength() {
+            return data.length;
+        }
+
+        @Override
+        public InputStream open() {
+            opens++;
+            return new ByteArrayInputStream(data);
+        }
+    }
+}
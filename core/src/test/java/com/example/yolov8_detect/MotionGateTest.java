@@ -0,0 +1,87 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MotionGateTest {
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+
+    @Test
+    public void unchangedScene_isGatedUntilMaxSkipped() {
+        MotionGate gate = new MotionGate();
+        gate.setMaxSkipped(3);
+        YuvFrame frame = scene(0, -1, -1);
+
+        assertTrue(gate.shouldInfer(frame));
+        assertFalse(gate.shouldInfer(frame));
+        assertFalse(gate.shouldInfer(frame));
+        assertFalse(gate.shouldInfer(frame));
+        // Stale: forced even though nothing changed
+        assertTrue(gate.shouldInfer(frame));
+        assertEquals(3, gate.getSkippedFrames());
+        assertEquals(2, gate.getInferredFrames());
+    }
+
+    @Test
+    public void sensorNoiseAndExposureShift_areNotChanges() {
+        MotionGate gate = new MotionGate();
+        assertTrue(gate.shouldInfer(scene(0, -1, -1)));
+        // +-3 levels of noise and the whole frame 20 levels brighter
+        assertFalse(gate.shouldInfer(planar((x, y) -> texture(x, y) + 20 + ((x * 31 + y * 17) % 7) - 3)));
+        assertEquals(0, gate.getLastChangedBlocks());
+    }
+
+    @Test
+    public void smallNewObject_isInferred() {
+        MotionGate gate = new MotionGate();
+        assertTrue(gate.shouldInfer(scene(0, -1, -1)));
+        // 16x16 bright square, a distant sign entering the frame
+        assertTrue(gate.shouldInfer(scene(0, 200, 100)));
+        assertTrue(gate.getLastChangedBlocks() >= 1);
+        // The square became the reference
+        assertFalse(gate.shouldInfer(scene(0, 200, 100)));
+    }
+
+    @Test
+    public void slowDrift_addsUpAgainstTheReference() {
+        MotionGate gate = new MotionGate();
+        gate.setMaxSkipped(100);
+        assertTrue(gate.shouldInfer(scene(0, 100, 100)));
+        int inferredAt = -1;
+        for (int step = 1; step <= 20 && inferredAt < 0; step++) {
+            // Object moves one pixel per frame
+            if (gate.shouldInfer(scene(0, 100 + step, 100))) {
+                inferredAt = step;
+            }
+        }
+        assertTrue(inferredAt > 1);
+        assertTrue(inferredAt < 20);
+    }
+
+    @Test
+    public void resetAfterDrop_infersNextFrame() {
+        MotionGate gate = new MotionGate();
+        YuvFrame frame = scene(0, -1, -1);
+        assertTrue(gate.shouldInfer(frame));
+        gate.reset();
+        assertTrue(gate.shouldInfer(frame));
+    }
+
+    // Textured background, plus a 16x16 white square at left, top unless left < 0
+    private static YuvFrame scene(int shift, int left, int top) {
+        return planar((x, y) -> {
+            if (left >= 0 && x >= left && x < left + 16 && y >= top && y < top + 16) return 250;
+            return texture(x, y) + shift;
+        });
+    }
+
+    private static int texture(int x, int y) {
+        return 60 + (x / 20 + y / 20) % 2 * 40;
+    }
+
+    private static YuvFrame planar(YuvPreprocessorTest.Plane luma) {
+        return YuvPreprocessorTest.planarFrame(WIDTH, HEIGHT, WIDTH, luma, (x, y) -> 128, (x, y) -> 128);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NmsEngineTest {
+
+    @Test
+    public void classAware_matchesHandComputedReference() {
+        DetectionCandidates c = new DetectionCandidates(5);
+        c.add(0, 0, 100, 100, 0.9f, 0);     // kept
+        c.add(10, 10, 110, 110, 0.8f, 0);   // IoU 0.68 with 0 -> suppressed
+        c.add(10, 10, 110, 110, 0.7f, 1);   // other class -> kept
+        c.add(200, 200, 300, 300, 0.6f, 0); // no overlap -> kept
+        c.add(50, 0, 150, 100, 0.95f, 0);   // IoU 0.33 with 0 -> kept, first
+
+        int[] keep = new int[10];
+        int kept = new NmsEngine(0.5f).run(c, keep);
+
+        assertArrayEquals(new int[]{4, 0, 2, 3}, Arrays.copyOf(keep, kept));
+    }
+
+    @Test
+    public void classAwareAndBatched_matchReferenceOnRandomCandidates() {
+        for (int seed = 0; seed < 20; seed++) {
+            DetectionCandidates c = randomCandidates(new Random(seed), 500);
+            List<Integer> expected = reference(c, 0.5f);
+
+            for (NmsEngine.Mode mode : new NmsEngine.Mode[]{NmsEngine.Mode.CLASS_AWARE, NmsEngine.Mode.BATCHED}) {
+                int[] keep = new int[c.size()];
+                int kept = new NmsEngine(mode, 0.5f, Integer.MAX_VALUE).run(c, keep);
+                assertEquals(mode + " seed " + seed, expected, toList(keep, kept));
+            }
+        }
+    }
+
+    @Test
+    public void maxDetections_capsOutput() {
+        DetectionCandidates c = randomCandidates(new Random(3), 1000);
+        int[] keep = new int[1000];
+
+        int kept = new NmsEngine(NmsEngine.Mode.CLASS_AWARE, 0.5f, 10).run(c, keep);
+
+        assertEquals(10, kept);
+        assertEquals(reference(c, 0.5f).subList(0, 10), toList(keep, kept));
+    }
+
+    @Test
+    public void soft_decaysOverlapsInsteadOfRemoving() {
+        DetectionCandidates c = new DetectionCandidates(3);
+        c.add(0, 0, 100, 100, 0.9f, 0);
+        c.add(10, 10, 110, 110, 0.8f, 0);
+        c.add(10, 10, 110, 110, 0.8f, 1);
+
+        NmsEngine engine = new NmsEngine(NmsEngine.Mode.SOFT, 0.5f, 10);
+        engine.setSoftParameters(0.5f, 0.1f);
+        int[] keep = new int[10];
+        int kept = engine.run(c, keep);
+
+        assertEquals(3, kept);
+        assertEquals(0, keep[0]);
+        assertEquals(2, keep[1]);
+        assertEquals(1, keep[2]);
+        float iou = NmsEngine.iou(c.boxes(), 0, c.boxes(), 1);
+        assertEquals(0.8f * (float) Math.exp(-iou * iou / 0.5f), engine.getScore(c, 1), 1e-5f);
+        assertEquals(0.8f, engine.getScore(c, 2), 0f);
+    }
+
+    @Test
+    public void soft_dropsBoxesBelowScoreThreshold() {
+        DetectionCandidates c = new DetectionCandidates(2);
+        c.add(0, 0, 100, 100, 0.9f, 0);
+        c.add(0, 0, 100, 100, 0.3f, 0);
+
+        NmsEngine engine = new NmsEngine(NmsEngine.Mode.SOFT, 0.5f, 10);
+        engine.setSoftParameters(0.5f, 0.25f);
+        int[] keep = new int[10];
+
+        assertEquals(1, engine.run(c, keep));
+    }
+
+    @Test
+    public void iou_handlesDisjointAndIdenticalBoxes() {
+        float[] boxes = {0, 0, 10, 10, 20, 20, 30, 30, 0, 0, 10, 10, 5, 0, 15, 10};
+
+        assertEquals(0f, NmsEngine.iou(boxes, 0, boxes, 1), 0f);
+        assertEquals(1f, NmsEngine.iou(boxes, 0, boxes, 2), 0f);
+        assertEquals(50f / 150f, NmsEngine.iou(boxes, 0, boxes, 3), 1e-6f);
+    }
+
+    // Textbook per-class greedy NMS on boxed lists, output ordered by score
+    private static List<Integer> reference(DetectionCandidates c, float threshold) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < c.size(); i++) order.add(i);
+        Collections.sort(order, (a, b) -> Float.compare(c.getScore(b), c.getScore(a)));
+
+        List<Integer> kept = new ArrayList<>();
+        boolean[] removed = new boolean[c.size()];
+        for (int i : order) {
+            if (removed[i]) continue;
+            kept.add(i);
+            for (int j : order) {
+                if (!removed[j] && j != i && c.getClassId(j) == c.getClassId(i)
+                        && NmsEngine.iou(c.boxes(), i, c.boxes(), j) >= threshold) {
+                    removed[j] = true;
+                }
+            }
+        }
+        return kept;
+    }
+
+    static DetectionCandidates randomCandidates(Random random, int count) {
+        DetectionCandidates c = new DetectionCandidates(count);
+        // Clustered boxes, like the many anchors firing around one object
+        for (int i = 0; i < count; i++) {
+            float cx = (random.nextInt(8) + 0.5f) * 80 + random.nextFloat() * 20;
+            float cy = (random.nextInt(8) + 0.5f) * 80 + random.nextFloat() * 20;
+            float w = 30 + random.nextFloat() * 60;
+            float h = 30 + random.nextFloat() * 60;
+            // Distinct scores so the order is unambiguous
+            float score = 0.4f + 0.6f * (i + 1) / (count + 1);
+            c.add(cx - w / 2, cy - h / 2, cx + w / 2, cy + h / 2, score, random.nextInt(3));
+        }
+        return c;
+    }
+
+    private static List<Integer> toList(int[] keep, int count) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) list.add(keep[i]);
+        return list;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ObjectTrackerTest {
+
+    @Test
+    public void movingObject_keepsItsIdAndIsConfirmedAfterMinHits() {
+        ObjectTracker tracker = new ObjectTracker(0.3f, 0.5f, 2, 3);
+        DetectionCandidates detections = new DetectionCandidates(4);
+
+        assertTrue(update(tracker, detections, 100, 0.9f).isEmpty());
+        List<Track> tracks = update(tracker, detections, 105, 0.9f);
+        assertEquals(1, tracks.size());
+        int id = tracks.get(0).getId();
+
+        for (int frame = 2; frame < 30; frame++) {
+            tracks = update(tracker, detections, 100 + frame * 5, 0.9f);
+            assertEquals(1, tracks.size());
+            assertEquals(id, tracks.get(0).getId());
+        }
+        assertEquals(1, tracker.getIdsIssued());
+        assertEquals(100 + 29 * 5, tracks.get(0).getLeft(), 1f);
+    }
+
+    @Test
+    public void predict_coastsAlongEstimatedVelocity() {
+        ObjectTracker tracker = new ObjectTracker();
+        DetectionCandidates detections = new DetectionCandidates(4);
+        for (int frame = 0; frame < 20; frame++) {
+            update(tracker, detections, frame * 4, 0.9f);
+        }
+        Track track = tracker.getVisibleTracks().get(0);
+        float left = track.getLeft();
+
+        tracker.predict();
+        tracker.predict();
+
+        assertEquals(left + 8, track.getLeft(), 1f);
+        assertEquals(4, track.filter().getVelocityX(), 0.5f);
+    }
+
+    @Test
+    public void lowScoreDetections_onlyExtendConfirmedTracks() {
+        ObjectTracker tracker = new ObjectTracker(0.3f, 0.5f, 2, 0);
+        DetectionCandidates detections = new DetectionCandidates(4);
+        update(tracker, detections, 100, 0.9f);
+        update(tracker, detections, 100, 0.9f);
+
+        // Occluded: score drops below highScore but the track survives (ByteTrack)
+        List<Track> tracks = update(tracker, detections, 100, 0.3f);
+        assertEquals(1, tracks.size());
+        assertEquals(0.3f, tracks.get(0).getScore(), 0f);
+
+        // A low-score box alone never starts a track
+        tracker.reset();
+        assertTrue(update(tracker, detections, 100, 0.3f).isEmpty());
+        assertEquals(0, tracker.getTrackCount());
+    }
+
+    @Test
+    public void unmatchedTracks_areDroppedAfterMaxMisses() {
+        ObjectTracker tracker = new ObjectTracker(0.3f, 0.5f, 1, 2);
+        DetectionCandidates detections = new DetectionCandidates(4);
+        update(tracker, detections, 100, 0.9f);
+
+        detections.clear();
+        assertEquals(1, tracker.update(detections).size());
+        assertEquals(1, tracker.update(detections).size());
+        assertEquals(0, tracker.update(detections).size());
+    }
+
+    @Test
+    public void differentClasses_neverShareATrack() {
+        ObjectTracker tracker = new ObjectTracker(0.3f, 0.5f, 1, 3);
+        DetectionCandidates detections = new DetectionCandidates(4);
+        detections.add(0, 0, 50, 50, 0.9f, 1);
+        tracker.update(detections);
+
+        detections.clear();
+        detections.add(0, 0, 50, 50, 0.9f, 2);
+        List<Track> tracks = tracker.update(detections);
+
+        assertEquals(2, tracker.getIdsIssued());
+        assertEquals(2, tracks.get(tracks.size() - 1).getClassId());
+    }
+
+    private static List<Track> update(ObjectTracker tracker, DetectionCandidates detections, float left, float score) {
+        detections.clear();
+        detections.add(left, 50, left + 60, 150, score, 0);
+        return tracker.update(detections);
+    }
+}
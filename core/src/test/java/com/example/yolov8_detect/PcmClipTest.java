@@ -0,0 +1,62 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PcmClipTest {
+    @Test
+    public void wav_roundTripsAndSkipsUnknownChunks() throws Exception {
+        PcmClip clip = new PcmClip(22050, 1, new short[]{0, 1, -1, Short.MAX_VALUE, Short.MIN_VALUE});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        clip.writeWav(out);
+        byte[] wav = out.toByteArray();
+
+        // Engines put a LIST chunk (odd length, padded) between fmt and data
+        ByteBuffer withList = ByteBuffer.allocate(wav.length + 8 + 6).order(ByteOrder.LITTLE_ENDIAN);
+        withList.put(wav, 0, 36);
+        withList.put(new byte[]{'L', 'I', 'S', 'T'}).putInt(5).put(new byte[6]);
+        withList.put(wav, 36, wav.length - 36);
+
+        PcmClip read = PcmClip.readWav(new ByteArrayInputStream(withList.array()));
+        assertEquals(22050, read.getSampleRate());
+        assertEquals(1, read.getChannels());
+        assertArrayEquals(clip.getSamples(), read.getSamples());
+    }
+
+    @Test
+    public void streamedDataLength_readsToTheEnd() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PcmClip(16000, 2, new short[]{1, 2, 3, 4}).writeWav(out);
+        byte[] wav = out.toByteArray();
+        ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN).putInt(40, 0);
+
+        assertArrayEquals(new short[]{1, 2, 3, 4}, PcmClip.readWav(new ByteArrayInputStream(wav)).getSamples());
+    }
+
+    @Test(expected = IOException.class)
+    public void nonPcm_isRejected() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PcmClip(16000, 1, new short[]{1}).writeWav(out);
+        byte[] wav = out.toByteArray();
+        // Format 3: IEEE float
+        wav[20] = 3;
+        PcmClip.readWav(new ByteArrayInputStream(wav));
+    }
+
+    @Test
+    public void concat_needsMatchingFormats() {
+        PcmClip a = new PcmClip(1000, 1, new short[]{1, 1});
+        PcmClip b = new PcmClip(1000, 1, new short[]{2});
+        assertArrayEquals(new short[]{1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2},
+                PcmClip.concat(Arrays.asList(a, b), 10).getSamples());
+        assertNull(PcmClip.concat(Arrays.asList(a, new PcmClip(2000, 1, new short[]{2})), 10));
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PhraseAudioCacheTest {
+    private static final List<String> PHRASES = Arrays.asList("Ada mobil di depan", "Awas, mobil mendekat",
+            "Ada orang di depan");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void prepare_synthesizesOnceThenLoadsFromDisk() throws Exception {
+        FakeSynthesizer synthesizer = new FakeSynthesizer();
+        PhraseAudioCache cache = new PhraseAudioCache(folder.getRoot(), synthesizer);
+        assertEquals(3, cache.prepare("id-ID", PHRASES));
+        assertEquals(3, synthesizer.calls.size());
+
+        // Next launch: same voice, nothing to synthesize
+        FakeSynthesizer next = new FakeSynthesizer();
+        PhraseAudioCache reopened = new PhraseAudioCache(folder.getRoot(), next);
+        assertEquals(0, reopened.prepare("id-ID", PHRASES));
+        assertTrue(next.calls.isEmpty());
+        assertEquals(3, reopened.size());
+        assertArrayEquals(FakeSynthesizer.samples("Ada orang di depan"),
+                reopened.get("Ada orang di depan").getSamples());
+        assertNull(reopened.get("Ada sepeda motor di depan"));
+        assertEquals(1, reopened.getHits());
+        assertEquals(1, reopened.getMisses());
+    }
+
+    @Test
+    public void voiceChange_evictsEveryClip() throws Exception {
+        FakeSynthesizer synthesizer = new FakeSynthesizer();
+        PhraseAudioCache cache = new PhraseAudioCache(folder.getRoot(), synthesizer);
+        cache.prepare("id-ID", PHRASES);
+        Set<String> before = clipFiles();
+
+        synthesizer.calls.clear();
+        assertEquals(3, new PhraseAudioCache(folder.getRoot(), synthesizer).prepare("en-US", PHRASES));
+        assertEquals(3, synthesizer.calls.size());
+        assertEquals(before, clipFiles());
+
+        // Same instance, locale switched while running: memory is dropped too
+        cache.prepare("en-US", Arrays.asList("Ada orang di depan"));
+        assertEquals("en-US", cache.getVoiceKey());
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getEvicted());
+    }
+
+    @Test
+    public void editedPhrase_replacesOnlyItsClip() throws Exception {
+        FakeSynthesizer synthesizer = new FakeSynthesizer();
+        PhraseAudioCache cache = new PhraseAudioCache(folder.getRoot(), synthesizer);
+        cache.prepare("id-ID", PHRASES);
+
+        synthesizer.calls.clear();
+        List<String> edited = Arrays.asList("Ada mobil di depan", "Awas, ada mobil mendekat", "Ada orang di depan");
+        assertEquals(1, cache.prepare("id-ID", edited));
+        assertEquals(Arrays.asList("Awas, ada mobil mendekat"), synthesizer.calls);
+        assertNull(cache.get("Awas, mobil mendekat"));
+        assertNotNull(cache.get("Awas, ada mobil mendekat"));
+        assertEquals(3, clipFiles().size());
+        assertEquals(1, cache.getEvicted());
+    }
+
+    @Test
+    public void compose_joinsCachedPhrasesWithGap() throws Exception {
+        PhraseAudioCache cache = new PhraseAudioCache(folder.getRoot(), new FakeSynthesizer());
+        cache.setGapMs(100);
+        cache.prepare("id-ID", PHRASES);
+
+        PcmClip message = cache.compose("Ada mobil di depan" + PhraseAudioCache.SEPARATOR + "Ada orang di depan");
+        short[] first = FakeSynthesizer.samples("Ada mobil di depan");
+        short[] second = FakeSynthesizer.samples("Ada orang di depan");
+        int gap = FakeSynthesizer.SAMPLE_RATE / 10;
+        assertEquals(first.length + gap + second.length, message.getSamples().length);
+        assertEquals(first[0], message.getSamples()[0]);
+        assertEquals(0, message.getSamples()[first.length + gap / 2]);
+        assertEquals(second[0], message.getSamples()[first.length + gap]);
+
+        // One unknown part: the whole message goes to live speech
+        assertNull(cache.compose("Ada mobil di depan" + PhraseAudioCache.SEPARATOR + "Ada kucing"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void failedOrBrokenSynthesis_isRetriedOnNextPrepare() throws Exception {
+        FakeSynthesizer synthesizer = new FakeSynthesizer();
+        synthesizer.failing.add("Awas, mobil mendekat");
+        synthesizer.broken.add("Ada orang di depan");
+        PhraseAudioCache cache = new PhraseAudioCache(folder.getRoot(), synthesizer);
+        assertEquals(1, cache.prepare("id-ID", PHRASES));
+        assertNull(cache.get("Awas, mobil mendekat"));
+        assertNull(cache.get("Ada orang di depan"));
+        assertEquals(1, clipFiles().size());
+
+        synthesizer.failing.clear();
+        synthesizer.broken.clear();
+        synthesizer.calls.clear();
+        assertEquals(2, cache.prepare("id-ID", PHRASES));
+        assertEquals(Arrays.asList("Awas, mobil mendekat", "Ada orang di depan"), synthesizer.calls);
+        assertEquals(3, cache.size());
+    }
+
+    private Set<String> clipFiles() {
+        Set<String> names = new HashSet<>();
+        for (File file : folder.getRoot().listFiles()) {
+            if (file.getName().endsWith(PhraseAudioCache.CLIP_SUFFIX)) {
+                names.add(file.getName());
+            }
+        }
+        return names;
+    }
+
+    // Stands in for the speech engine: a short clip whose samples depend on the text
+    private static final class FakeSynthesizer implements PhraseAudioCache.Synthesizer {
+        static final int SAMPLE_RATE = 16000;
+        final List<String> calls = new ArrayList<>();
+        final Set<String> failing = new HashSet<>();
+        final Set<String> broken = new HashSet<>();
+
+        @Override
+        public boolean synthesize(String text, File file) throws IOException {
+            calls.add(text);
+            if (failing.contains(text)) return false;
+            if (broken.contains(text)) {
+                Files.write(file.toPath(), new byte[]{'R', 'I', 'F', 'F'});
+                return true;
+            }
+            new PcmClip(SAMPLE_RATE, 1, samples(text)).writeWav(file);
+            return true;
+        }
+
+        static short[] samples(String text) {
+            short[] samples = new short[text.length() * 40];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = (short) (text.charAt(i % text.length()) * 100 + 1);
+            }
+            return samples;
+        }
+    }
+}
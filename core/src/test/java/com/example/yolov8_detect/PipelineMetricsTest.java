@@ -0,0 +1,138 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class PipelineMetricsTest {
+
+    @Test
+    public void recording_allocatesNothing() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        recordFrames(metrics, 20_000);
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        recordFrames(metrics, 10_000);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+        assertEquals(30_000, metrics.getCount(PipelineMetrics.Counter.FRAMES_IN));
+    }
+
+    @Test
+    public void snapshot_reportsStagesAndCounters() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.getHistogram(PipelineMetrics.Stage.INFERENCE).recordNanos(TimeUnit.MILLISECONDS.toNanos(40));
+        metrics.getHistogram(PipelineMetrics.Stage.INFERENCE).recordNanos(TimeUnit.MILLISECONDS.toNanos(60));
+        metrics.add(PipelineMetrics.Counter.FRAMES_OUT, 2);
+        metrics.add(PipelineMetrics.Counter.DETECTIONS, 5);
+        metrics.increment(PipelineMetrics.Counter.FRAMES_DROPPED);
+
+        PipelineMetrics.Snapshot snapshot = metrics.snapshot();
+
+        assertEquals(2, snapshot.getCount(PipelineMetrics.Stage.INFERENCE));
+        assertEquals(50, snapshot.getMeanMs(PipelineMetrics.Stage.INFERENCE), 1e-6);
+        assertEquals(60, snapshot.getMaxMs(PipelineMetrics.Stage.INFERENCE), 1e-6);
+        assertEquals(2.5, snapshot.getDetectionsPerFrame(), 0);
+        assertEquals(1, snapshot.getCounter(PipelineMetrics.Counter.FRAMES_DROPPED));
+
+        String json = snapshot.toJson();
+        assertTrue(json, json.contains("\"inference\":{\"count\":2,\"mean\":50.000"));
+        assertTrue(json, json.contains("\"frames_dropped\":1"));
+        assertTrue(snapshot.toString().contains("inference"));
+        assertFalse(snapshot.toString().contains("decode"));
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().getCount(PipelineMetrics.Stage.INFERENCE));
+    }
+
+    @Test
+    public void prometheus_exportsCountersAndSummariesInSeconds() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.getHistogram(PipelineMetrics.Stage.FRAME).recordNanos(TimeUnit.MILLISECONDS.toNanos(40));
+        metrics.getHistogram(PipelineMetrics.Stage.FRAME).recordNanos(TimeUnit.MILLISECONDS.toNanos(60));
+        metrics.add(PipelineMetrics.Counter.FRAMES_OUT, 2);
+
+        String text = metrics.snapshot().toPrometheus("yolo");
+
+        assertTrue(text, text.contains("# TYPE yolo_frames_out_total counter\nyolo_frames_out_total 2\n"));
+        assertTrue(text, text.contains("yolo_frames_dropped_total 0\n"));
+        assertTrue(text, text.contains("# TYPE yolo_stage_seconds summary\n"));
+        assertTrue(text, text.contains("yolo_stage_seconds_sum{stage=\"frame\"} 0.100000\n"));
+        assertTrue(text, text.contains("yolo_stage_seconds_count{stage=\"frame\"} 2\n"));
+        // Histogram buckets are about 3% wide
+        assertEquals(0.06, sample(text, "yolo_stage_seconds{stage=\"frame\",quantile=\"0.99\"}"), 0.002);
+        assertTrue(text, text.contains("yolo_stage_seconds_count{stage=\"nms\"} 0\n"));
+    }
+
+    @Test
+    public void reporter_deliversPeriodicSnapshots() throws InterruptedException {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.increment(PipelineMetrics.Counter.FRAMES_IN);
+        final CountDownLatch reports = new CountDownLatch(2);
+        final AtomicReference<PipelineMetrics.Snapshot> last = new AtomicReference<>();
+        MetricsReporter reporter = new MetricsReporter(metrics, 10, snapshot -> {
+            last.set(snapshot);
+            reports.countDown();
+        });
+
+        reporter.start();
+        assertTrue(reports.await(2, TimeUnit.SECONDS));
+        reporter.stop();
+
+        assertEquals(1, last.get().getCounter(PipelineMetrics.Counter.FRAMES_IN));
+    }
+
+    @Test
+    public void reporter_reportsFirstSinkFailureAndKeepsRunning() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        final AtomicBoolean broken = new AtomicBoolean(true);
+        final List<RuntimeException> errors = new ArrayList<>();
+        MetricsReporter reporter = new MetricsReporter(metrics, 10, snapshot -> {
+            if (broken.get()) throw new IllegalStateException("disk full");
+        }, errors::add);
+
+        reporter.reportNow();
+        reporter.reportNow();
+        assertEquals(1, errors.size());
+        assertEquals("disk full", errors.get(0).getMessage());
+
+        // Recovered, then failing again: reported once more
+        broken.set(false);
+        reporter.reportNow();
+        broken.set(true);
+        reporter.reportNow();
+        assertEquals(2, errors.size());
+        assertEquals(3, reporter.getFailures());
+    }
+
+    private static double sample(String text, String series) {
+        int at = text.indexOf(series + ' ');
+        assertTrue(text, at >= 0);
+        int end = text.indexOf('\n', at);
+        return Double.parseDouble(text.substring(at + series.length() + 1, end));
+    }
+
+    private static void recordFrames(PipelineMetrics metrics, int frames) {
+        for (int i = 0; i < frames; i++) {
+            metrics.increment(PipelineMetrics.Counter.FRAMES_IN);
+            long start = metrics.start();
+            long t = metrics.record(PipelineMetrics.Stage.PREPROCESS, start);
+            t = metrics.record(PipelineMetrics.Stage.INFERENCE, t);
+            metrics.record(PipelineMetrics.Stage.DECODE, t);
+            metrics.record(PipelineMetrics.Stage.FRAME, start);
+            metrics.add(PipelineMetrics.Counter.DETECTIONS, 3);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+
+import static org.junit.Assert.*;
+
+public class SessionAutoTunerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void tune_picksFastestAndSkipsFailures() {
+        List<SessionConfig> candidates = Arrays.asList(
+                SessionConfig.builder().intraOpThreads(1).build(),
+                SessionConfig.builder().intraOpThreads(2).build(),
+                SessionConfig.builder().intraOpThreads(4).executionProvider(SessionConfig.ExecutionProvider.NNAPI).build(),
+                SessionConfig.builder().intraOpThreads(4).build());
+
+        SessionAutoTuner.Result result = new SessionAutoTuner(1, 3).tune(candidates, config -> {
+            if (config.getExecutionProvider() == SessionConfig.ExecutionProvider.NNAPI) {
+                throw new IllegalStateException("provider not available");
+            }
+            // Fake inference that gets faster with more threads
+            final long sleepMs = 12 / config.getIntraOpThreads();
+            return new SessionAutoTuner.Trial() {
+                @Override
+                public void run() throws Exception {
+                    Thread.sleep(sleepMs);
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        });
+
+        assertEquals(4, result.getBest().getIntraOpThreads());
+        assertEquals(SessionConfig.ExecutionProvider.CPU, result.getBest().getExecutionProvider());
+        assertNotNull(result.getMeasurements().get(2).error);
+        assertTrue(result.getMeasurements().get(0).medianMs > result.getMeasurements().get(3).medianMs);
+    }
+
+    @Test
+    public void tune_runsRealCpuSessions() throws Exception {
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        File model = TestModels.write(folder.getRoot(), "relu.onnx", TestModels.relu(32));
+        List<SessionConfig> candidates = SessionConfig.tuningCandidates(
+                Runtime.getRuntime().availableProcessors(), SessionConfig.ExecutionProvider.CPU);
+
+        try (OnnxTensor input = OnnxTensor.createTensor(environment,
+                FloatBuffer.wrap(new float[3 * 32 * 32]), new long[]{1, 3, 32, 32})) {
+            SessionAutoTuner.Result result = new SessionAutoTuner(2, 5).tune(candidates,
+                    SessionAutoTuner.sessionTrials(new SessionFactory(environment), model.getPath(),
+                            Collections.singletonMap("images", input)));
+
+            assertNotNull(result.getBest());
+            assertEquals(candidates.size(), result.getMeasurements().size());
+            for (SessionAutoTuner.Measurement measurement : result.getMeasurements()) {
+                assertNull(measurement.toString(), measurement.error);
+            }
+        }
+    }
+
+    @Test
+    public void tune_feedsInputUnderTheModelsOwnName() throws Exception {
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        File model = TestModels.write(folder.getRoot(), "pixels.onnx", TestModels.relu(8, "pixel_values"));
+        List<SessionConfig> candidates = Collections.singletonList(SessionConfig.builder().intraOpThreads(1).build());
+
+        try (OnnxTensor input = OnnxTensor.createTensor(environment,
+                FloatBuffer.wrap(new float[3 * 8 * 8]), new long[]{1, 3, 8, 8})) {
+            SessionAutoTuner.Result result = new SessionAutoTuner(1, 2).tune(candidates,
+                    SessionAutoTuner.sessionTrials(new SessionFactory(environment), model.getPath(), input));
+
+            assertNull(String.valueOf(result.getMeasurements().get(0).error), result.getMeasurements().get(0).error);
+            assertNotNull(result.getBest());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.yolov8_detect;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.Collections;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+
+import static org.junit.Assert.*;
+
+public class SessionFactoryTest {
+    private static OrtEnvironment environment;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUp() {
+        environment = OrtEnvironment.getEnvironment();
+    }
+
+    @Test
+    public void createSession_runsWithTunedCpuOptions() throws Exception {
+        File model = TestModels.write(folder.getRoot(), "relu.onnx", TestModels.relu(4));
+        SessionConfig config = SessionConfig.builder().intraOpThreads(2).memoryPattern(false).cpuArena(false).build();
+
+        try (OrtSession session = new SessionFactory(environment).createSession(model.getPath(), config);
+             OnnxTensor input = OnnxTensor.createTensor(environment, FloatBuffer.wrap(new float[48]), new long[]{1, 3, 4, 4});
+             OrtSession.Result result = session.run(Collections.singletonMap("images", input))) {
+            assertEquals(48, ((OnnxTensor) result.get(0)).getFloatBuffer().remaining());
+        }
+    }
+
+    @Test
+    public void optimizedModel_isCachedAndReused() throws Exception {
+        File model = TestModels.write(folder.getRoot(), "relu.onnx", TestModels.relu(4));
+        File cache = folder.newFolder("cache");
+        SessionFactory factory = new SessionFactory(environment);
+        factory.setOptimizedModelCache(cache);
+        SessionConfig config = SessionConfig.balanced(4);
+
+        factory.createSession(model.getPath(), config).close();
+        File cached = factory.optimizedModelFile(model, config);
+        assertTrue(cached.isFile());
+        long written = cached.lastModified();
+
+        factory.createSession(model.getPath(), config).close();
+        assertEquals(written, cached.lastModified());
+        assertEquals(1, cache.listFiles().length);
+    }
+
+    @Test
+    public void nonCpuProviders_areNotCached() {
+        SessionFactory factory = new SessionFactory(environment);
+        factory.setOptimizedModelCache(folder.getRoot());
+
+        assertNull(factory.optimizedModelFile(new File("model.onnx"), SessionConfig.performance(8)));
+    }
+
+    @Test
+    public void config_roundTripsThroughEncoding() {
+        SessionConfig config = SessionConfig.builder()
+                .intraOpThreads(3)
+                .optLevel(OrtSession.SessionOptions.OptLevel.EXTENDED_OPT)
+                .executionProvider(SessionConfig.ExecutionProvider.NNAPI)
+                .cpuArena(false)
+                .build();
+
+        assertEquals(config, SessionConfig.decode(config.encode()));
+    }
+}
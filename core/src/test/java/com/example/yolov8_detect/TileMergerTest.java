@@ -0,0 +1,55 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.*;
+
+public class TileMergerTest {
+    private static final int SIZE = 64;
+    private static final int CLASSES = 2;
+    private static final int ANCHORS = 3;
+
+    @Test
+    public void duplicatesAcrossViewsAreMergedAndCutBoxesDropped() {
+        TileMerger merger = new TileMerger(0.5f, 10);
+        merger.begin(128, 64);
+
+        // Global view: the whole 128x64 frame letterboxed into 64x64 (scale 0.5, 16 px bars)
+        FrameTransform global = FrameTransform.create(ResizeMode.LETTERBOX, 128, 64, SIZE, SIZE);
+        merger.add(view(new float[][]{{20, 24, 4, 4, 0, 0.5f}}), global.inverse());
+
+        // Left tile 0..64: the same object at full resolution with a higher score, and a box cut
+        // by the tile's right edge (the frame continues there)
+        FrameTransform left = new FrameTransform(128, 64, 64, 64, 1, 1, 0, 0);
+        merger.add(view(new float[][]{{40, 16, 8, 8, 0, 0.9f}, {60, 30, 10, 10, 1, 0.8f}}), left.inverse(),
+                0, 0, 64, 64);
+
+        // Right tile 64..128: a box on the frame's right border is kept
+        FrameTransform right = new FrameTransform(128, 64, 64, 64, 1, 1, -64, 0);
+        merger.add(view(new float[][]{{60, 30, 8, 10, 1, 0.7f}}), right.inverse(), 64, 0, 128, 64);
+
+        assertEquals(3, merger.getCandidateCount());
+        assertEquals(2, merger.merge());
+        assertEquals(0.9f, merger.getScore(0), 1e-6f);
+        assertEquals(36f, merger.getLeft(0), 1e-4f);
+        assertEquals(1, merger.getClassId(1));
+        // The decoder clamps to the last input pixel
+        assertEquals(127f, merger.getRight(1), 1e-4f);
+    }
+
+    // A YoloDetector holding the given anchors: cx, cy, w, h, class, score in input pixels
+    private static YoloDetector view(float[][] anchors) {
+        float[] output = new float[(4 + CLASSES) * ANCHORS];
+        for (int a = 0; a < anchors.length; a++) {
+            for (int i = 0; i < 4; i++) {
+                output[i * ANCHORS + a] = anchors[a][i];
+            }
+            output[(4 + (int) anchors[a][4]) * ANCHORS + a] = anchors[a][5];
+        }
+        YoloDetector detector = new YoloDetector(CLASSES, 0.4f, 0.5f, ANCHORS, 10);
+        detector.postprocess(FloatBuffer.wrap(output), ANCHORS, SIZE, SIZE);
+        return detector;
+    }
+}
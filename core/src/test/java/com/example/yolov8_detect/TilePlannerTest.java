@@ -0,0 +1,80 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TilePlannerTest {
+    @Test
+    public void tiles_coverTheFrameWithOverlap() {
+        TilePlanner planner = new TilePlanner(640, 0.2f, 16);
+        planner.setMode(TilePlanner.Mode.TILES);
+        int[] regions = new int[16 * 4];
+
+        int count = planner.plan(1280, 720, null, 0, regions);
+
+        // 3 columns (stride 512 would leave a gap with 2), 2 rows
+        assertEquals(6, count);
+        assertArrayEquals(new int[]{0, 0, 640, 640}, slice(regions, 0));
+        assertArrayEquals(new int[]{320, 0, 960, 640}, slice(regions, 1));
+        assertArrayEquals(new int[]{640, 80, 1280, 720}, slice(regions, 5));
+    }
+
+    @Test
+    public void frameThatFitsOneTile_needsNoTiles() {
+        TilePlanner planner = new TilePlanner(640, 0.2f, 16);
+        planner.setMode(TilePlanner.Mode.TILES);
+
+        assertEquals(0, planner.plan(640, 480, null, 0, new int[64]));
+    }
+
+    @Test
+    public void budget_limitsViewsAndRotatesThroughTiles() {
+        TilePlanner planner = new TilePlanner(640, 0.2f, 16);
+        planner.setMode(TilePlanner.Mode.TILES);
+        planner.recordViewCost(10000000L);
+        // Global view + 2 tiles fit in 30 ms
+        planner.setTimeBudget(30000000L);
+        int[] regions = new int[64];
+
+        assertEquals(2, planner.plan(1280, 720, null, 0, regions));
+        assertEquals(320, regions[4]);
+        assertEquals(2, planner.plan(1280, 720, null, 0, regions));
+        assertEquals(640, regions[0]);
+        assertEquals(80, regions[5]);
+
+        // Not even the global view fits: no extra views
+        planner.setTimeBudget(5000000L);
+        assertEquals(0, planner.plan(1280, 720, null, 0, regions));
+    }
+
+    @Test
+    public void regionsOfInterest_zoomOnSmallDetectionsFirst() {
+        TilePlanner planner = new TilePlanner(640, 0.2f, 2);
+        planner.setMode(TilePlanner.Mode.ROI);
+        float[] boxes = {
+                // Big: fine in the global view
+                100, 100, 600, 500,
+                // 40 px sign near the right edge
+                1220, 300, 1260, 340,
+                // 20 px sign, smallest, comes first
+                500, 600, 520, 620,
+                // Inside the first region already
+                510, 580, 530, 600
+        };
+        int[] regions = new int[4 * 4];
+
+        int count = planner.plan(1280, 720, boxes, 4, regions);
+
+        assertEquals(2, count);
+        // 320 px square (2x zoom) around the small sign, pushed up into the frame
+        assertArrayEquals(new int[]{350, 400, 670, 720}, slice(regions, 0));
+        assertArrayEquals(new int[]{960, 160, 1280, 480}, slice(regions, 1));
+    }
+
+    private static int[] slice(int[] regions, int index) {
+        int[] region = new int[4];
+        System.arraycopy(regions, index * 4, region, 0, 4);
+        return region;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+
+import static org.junit.Assert.*;
+
+public class TiledDetectorTest {
+    private static final int SIZE = 64;
+    private static final int CLASSES = 2;
+    private static final int ANCHORS = 2;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void tiles_areMergedInFrameCoordinatesWithinTheBudget() throws Exception {
+        // Every view sees one 8x8 box in the middle of its input
+        float[] output = new float[(4 + CLASSES) * ANCHORS];
+        output[0] = 32;
+        output[ANCHORS] = 32;
+        output[2 * ANCHORS] = 8;
+        output[3 * ANCHORS] = 8;
+        output[4 * ANCHORS] = 0.9f;
+        File model = TestModels.write(folder.getRoot(), "detector.onnx",
+                TestModels.fixedDetector(SIZE, output, CLASSES, ANCHORS));
+        YuvFrame frame = YuvPreprocessorTest.planarFrame(128, 64, 128, (x, y) -> 90, (x, y) -> 128, (x, y) -> 128);
+
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        try (OrtSession session = environment.createSession(model.getPath(), new OrtSession.SessionOptions());
+             BatchDetector batch = new BatchDetector(environment, ModelSignature.read(session), CLASSES,
+                     SIZE, SIZE, 4, 0.4f, 0.5f, 10)) {
+            TilePlanner planner = new TilePlanner(SIZE, 0f, 8);
+            planner.setMode(TilePlanner.Mode.TILES);
+            TiledDetector tiled = new TiledDetector(batch, new YuvPreprocessor(SIZE, SIZE), planner,
+                    new TileMerger(0.5f, 10), 8);
+
+            // Global view + 2 tiles, one run each (batch 1 export)
+            assertEquals(3, tiled.detect(session, frame));
+            assertEquals(3, tiled.getViewsRun());
+            Detections merged = tiled.getDetections();
+            float[] lefts = new float[3];
+            for (int k = 0; k < 3; k++) {
+                lefts[k] = merged.getLeft(k);
+            }
+            Arrays.sort(lefts);
+            // Left tile, global view (16x16 at half scale), right tile
+            assertArrayEquals(new float[]{28, 56, 92}, lefts, 1e-3f);
+
+            // The measured view cost leaves room for the global view only
+            tiled.setTimeBudget(planner.getViewCostNanos() + planner.getViewCostNanos() / 2);
+            assertEquals(1, tiled.detect(session, frame));
+            assertEquals(1, tiled.getViewsRun());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TrackingEvaluatorTest {
+
+    @Test
+    public void detectEveryThirdFrame_savesCallsWithFewIdSwitches() {
+        TrackingEvaluator evaluator = new TrackingEvaluator(0.5f, 32);
+
+        TrackingEvaluator.Report everyFrame = evaluator.run(new StreetScene(11), new ObjectTracker(), new DetectionScheduler(1));
+        TrackingEvaluator.Report everyThird = evaluator.run(new StreetScene(11), new ObjectTracker(), new DetectionScheduler(3));
+
+        assertEquals(0, everyFrame.getDetectorCallsSaved(), 0);
+        assertTrue(everyThird.toString(), everyThird.getDetectorCallsSaved() > 0.6);
+        assertTrue(everyThird.toString(), everyThird.getIdSwitches() <= everyFrame.getIdSwitches() + 2);
+        assertTrue(everyThird.toString(), everyThird.getMeanIou() > 0.75);
+        assertTrue(everyThird.toString(), everyThird.getMatches() > 0.9 * everyFrame.getMatches());
+    }
+
+    @Test
+    public void trackerOutput_isSteadierThanRawDetections() {
+        // Same scene without tracking: raw detections, box jitter shows up as lower IoU
+        StreetScene scene = new StreetScene(5);
+        DetectionCandidates raw = new DetectionCandidates(32);
+        DetectionCandidates truth = new DetectionCandidates(32);
+        int[] ids = new int[32];
+        double rawIou = 0;
+        int rawMatches = 0;
+        for (int frame = 0; frame < scene.getFrameCount(); frame++) {
+            raw.clear();
+            truth.clear();
+            scene.detect(frame, raw);
+            scene.truth(frame, truth, ids);
+            for (int d = 0; d < raw.size(); d++) {
+                for (int g = 0; g < truth.size(); g++) {
+                    float iou = NmsEngine.iou(raw.boxes(), d, truth.boxes(), g);
+                    if (iou >= 0.5f) {
+                        rawIou += iou;
+                        rawMatches++;
+                    }
+                }
+            }
+        }
+
+        TrackingEvaluator.Report tracked = new TrackingEvaluator(0.5f, 32)
+                .run(new StreetScene(5), new ObjectTracker(), new DetectionScheduler(1));
+        assertTrue(tracked + " vs raw " + rawIou / rawMatches, tracked.getMeanIou() > rawIou / rawMatches);
+    }
+
+    // Objects crossing a 640x640 view at constant speed. Detections jitter a few pixels,
+    // drop out 5% of the time and sometimes come back with a low score.
+    static class StreetScene implements TrackingEvaluator.Sequence {
+        private static final int OBJECTS = 6;
+        private static final int FRAMES = 300;
+        private final float[][] start = new float[OBJECTS][4];
+        private final float[][] velocity = new float[OBJECTS][2];
+        private final int[] classes = new int[OBJECTS];
+        private final Random noise;
+
+        StreetScene(long seed) {
+            Random random = new Random(seed);
+            for (int i = 0; i < OBJECTS; i++) {
+                float w = 40 + random.nextInt(60);
+                float h = 60 + random.nextInt(100);
+                start[i][0] = random.nextInt(500);
+                start[i][1] = random.nextInt(400);
+                start[i][2] = w;
+                start[i][3] = h;
+                velocity[i][0] = (random.nextFloat() - 0.5f) * 4;
+                velocity[i][1] = (random.nextFloat() - 0.5f) * 2;
+                classes[i] = random.nextInt(3);
+            }
+            noise = new Random(seed * 31 + 7);
+        }
+
+        @Override
+        public int getFrameCount() {
+            return FRAMES;
+        }
+
+        @Override
+        public void truth(int frame, DetectionCandidates out, int[] ids) {
+            for (int i = 0; i < OBJECTS; i++) {
+                float left = start[i][0] + velocity[i][0] * frame;
+                float top = start[i][1] + velocity[i][1] * frame;
+                ids[out.size()] = i;
+                out.add(left, top, left + start[i][2], top + start[i][3], 1f, classes[i]);
+            }
+        }
+
+        @Override
+        public void detect(int frame, DetectionCandidates out) {
+            for (int i = 0; i < OBJECTS; i++) {
+                float roll = noise.nextFloat();
+                if (roll < 0.05f) continue;
+                float score = roll < 0.1f ? 0.3f : 0.6f + noise.nextFloat() * 0.35f;
+                float left = start[i][0] + velocity[i][0] * frame + (float) noise.nextGaussian() * 3;
+                float top = start[i][1] + velocity[i][1] * frame + (float) noise.nextGaussian() * 3;
+                float w = start[i][2] + (float) noise.nextGaussian() * 3;
+                float h = start[i][3] + (float) noise.nextGaussian() * 3;
+                out.add(left, top, left + w, top + h, score, classes[i]);
+            }
+        }
+    }
+}
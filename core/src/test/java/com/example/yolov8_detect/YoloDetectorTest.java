@@ -0,0 +1,78 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.Collections;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+
+import static org.junit.Assert.*;
+
+public class YoloDetectorTest {
+    private static final int SIZE = 32;
+    private static final int CLASSES = 2;
+    private static final int ANCHORS = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void detect_runsSessionDecodeAndNms() throws Exception {
+        // Anchors 0 and 1: same class, almost the same box; anchor 2: other class
+        float[] output = new float[(4 + CLASSES) * ANCHORS];
+        anchor(output, 0, 10, 10, 8, 8, 0, 0.9f);
+        anchor(output, 1, 10.5f, 10, 8, 8, 0, 0.8f);
+        anchor(output, 2, 24, 20, 6, 10, 1, 0.7f);
+        File model = TestModels.write(folder.getRoot(), "detector.onnx",
+                TestModels.fixedDetector(SIZE, output, CLASSES, ANCHORS));
+
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        PipelineMetrics metrics = new PipelineMetrics();
+        YoloDetector detector = new YoloDetector(CLASSES, 0.4f, 0.5f, ANCHORS, 10);
+        detector.setMetrics(metrics);
+
+        try (OrtSession session = environment.createSession(model.getPath(), new OrtSession.SessionOptions());
+             OnnxTensor input = OnnxTensor.createTensor(environment,
+                     FloatBuffer.wrap(new float[3 * SIZE * SIZE]), new long[]{1, 3, SIZE, SIZE})) {
+            int kept = detector.detect(session, Collections.singletonMap("images", input), SIZE, SIZE);
+
+            assertEquals(2, kept);
+            assertEquals(0, detector.getClassId(0));
+            assertEquals(0.9f, detector.getScore(0), 1e-6f);
+            assertEquals(6f, detector.getLeft(0), 1e-4f);
+            assertEquals(14f, detector.getBottom(0), 1e-4f);
+            assertEquals(1, detector.getClassId(1));
+        }
+        assertEquals(1, metrics.getHistogram(PipelineMetrics.Stage.INFERENCE).getCount());
+        assertEquals(1, metrics.getHistogram(PipelineMetrics.Stage.NMS).getCount());
+    }
+
+    @Test
+    public void mapBox_goesBackToSourceFrame() {
+        float[] output = new float[(4 + CLASSES) * ANCHORS];
+        anchor(output, 0, 16, 16, 8, 8, 1, 0.9f);
+        YoloDetector detector = new YoloDetector(CLASSES, 0.4f, 0.5f, ANCHORS, 10);
+        assertEquals(1, detector.postprocess(FloatBuffer.wrap(output), ANCHORS, SIZE, SIZE));
+
+        // 64x32 source letterboxed into 32x32: scale 0.5, 8 px bars top and bottom
+        FrameTransform toInput = FrameTransform.create(ResizeMode.LETTERBOX, 64, 32, SIZE, SIZE);
+        float[] box = new float[4];
+        detector.mapBox(0, toInput.inverse(), box, 0);
+
+        assertArrayEquals(new float[]{24, 8, 40, 24}, box, 1e-4f);
+    }
+
+    private static void anchor(float[] output, int a, float cx, float cy, float w, float h, int classId, float score) {
+        output[a] = cx;
+        output[ANCHORS + a] = cy;
+        output[2 * ANCHORS + a] = w;
+        output[3 * ANCHORS + a] = h;
+        output[(4 + classId) * ANCHORS + a] = score;
+    }
+}
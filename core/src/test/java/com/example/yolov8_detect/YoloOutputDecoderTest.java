@@ -0,0 +1,95 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class YoloOutputDecoderTest {
+    private static final int CLASSES = 9;
+    private static final int ANCHORS = 8400;
+
+    @Test
+    public void decode_keepsOnlyAnchorsAboveThreshold() {
+        float[] output = new float[(4 + CLASSES) * 3];
+        setAnchor(output, 3, 0, 100, 100, 20, 40, 2, 0.9f);
+        setAnchor(output, 3, 1, 200, 200, 10, 10, 5, 0.3f);
+        setAnchor(output, 3, 2, 5, 630, 30, 30, 8, 0.6f);
+
+        DetectionCandidates candidates = new DetectionCandidates(3);
+        int count = new YoloOutputDecoder(CLASSES, 0.4f).decode(FloatBuffer.wrap(output), 3, 640, 640, candidates);
+
+        assertEquals(2, count);
+        assertEquals(2, candidates.getClassId(0));
+        assertEquals(0.9f, candidates.getScore(0), 0f);
+        assertEquals(90f, candidates.getLeft(0), 0f);
+        assertEquals(80f, candidates.getTop(0), 0f);
+        assertEquals(110f, candidates.getRight(0), 0f);
+        assertEquals(120f, candidates.getBottom(0), 0f);
+
+        // Clamped to the input area like the old decoder
+        assertEquals(8, candidates.getClassId(1));
+        assertEquals(0f, candidates.getLeft(1), 0f);
+        assertEquals(639f, candidates.getBottom(1), 0f);
+    }
+
+    @Test
+    public void decode_matchesTransposedReference() {
+        float[] output = randomOutput(new Random(7));
+        DetectionCandidates candidates = new DetectionCandidates(ANCHORS);
+        YoloOutputDecoder decoder = new YoloOutputDecoder(CLASSES, 0.4f);
+
+        decoder.decode(FloatBuffer.wrap(output), ANCHORS, 640, 640, candidates);
+
+        int k = 0;
+        for (int a = 0; a < ANCHORS; a++) {
+            int bestClass = -1;
+            float best = 0;
+            for (int c = 0; c < CLASSES; c++) {
+                float score = output[(4 + c) * ANCHORS + a];
+                if (score > best) {
+                    best = score;
+                    bestClass = c;
+                }
+            }
+            if (best > 0.4f) {
+                assertEquals(bestClass, candidates.getClassId(k));
+                assertEquals(best, candidates.getScore(k), 0f);
+                float x = output[a];
+                float w = output[2 * ANCHORS + a];
+                assertEquals(Math.max(0, x - w / 2), candidates.getLeft(k), 1e-4f);
+                k++;
+            }
+        }
+        assertEquals(k, candidates.size());
+        assertTrue(k > 0);
+    }
+
+    static float[] randomOutput(Random random) {
+        float[] output = new float[(4 + CLASSES) * ANCHORS];
+        for (int a = 0; a < ANCHORS; a++) {
+            output[a] = random.nextFloat() * 640;
+            output[ANCHORS + a] = random.nextFloat() * 640;
+            output[2 * ANCHORS + a] = 10 + random.nextFloat() * 200;
+            output[3 * ANCHORS + a] = 10 + random.nextFloat() * 200;
+            for (int c = 0; c < CLASSES; c++) {
+                // Mostly background, a few confident anchors
+                float score = random.nextFloat() * 0.1f;
+                if (random.nextInt(100) == 0) score = 0.3f + random.nextFloat() * 0.7f;
+                output[(4 + c) * ANCHORS + a] = score;
+            }
+        }
+        return output;
+    }
+
+    private static void setAnchor(float[] output, int anchors, int a, float x, float y, float w, float h,
+                                  int classId, float score) {
+        output[a] = x;
+        output[anchors + a] = y;
+        output[2 * anchors + a] = w;
+        output[3 * anchors + a] = h;
+        output[(4 + classId) * anchors + a] = score;
+    }
+}
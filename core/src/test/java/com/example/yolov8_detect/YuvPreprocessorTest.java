@@ -0,0 +1,242 @@
+package com.example.yolov8_detect;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class YuvPreprocessorTest {
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 180;
+    private static final int INPUT = 64;
+
+    @Test
+    public void uniformColor_isConvertedExactly() {
+        YuvFrame frame = planarFrame(WIDTH, HEIGHT, WIDTH + 16, (x, y) -> 128, (x, y) -> 128, (x, y) -> 128);
+        FloatBuffer tensor = tensor(INPUT, INPUT);
+
+        new YuvPreprocessor(INPUT, INPUT, ResizeMode.STRETCH).preprocess(frame, tensor);
+
+        for (int i = 0; i < INPUT * INPUT * 3; i++) {
+            assertEquals(128 / 255f, tensor.get(i), 1e-6f);
+        }
+    }
+
+    @Test
+    public void fromRgb_roundTripsThroughPreprocess() {
+        // Odd size: the last chroma column and row average fewer pixels
+        int[] rgb = new int[5 * 3];
+        Arrays.fill(rgb, 0xC86432);
+        YuvFrame frame = YuvFrame.fromRgb(rgb, 5, 3);
+        FloatBuffer tensor = tensor(5, 3);
+
+        new YuvPreprocessor(5, 3, ResizeMode.STRETCH).preprocess(frame, tensor);
+
+        for (int i = 0; i < 5 * 3; i++) {
+            assertEquals(200 / 255f, tensor.get(i), 2 / 255f);
+            assertEquals(100 / 255f, tensor.get(15 + i), 2 / 255f);
+            assertEquals(50 / 255f, tensor.get(30 + i), 2 / 255f);
+        }
+    }
+
+    @Test
+    public void planarFrame_matchesTwoPassReference() {
+        YuvFrame frame = planarFrame(WIDTH, HEIGHT, WIDTH + 32, YuvPreprocessorTest::luma, YuvPreprocessorTest::cb, YuvPreprocessorTest::cr);
+        assertMatchesReference(frame);
+    }
+
+    @Test
+    public void semiPlanarFrame_handlesPixelStride() {
+        // NV21-like layout: V and U interleaved in one buffer, pixel stride 2, padded rows
+        int yStride = WIDTH + 8;
+        int uvStride = WIDTH + 8;
+        ByteBuffer y = ByteBuffer.allocateDirect(yStride * HEIGHT);
+        ByteBuffer vu = ByteBuffer.allocateDirect(uvStride * HEIGHT / 2);
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                y.put(row * yStride + col, (byte) luma(col, row));
+            }
+        }
+        for (int row = 0; row < HEIGHT / 2; row++) {
+            for (int col = 0; col < WIDTH / 2; col++) {
+                vu.put(row * uvStride + col * 2, (byte) cr(col, row));
+                vu.put(row * uvStride + col * 2 + 1, (byte) cb(col, row));
+            }
+        }
+        ByteBuffer v = vu.duplicate();
+        vu.position(1);
+        ByteBuffer u = vu.slice();
+
+        YuvFrame frame = new YuvFrame().wrap(WIDTH, HEIGHT, y, yStride, u, v, uvStride, 2);
+        assertMatchesReference(frame);
+    }
+
+    @Test
+    public void preprocess_writesAtBufferPosition() {
+        YuvFrame frame = planarFrame(WIDTH, HEIGHT, WIDTH, (x, y) -> 255, (x, y) -> 128, (x, y) -> 128);
+        int planeSize = INPUT * INPUT * 3;
+        FloatBuffer tensor = tensor(INPUT, INPUT * 2);
+        tensor.position(planeSize);
+
+        new YuvPreprocessor(INPUT, INPUT, ResizeMode.STRETCH).preprocess(frame, tensor);
+
+        assertEquals(planeSize, tensor.position());
+        assertEquals(0f, tensor.get(planeSize - 1), 0f);
+        assertEquals(1f, tensor.get(planeSize), 0f);
+    }
+
+    @Test
+    public void letterbox_padsOutsideFrame() {
+        YuvFrame frame = planarFrame(WIDTH, HEIGHT, WIDTH, (x, y) -> 255, (x, y) -> 128, (x, y) -> 128);
+        FloatBuffer tensor = tensor(INPUT, INPUT);
+        YuvPreprocessor preprocessor = new YuvPreprocessor(INPUT, INPUT, ResizeMode.LETTERBOX);
+
+        FrameTransform transform = preprocessor.preprocess(frame, tensor);
+
+        // 320x180 in 64x64: scale 0.2, content rows 14..49
+        assertEquals(14f, transform.getOffsetY(), 1e-3f);
+        assertEquals(114 / 255f, tensor.get(0), 1e-6f);
+        assertEquals(114 / 255f, tensor.get(13 * INPUT + 5), 1e-6f);
+        assertEquals(1f, tensor.get(14 * INPUT + 5), 1e-6f);
+        assertEquals(1f, tensor.get(49 * INPUT + 5), 1e-6f);
+        assertEquals(114 / 255f, tensor.get(50 * INPUT + 5), 1e-6f);
+    }
+
+    @Test
+    public void region_isCroppedAtFullResolution() {
+        // Neutral V: red is the luma, blue follows U
+        YuvFrame frame = planarFrame(WIDTH, HEIGHT, WIDTH, (x, y) -> (x + y) % 200, (x, y) -> 96 + x % 64, (x, y) -> 128);
+        FloatBuffer tensor = tensor(INPUT, INPUT);
+        YuvPreprocessor preprocessor = new YuvPreprocessor(INPUT, INPUT, ResizeMode.LETTERBOX);
+
+        // 64x64 region into a 64x64 input: one frame pixel per input pixel
+        FrameTransform transform = preprocessor.preprocess(frame, 100, 40, 164, 104, tensor);
+
+        assertEquals(0f, transform.mapX(100), 1e-4f);
+        assertEquals(63.5f, transform.mapY(103.5f), 1e-4f);
+        int area = INPUT * INPUT;
+        for (int oy = 0; oy < INPUT; oy += 7) {
+            for (int ox = 0; ox < INPUT; ox += 5) {
+                int luma = (100 + ox + 40 + oy) % 200;
+                int u = 96 + ((100 + ox) / 2) % 64 - 128;
+                int blue = Math.max(0, Math.min(255, luma + ((1815 * u) >> 10)));
+                assertEquals(luma / 255f, tensor.get(oy * INPUT + ox), 1e-6f);
+                assertEquals(blue / 255f, tensor.get(2 * area + oy * INPUT + ox), 1e-6f);
+            }
+        }
+
+        // Back to the whole frame: same result as before the crop
+        FloatBuffer whole = tensor(INPUT, INPUT);
+        FloatBuffer again = tensor(INPUT, INPUT);
+        new YuvPreprocessor(INPUT, INPUT, ResizeMode.LETTERBOX).preprocess(frame, whole);
+        preprocessor.preprocess(frame, again);
+        for (int i = 0; i < 3 * area; i++) {
+            assertEquals(whole.get(i), again.get(i), 0f);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void regionOutsideFrame_isRejected() {
+        YuvFrame frame = planarFrame(WIDTH, HEIGHT, WIDTH, (x, y) -> 0, (x, y) -> 128, (x, y) -> 128);
+        new YuvPreprocessor(INPUT, INPUT).preprocess(frame, 300, 0, 364, 64, tensor(INPUT, INPUT));
+    }
+
+    private void assertMatchesReference(YuvFrame frame) {
+        FloatBuffer tensor = tensor(INPUT, INPUT);
+        new YuvPreprocessor(INPUT, INPUT, ResizeMode.STRETCH).preprocess(frame, tensor);
+        float[] expected = reference(frame, INPUT, INPUT);
+
+        double total = 0;
+        for (int i = 0; i < expected.length; i++) {
+            total += Math.abs(expected[i] - tensor.get(i)) * 255;
+        }
+        double meanError = total / expected.length;
+        assertTrue("mean pixel error " + meanError, meanError < 1.5);
+    }
+
+    // Old path without the JPEG step: full frame YUV -> RGB, then bilinear scale, then /255
+    private static float[] reference(YuvFrame frame, int outW, int outH) {
+        int w = frame.getWidth();
+        int h = frame.getHeight();
+        float[][] rgb = new float[3][w * h];
+        for (int row = 0; row < h; row++) {
+            for (int col = 0; col < w; col++) {
+                int yv = frame.getYBuffer().get(row * frame.getYRowStride() + col) & 0xFF;
+                int c = (row / 2) * frame.getUvRowStride() + (col / 2) * frame.getUvPixelStride();
+                int u = (frame.getUBuffer().get(c) & 0xFF) - 128;
+                int v = (frame.getVBuffer().get(c) & 0xFF) - 128;
+                rgb[0][row * w + col] = clamp(yv + 1.402f * v);
+                rgb[1][row * w + col] = clamp(yv - 0.344136f * u - 0.714136f * v);
+                rgb[2][row * w + col] = clamp(yv + 1.772f * u);
+            }
+        }
+
+        float[] out = new float[3 * outW * outH];
+        for (int oy = 0; oy < outH; oy++) {
+            float sy = Math.max(0, Math.min(h - 1, (oy + 0.5f) * h / outH - 0.5f));
+            int y0 = (int) sy;
+            int y1 = Math.min(y0 + 1, h - 1);
+            float fy = sy - y0;
+            for (int ox = 0; ox < outW; ox++) {
+                float sx = Math.max(0, Math.min(w - 1, (ox + 0.5f) * w / outW - 0.5f));
+                int x0 = (int) sx;
+                int x1 = Math.min(x0 + 1, w - 1);
+                float fx = sx - x0;
+                for (int ch = 0; ch < 3; ch++) {
+                    float[] p = rgb[ch];
+                    float top = p[y0 * w + x0] + (p[y0 * w + x1] - p[y0 * w + x0]) * fx;
+                    float bottom = p[y1 * w + x0] + (p[y1 * w + x1] - p[y1 * w + x0]) * fx;
+                    out[ch * outW * outH + oy * outW + ox] = Math.round(top + (bottom - top) * fy) / 255f;
+                }
+            }
+        }
+        return out;
+    }
+
+    interface Plane {
+        int value(int x, int y);
+    }
+
+    static YuvFrame planarFrame(int width, int height, int yStride, Plane yPlane, Plane uPlane, Plane vPlane) {
+        int uvStride = yStride / 2;
+        ByteBuffer y = ByteBuffer.allocateDirect(yStride * height);
+        ByteBuffer u = ByteBuffer.allocateDirect(uvStride * height / 2);
+        ByteBuffer v = ByteBuffer.allocateDirect(uvStride * height / 2);
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                y.put(row * yStride + col, (byte) yPlane.value(col, row));
+            }
+        }
+        for (int row = 0; row < height / 2; row++) {
+            for (int col = 0; col < width / 2; col++) {
+                u.put(row * uvStride + col, (byte) uPlane.value(col, row));
+                v.put(row * uvStride + col, (byte) vPlane.value(col, row));
+            }
+        }
+        return new YuvFrame().wrap(width, height, y, yStride, u, v, uvStride, 1);
+    }
+
+    static FloatBuffer tensor(int width, int height) {
+        return ByteBuffer.allocateDirect(3 * width * height * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    private static int luma(int x, int y) {
+        return 16 + (x * 7 + y * 3) % 220;
+    }
+
+    private static int cb(int x, int y) {
+        return 96 + (x + y) % 64;
+    }
+
+    private static int cr(int x, int y) {
+        return 160 - (x * 2 + y) % 64;
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0, Math.min(255, Math.round(value)));
+    }
+}
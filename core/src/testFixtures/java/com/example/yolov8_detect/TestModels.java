@@ -0,0 +1,167 @@
+package com.example.yolov8_detect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+// Writes tiny ONNX models for tests, so real ORT sessions can run without a model asset.
+// Only the handful of protobuf fields those models need are encoded.
+final class TestModels {
+    private TestModels() {
+    }
+
+    // images [1, 3, size, size] -> Relu -> output, same shape
+    static byte[] relu(int size) {
+        return relu(size, "images");
+    }
+
+    static byte[] relu(int size, String inputName) {
+        Proto graph = new Proto()
+                .message(1, node("Relu", new String[]{inputName}, new String[]{"output"}, null, null))
+                .string(2, "relu")
+                .message(11, valueInfo(inputName, 1, 3, size, size))
+                .message(12, valueInfo("output", 1, 3, size, size));
+        return model(graph);
+    }
+
+    // images [1, 3, H, W] with dynamic H and W -> Relu
+    static byte[] dynamicRelu() {
+        Proto graph = new Proto()
+                .message(1, node("Relu", new String[]{"images"}, new String[]{"output"}, null, null))
+                .string(2, "dynamic_relu")
+                .message(11, valueInfo("images", 1, 3, -1, -1))
+                .message(12, valueInfo("output", 1, 3, -1, -1));
+        return model(graph);
+    }
+
+    // images [1, 3, size, size] -> fixed YOLOv8 style output [1, 4 + classes, anchors].
+    // The input still flows into the graph (ReduceMean * 0) so ORT cannot drop it.
+    static byte[] fixedDetector(int size, float[] output, int classes, int anchors) {
+        Proto graph = new Proto()
+                .message(1, meanPerFrame("images", "mean"))
+                .message(1, node("Mul", new String[]{"mean", "zero"}, new String[]{"nothing"}, null, null))
+                .message(1, node("Add", new String[]{"nothing", "fixed"}, new String[]{"output0"}, null, null))
+                .string(2, "fixed_detector")
+                .message(5, tensor("zero", new long[]{1}, new float[]{0f}))
+                .message(5, tensor("fixed", new long[]{1, 4 + classes, anchors}, output))
+                .message(11, valueInfo("images", 1, 3, size, size))
+                .message(12, valueInfo("output0", 1, 4 + classes, anchors));
+        return model(graph);
+    }
+
+    // images [N, 3, size, size] with a dynamic batch -> output [N, 4 + classes, anchors]:
+    // output scaled by the mean of each frame, so every slice shows which frame it came from
+    static byte[] batchDetector(int size, float[] output, int classes, int anchors) {
+        Proto graph = new Proto()
+                .message(1, meanPerFrame("images", "mean"))
+                .message(1, node("Reshape", new String[]{"mean", "scale_shape"}, new String[]{"scale"}, null, null))
+                .message(1, node("Mul", new String[]{"scale", "fixed"}, new String[]{"output0"}, null, null))
+                .string(2, "batch_detector")
+                .message(5, longTensor("scale_shape", new long[]{-1, 1, 1}))
+                .message(5, tensor("fixed", new long[]{1, 4 + classes, anchors}, output))
+                .message(11, valueInfo("images", -1, 3, size, size))
+                .message(12, valueInfo("output0", -1, 4 + classes, anchors));
+        return model(graph);
+    }
+
+    static File write(File directory, String name, byte[] model) throws IOException {
+        File file = new File(directory, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(model);
+        }
+        return file;
+    }
+
+    private static byte[] model(Proto graph) {
+        Proto opset = new Proto().string(1, "").varint(2, 13);
+        return new Proto().varint(1, 8).message(7, graph).message(8, opset).toByteArray();
+    }
+
+    private static Proto node(String op, String[] inputs, String[] outputs, String intsName, long[] ints) {
+        Proto node = new Proto();
+        for (String input : inputs) node.string(1, input);
+        for (String output : outputs) node.string(2, output);
+        node.string(4, op);
+        if (intsName != null) {
+            Proto attribute = new Proto().string(1, intsName).varint(20, 7);
+            for (long value : ints) attribute.varint(8, value);
+            node.message(5, attribute);
+        }
+        return node;
+    }
+
+    // [N, 3, H, W] -> [N]: keepdims=0, otherwise the result keeps four dimensions and the
+    // output no longer matches its declared shape
+    private static Proto meanPerFrame(String input, String output) {
+        Proto keepDims = new Proto().string(1, "keepdims").varint(20, 2).varint(3, 0);
+        return node("ReduceMean", new String[]{input}, new String[]{output}, "axes", new long[]{1, 2, 3})
+                .message(5, keepDims);
+    }
+
+    private static Proto valueInfo(String name, long... dims) {
+        Proto shape = new Proto();
+        for (int i = 0; i < dims.length; i++) {
+            // Negative: dynamic dimension (dim_param)
+            shape.message(1, dims[i] < 0 ? new Proto().string(2, "d" + i) : new Proto().varint(1, dims[i]));
+        }
+        Proto tensorType = new Proto().varint(1, 1).message(2, shape);
+        return new Proto().string(1, name).message(2, new Proto().message(1, tensorType));
+    }
+
+    private static Proto tensor(String name, long[] dims, float[] data) {
+        Proto tensor = new Proto();
+        for (long dim : dims) tensor.varint(1, dim);
+        tensor.varint(2, 1).string(8, name);
+        ByteBuffer raw = ByteBuffer.allocate(data.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (float value : data) raw.putFloat(value);
+        return tensor.bytes(9, raw.array());
+    }
+
+    private static Proto longTensor(String name, long[] data) {
+        Proto tensor = new Proto().varint(1, data.length).varint(2, 7).string(8, name);
+        ByteBuffer raw = ByteBuffer.allocate(data.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (long value : data) raw.putLong(value);
+        return tensor.bytes(9, raw.array());
+    }
+
+    private static class Proto {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Proto varint(int field, long value) {
+            writeVarint((long) field << 3);
+            writeVarint(value);
+            return this;
+        }
+
+        Proto string(int field, String value) {
+            return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Proto message(int field, Proto message) {
+            return bytes(field, message.toByteArray());
+        }
+
+        Proto bytes(int field, byte[] value) {
+            writeVarint(((long) field << 3) | 2);
+            writeVarint(value.length);
+            out.write(value, 0, value.length);
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+}
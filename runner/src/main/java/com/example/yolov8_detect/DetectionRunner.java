@@ -0,0 +1,472 @@
+package com.example.yolov8_detect;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+// Headless detection over images, raw I420 dumps and device recordings (.yfr), for regression and performance runs
+// on build machines. Every frame goes through the same chain as the app: YuvPreprocessor
+// (letterbox) -> ORT CPU session -> YoloDetector (decode + NMS), boxes mapped back to the
+// source frame and written as one JSON line per frame, in input order.
+// Decoding runs on --jobs threads; inference is bounded by --sessions, each session owned
+// by one worker at a time. With --batch N every session runs up to N frames at once
+// (BatchDetector); preprocessed frames wait in a BatchQueue for at most --batch-delay.
+// With --tiling every frame is also run as full resolution tiles or crops around small
+// detections (TiledDetector), merged in frame coordinates; --batch then batches those views.
+// With --motion-gate frames are read in order and checked by a MotionGate first; frames
+// that did not change repeat the detections of the last inferred frame.
+// Per-stage latency and frames/sec go to stderr at the end.
+public final class DetectionRunner {
+    // Frames in flight ahead of the writer, per job thread
+    private static final int WINDOW_PER_JOB = 4;
+    // Candidate and result capacity, grown by the decoder if a model has more anchors
+    private static final int MAX_ANCHORS = 8400;
+    private static final int MAX_DETECTIONS = 100;
+    // Tiles or regions per frame next to the global view
+    private static final int MAX_VIEWS = 64;
+    private static final String DETECTIONS_KEY = ",\"detections\":";
+
+    private final RunnerOptions options;
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    private String[] labels;
+    private ModelSignature signature;
+    private int inputSize;
+    private OrtEnvironment environment;
+    private BlockingQueue<Worker> workers;
+    // --batch only: preprocessed frames on their way to a batch, and their staging buffers
+    private BatchQueue<BatchedFrame> batchQueue;
+    private BlockingQueue<FloatBuffer> stagingBuffers;
+    private final ThreadLocal<YuvPreprocessor> preprocessors = new ThreadLocal<YuvPreprocessor>() {
+        @Override
+        protected YuvPreprocessor initialValue() {
+            return new YuvPreprocessor(inputSize, inputSize, ResizeMode.LETTERBOX);
+        }
+    };
+
+    DetectionRunner(RunnerOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        RunnerOptions options;
+        try {
+            options = RunnerOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(RunnerOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        if (options.compare != null) {
+            ModelComparison.Report report = new ModelComparison(options).run();
+            System.out.println(report);
+            System.exit(report.getAgreement() < options.minAgreement ? 1 : 0);
+            return;
+        }
+        PipelineMetrics.Snapshot snapshot = new DetectionRunner(options).run();
+        System.err.println(snapshot);
+    }
+
+    PipelineMetrics.Snapshot run() throws IOException, OrtException, InterruptedException {
+        labels = LabelSpace.readLabels(options.labels);
+        List<FrameInput> inputs = FrameInput.collect(options.inputs, options.rawWidth, options.rawHeight);
+
+        environment = OrtEnvironment.getEnvironment();
+        SessionFactory factory = new SessionFactory(environment);
+        SessionConfig config = SessionConfig.builder().intraOpThreads(options.sessionThreads).build();
+        workers = new ArrayBlockingQueue<>(options.sessions);
+        List<Worker> created = new ArrayList<>();
+        List<Thread> batchThreads = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(options.jobs);
+        ExecutorService decodeExecutor = null;
+        try {
+            for (int i = 0; i < options.sessions; i++) {
+                OrtSession session = factory.createSession(options.model.getPath(), config);
+                if (i == 0) {
+                    try {
+                        signature = ModelSignature.read(session);
+                        inputSize = signature.squareInputSize(labels.length, options.inputSize);
+                    } catch (RuntimeException e) {
+                        session.close();
+                        throw e;
+                    }
+                }
+                Worker worker = new Worker(session);
+                created.add(worker);
+                workers.add(worker);
+            }
+            int limit = options.jobs * WINDOW_PER_JOB;
+            if (options.batch > 1 && options.tiling == TilePlanner.Mode.OFF) {
+                int maxBatch = created.get(0).batchDetector.getMaxBatch();
+                if (maxBatch != options.batch) {
+                    System.err.println("Model takes batches of " + maxBatch + ": " + signature);
+                }
+                // Enough frames in flight to fill every session's batch while the next one gathers
+                int staged = maxBatch * (options.sessions + 1);
+                limit = Math.max(limit, staged);
+                batchQueue = new BatchQueue<>(staged, options.batchDelayMs, TimeUnit.MILLISECONDS);
+                stagingBuffers = new ArrayBlockingQueue<>(staged);
+                for (int i = 0; i < staged; i++) {
+                    stagingBuffers.add(ByteBuffer.allocateDirect(3 * inputSize * inputSize * 4)
+                            .order(ByteOrder.nativeOrder()).asFloatBuffer());
+                }
+                decodeExecutor = Executors.newFixedThreadPool(Math.min(maxBatch, options.jobs));
+                for (final Worker worker : created) {
+                    worker.batchDetector.setExecutor(decodeExecutor);
+                    Thread thread = new Thread(() -> runBatches(worker), "batch-" + batchThreads.size());
+                    thread.setDaemon(true);
+                    batchThreads.add(thread);
+                    thread.start();
+                }
+            }
+            // Session creation is not part of the measured run
+            metrics.reset();
+
+            MotionGate gate = null;
+            if (options.motionGate > 0) {
+                gate = new MotionGate();
+                gate.setMaxSkipped(options.motionGate);
+                gate.setBlockThreshold(options.gateThreshold);
+                gate.setChangedFraction(options.gateFraction);
+            }
+            try (Writer out = openOutput()) {
+                ArrayDeque<Future<String>> window = new ArrayDeque<>();
+                Future<String> inferred = null;
+                for (final FrameInput input : inputs) {
+                    for (int frame = 0; frame < input.getFrameCount(); frame++) {
+                        if (window.size() >= limit) {
+                            write(out, window.poll());
+                        }
+                        final int index = frame;
+                        // Gated frames are read here, in order; the others on a job thread
+                        YuvFrame read = null;
+                        if (gate != null) {
+                            long start = metrics.start();
+                            read = input.read(index);
+                            if (!gate.shouldInfer(read) && inferred != null) {
+                                metrics.increment(PipelineMetrics.Counter.FRAMES_IN);
+                                metrics.increment(PipelineMetrics.Counter.FRAMES_GATED);
+                                window.add(new GatedFrame(inferred, input, index, read, start));
+                                continue;
+                            }
+                        }
+                        final YuvFrame known = read;
+                        if (batchQueue != null) {
+                            final BatchedFrame pending = new BatchedFrame(input, index);
+                            pending.frame = known;
+                            executor.execute(() -> prepare(pending));
+                            window.add(pending);
+                        } else {
+                            window.add(executor.submit(() -> process(input, index, known)));
+                        }
+                        inferred = window.peekLast();
+                    }
+                }
+                while (!window.isEmpty()) {
+                    write(out, window.poll());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            if (batchQueue != null) {
+                // Batch threads finish what is queued and stop before their sessions close
+                batchQueue.close();
+                for (Thread thread : batchThreads) {
+                    thread.join();
+                }
+            }
+            if (decodeExecutor != null) {
+                decodeExecutor.shutdownNow();
+            }
+            for (Worker worker : created) {
+                worker.close();
+            }
+            for (FrameInput input : inputs) {
+                input.close();
+            }
+        }
+
+        PipelineMetrics.Snapshot snapshot = metrics.snapshot();
+        if (options.metrics != null) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(options.metrics), StandardCharsets.UTF_8)) {
+                writer.write(snapshot.toJson());
+            }
+        }
+        return snapshot;
+    }
+
+    // frame: already read by the motion gate, or null
+    private String process(FrameInput input, int index, YuvFrame frame)
+            throws IOException, OrtException, InterruptedException {
+        long start = metrics.start();
+        metrics.increment(PipelineMetrics.Counter.FRAMES_IN);
+        if (frame == null) {
+            frame = input.read(index);
+        }
+
+        Worker worker = workers.take();
+        try {
+            long preprocessStart = metrics.start();
+            if (worker.tiled != null) {
+                // Boxes come back in frame coordinates
+                worker.tiled.detect(worker.session, frame);
+                FrameTransform identity = new FrameTransform(frame.getWidth(), frame.getHeight(),
+                        frame.getWidth(), frame.getHeight(), 1, 1, 0, 0);
+                return line(input, index, frame, identity, worker.tiled.getDetections(), worker.box, start);
+            }
+            FrameTransform transform = worker.preprocessor.preprocess(frame, worker.slot.getBuffer());
+            metrics.record(PipelineMetrics.Stage.PREPROCESS, preprocessStart);
+            worker.detector.detect(worker.session, worker.slot.getInputs(environment, worker.inputName),
+                    inputSize, inputSize);
+            return line(input, index, frame, transform.inverse(), worker.detector, worker.box, start);
+        } finally {
+            workers.add(worker);
+        }
+    }
+
+    // --batch: read and preprocess on a job thread, then queue the frame for a batch
+    private void prepare(BatchedFrame pending) {
+        FloatBuffer staged = null;
+        try {
+            pending.start = metrics.start();
+            metrics.increment(PipelineMetrics.Counter.FRAMES_IN);
+            if (pending.frame == null) {
+                pending.frame = pending.input.read(pending.index);
+            }
+            staged = stagingBuffers.take();
+            staged.clear();
+            long preprocessStart = metrics.start();
+            pending.transform = preprocessors.get().preprocess(pending.frame, staged);
+            metrics.record(PipelineMetrics.Stage.PREPROCESS, preprocessStart);
+            pending.staged = staged;
+            batchQueue.put(pending);
+        } catch (Throwable e) {
+            if (staged != null) stagingBuffers.add(staged);
+            pending.staged = null;
+            pending.fail(e);
+        }
+    }
+
+    // --batch: one thread per session, runs whatever the queue hands out until it is closed
+    private void runBatches(Worker worker) {
+        List<BatchedFrame> batch = new ArrayList<>(worker.batchDetector.getMaxBatch());
+        try {
+            while (batchQueue.take(batch, worker.batchDetector.getMaxBatch()) > 0) {
+                try {
+                    runBatch(worker, batch);
+                } catch (Throwable e) {
+                    for (BatchedFrame pending : batch) {
+                        if (pending.staged != null) stagingBuffers.add(pending.staged);
+                        pending.staged = null;
+                        pending.fail(e);
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runBatch(Worker worker, List<BatchedFrame> batch) throws OrtException, InterruptedException {
+        BatchDetector detector = worker.batchDetector;
+        int count = batch.size();
+        for (int i = 0; i < count; i++) {
+            BatchedFrame pending = batch.get(i);
+            FloatBuffer staged = pending.staged;
+            staged.rewind();
+            detector.getInput(i).put(staged);
+            pending.staged = null;
+            stagingBuffers.add(staged);
+        }
+        detector.run(worker.session, count);
+        for (int i = 0; i < count; i++) {
+            BatchedFrame pending = batch.get(i);
+            pending.complete(line(pending.input, pending.index, pending.frame, pending.transform.inverse(),
+                    detector.getDetections(i), worker.box, pending.start));
+            pending.frame = null;
+        }
+    }
+
+    // One JSON line with the detections mapped back to the source frame
+    private String line(FrameInput input, int index, YuvFrame frame, FrameTransform toSource,
+                        Detections detector, float[] box, long start) {
+        int kept = detector.size();
+        StringBuilder line = new StringBuilder(128 + kept * 96);
+        appendFrame(line, input, index, frame);
+        line.append(DETECTIONS_KEY);
+        DetectionJson.appendDetections(line, detector, toSource, labels, box);
+        line.append('}');
+
+        metrics.record(PipelineMetrics.Stage.FRAME, start);
+        metrics.increment(PipelineMetrics.Counter.FRAMES_OUT);
+        metrics.add(PipelineMetrics.Counter.DETECTIONS, kept);
+        return line.toString();
+    }
+
+    private static void appendFrame(StringBuilder line, FrameInput input, int index, YuvFrame frame) {
+        line.append("{\"source\":");
+        DetectionJson.appendString(line, input.getFile().getPath());
+        line.append(",\"frame\":").append(index)
+                .append(",\"width\":").append(frame.getWidth())
+                .append(",\"height\":").append(frame.getHeight());
+    }
+
+    // --motion-gate: the detections of the last inferred frame under this frame's header
+    private String repeat(String inferred, FrameInput input, int index, YuvFrame frame, long start) {
+        int detections = inferred.indexOf(DETECTIONS_KEY);
+        StringBuilder line = new StringBuilder(inferred.length() + 64);
+        appendFrame(line, input, index, frame);
+        line.append(inferred, detections, inferred.length());
+
+        int kept = 0;
+        for (int at = inferred.indexOf(DetectionJson.CLASS_KEY, detections); at >= 0;
+                at = inferred.indexOf(DetectionJson.CLASS_KEY, at + 1)) {
+            kept++;
+        }
+        metrics.record(PipelineMetrics.Stage.FRAME, start);
+        metrics.increment(PipelineMetrics.Counter.FRAMES_OUT);
+        metrics.add(PipelineMetrics.Counter.DETECTIONS, kept);
+        return line.toString();
+    }
+
+    private Writer openOutput() throws IOException {
+        OutputStream stream = options.out != null ? new FileOutputStream(options.out) : new NonClosingStream(System.out);
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+    }
+
+    private static void write(Writer out, Future<String> line) throws IOException, InterruptedException {
+        if (line instanceof GatedFrame) {
+            // Resolved here, after the frame it repeats
+            ((GatedFrame) line).run();
+        }
+        try {
+            out.write(line.get());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+        out.write('\n');
+    }
+
+    // One ORT session with everything needed to run a frame through it
+    private final class Worker implements AutoCloseable {
+        final OrtSession session;
+        final String inputName;
+        final YuvPreprocessor preprocessor = new YuvPreprocessor(inputSize, inputSize, ResizeMode.LETTERBOX);
+        final YoloDetector detector;
+        final InputTensorPool pool;
+        final InputTensorPool.Slot slot;
+        // --batch or --tiling
+        final BatchDetector batchDetector;
+        final TiledDetector tiled;
+        final float[] box = new float[4];
+
+        Worker(OrtSession session) {
+            this.session = session;
+            inputName = session.getInputNames().iterator().next();
+            detector = new YoloDetector(labels.length, options.scoreThreshold, options.iouThreshold, MAX_ANCHORS, MAX_DETECTIONS);
+            detector.setMetrics(metrics);
+            pool = new InputTensorPool(1, new long[]{1, 3, inputSize, inputSize});
+            slot = pool.acquire();
+            if (options.batch > 1 || options.tiling != TilePlanner.Mode.OFF) {
+                batchDetector = new BatchDetector(environment, signature, labels.length, inputSize, inputSize,
+                        options.batch, options.scoreThreshold, options.iouThreshold, MAX_DETECTIONS);
+                batchDetector.setMetrics(metrics);
+            } else {
+                batchDetector = null;
+            }
+            if (options.tiling != TilePlanner.Mode.OFF) {
+                TilePlanner planner = new TilePlanner(inputSize, options.tileOverlap, MAX_VIEWS);
+                planner.setMode(options.tiling);
+                tiled = new TiledDetector(batchDetector, preprocessor, planner,
+                        new TileMerger(options.iouThreshold, MAX_DETECTIONS), MAX_VIEWS);
+                tiled.setTimeBudget(TimeUnit.MILLISECONDS.toNanos(options.tileBudgetMs));
+            } else {
+                tiled = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            pool.close();
+            if (batchDetector != null) batchDetector.close();
+            try {
+                session.close();
+            } catch (OrtException e) {
+                System.err.println("Error closing session: " + e.getMessage());
+            }
+        }
+    }
+
+    // A frame waiting for its batch; the batch thread completes it with the JSON line
+    private static final class BatchedFrame extends FutureTask<String> {
+        final FrameInput input;
+        final int index;
+        long start;
+        YuvFrame frame;
+        FrameTransform transform;
+        FloatBuffer staged;
+
+        BatchedFrame(FrameInput input, int index) {
+            super(() -> null);
+            this.input = input;
+            this.index = index;
+        }
+
+        void complete(String line) {
+            set(line);
+        }
+
+        void fail(Throwable e) {
+            setException(e);
+        }
+    }
+
+    // --motion-gate: a frame that repeats the detections of an earlier inferred frame
+    private final class GatedFrame extends FutureTask<String> {
+        GatedFrame(Future<String> inferred, FrameInput input, int index, YuvFrame frame, long start) {
+            super(() -> repeat(inferred.get(), input, index, frame, start));
+        }
+    }
+
+    // stdout stays open after the writer is closed
+    private static final class NonClosingStream extends FilterOutputStream {
+        NonClosingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
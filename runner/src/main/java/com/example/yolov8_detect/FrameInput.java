@@ -0,0 +1,196 @@
+package com.example.yolov8_detect;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import javax.imageio.ImageIO;
+
+// One runner input: a still image (one frame), a raw I420 dump or a FrameRecorder
+// recording from the app (many frames).
+// Frames come out as YuvFrames so the runner goes through the same YuvPreprocessor as the
+// camera path. read() is safe to call from several threads.
+abstract class FrameInput implements Closeable {
+    private final File file;
+
+    FrameInput(File file) {
+        this.file = file;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    abstract int getFrameCount();
+
+    abstract YuvFrame read(int index) throws IOException;
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    // Files and directories (not recursive, sorted by name) to inputs
+    static List<FrameInput> collect(List<File> paths, int rawWidth, int rawHeight) throws IOException {
+        List<FrameInput> inputs = new ArrayList<>();
+        for (File path : paths) {
+            if (path.isDirectory()) {
+                File[] files = path.listFiles();
+                if (files == null) throw new IOException("Cannot list " + path);
+                Arrays.sort(files);
+                for (File file : files) {
+                    if (file.isFile() && (isImage(file) || isRaw(file) || isRecording(file))) {
+                        inputs.add(open(file, rawWidth, rawHeight));
+                    }
+                }
+            } else if (path.isFile()) {
+                inputs.add(open(path, rawWidth, rawHeight));
+            } else {
+                throw new IOException("No such input: " + path);
+            }
+        }
+        return inputs;
+    }
+
+    private static FrameInput open(File file, int rawWidth, int rawHeight) throws IOException {
+        if (isRecording(file)) {
+            return new Recording(file);
+        }
+        if (!isRaw(file)) {
+            return new Image(file);
+        }
+        if (rawWidth <= 0 || rawHeight <= 0) {
+            throw new IOException("--raw-size is required for raw input " + file);
+        }
+        return new RawI420(file, rawWidth, rawHeight);
+    }
+
+    private static boolean isImage(File file) {
+        String name = file.getName().toLowerCase(Locale.US);
+        return name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png") || name.endsWith(".bmp");
+    }
+
+    private static boolean isRecording(File file) {
+        return file.getName().toLowerCase(Locale.US).endsWith(".yfr");
+    }
+
+    private static boolean isRaw(File file) {
+        String name = file.getName().toLowerCase(Locale.US);
+        return name.endsWith(".yuv") || name.endsWith(".i420");
+    }
+
+    static final class Image extends FrameInput {
+        Image(File file) {
+            super(file);
+        }
+
+        @Override
+        int getFrameCount() {
+            return 1;
+        }
+
+        @Override
+        YuvFrame read(int index) throws IOException {
+            BufferedImage image = ImageIO.read(getFile());
+            if (image == null) throw new IOException("Unsupported image " + getFile());
+            return toI420(image);
+        }
+    }
+
+    // Planar Y, U, V frames back to back, as written by ffmpeg -pix_fmt yuv420p.
+    // Each frame is mapped on its own, so dumps larger than 2 GB work.
+    static final class RawI420 extends FrameInput {
+        private final int width;
+        private final int height;
+        private final int chromaWidth;
+        private final int chromaHeight;
+        private final long frameSize;
+        private final int frameCount;
+
+        RawI420(File file, int width, int height) throws IOException {
+            super(file);
+            this.width = width;
+            this.height = height;
+            chromaWidth = (width + 1) / 2;
+            chromaHeight = (height + 1) / 2;
+            frameSize = (long) width * height + 2L * chromaWidth * chromaHeight;
+            long length = file.length();
+            if (length % frameSize != 0) {
+                throw new IOException(file + ": " + length + " bytes is not a whole number of "
+                        + width + "x" + height + " I420 frames");
+            }
+            frameCount = (int) (length / frameSize);
+        }
+
+        @Override
+        int getFrameCount() {
+            return frameCount;
+        }
+
+        @Override
+        YuvFrame read(int index) throws IOException {
+            if (index < 0 || index >= frameCount) {
+                throw new IndexOutOfBoundsException("Frame " + index + " of " + frameCount);
+            }
+            MappedByteBuffer mapped;
+            try (RandomAccessFile file = new RandomAccessFile(getFile(), "r");
+                 FileChannel channel = file.getChannel()) {
+                // The mapping stays valid after the channel is closed
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, index * frameSize, frameSize);
+            }
+            int ySize = width * height;
+            int cSize = chromaWidth * chromaHeight;
+            return new YuvFrame().wrap(width, height,
+                    slice(mapped, 0, ySize), width,
+                    slice(mapped, ySize, cSize), slice(mapped, ySize + cSize, cSize),
+                    chromaWidth, 1);
+        }
+    }
+
+    // Camera frames as recorded on the device, strides and chroma layout unchanged
+    static final class Recording extends FrameInput {
+        private final FrameRecordingReader reader;
+
+        Recording(File file) throws IOException {
+            super(file);
+            reader = new FrameRecordingReader(file);
+        }
+
+        @Override
+        int getFrameCount() {
+            return reader.getFrameCount();
+        }
+
+        @Override
+        YuvFrame read(int index) throws IOException {
+            return reader.read(index, new YuvFrame());
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    // RGB -> I420, see YuvFrame.fromRgb
+    static YuvFrame toI420(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        return YuvFrame.fromRgb(image.getRGB(0, 0, width, height, null, 0, width), width, height);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer copy = buffer.duplicate();
+        copy.position(offset);
+        copy.limit(offset + length);
+        return copy.slice();
+    }
+}
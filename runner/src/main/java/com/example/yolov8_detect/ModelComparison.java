@@ -0,0 +1,282 @@
+package com.example.yolov8_detect;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+// runner --model fp32.onnx --compare int8.onnx: accuracy and latency of a model variant
+// against the reference on the CPU. Both sessions get the same threads and the same
+// preprocessed tensor, one frame at a time (alternating which runs first), so latencies are
+// comparable. Agreement is the fraction of reference detections the candidate reproduces
+// (same class, IoU >= 0.5); with --ground-truth both are also scored against YOLO labels.
+final class ModelComparison {
+    static final float MATCH_IOU = 0.5f;
+    private static final int MAX_ANCHORS = 8400;
+    private static final int MAX_DETECTIONS = 100;
+    // Untimed runs per model on the first frame, the first runs of a session are much slower
+    private static final int WARMUP_RUNS = 3;
+
+    private final RunnerOptions options;
+
+    ModelComparison(RunnerOptions options) {
+        this.options = options;
+    }
+
+    // Matches between two sets of boxes, greedy in order of a (best first)
+    static final class Counts {
+        long reference;
+        long candidate;
+        long matched;
+        double iouSum;
+        double scoreDeltaSum;
+
+        double recall() {
+            return reference == 0 ? 1 : matched / (double) reference;
+        }
+
+        double precision() {
+            return candidate == 0 ? 1 : matched / (double) candidate;
+        }
+
+        double meanIou() {
+            return matched == 0 ? 0 : iouSum / matched;
+        }
+
+        double meanScoreDelta() {
+            return matched == 0 ? 0 : scoreDeltaSum / matched;
+        }
+    }
+
+    // Detections of one frame in source pixels
+    static final class Boxes {
+        final float[] boxes;
+        final int[] classIds;
+        final float[] scores;
+        int count;
+
+        Boxes(int capacity) {
+            boxes = new float[capacity * 4];
+            classIds = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        void add(float left, float top, float right, float bottom, int classId, float score) {
+            if (count == classIds.length) return;
+            boxes[count * 4] = left;
+            boxes[count * 4 + 1] = top;
+            boxes[count * 4 + 2] = right;
+            boxes[count * 4 + 3] = bottom;
+            classIds[count] = classId;
+            scores[count] = score;
+            count++;
+        }
+    }
+
+    static final class Report {
+        final LatencyHistogram referenceLatency = new LatencyHistogram();
+        final LatencyHistogram candidateLatency = new LatencyHistogram();
+        final Counts agreement = new Counts();
+        // Null without --ground-truth
+        Counts referenceTruth;
+        Counts candidateTruth;
+        int frames;
+
+        double getAgreement() {
+            return agreement.recall();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(Locale.US, "frames            %d%n", frames));
+            text.append(String.format(Locale.US, "latency reference mean %.1f ms, p50 %.1f ms, p95 %.1f ms%n",
+                    referenceLatency.getMeanMs(), referenceLatency.getPercentileMs(50), referenceLatency.getPercentileMs(95)));
+            text.append(String.format(Locale.US, "latency candidate mean %.1f ms, p50 %.1f ms, p95 %.1f ms%n",
+                    candidateLatency.getMeanMs(), candidateLatency.getPercentileMs(50), candidateLatency.getPercentileMs(95)));
+            text.append(String.format(Locale.US, "agreement         %.3f of %d reference detections, precision %.3f, "
+                            + "mean IoU %.3f, mean |score delta| %.3f%n",
+                    agreement.recall(), agreement.reference, agreement.precision(),
+                    agreement.meanIou(), agreement.meanScoreDelta()));
+            if (referenceTruth != null) {
+                text.append(String.format(Locale.US, "ground truth      reference P %.3f R %.3f, candidate P %.3f R %.3f (%d objects)%n",
+                        referenceTruth.precision(), referenceTruth.recall(),
+                        candidateTruth.precision(), candidateTruth.recall(), referenceTruth.reference));
+            }
+            return text.toString().trim();
+        }
+
+        String toJson() {
+            StringBuilder json = new StringBuilder();
+            json.append(String.format(Locale.US, "{\"frames\":%d,\"reference_ms\":{\"mean\":%.3f,\"p50\":%.3f,\"p95\":%.3f},"
+                            + "\"candidate_ms\":{\"mean\":%.3f,\"p50\":%.3f,\"p95\":%.3f},"
+                            + "\"agreement\":%.4f,\"agreement_precision\":%.4f,\"mean_iou\":%.4f,\"mean_score_delta\":%.4f",
+                    frames, referenceLatency.getMeanMs(), referenceLatency.getPercentileMs(50), referenceLatency.getPercentileMs(95),
+                    candidateLatency.getMeanMs(), candidateLatency.getPercentileMs(50), candidateLatency.getPercentileMs(95),
+                    agreement.recall(), agreement.precision(), agreement.meanIou(), agreement.meanScoreDelta()));
+            if (referenceTruth != null) {
+                json.append(String.format(Locale.US, ",\"ground_truth\":{\"objects\":%d,\"reference\":{\"precision\":%.4f,\"recall\":%.4f},"
+                                + "\"candidate\":{\"precision\":%.4f,\"recall\":%.4f}}",
+                        referenceTruth.reference, referenceTruth.precision(), referenceTruth.recall(),
+                        candidateTruth.precision(), candidateTruth.recall()));
+            }
+            return json.append('}').toString();
+        }
+    }
+
+    Report run() throws IOException, OrtException {
+        String[] labels = LabelSpace.readLabels(options.labels);
+        List<FrameInput> inputs = FrameInput.collect(options.inputs, options.rawWidth, options.rawHeight);
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        SessionFactory factory = new SessionFactory(environment);
+        SessionConfig config = SessionConfig.builder().intraOpThreads(options.sessionThreads).build();
+        Report report = new Report();
+        if (options.groundTruth != null) {
+            report.referenceTruth = new Counts();
+            report.candidateTruth = new Counts();
+        }
+
+        try (OrtSession reference = factory.createSession(options.model.getPath(), config);
+             OrtSession candidate = factory.createSession(options.compare.getPath(), config)) {
+            ModelSignature referenceSignature = ModelSignature.read(reference);
+            ModelSignature candidateSignature = ModelSignature.read(candidate);
+            if (!referenceSignature.toString().equals(candidateSignature.toString())) {
+                throw new IllegalArgumentException("Signatures differ: " + referenceSignature + " vs " + candidateSignature);
+            }
+            int inputSize = referenceSignature.squareInputSize(labels.length, options.inputSize);
+            YuvPreprocessor preprocessor = new YuvPreprocessor(inputSize, inputSize, ResizeMode.LETTERBOX);
+            YoloDetector referenceDetector = new YoloDetector(labels.length, options.scoreThreshold,
+                    options.iouThreshold, MAX_ANCHORS, MAX_DETECTIONS);
+            YoloDetector candidateDetector = new YoloDetector(labels.length, options.scoreThreshold,
+                    options.iouThreshold, MAX_ANCHORS, MAX_DETECTIONS);
+            Boxes referenceBoxes = new Boxes(MAX_DETECTIONS);
+            Boxes candidateBoxes = new Boxes(MAX_DETECTIONS);
+            Boxes truth = new Boxes(1024);
+
+            try (InputTensorPool pool = new InputTensorPool(1, new long[]{1, 3, inputSize, inputSize})) {
+                InputTensorPool.Slot slot = pool.acquire();
+                String inputName = referenceSignature.getInputName();
+                for (FrameInput input : inputs) {
+                    try {
+                        for (int frame = 0; frame < input.getFrameCount(); frame++) {
+                            YuvFrame yuv = input.read(frame);
+                            FrameTransform toSource = preprocessor.preprocess(yuv, slot.getBuffer()).inverse();
+                            if (report.frames == 0) {
+                                for (int run = 0; run < WARMUP_RUNS; run++) {
+                                    referenceDetector.detect(reference, slot.getInputs(environment, inputName), inputSize, inputSize);
+                                    candidateDetector.detect(candidate, slot.getInputs(environment, inputName), inputSize, inputSize);
+                                }
+                            }
+                            // Alternate the order so neither model always runs on a warm cache
+                            boolean referenceFirst = report.frames % 2 == 0;
+                            for (int pass = 0; pass < 2; pass++) {
+                                boolean isReference = (pass == 0) == referenceFirst;
+                                long start = System.nanoTime();
+                                YoloDetector detector = isReference ? referenceDetector : candidateDetector;
+                                detector.detect(isReference ? reference : candidate,
+                                        slot.getInputs(environment, inputName), inputSize, inputSize);
+                                (isReference ? report.referenceLatency : report.candidateLatency)
+                                        .recordNanos(System.nanoTime() - start);
+                                collect(detector, toSource, isReference ? referenceBoxes : candidateBoxes);
+                            }
+                            match(referenceBoxes, candidateBoxes, true, report.agreement);
+                            if (options.groundTruth != null && input.getFrameCount() == 1) {
+                                File labelFile = groundTruthFile(options.groundTruth, input.getFile());
+                                if (labelFile.isFile()) {
+                                    readYoloLabels(labelFile, yuv.getWidth(), yuv.getHeight(), truth);
+                                    match(truth, referenceBoxes, false, report.referenceTruth);
+                                    match(truth, candidateBoxes, false, report.candidateTruth);
+                                }
+                            }
+                            report.frames++;
+                        }
+                    } finally {
+                        input.close();
+                    }
+                }
+            }
+        }
+
+        if (options.out != null) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(options.out), StandardCharsets.UTF_8)) {
+                writer.write(report.toJson());
+            }
+        }
+        return report;
+    }
+
+    private static void collect(YoloDetector detector, FrameTransform toSource, Boxes out) {
+        float[] box = new float[4];
+        out.count = 0;
+        for (int k = 0; k < detector.size(); k++) {
+            detector.mapBox(k, toSource, box, 0);
+            out.add(box[0], box[1], box[2], box[3], detector.getClassId(k), detector.getScore(k));
+        }
+    }
+
+    // Every box of a is matched to the best unmatched box of b with the same class and
+    // IoU >= MATCH_IOU. Score deltas only make sense between two models (scored = true).
+    static void match(Boxes a, Boxes b, boolean scored, Counts counts) {
+        boolean[] used = new boolean[b.count];
+        counts.reference += a.count;
+        counts.candidate += b.count;
+        for (int i = 0; i < a.count; i++) {
+            int best = -1;
+            float bestIou = MATCH_IOU;
+            for (int j = 0; j < b.count; j++) {
+                if (used[j] || b.classIds[j] != a.classIds[i]) continue;
+                float iou = NmsEngine.iou(a.boxes, i, b.boxes, j);
+                if (iou >= bestIou) {
+                    best = j;
+                    bestIou = iou;
+                }
+            }
+            if (best < 0) continue;
+            used[best] = true;
+            counts.matched++;
+            counts.iouSum += bestIou;
+            if (scored) counts.scoreDeltaSum += Math.abs(a.scores[i] - b.scores[best]);
+        }
+    }
+
+    // images/street.jpg -> <dir>/street.txt
+    static File groundTruthFile(File directory, File image) {
+        String name = image.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(directory, (dot > 0 ? name.substring(0, dot) : name) + ".txt");
+    }
+
+    // YOLO format: one "class cx cy w h" line per object, normalized to the image size
+    static void readYoloLabels(File file, int width, int height, Boxes out) throws IOException {
+        out.count = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length < 5) continue;
+                try {
+                    int classId = Integer.parseInt(fields[0]);
+                    float cx = Float.parseFloat(fields[1]) * width;
+                    float cy = Float.parseFloat(fields[2]) * height;
+                    float w = Float.parseFloat(fields[3]) * width;
+                    float h = Float.parseFloat(fields[4]) * height;
+                    out.add(cx - w / 2, cy - h / 2, cx + w / 2, cy + h / 2, classId, 1f);
+                } catch (NumberFormatException e) {
+                    throw new IOException(file + ": bad line \"" + line + "\"");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.yolov8_detect;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Command line of DetectionRunner. Defaults match the app (letterbox, score 0.4, IoU 0.5); the
+// input size comes from the model unless it is dynamic (then 640).
+final class RunnerOptions {
+    static final String USAGE = "Usage: runner --model <model.onnx> --labels <label.txt> [options] <image|dir|file.yuv|file.yfr>...\n"
+            + "  --out <file>              JSON lines output (default: stdout)\n"
+            + "  --metrics <file>          write the latency snapshot as JSON\n"
+            + "  --raw-size <W>x<H>        frame size of raw I420 inputs (.yuv, .i420)\n"
+            + "  --input-size <N>          input size of models with dynamic input (default 640)\n"
+            + "  --score <f>               score threshold (default 0.4)\n"
+            + "  --iou <f>                 NMS IoU threshold (default 0.5)\n"
+            + "  --jobs <N>                decode/preprocess threads (default: cores)\n"
+            + "  --sessions <N>            concurrent ORT sessions (default: cores / 4)\n"
+            + "  --session-threads <N>     intra-op threads per session (default: cores / sessions)\n"
+            + "  --batch <N>               frames per session run (default 1; model exported with dynamic or N batch)\n"
+            + "  --batch-delay <ms>        longest a frame waits for its batch to fill (default 20)\n"
+            + "  --tiling <tiles|roi>      also run overlapping full resolution tiles, or crops around\n"
+            + "                            small detections of the global view; --batch views per run\n"
+            + "  --tile-overlap <f>        overlap of neighbouring tiles (default 0.2)\n"
+            + "  --tile-budget <ms>        time for all views of a frame (default: no limit)\n"
+            + "  --motion-gate <N>         reuse the last detections for frames that did not change,\n"
+            + "                            at most N frames in a row (default: off)\n"
+            + "  --gate-threshold <n>      luma levels a block must move to count as changed (default 10)\n"
+            + "  --gate-fraction <f>       share of changed blocks that makes a frame new (default 0.003)\n"
+            + "Comparing a variant (e.g. INT8) against --model on the CPU, one frame at a time:\n"
+            + "  --compare <model.onnx>    candidate model, prints latency and detection agreement\n"
+            + "  --ground-truth <dir>      YOLO .txt labels named like the images, adds precision/recall\n"
+            + "  --min-agreement <f>       exit with 1 below this agreement (default 0.9)";
+
+    File model;
+    File labels;
+    File out;
+    File metrics;
+    final List<File> inputs = new ArrayList<>();
+    int rawWidth = -1;
+    int rawHeight = -1;
+    // 0: from the model
+    int inputSize;
+    float scoreThreshold = 0.4f;
+    float iouThreshold = 0.5f;
+    int jobs;
+    int sessions;
+    int sessionThreads;
+    int batch = 1;
+    int batchDelayMs = 20;
+    TilePlanner.Mode tiling = TilePlanner.Mode.OFF;
+    float tileOverlap = 0.2f;
+    int tileBudgetMs;
+    // 0: every frame is inferred
+    int motionGate;
+    int gateThreshold = MotionGate.DEFAULT_BLOCK_THRESHOLD;
+    float gateFraction = MotionGate.DEFAULT_CHANGED_FRACTION;
+    File compare;
+    File groundTruth;
+    float minAgreement = 0.9f;
+
+    static RunnerOptions parse(String[] args) {
+        RunnerOptions options = new RunnerOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                options.inputs.add(new File(arg));
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--model":
+                    options.model = new File(value);
+                    break;
+                case "--labels":
+                    options.labels = new File(value);
+                    break;
+                case "--out":
+                    options.out = new File(value);
+                    break;
+                case "--metrics":
+                    options.metrics = new File(value);
+                    break;
+                case "--raw-size":
+                    int x = value.indexOf('x');
+                    if (x < 0) throw new IllegalArgumentException("Expected <W>x<H>, got " + value);
+                    options.rawWidth = positive(arg, value.substring(0, x));
+                    options.rawHeight = positive(arg, value.substring(x + 1));
+                    break;
+                case "--input-size":
+                    options.inputSize = positive(arg, value);
+                    break;
+                case "--score":
+                    options.scoreThreshold = Float.parseFloat(value);
+                    break;
+                case "--iou":
+                    options.iouThreshold = Float.parseFloat(value);
+                    break;
+                case "--jobs":
+                    options.jobs = positive(arg, value);
+                    break;
+                case "--sessions":
+                    options.sessions = positive(arg, value);
+                    break;
+                case "--session-threads":
+                    options.sessionThreads = positive(arg, value);
+                    break;
+                case "--batch":
+                    options.batch = positive(arg, value);
+                    break;
+                case "--batch-delay":
+                    options.batchDelayMs = positive(arg, value);
+                    break;
+                case "--tiling":
+                    try {
+                        options.tiling = TilePlanner.Mode.valueOf(value.toUpperCase(Locale.US));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("--tiling: expected tiles or roi, got " + value);
+                    }
+                    break;
+                case "--tile-overlap":
+                    options.tileOverlap = Float.parseFloat(value);
+                    break;
+                case "--tile-budget":
+                    options.tileBudgetMs = positive(arg, value);
+                    break;
+                case "--motion-gate":
+                    options.motionGate = positive(arg, value);
+                    break;
+                case "--gate-threshold":
+                    options.gateThreshold = positive(arg, value);
+                    break;
+                case "--gate-fraction":
+                    options.gateFraction = Float.parseFloat(value);
+                    break;
+                case "--compare":
+                    options.compare = new File(value);
+                    break;
+                case "--ground-truth":
+                    options.groundTruth = new File(value);
+                    break;
+                case "--min-agreement":
+                    options.minAgreement = Float.parseFloat(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (options.model == null || options.labels == null) {
+            throw new IllegalArgumentException("--model and --labels are required");
+        }
+        if (options.inputs.isEmpty()) {
+            throw new IllegalArgumentException("No inputs given");
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        if (options.jobs == 0) options.jobs = cores;
+        if (options.sessions == 0) options.sessions = Math.max(1, cores / 4);
+        if (options.sessionThreads == 0) options.sessionThreads = Math.max(1, cores / options.sessions);
+        return options;
+    }
+
+    private static int positive(String option, String value) {
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + ": not a number: " + value);
+        }
+        if (parsed <= 0) {
+            throw new IllegalArgumentException(option + " must be positive: " + value);
+        }
+        return parsed;
+    }
+}
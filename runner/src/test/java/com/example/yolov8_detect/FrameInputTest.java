@@ -0,0 +1,87 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FrameInputTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void toI420_roundTripsThroughYuvPreprocessor() {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                image.setRGB(x, y, 0xC86432);
+            }
+        }
+        YuvFrame frame = FrameInput.toI420(image);
+        FloatBuffer tensor = FloatBuffer.allocate(3 * 8 * 8);
+        new YuvPreprocessor(8, 8).preprocess(frame, tensor);
+
+        assertEquals(200 / 255f, tensor.get(27), 2 / 255f);
+        assertEquals(100 / 255f, tensor.get(64 + 27), 2 / 255f);
+        assertEquals(50 / 255f, tensor.get(128 + 27), 2 / 255f);
+    }
+
+    @Test
+    public void rawI420_isSplitIntoFrames() throws Exception {
+        // Three 4x2 frames: 8 bytes Y + 2 + 2 bytes chroma, Y filled with the frame number
+        File file = folder.newFile("clip.yuv");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            for (int f = 0; f < 3; f++) {
+                byte[] frame = new byte[12];
+                Arrays.fill(frame, 0, 8, (byte) f);
+                Arrays.fill(frame, 8, 12, (byte) 128);
+                out.write(frame);
+            }
+        }
+
+        List<FrameInput> inputs = FrameInput.collect(Arrays.asList(folder.getRoot()), 4, 2);
+
+        assertEquals(1, inputs.size());
+        assertEquals(3, inputs.get(0).getFrameCount());
+        YuvFrame frame = inputs.get(0).read(2);
+        assertEquals(4, frame.getWidth());
+        assertEquals(2, frame.getYBuffer().get(7));
+        assertEquals((byte) 128, frame.getVBuffer().get(1));
+    }
+
+    @Test
+    public void deviceRecording_isReplayedFrameByFrame() throws Exception {
+        File file = new File(folder.getRoot(), "field.yfr");
+        try (FrameRecorder recorder = new FrameRecorder(file, 4)) {
+            for (int f = 0; f < 2; f++) {
+                BufferedImage image = new BufferedImage(16, 8, BufferedImage.TYPE_INT_RGB);
+                while (!recorder.offer(FrameInput.toI420(image), f, 90)) {
+                    Thread.sleep(1);
+                }
+            }
+        }
+
+        List<FrameInput> inputs = FrameInput.collect(Arrays.asList(folder.getRoot()), -1, -1);
+        try (FrameInput input = inputs.get(0)) {
+            assertEquals(2, input.getFrameCount());
+            assertEquals(16, input.read(1).getWidth());
+        }
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void rawI420_withPartialFrameIsRejected() throws Exception {
+        File file = folder.newFile("broken.i420");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[13]);
+        }
+        FrameInput.collect(Arrays.asList(file), 4, 2);
+    }
+}
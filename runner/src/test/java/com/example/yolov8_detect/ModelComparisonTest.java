@@ -0,0 +1,58 @@
+package com.example.yolov8_detect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ModelComparisonTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void match_countsSameClassOverlapsOnce() {
+        ModelComparison.Boxes reference = new ModelComparison.Boxes(4);
+        reference.add(0, 0, 100, 100, 1, 0.9f);
+        reference.add(200, 200, 300, 300, 2, 0.8f);
+        reference.add(400, 0, 500, 100, 3, 0.7f);
+        ModelComparison.Boxes candidate = new ModelComparison.Boxes(4);
+        // Slightly shifted copy of the first box, twice: only one of them may match
+        candidate.add(0, 0, 100, 90, 1, 0.8f);
+        candidate.add(0, 0, 100, 95, 1, 0.85f);
+        // Right place, wrong class
+        candidate.add(200, 200, 300, 300, 1, 0.8f);
+
+        ModelComparison.Counts counts = new ModelComparison.Counts();
+        ModelComparison.match(reference, candidate, true, counts);
+
+        assertEquals(1, counts.matched);
+        assertEquals(1 / 3.0, counts.recall(), 1e-9);
+        assertEquals(1 / 3.0, counts.precision(), 1e-9);
+        // Best overlap wins
+        assertEquals(0.95, counts.meanIou(), 1e-6);
+        assertEquals(0.05, counts.meanScoreDelta(), 1e-6);
+    }
+
+    @Test
+    public void yoloLabels_areReadInSourcePixels() throws Exception {
+        File image = new File(folder.getRoot(), "street.jpg");
+        File labels = ModelComparison.groundTruthFile(folder.getRoot(), image);
+        assertEquals("street.txt", labels.getName());
+        try (FileOutputStream out = new FileOutputStream(labels)) {
+            out.write("1 0.5 0.5 0.25 0.5\n\n7 0.1 0.1 0.1 0.1\n".getBytes("UTF-8"));
+        }
+
+        ModelComparison.Boxes truth = new ModelComparison.Boxes(8);
+        ModelComparison.readYoloLabels(labels, 800, 400, truth);
+
+        assertEquals(2, truth.count);
+        assertEquals(1, truth.classIds[0]);
+        assertArrayEquals(new float[]{300, 100, 500, 300}, Arrays.copyOf(truth.boxes, 4), 1e-3f);
+        assertEquals(7, truth.classIds[1]);
+    }
+}
@@ -0,0 +1,499 @@
+package com.example.yolov8_detect;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+// Detection over HTTP for footage uploaded from other devices, on a plain Linux box, CPU only.
+// Requests go through the same chain as the runner and the app: YuvPreprocessor (letterbox) ->
+// ORT session -> BatchDetector (decode + NMS), boxes mapped back to the uploaded frame.
+//   POST /detect                     JPEG or PNG body
+//   POST /detect?width=W&height=H    raw RGB24 body (Content-Type application/octet-stream)
+//   GET  /metrics                    Prometheus text format
+//   GET  /health
+// Concurrent requests are micro-batched: each preprocessed frame waits in a BatchQueue for at
+// most --batch-delay while one thread per session gathers up to --batch of them for one run.
+// Admission is bounded by --queue staging buffers. A request takes one before its body is
+// decoded and gives it back when its batch starts; with none left it is answered 503 with
+// Retry-After right away, so overload turns into fast rejections instead of growing latency.
+public final class DetectionServer implements AutoCloseable {
+    static final String METRIC_PREFIX = "yolo";
+    static final String RAW_RGB = "application/octet-stream";
+    // Detections kept per frame after NMS
+    private static final int MAX_DETECTIONS = 100;
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    private final ServerOptions options;
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    private final Map<Integer, AtomicLong> responses = new ConcurrentHashMap<>();
+    private String[] labels;
+    private int inputSize;
+    private OrtEnvironment environment;
+    private final List<Worker> workers = new ArrayList<>();
+    private final List<Thread> batchThreads = new ArrayList<>();
+    private BatchQueue<Request> batchQueue;
+    private BlockingQueue<FloatBuffer> stagingBuffers;
+    private ExecutorService handlers;
+    private ExecutorService decodeExecutor;
+    private HttpServer server;
+    private final ThreadLocal<YuvPreprocessor> preprocessors = new ThreadLocal<YuvPreprocessor>() {
+        @Override
+        protected YuvPreprocessor initialValue() {
+            return new YuvPreprocessor(inputSize, inputSize, ResizeMode.LETTERBOX);
+        }
+    };
+
+    DetectionServer(ServerOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ServerOptions options;
+        try {
+            options = ServerOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(ServerOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        final DetectionServer server = new DetectionServer(options);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "shutdown"));
+        System.err.println("Listening on http://" + options.host + ":" + server.getPort()
+                + "/detect (" + options.sessions + " sessions, batch " + server.workers.get(0).detector.getMaxBatch()
+                + ", queue " + options.queue + ")");
+    }
+
+    void start() throws IOException, OrtException {
+        labels = LabelSpace.readLabels(options.labels);
+        environment = OrtEnvironment.getEnvironment();
+        SessionFactory factory = new SessionFactory(environment);
+        SessionConfig config = SessionConfig.builder().intraOpThreads(options.sessionThreads).build();
+        try {
+            ModelSignature signature = null;
+            for (int i = 0; i < options.sessions; i++) {
+                OrtSession session = factory.createSession(options.model.getPath(), config);
+                if (signature == null) {
+                    try {
+                        signature = ModelSignature.read(session);
+                        inputSize = signature.squareInputSize(labels.length, options.inputSize);
+                    } catch (RuntimeException e) {
+                        session.close();
+                        throw e;
+                    }
+                }
+                workers.add(new Worker(session, signature));
+            }
+            int maxBatch = workers.get(0).detector.getMaxBatch();
+            if (maxBatch != options.batch) {
+                System.err.println("Model takes batches of " + maxBatch + ": " + signature);
+            }
+
+            batchQueue = new BatchQueue<>(options.queue, options.batchDelayMs, TimeUnit.MILLISECONDS);
+            stagingBuffers = new ArrayBlockingQueue<>(options.queue);
+            for (int i = 0; i < options.queue; i++) {
+                stagingBuffers.add(ByteBuffer.allocateDirect(3 * inputSize * inputSize * 4)
+                        .order(ByteOrder.nativeOrder()).asFloatBuffer());
+            }
+            decodeExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxBatch,
+                    Runtime.getRuntime().availableProcessors())));
+            for (final Worker worker : workers) {
+                worker.detector.setExecutor(decodeExecutor);
+                Thread thread = new Thread(() -> runBatches(worker), "batch-" + batchThreads.size());
+                thread.setDaemon(true);
+                batchThreads.add(thread);
+                thread.start();
+            }
+
+            // Admitted requests (queued or in a running batch) block their handler thread until
+            // answered; the extra threads keep turning away the rest meanwhile
+            handlers = Executors.newFixedThreadPool(options.queue + options.sessions * maxBatch
+                    + Runtime.getRuntime().availableProcessors());
+            server = HttpServer.create(new InetSocketAddress(options.host, options.port), 0);
+            server.setExecutor(handlers);
+            server.createContext("/detect", exchange -> handle(exchange, this::detect));
+            server.createContext("/metrics", exchange -> handle(exchange, this::metrics));
+            server.createContext("/health", exchange -> handle(exchange, this::health));
+            // Session creation is not part of the measured run
+            metrics.reset();
+            server.start();
+        } catch (IOException | OrtException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (handlers != null) handlers.shutdownNow();
+        if (batchQueue != null) {
+            // Batch threads finish what is queued and stop before their sessions close
+            batchQueue.close();
+            for (Thread thread : batchThreads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (decodeExecutor != null) decodeExecutor.shutdownNow();
+        for (Worker worker : workers) {
+            worker.close();
+        }
+        workers.clear();
+    }
+
+    private void detect(HttpExchange exchange) throws IOException, HttpError {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            throw new HttpError(405, "Use POST");
+        }
+        Request request = new Request(metrics.start());
+        metrics.increment(PipelineMetrics.Counter.FRAMES_IN);
+        FloatBuffer staged = stagingBuffers.poll();
+        if (staged == null) {
+            reject(exchange);
+            return;
+        }
+        try {
+            byte[] body = readBody(exchange.getRequestBody(), options.maxBodyBytes);
+            YuvFrame frame = decode(exchange.getRequestHeaders().getFirst("Content-Type"),
+                    exchange.getRequestURI().getRawQuery(), body);
+            request.width = frame.getWidth();
+            request.height = frame.getHeight();
+            staged.clear();
+            long preprocessStart = metrics.start();
+            request.transform = preprocessors.get().preprocess(frame, staged);
+            metrics.record(PipelineMetrics.Stage.PREPROCESS, preprocessStart);
+            request.staged = staged;
+            staged = null;
+            if (!batchQueue.offer(request)) {
+                // Closing down
+                stagingBuffers.add(request.staged);
+                request.staged = null;
+                reject(exchange);
+                return;
+            }
+        } finally {
+            if (staged != null) stagingBuffers.add(staged);
+        }
+
+        String json;
+        try {
+            json = request.get(options.timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Still in its batch; the detections are dropped when they arrive
+            throw new HttpError(504, "No detections within " + options.timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpError(503, "Shutting down");
+        } catch (ExecutionException e) {
+            throw new HttpError(500, String.valueOf(e.getCause()));
+        }
+        send(exchange, 200, "application/json", json);
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        StringBuilder text = new StringBuilder(metrics.snapshot().toPrometheus(METRIC_PREFIX));
+        gauge(text, "queued_requests", batchQueue.size());
+        gauge(text, "admitted_requests", options.queue - stagingBuffers.size());
+        gauge(text, "admission_capacity", options.queue);
+        String name = METRIC_PREFIX + "_http_responses_total";
+        text.append("# TYPE ").append(name).append(" counter\n");
+        for (Map.Entry<Integer, AtomicLong> entry : responses.entrySet()) {
+            text.append(name).append("{code=\"").append(entry.getKey()).append("\"} ")
+                    .append(entry.getValue().get()).append('\n');
+        }
+        send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", text.toString());
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        send(exchange, 200, "text/plain; charset=utf-8", "ok\n");
+    }
+
+    private void reject(HttpExchange exchange) throws IOException {
+        metrics.increment(PipelineMetrics.Counter.FRAMES_DROPPED);
+        exchange.getResponseHeaders().set("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+        send(exchange, 503, "application/json", error("Queue full"));
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) {
+        try {
+            handler.handle(exchange);
+        } catch (HttpError e) {
+            try {
+                send(exchange, e.status, "application/json", error(e.getMessage()));
+            } catch (IOException ignored) {
+                // Client gone
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                send(exchange, 500, "application/json", error(String.valueOf(e)));
+            } catch (IOException ignored) {
+                // Client gone, or the response had already started
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        AtomicLong count = responses.get(status);
+        if (count == null) {
+            responses.putIfAbsent(status, new AtomicLong());
+            count = responses.get(status);
+        }
+        count.incrementAndGet();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // One thread per session, runs whatever the queue hands out until it is closed
+    private void runBatches(Worker worker) {
+        List<Request> batch = new ArrayList<>(worker.detector.getMaxBatch());
+        try {
+            while (batchQueue.take(batch, worker.detector.getMaxBatch()) > 0) {
+                try {
+                    runBatch(worker, batch);
+                } catch (Throwable e) {
+                    for (Request request : batch) {
+                        if (request.staged != null) stagingBuffers.add(request.staged);
+                        request.staged = null;
+                        request.fail(e);
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runBatch(Worker worker, List<Request> batch) throws OrtException, InterruptedException {
+        BatchDetector detector = worker.detector;
+        int count = batch.size();
+        for (int i = 0; i < count; i++) {
+            Request request = batch.get(i);
+            FloatBuffer staged = request.staged;
+            staged.rewind();
+            detector.getInput(i).put(staged);
+            request.staged = null;
+            stagingBuffers.add(staged);
+        }
+        detector.run(worker.session, count);
+        for (int i = 0; i < count; i++) {
+            Request request = batch.get(i);
+            Detections detections = detector.getDetections(i);
+            StringBuilder json = new StringBuilder(96 + detections.size() * 96);
+            json.append("{\"width\":").append(request.width)
+                    .append(",\"height\":").append(request.height)
+                    .append(",\"batch\":").append(count)
+                    .append(",\"detections\":");
+            DetectionJson.appendDetections(json, detections, request.transform.inverse(), labels, worker.box);
+            json.append('}');
+
+            metrics.record(PipelineMetrics.Stage.FRAME, request.start);
+            metrics.increment(PipelineMetrics.Counter.FRAMES_OUT);
+            metrics.add(PipelineMetrics.Counter.DETECTIONS, detections.size());
+            request.complete(json.toString());
+        }
+    }
+
+    // A JPEG/PNG body, or raw RGB24 rows (Content-Type RAW_RGB) with the size in the query
+    static YuvFrame decode(String contentType, String query, byte[] body) throws HttpError {
+        if (contentType != null && contentType.toLowerCase(Locale.US).startsWith(RAW_RGB)) {
+            Map<String, String> parameters = parseQuery(query);
+            int width = dimension(parameters, "width");
+            int height = dimension(parameters, "height");
+            if ((long) width * height * 3 != body.length) {
+                throw new HttpError(400, width + "x" + height + " RGB takes " + (long) width * height * 3
+                        + " bytes, got " + body.length);
+            }
+            int[] argb = new int[width * height];
+            for (int i = 0, p = 0; i < argb.length; i++, p += 3) {
+                argb[i] = (body[p] & 0xFF) << 16 | (body[p + 1] & 0xFF) << 8 | body[p + 2] & 0xFF;
+            }
+            return YuvFrame.fromRgb(argb, width, height);
+        }
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream(body));
+        } catch (IOException e) {
+            image = null;
+        }
+        if (image == null) {
+            throw new HttpError(415, "Expected a JPEG or PNG image, or " + RAW_RGB + " with width and height");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        return YuvFrame.fromRgb(image.getRGB(0, 0, width, height, null, 0, width), width, height);
+    }
+
+    static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) return parameters;
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            try {
+                if (equals < 0) {
+                    parameters.put(URLDecoder.decode(pair, "UTF-8"), "");
+                } else {
+                    parameters.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"),
+                            URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+                }
+            } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                // Malformed escape: the pair is ignored
+            }
+        }
+        return parameters;
+    }
+
+    private static int dimension(Map<String, String> parameters, String name) throws HttpError {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new HttpError(400, "Raw RGB needs " + name + " in the query");
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) return parsed;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new HttpError(400, name + " must be a positive number: " + value);
+    }
+
+    static byte[] readBody(InputStream in, int maxBytes) throws IOException, HttpError {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64 * 1024);
+        byte[] chunk = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(chunk)) > 0) {
+            if (body.size() + read > maxBytes) {
+                throw new HttpError(413, "Body larger than " + maxBytes + " bytes");
+            }
+            body.write(chunk, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static void gauge(StringBuilder text, String key, long value) {
+        String name = METRIC_PREFIX + '_' + key;
+        text.append("# TYPE ").append(name).append(" gauge\n").append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder(64 + message.length());
+        json.append("{\"error\":");
+        DetectionJson.appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException, HttpError;
+    }
+
+    // Answered with its status and message as {"error": ...}
+    static final class HttpError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // One ORT session and the batch it runs
+    private final class Worker implements AutoCloseable {
+        final OrtSession session;
+        final BatchDetector detector;
+        final float[] box = new float[4];
+
+        Worker(OrtSession session, ModelSignature signature) {
+            this.session = session;
+            detector = new BatchDetector(environment, signature, labels.length, inputSize, inputSize,
+                    options.batch, options.scoreThreshold, options.iouThreshold, MAX_DETECTIONS);
+            detector.setMetrics(metrics);
+        }
+
+        @Override
+        public void close() {
+            detector.close();
+            try {
+                session.close();
+            } catch (OrtException e) {
+                System.err.println("Error closing session: " + e.getMessage());
+            }
+        }
+    }
+
+    // An admitted request waiting for its batch; the batch thread completes it with the JSON body
+    private static final class Request extends FutureTask<String> {
+        final long start;
+        int width;
+        int height;
+        FrameTransform transform;
+        FloatBuffer staged;
+
+        Request(long start) {
+            super(() -> null);
+            this.start = start;
+        }
+
+        void complete(String json) {
+            set(json);
+        }
+
+        void fail(Throwable e) {
+            setException(e);
+        }
+    }
+}
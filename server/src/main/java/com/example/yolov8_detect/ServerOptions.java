@@ -0,0 +1,122 @@
+package com.example.yolov8_detect;
+
+import java.io.File;
+
+// Command line of DetectionServer. Detection defaults match the runner and the app (letterbox,
+// score 0.4, IoU 0.5); batching is on by default since concurrent uploads are the use case.
+final class ServerOptions {
+    static final String USAGE = "Usage: server --model <model.onnx> --labels <label.txt> [options]\n"
+            + "  --host <address>          address to listen on (default 127.0.0.1)\n"
+            + "  --port <N>                port (default 8080, 0 picks a free one)\n"
+            + "  --input-size <N>          input size of models with dynamic input (default 640)\n"
+            + "  --score <f>               score threshold (default 0.4)\n"
+            + "  --iou <f>                 NMS IoU threshold (default 0.5)\n"
+            + "  --sessions <N>            concurrent ORT sessions (default: cores / 4)\n"
+            + "  --session-threads <N>     intra-op threads per session (default: cores / sessions)\n"
+            + "  --batch <N>               requests per session run (default 4; model exported with dynamic or N batch)\n"
+            + "  --batch-delay <ms>        longest a request waits for its batch to fill (default 10)\n"
+            + "  --queue <N>               requests admitted at once, more get 503 (default: 2 x batch x sessions)\n"
+            + "  --timeout <ms>            longest a request waits for its detections, then 504 (default 10000)\n"
+            + "  --max-body <MB>           largest accepted upload (default 16)";
+
+    File model;
+    File labels;
+    String host = "127.0.0.1";
+    int port = 8080;
+    // 0: from the model
+    int inputSize;
+    float scoreThreshold = 0.4f;
+    float iouThreshold = 0.5f;
+    int sessions;
+    int sessionThreads;
+    int batch = 4;
+    int batchDelayMs = 10;
+    int queue;
+    int timeoutMs = 10000;
+    int maxBodyBytes = 16 << 20;
+
+    static ServerOptions parse(String[] args) {
+        ServerOptions options = new ServerOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--model":
+                    options.model = new File(value);
+                    break;
+                case "--labels":
+                    options.labels = new File(value);
+                    break;
+                case "--host":
+                    options.host = value;
+                    break;
+                case "--port":
+                    options.port = Integer.parseInt(value.trim());
+                    if (options.port < 0 || options.port > 65535) {
+                        throw new IllegalArgumentException("--port out of range: " + value);
+                    }
+                    break;
+                case "--input-size":
+                    options.inputSize = positive(arg, value);
+                    break;
+                case "--score":
+                    options.scoreThreshold = Float.parseFloat(value);
+                    break;
+                case "--iou":
+                    options.iouThreshold = Float.parseFloat(value);
+                    break;
+                case "--sessions":
+                    options.sessions = positive(arg, value);
+                    break;
+                case "--session-threads":
+                    options.sessionThreads = positive(arg, value);
+                    break;
+                case "--batch":
+                    options.batch = positive(arg, value);
+                    break;
+                case "--batch-delay":
+                    options.batchDelayMs = positive(arg, value);
+                    break;
+                case "--queue":
+                    options.queue = positive(arg, value);
+                    break;
+                case "--timeout":
+                    options.timeoutMs = positive(arg, value);
+                    break;
+                case "--max-body":
+                    options.maxBodyBytes = positive(arg, value) << 20;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (options.model == null || options.labels == null) {
+            throw new IllegalArgumentException("--model and --labels are required");
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        if (options.sessions == 0) options.sessions = Math.max(1, cores / 4);
+        if (options.sessionThreads == 0) options.sessionThreads = Math.max(1, cores / options.sessions);
+        if (options.queue == 0) options.queue = 2 * options.batch * options.sessions;
+        return options;
+    }
+
+    private static int positive(String option, String value) {
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + ": not a number: " + value);
+        }
+        if (parsed <= 0) {
+            throw new IllegalArgumentException(option + " must be positive: " + value);
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.yolov8_detect;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+public class DetectionServerTest {
+    // 32x32 input, classes "orang" and "mobil", anchor 0 a 8x8 "mobil" at the center.
+    // The model scales its output by the frame mean, 1 for the white frames posted here.
+    private static final int SIZE = 32;
+    private static final float[] OUTPUT = {
+            16, 0,
+            16, 0,
+            8, 0,
+            8, 0,
+            0, 0,
+            0.9f, 0};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DetectionServer server;
+    private ExecutorService clients;
+
+    @After
+    public void tearDown() {
+        if (clients != null) clients.shutdownNow();
+        if (server != null) server.close();
+    }
+
+    @Test
+    public void detect_batchesConcurrentRequests() throws Exception {
+        start("--batch", "4", "--batch-delay", "2000");
+        final CountDownLatch ready = new CountDownLatch(4);
+        List<Future<Response>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            responses.add(clients.submit(() -> {
+                ready.countDown();
+                ready.await();
+                return post();
+            }));
+        }
+
+        for (Future<Response> future : responses) {
+            Response response = future.get();
+            assertEquals(response.body, 200, response.status);
+            // The fourth request fills the batch long before the delay runs out
+            assertTrue(response.body, response.body.startsWith("{\"width\":32,\"height\":32,\"batch\":4,"));
+            assertTrue(response.body, response.body.contains(
+                    "{\"class_id\":1,\"label\":\"mobil\",\"score\":0.9000,\"box\":[12.0000,12.0000,20.0000,20.0000]}"));
+        }
+        String metrics = get("/metrics").body;
+        assertTrue(metrics, metrics.contains("yolo_batches_total 1\n"));
+        assertTrue(metrics, metrics.contains("yolo_frames_out_total 4\n"));
+    }
+
+    @Test
+    public void detect_rejectsRequestsBeyondTheQueueAndTimesOutWaitingOnes() throws Exception {
+        // Two admitted requests wait for a batch of four far longer than the timeout
+        start("--batch", "4", "--batch-delay", "3000", "--queue", "2", "--timeout", "300");
+        List<Future<Response>> admitted = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            admitted.add(clients.submit(this::post));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!get("/metrics").body.contains("yolo_admitted_requests 2\n")) {
+            assertTrue("requests not admitted", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+
+        Response rejected = post();
+        assertEquals(rejected.body, 503, rejected.status);
+        assertEquals("1", rejected.retryAfter);
+
+        for (Future<Response> future : admitted) {
+            Response response = future.get();
+            assertEquals(response.body, 504, response.status);
+            assertTrue(response.body, response.body.contains("300 ms"));
+        }
+        String metrics = get("/metrics").body;
+        assertTrue(metrics, metrics.contains("yolo_http_responses_total{code=\"503\"} 1\n"));
+        assertTrue(metrics, metrics.contains("yolo_http_responses_total{code=\"504\"} 2\n"));
+    }
+
+    @Test
+    public void decode_rawRgbUsesSizeFromQuery() throws Exception {
+        // 4x2, every pixel (200, 100, 50)
+        byte[] body = new byte[4 * 2 * 3];
+        for (int p = 0; p < body.length; p += 3) {
+            body[p] = (byte) 200;
+            body[p + 1] = 100;
+            body[p + 2] = 50;
+        }
+
+        YuvFrame frame = DetectionServer.decode("application/octet-stream", "width=4&height=2", body);
+
+        assertEquals(4, frame.getWidth());
+        assertEquals(2, frame.getHeight());
+        // Full range BT.601 luma of (200, 100, 50)
+        assertEquals(124, frame.getYBuffer().get(5) & 0xFF, 1);
+    }
+
+    @Test
+    public void decode_rejectsRawBodyOfWrongSize() {
+        try {
+            DetectionServer.decode("application/octet-stream", "width=4&height=2", new byte[20]);
+            fail();
+        } catch (DetectionServer.HttpError e) {
+            assertEquals(400, e.status);
+            assertTrue(e.getMessage(), e.getMessage().contains("24 bytes"));
+        }
+        try {
+            DetectionServer.decode("application/octet-stream", "width=4", new byte[24]);
+            fail();
+        } catch (DetectionServer.HttpError e) {
+            assertEquals(400, e.status);
+        }
+    }
+
+    @Test
+    public void decode_readsPngAndRejectsOtherBytes() throws Exception {
+        BufferedImage image = new BufferedImage(6, 5, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+
+        YuvFrame frame = DetectionServer.decode("image/png", null, png.toByteArray());
+        assertEquals(6, frame.getWidth());
+        assertEquals(5, frame.getHeight());
+
+        try {
+            DetectionServer.decode("image/jpeg", null, "not an image".getBytes("UTF-8"));
+            fail();
+        } catch (DetectionServer.HttpError e) {
+            assertEquals(415, e.status);
+        }
+    }
+
+    @Test
+    public void parseQuery_decodesPairs() {
+        Map<String, String> parameters = DetectionServer.parseQuery("width=640&height=480&name=a%20b&flag");
+        assertEquals("640", parameters.get("width"));
+        assertEquals("480", parameters.get("height"));
+        assertEquals("a b", parameters.get("name"));
+        assertEquals("", parameters.get("flag"));
+        assertTrue(DetectionServer.parseQuery(null).isEmpty());
+    }
+
+    @Test
+    public void readBody_refusesUploadsOverTheLimit() throws Exception {
+        assertEquals(100, DetectionServer.readBody(new ByteArrayInputStream(new byte[100]), 100).length);
+        try {
+            DetectionServer.readBody(new ByteArrayInputStream(new byte[101]), 100);
+            fail();
+        } catch (DetectionServer.HttpError e) {
+            assertEquals(413, e.status);
+        }
+    }
+
+    @Test
+    public void options_defaultQueueHoldsTwoBatchesPerSession() {
+        ServerOptions options = ServerOptions.parse(new String[]{
+                "--model", "m.onnx", "--labels", "label.txt", "--sessions", "2", "--batch", "3", "--port", "0"});
+        assertEquals(12, options.queue);
+        assertEquals(0, options.port);
+        assertEquals("127.0.0.1", options.host);
+    }
+
+    private void start(String... options) throws Exception {
+        File model = TestModels.write(folder.getRoot(), "detector.onnx", TestModels.batchDetector(SIZE, OUTPUT, 2, 2));
+        File labels = folder.newFile("label.txt");
+        try (FileOutputStream out = new FileOutputStream(labels)) {
+            out.write("orang\nmobil\n".getBytes(StandardCharsets.UTF_8));
+        }
+        List<String> args = new ArrayList<>(Arrays.asList("--model", model.getPath(), "--labels", labels.getPath(),
+                "--port", "0", "--sessions", "1", "--session-threads", "1"));
+        args.addAll(Arrays.asList(options));
+        server = new DetectionServer(ServerOptions.parse(args.toArray(new String[0])));
+        server.start();
+        clients = Executors.newCachedThreadPool();
+    }
+
+    // A white SIZE x SIZE frame as raw RGB
+    private Response post() throws IOException {
+        byte[] body = new byte[SIZE * SIZE * 3];
+        Arrays.fill(body, (byte) 255);
+        HttpURLConnection connection = open("/detect?width=" + SIZE + "&height=" + SIZE);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", DetectionServer.RAW_RGB);
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        return new Response(connection);
+    }
+
+    private Response get(String path) throws IOException {
+        return new Response(open(path));
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http://127.0.0.1:" + server.getPort() + path).openConnection();
+        connection.setReadTimeout(10000);
+        return connection;
+    }
+
+    private static final class Response {
+        final int status;
+        final String retryAfter;
+        final String body;
+
+        Response(HttpURLConnection connection) throws IOException {
+            status = connection.getResponseCode();
+            retryAfter = connection.getHeaderField("Retry-After");
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            try {
+                for (int n; (n = in.read(chunk)) > 0; ) {
+                    bytes.write(chunk, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+            body = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
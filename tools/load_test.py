@@ -0,0 +1,116 @@
+#!/usr/bin/env python3
+"""Load test for the detection server (server module), standard library only.
+
+    ./gradlew :server:run --args="--model cobaa.onnx --labels label.txt --batch 8"
+    python3 tools/load_test.py --concurrency 16 --requests 2000 samples/street.jpg samples/night.png
+    python3 tools/load_test.py --raw-size 1280x720 --concurrency 32 frame.rgb
+
+Every worker thread keeps one request in flight, cycling through the given files (JPEG/PNG, or
+raw RGB24 with --raw-size). 503 answers are the server's backpressure: they are counted, not
+retried. At the end prints throughput, latency percentiles of the accepted requests, the status
+counts and the mean batch size the server reported, next to the server's own /metrics.
+"""
+import argparse
+import sys
+import threading
+import time
+import urllib.error
+import urllib.request
+
+
+def content_type(path, raw):
+    if raw:
+        return "application/octet-stream"
+    return "image/png" if path.lower().endswith(".png") else "image/jpeg"
+
+
+def percentile(values, p):
+    if not values:
+        return 0.0
+    values = sorted(values)
+    return values[min(len(values) - 1, int(p * len(values)))]
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("files", nargs="+")
+    parser.add_argument("--url", default="http://127.0.0.1:8080/detect")
+    parser.add_argument("--concurrency", type=int, default=8)
+    parser.add_argument("--requests", type=int, default=500)
+    parser.add_argument("--raw-size", help="WxH of raw RGB24 files")
+    parser.add_argument("--timeout", type=float, default=30)
+    args = parser.parse_args()
+
+    url = args.url
+    if args.raw_size:
+        width, height = args.raw_size.lower().split("x")
+        url += ("&" if "?" in url else "?") + "width=%s&height=%s" % (width, height)
+    bodies = []
+    for path in args.files:
+        with open(path, "rb") as f:
+            bodies.append((f.read(), content_type(path, args.raw_size)))
+
+    lock = threading.Lock()
+    next_request = [0]
+    latencies = []
+    statuses = {}
+    batches = []
+
+    def worker():
+        while True:
+            with lock:
+                index = next_request[0]
+                if index >= args.requests:
+                    return
+                next_request[0] += 1
+            body, kind = bodies[index % len(bodies)]
+            request = urllib.request.Request(url, data=body, headers={"Content-Type": kind})
+            start = time.perf_counter()
+            try:
+                with urllib.request.urlopen(request, timeout=args.timeout) as response:
+                    text = response.read().decode("utf-8")
+                    status = response.status
+            except urllib.error.HTTPError as e:
+                e.read()
+                status, text = e.code, None
+            except (urllib.error.URLError, OSError) as e:
+                status, text = type(e).__name__, None
+            elapsed = time.perf_counter() - start
+            with lock:
+                statuses[status] = statuses.get(status, 0) + 1
+                if status == 200:
+                    latencies.append(elapsed * 1000)
+                    at = text.find('"batch":')
+                    if at >= 0:
+                        batches.append(int(text[at + 8:text.index(",", at)]))
+
+    threads = [threading.Thread(target=worker) for _ in range(args.concurrency)]
+    start = time.perf_counter()
+    for thread in threads:
+        thread.start()
+    for thread in threads:
+        thread.join()
+    elapsed = time.perf_counter() - start
+
+    accepted = len(latencies)
+    print("%d requests in %.2f s, concurrency %d" % (args.requests, elapsed, args.concurrency))
+    print("accepted %d (%.1f/s)  statuses %s" % (accepted, accepted / elapsed,
+                                                  " ".join("%s:%d" % item for item in sorted(statuses.items(), key=str))))
+    print("latency ms  p50 %.1f  p95 %.1f  p99 %.1f  max %.1f" % (
+        percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+        max(latencies) if latencies else 0))
+    if batches:
+        print("mean batch %.2f" % (sum(batches) / len(batches)))
+
+    metrics_url = args.url.split("?")[0].rsplit("/", 1)[0] + "/metrics"
+    try:
+        with urllib.request.urlopen(metrics_url, timeout=args.timeout) as response:
+            lines = response.read().decode("utf-8").splitlines()
+        print("\n".join(line for line in lines if not line.startswith("#") and ("frame\"" in line or "_total" in line)))
+    except (urllib.error.URLError, OSError) as e:
+        print("no metrics from %s: %s" % (metrics_url, e), file=sys.stderr)
+    return 0 if statuses.get(200) else 1
+
+
+if __name__ == "__main__":
+    sys.exit(main())
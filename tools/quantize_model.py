@@ -0,0 +1,170 @@
+#!/usr/bin/env python3
+"""Builds and checks reduced precision variants of the detector for models.properties.
+
+    pip install onnx onnxruntime onnxconverter-common numpy
+    python3 tools/quantize_model.py app/src/main/assets/cobaa.onnx --precision int8
+    python3 tools/quantize_model.py app/src/main/assets/cobaa.onnx --precision fp16 --images samples/
+
+int8: dynamic quantization (weights to int8, activations quantized at run time), no
+      calibration data needed. Conv layers become ConvInteger, which the ORT CPU provider runs.
+fp16: weights and activations in float16; inputs and outputs stay float32 (keep_io_types),
+      so the app feeds the same tensors to every variant.
+
+The variant is verified against the original on the CPU before it is written: same input and
+output signature, raw output difference and detection agreement after decode + NMS on the
+given images (or random inputs). A manifest entry for the new file is printed at the end.
+Compare latency and accuracy on real frames with the runner's compareModels task.
+"""
+import argparse
+import os
+import sys
+import time
+
+import numpy as np
+import onnx
+import onnxruntime as ort
+
+
+def quantize(source, target, precision, per_channel):
+    if precision == "int8":
+        from onnxruntime.quantization import QuantType, quantize_dynamic
+        quantize_dynamic(source, target, weight_type=QuantType.QUInt8, per_channel=per_channel,
+                         op_types_to_quantize=["Conv", "MatMul"])
+    else:
+        from onnxconverter_common import float16
+        model = onnx.load(source)
+        onnx.save(float16.convert_float_to_float16(model, keep_io_types=True), target)
+
+
+def session(path):
+    options = ort.SessionOptions()
+    options.graph_optimization_level = ort.GraphOptimizationLevel.ORT_ENABLE_ALL
+    return ort.InferenceSession(path, options, providers=["CPUExecutionProvider"])
+
+
+def signature(sess):
+    i = sess.get_inputs()[0]
+    o = sess.get_outputs()[0]
+    return (i.name, i.type, tuple(i.shape)), (o.name, o.type, tuple(o.shape))
+
+
+def inputs(shape, images, count, mean, std):
+    h, w = [d if isinstance(d, int) and d > 0 else 640 for d in shape[2:]]
+    if images:
+        from PIL import Image
+        names = sorted(n for n in os.listdir(images) if n.lower().endswith((".jpg", ".jpeg", ".png", ".bmp")))
+        for name in names[:count]:
+            image = Image.open(os.path.join(images, name)).convert("RGB")
+            # Letterbox like YuvPreprocessor: scale to fit, pad with 114
+            scale = min(w / image.width, h / image.height)
+            resized = image.resize((round(image.width * scale), round(image.height * scale)), Image.BILINEAR)
+            canvas = Image.new("RGB", (w, h), (114, 114, 114))
+            canvas.paste(resized, ((w - resized.width) // 2, (h - resized.height) // 2))
+            pixels = np.asarray(canvas, dtype=np.float32)
+            yield ((pixels - mean) / std).transpose(2, 0, 1)[None]
+    else:
+        rng = np.random.default_rng(7)
+        for _ in range(count):
+            yield ((rng.integers(0, 256, (1, 3, h, w)).astype(np.float32)) - mean) / std
+
+
+def detections(output, score, iou):
+    # [1, 4 + C, N] -> list of (class, score, box), class-aware greedy NMS like NmsEngine
+    predictions = output.reshape(output.shape[-2], output.shape[-1]).T
+    classes = predictions[:, 4:]
+    ids = classes.argmax(1)
+    scores = classes.max(1)
+    keep = scores > score
+    boxes = predictions[keep, :4]
+    ids, scores = ids[keep], scores[keep]
+    xyxy = np.stack([boxes[:, 0] - boxes[:, 2] / 2, boxes[:, 1] - boxes[:, 3] / 2,
+                     boxes[:, 0] + boxes[:, 2] / 2, boxes[:, 1] + boxes[:, 3] / 2], 1)
+    result = []
+    for i in np.argsort(-scores):
+        if all(c != ids[i] or box_iou(b, xyxy[i]) < iou for c, _, b in result):
+            result.append((ids[i], scores[i], xyxy[i]))
+    return result
+
+
+def box_iou(a, b):
+    w = min(a[2], b[2]) - max(a[0], b[0])
+    h = min(a[3], b[3]) - max(a[1], b[1])
+    if w <= 0 or h <= 0:
+        return 0.0
+    inter = w * h
+    return inter / ((a[2] - a[0]) * (a[3] - a[1]) + (b[2] - b[0]) * (b[3] - b[1]) - inter)
+
+
+def agreement(reference, candidate):
+    # Fraction of reference detections the candidate reproduces (same class, IoU >= 0.5)
+    if not reference:
+        return 1.0 if not candidate else 0.0
+    used = set()
+    matched = 0
+    for c, _, box in reference:
+        for j, (c2, _, box2) in enumerate(candidate):
+            if j not in used and c2 == c and box_iou(box, box2) >= 0.5:
+                used.add(j)
+                matched += 1
+                break
+    return matched / len(reference)
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("model", help="FP32 source model")
+    parser.add_argument("--precision", choices=["int8", "fp16"], default="int8")
+    parser.add_argument("--out", help="default: <model>_<precision>.onnx next to the source")
+    parser.add_argument("--per-channel", action="store_true", help="int8: per channel weight scales")
+    parser.add_argument("--images", help="directory of sample images, otherwise random inputs")
+    parser.add_argument("--count", type=int, default=20)
+    parser.add_argument("--normalization", default="0,255", help="mean,std as in the manifest")
+    parser.add_argument("--score", type=float, default=0.4)
+    parser.add_argument("--iou", type=float, default=0.5)
+    parser.add_argument("--min-agreement", type=float, default=0.9)
+    args = parser.parse_args()
+
+    target = args.out or os.path.splitext(args.model)[0] + "_" + args.precision + ".onnx"
+    quantize(args.model, target, args.precision, args.per_channel)
+    onnx.checker.check_model(target)
+
+    reference, candidate = session(args.model), session(target)
+    if signature(reference) != signature(candidate):
+        print("Signature changed: %s -> %s" % (signature(reference), signature(candidate)), file=sys.stderr)
+        return 1
+    (input_name, _, shape), _ = signature(reference)
+    mean, std = (float(v) for v in args.normalization.split(","))
+
+    diffs, agreements, times = [], [], {"reference": [], "candidate": []}
+    for tensor in inputs(shape, args.images, args.count, mean, std):
+        outputs = {}
+        for name, sess in (("reference", reference), ("candidate", candidate)):
+            start = time.perf_counter()
+            outputs[name] = sess.run(None, {input_name: tensor})[0]
+            times[name].append((time.perf_counter() - start) * 1000)
+        diffs.append(np.abs(outputs["reference"] - outputs["candidate"]).max())
+        agreements.append(agreement(detections(outputs["reference"], args.score, args.iou),
+                                    detections(outputs["candidate"], args.score, args.iou)))
+
+    size = os.path.getsize(args.model) / 1e6, os.path.getsize(target) / 1e6
+    print("size            %.1f MB -> %.1f MB" % size)
+    print("latency (CPU)   %.1f ms -> %.1f ms (median)" % (np.median(times["reference"]), np.median(times["candidate"])))
+    print("max |diff|      %.4f" % max(diffs))
+    print("agreement       %.3f (detections of the original reproduced)" % np.mean(agreements))
+
+    name = args.precision
+    print("\n# models.properties, add '%s' to variants=" % name)
+    print("variant.%s.file=%s" % (name, os.path.basename(target)))
+    print("variant.%s.precision=%s" % (name, args.precision))
+    print("variant.%s.input=%s" % (name, "x".join(str(d) for d in shape[:1:-1]) if all(
+        isinstance(d, int) and d > 0 for d in shape[2:]) else "auto"))
+    print("variant.%s.normalization=%s" % (name, args.normalization))
+
+    if np.mean(agreements) < args.min_agreement:
+        print("\nAgreement below %.2f, not fit to ship" % args.min_agreement, file=sys.stderr)
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())